@@ -0,0 +1,132 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.selection;
+
+import static java.util.Collections.singleton;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Matchers;
+import org.objectweb.proactive.core.node.Node;
+import org.objectweb.proactive.core.node.NodeInformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ow2.proactive.authentication.principals.UserNamePrincipal;
+import org.ow2.proactive.permissions.PrincipalPermission;
+import org.ow2.proactive.resourcemanager.authentication.Client;
+import org.ow2.proactive.resourcemanager.core.RMCore;
+import org.ow2.proactive.resourcemanager.nodesource.NodeSource;
+import org.ow2.proactive.resourcemanager.rmnode.RMNode;
+import org.ow2.proactive.resourcemanager.selection.topology.TopologyManager;
+import org.ow2.proactive.topology.descriptor.TopologyDescriptor;
+import org.ow2.proactive.utils.Criteria;
+import org.ow2.proactive.utils.NodeSet;
+
+
+/**
+ * Selection of free nodes without selection scripts by the {@link SelectionManager}, the nodes and
+ * the resource manager core being mocked.
+ * <p>
+ * Mocks only keep their stubs, they would otherwise record every call made by the benchmark.
+ *
+ * @author ActiveEon Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectionManagerBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int freeNodes;
+
+    @Param({ "1", "100" })
+    public int requestedNodes;
+
+    private SelectionManager selectionManager;
+
+    private Client client;
+
+    @Setup
+    public void createNodes() {
+        TopologyManager topologyManager = mock(TopologyManager.class, withSettings().stubOnly());
+        when(topologyManager.getHandler(Matchers.any(TopologyDescriptor.class))).thenReturn(SelectionManagerTest.selectAllTopology());
+        RMCore.topologyManager = topologyManager;
+
+        List<RMNode> nodes = new ArrayList<>(freeNodes);
+        for (int i = 0; i < freeNodes; i++) {
+            nodes.add(createNode("node-" + i));
+        }
+        RMCore rmCore = mock(RMCore.class, withSettings().stubOnly());
+        when(rmCore.getFreeNodes()).thenReturn(nodes);
+
+        selectionManager = SelectionManagerTest.createSelectionManager(rmCore);
+        client = mock(Client.class, withSettings().stubOnly());
+    }
+
+    private static RMNode createNode(String name) {
+        String url = "pnp://localhost:64738/" + name;
+        NodeInformation nodeInformation = mock(NodeInformation.class, withSettings().stubOnly());
+        when(nodeInformation.getURL()).thenReturn(url);
+        when(nodeInformation.getName()).thenReturn(name);
+        Node node = mock(Node.class, withSettings().stubOnly());
+        when(node.getNodeInformation()).thenReturn(nodeInformation);
+
+        RMNode rmNode = mock(RMNode.class, withSettings().stubOnly());
+        when(rmNode.getNodeName()).thenReturn(name);
+        when(rmNode.getNodeSource()).thenReturn(new NodeSource());
+        when(rmNode.getNode()).thenReturn(node);
+        when(rmNode.getNodeURL()).thenReturn(url);
+        when(rmNode.getUserPermission()).thenReturn(new PrincipalPermission("permissions",
+                                                                            singleton(new UserNamePrincipal("user"))));
+        return rmNode;
+    }
+
+    @Benchmark
+    public NodeSet selectNodes() {
+        Criteria criteria = new Criteria(requestedNodes);
+        criteria.setTopology(TopologyDescriptor.ARBITRARY);
+        criteria.setBestEffort(true);
+        return selectionManager.selectNodes(criteria, client);
+    }
+
+}
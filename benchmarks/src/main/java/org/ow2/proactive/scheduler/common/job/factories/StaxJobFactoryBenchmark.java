@@ -0,0 +1,113 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.common.job.factories;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ow2.proactive.scheduler.common.job.Job;
+
+
+/**
+ * Parsing and validation of XML job descriptors by {@link StaxJobFactory}.
+ *
+ * @author ActiveEon Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StaxJobFactoryBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int tasks;
+
+    private JobFactory factory;
+
+    private File descriptor;
+
+    @Setup
+    public void writeDescriptor() throws IOException {
+        factory = JobFactory.getFactory(StaxJobFactory.class.getName());
+        descriptor = File.createTempFile("job", ".xml");
+
+        StringBuilder xml = new StringBuilder();
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        xml.append("<job xmlns=\"urn:proactive:jobdescriptor:dev\" name=\"benchmark\" priority=\"normal\" onTaskError=\"continueJobExecution\">\n");
+        xml.append("  <variables>\n");
+        xml.append("    <variable name=\"message\" value=\"hello\" />\n");
+        xml.append("  </variables>\n");
+        xml.append("  <taskFlow>\n");
+        for (int i = 0; i < tasks; i++) {
+            xml.append("    <task name=\"task").append(i).append("\">\n");
+            xml.append("      <genericInformation>\n");
+            xml.append("        <info name=\"index\" value=\"").append(i).append("\" />\n");
+            xml.append("      </genericInformation>\n");
+            if (i > 0) {
+                xml.append("      <depends>\n");
+                xml.append("        <task ref=\"task").append(i - 1).append("\" />\n");
+                xml.append("      </depends>\n");
+            }
+            xml.append("      <scriptExecutable>\n");
+            xml.append("        <script>\n");
+            xml.append("          <code language=\"groovy\">println '${message} from task").append(i).append("'</code>\n");
+            xml.append("        </script>\n");
+            xml.append("      </scriptExecutable>\n");
+            xml.append("    </task>\n");
+        }
+        xml.append("  </taskFlow>\n");
+        xml.append("</job>\n");
+        Files.write(descriptor.toPath(), xml.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown
+    public void deleteDescriptor() {
+        descriptor.delete();
+    }
+
+    @Benchmark
+    public Job createJob() throws Exception {
+        return factory.createJob(descriptor.getAbsolutePath());
+    }
+
+}
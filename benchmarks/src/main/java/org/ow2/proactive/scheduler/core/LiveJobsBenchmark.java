@@ -0,0 +1,99 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ow2.proactive.scheduler.common.JobDescriptor;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.task.OnTaskError;
+import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalScriptTask;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+
+/**
+ * Locking and unlocking of the live jobs by the scheduling loop, see {@link LiveJobs#lockJobsToSchedule()}.
+ *
+ * @author ActiveEon Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LiveJobsBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int jobs;
+
+    private LiveJobs liveJobs;
+
+    @Setup
+    public void createJobs() {
+        // neither the database nor the listeners are used to lock jobs
+        liveJobs = new LiveJobs(Mockito.mock(SchedulerDBManager.class), Mockito.mock(SchedulerStateUpdate.class));
+
+        JobPriority[] priorities = JobPriority.values();
+        for (int i = 0; i < jobs; i++) {
+            InternalTaskFlowJob job = new InternalTaskFlowJob("job" + i,
+                                                              priorities[i % priorities.length],
+                                                              OnTaskError.CANCEL_JOB,
+                                                              "");
+            job.setId(JobIdImpl.makeJobId(Integer.toString(i + 1)));
+            ArrayList<InternalTask> tasks = new ArrayList<>();
+            tasks.add(new InternalScriptTask(job));
+            job.addTasks(tasks);
+            liveJobs.jobRecovered(job);
+        }
+    }
+
+    @Benchmark
+    public Map<JobId, JobDescriptor> lockJobsToSchedule() {
+        Map<JobId, JobDescriptor> locked = liveJobs.lockJobsToSchedule();
+        liveJobs.unlockJobsToSchedule(locked.values());
+        return locked;
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.ScriptTask;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.InternalJobFactory;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+import org.ow2.proactive.scripting.SimpleScript;
+import org.ow2.proactive.scripting.TaskScript;
+
+import functionaltests.db.schedulerdb.BaseSchedulerDBTest;
+
+
+/**
+ * Updates of the scheduler database when tasks start and finish, using an in-memory HSQLDB.
+ * The in-memory state of the job is not changed, only the cost of the database updates is measured.
+ *
+ * @author ActiveEon Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerDBManagerBenchmark {
+
+    @Param({ "10", "1000" })
+    public int tasks;
+
+    private SchedulerDBManager dbManager;
+
+    private InternalJob job;
+
+    private List<InternalTask> internalTasks;
+
+    private int next;
+
+    @Setup
+    public void submitJob() throws Exception {
+        dbManager = SchedulerDBManager.createInMemorySchedulerDBManager();
+
+        TaskFlowJob jobDefinition = new TaskFlowJob();
+        jobDefinition.setName("benchmark");
+        for (int i = 0; i < tasks; i++) {
+            ScriptTask task = new ScriptTask();
+            task.setName("task" + i);
+            task.setScript(new TaskScript(new SimpleScript("println 'task" + i + "'", "groovy")));
+            jobDefinition.addTask(task);
+        }
+        job = InternalJobFactory.createJob(jobDefinition, BaseSchedulerDBTest.getDefaultCredentials());
+        job.setOwner("admin");
+        job.submitAction();
+        dbManager.newJobSubmitted(job);
+        internalTasks = new ArrayList<>(job.getITasks());
+    }
+
+    @TearDown
+    public void close() {
+        dbManager.close();
+    }
+
+    private InternalTask nextTask() {
+        InternalTask task = internalTasks.get(next);
+        next = (next + 1) % internalTasks.size();
+        return task;
+    }
+
+    @Benchmark
+    public void taskStarted() {
+        dbManager.jobTaskStarted(job, nextTask(), false);
+    }
+
+    @Benchmark
+    public void taskFinished() {
+        InternalTask task = nextTask();
+        dbManager.updateAfterTaskFinished(job, task, new TaskResultImpl(task.getId(), "result", null, 10));
+    }
+
+}
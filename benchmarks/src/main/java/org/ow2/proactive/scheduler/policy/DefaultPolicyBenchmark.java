@@ -0,0 +1,107 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.policy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ow2.proactive.scheduler.common.JobDescriptor;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.task.OnTaskError;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+import org.ow2.proactive.scheduler.descriptor.JobDescriptorImpl;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalScriptTask;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+
+/**
+ * Ordering of the eligible tasks of the pending jobs by {@link DefaultPolicy}, as done at each
+ * scheduling loop.
+ *
+ * @author ActiveEon Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefaultPolicyBenchmark {
+
+    @Param({ "10", "1000" })
+    public int jobs;
+
+    @Param({ "1", "100" })
+    public int tasksPerJob;
+
+    private final DefaultPolicy policy = new DefaultPolicy();
+
+    private final Map<JobId, JobDescriptor> jobDescriptors = new HashMap<>();
+
+    @Setup
+    public void createJobs() {
+        JobPriority[] priorities = JobPriority.values();
+        for (int i = 0; i < jobs; i++) {
+            InternalTaskFlowJob job = new InternalTaskFlowJob("job" + i,
+                                                              priorities[i % priorities.length],
+                                                              OnTaskError.CANCEL_JOB,
+                                                              "");
+            job.setId(JobIdImpl.makeJobId(Integer.toString(i + 1)));
+            ArrayList<InternalTask> tasks = new ArrayList<>(tasksPerJob);
+            for (int j = 0; j < tasksPerJob; j++) {
+                tasks.add(new InternalScriptTask(job));
+            }
+            job.addTasks(tasks);
+            jobDescriptors.put(job.getId(), new JobDescriptorImpl(job));
+        }
+    }
+
+    @Benchmark
+    public LinkedList<EligibleTaskDescriptor> getOrderedTasks() {
+        // the scheduling loop gives a new list of the locked jobs at each call
+        List<JobDescriptor> descriptors = new ArrayList<>(jobDescriptors.values());
+        return policy.getOrderedTasks(descriptors);
+    }
+
+}
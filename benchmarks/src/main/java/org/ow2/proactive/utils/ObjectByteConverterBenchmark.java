@@ -0,0 +1,95 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.utils;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Serialization round trips of task results and variables by {@link ObjectByteConverter}.
+ * The payload is a map of string variables, as results and propagated variables often are.
+ *
+ * @author ActiveEon Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectByteConverterBenchmark {
+
+    @Param({ "10", "1000", "100000" })
+    public int entries;
+
+    @Param({ "false", "true" })
+    public boolean compress;
+
+    private HashMap<String, Serializable> value;
+
+    private byte[] serialized;
+
+    @Setup
+    public void createValue() throws Exception {
+        Random random = new Random(42);
+        value = new HashMap<>(entries * 2);
+        for (int i = 0; i < entries; i++) {
+            value.put("variable" + i, Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong()));
+        }
+        serialized = ObjectByteConverter.objectToByteArray(value, compress);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return ObjectByteConverter.objectToByteArray(value, compress);
+    }
+
+    @Benchmark
+    public Object deserialize() throws Exception {
+        return ObjectByteConverter.byteArrayToObject(serialized, compress);
+    }
+
+    @Benchmark
+    public Object roundTrip() throws Exception {
+        return ObjectByteConverter.byteArrayToObject(ObjectByteConverter.objectToByteArray(value, compress), compress);
+    }
+
+}
@@ -25,16 +25,10 @@
  */
 package org.ow2.proactive.authentication;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.io.InputStreamReader;
 import java.security.KeyException;
 import java.security.PrivateKey;
 import java.util.Map;
-import java.util.Properties;
 
 import javax.security.auth.Subject;
 import javax.security.auth.callback.Callback;
@@ -210,38 +204,25 @@ public abstract class FileLoginModule implements Loggable, LoginModule {
      */
     private boolean authenticateUserFromFile(String username, String password) throws LoginException {
 
-        Properties props = new Properties();
-        PrivateKey privateKey = null;
-        try {
-            privateKey = getPrivateKey();
-        } catch (KeyException e) {
-            throw new LoginException(e.toString());
-        }
-
-        try (FileInputStream stream = new FileInputStream(loginFile)) {
-            BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
-            props.load(reader);
-        } catch (FileNotFoundException e) {
-            throw new LoginException(e.toString());
-        } catch (IOException e) {
-            throw new LoginException(e.toString());
-        }
-
         // verify the username and password
-        if (!props.containsKey(username)) {
+        FileLoginStore.User user = getStore().getUser(username);
+        if (user == null) {
             return false;
-        } else {
-            String encryptedPassword = (String) props.get(username);
-            try {
-                if (!HybridEncryptionUtil.decryptBase64String(encryptedPassword, privateKey, ENCRYPTED_DATA_SEP)
-                                         .equals(password)) {
-                    return false;
-                }
-            } catch (KeyException e) {
-                throw new LoginException(e.toString());
-            }
+        }
+        if (user.isKnownPassword(password)) {
             return true;
         }
+        try {
+            PrivateKey privateKey = getPrivateKey();
+            if (!HybridEncryptionUtil.decryptBase64String(user.getEncryptedPassword(), privateKey, ENCRYPTED_DATA_SEP)
+                                     .equals(password)) {
+                return false;
+            }
+        } catch (KeyException e) {
+            throw new LoginException(e.toString());
+        }
+        user.setKnownPassword(password);
+        return true;
     }
 
     /**
@@ -251,23 +232,16 @@ public abstract class FileLoginModule implements Loggable, LoginModule {
      */
     protected void groupMembershipFromFile(String username) throws LoginException {
 
-        try (FileInputStream stream = new FileInputStream(groupFile)) {
-            BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
-            String line = null;
-            while ((line = reader.readLine()) != null) {
-                String[] u2g = line.split(":");
-                if (u2g[0].trim().equals(username)) {
-                    subject.getPrincipals().add(new GroupNamePrincipal(u2g[1]));
-                    logger.debug("adding group principal '" + u2g[1] + "' for user '" + username + "'");
-                }
-            }
-        } catch (FileNotFoundException e) {
-            throw new LoginException(e.toString());
-        } catch (IOException e) {
-            throw new LoginException(e.toString());
+        for (String group : getStore().getGroups(username)) {
+            subject.getPrincipals().add(new GroupNamePrincipal(group));
+            logger.debug("adding group principal '" + group + "' for user '" + username + "'");
         }
     }
 
+    private FileLoginStore getStore() {
+        return FileLoginStore.get(loginFile, groupFile);
+    }
+
     /**
      * @see javax.security.auth.spi.LoginModule#commit()
      */
@@ -0,0 +1,398 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.authentication;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.security.auth.login.LoginException;
+
+import org.apache.log4j.Logger;
+
+
+/**
+ * In-memory copy of the login and group files used by {@link FileLoginModule}.
+ * <p>
+ * Login modules are created for each login, so the copies are shared by all
+ * the modules using the same files. A copy is replaced as a whole when the
+ * modification time, the size or the identity of one of the files change, or
+ * when the watch service reports a modification of one of them, so that
+ * the users added, removed or modified while the server is running are taken
+ * into account at the next login.
+ * <p>
+ * The password of a user is decrypted at the first successful login and only a
+ * salted hash of it is kept for the following logins, as long as the encrypted
+ * password of the user does not change in the login file.
+ *
+ * @author ActiveEon Team
+ */
+final class FileLoginStore {
+
+    private static final Logger logger = Logger.getLogger(FileLoginStore.class);
+
+    /**
+     * Time in ms after a modification of the files during which they are read at each login,
+     * as file systems with a coarse timestamp granularity may not show a modification made
+     * right after the previous one
+     */
+    static final long TIMESTAMP_GRANULARITY = 2000;
+
+    private static final ConcurrentMap<String, FileLoginStore> stores = new ConcurrentHashMap<>();
+
+    private static FileWatcher watcher;
+
+    private final Path loginFile;
+
+    private final Path groupFile;
+
+    private volatile Content content;
+
+    private volatile boolean modified;
+
+    private FileLoginStore(Path loginFile, Path groupFile) {
+        this.loginFile = loginFile;
+        this.groupFile = groupFile;
+    }
+
+    /**
+     * @return the store shared by the modules using the given login and group files
+     */
+    static FileLoginStore get(String loginFile, String groupFile) {
+        Path loginPath = Paths.get(loginFile).toAbsolutePath().normalize();
+        Path groupPath = Paths.get(groupFile).toAbsolutePath().normalize();
+        String key = loginPath + java.io.File.pathSeparator + groupPath;
+        FileLoginStore store = stores.get(key);
+        if (store == null) {
+            FileLoginStore newStore = new FileLoginStore(loginPath, groupPath);
+            store = stores.putIfAbsent(key, newStore);
+            if (store == null) {
+                store = newStore;
+                watch(store);
+            }
+        }
+        return store;
+    }
+
+    /**
+     * @return the user defined in the login file, or null if there is none with this name
+     * @throws LoginException if the login file or the group file cannot be read
+     */
+    User getUser(String username) throws LoginException {
+        return getContent().users.get(username);
+    }
+
+    /**
+     * @return the groups of the user in the group file
+     * @throws LoginException if the login file or the group file cannot be read
+     */
+    List<String> getGroups(String username) throws LoginException {
+        List<String> groups = getContent().groups.get(username);
+        return groups != null ? groups : Collections.<String> emptyList();
+    }
+
+    private Content getContent() throws LoginException {
+        Content current = content;
+        if (!modified && isUpToDate(current, stamp(loginFile), stamp(groupFile))) {
+            return current;
+        }
+        return reload();
+    }
+
+    private synchronized Content reload() throws LoginException {
+        // the stamps are read before the files, a modification made while reading them
+        // changes the stamps and causes another reload at the next login
+        boolean reportedModified = modified;
+        modified = false;
+        Stamp loginStamp = stamp(loginFile);
+        Stamp groupStamp = stamp(groupFile);
+        Content current = content;
+        if (!reportedModified && isUpToDate(current, loginStamp, groupStamp)) {
+            // reloaded by another login in the meantime
+            return current;
+        }
+        long loadTime = System.currentTimeMillis();
+        boolean settled = loadTime - Math.max(loginStamp.lastModified, groupStamp.lastModified) > TIMESTAMP_GRANULARITY;
+        Content newContent = new Content(loginStamp, readUsers(current), groupStamp, readGroups(), settled);
+        content = newContent;
+        logger.debug("Loaded " + newContent.users.size() + " users from " + loginFile);
+        return newContent;
+    }
+
+    private static boolean isUpToDate(Content current, Stamp loginStamp, Stamp groupStamp) {
+        return current != null && current.settled && current.loginStamp.equals(loginStamp) &&
+               current.groupStamp.equals(groupStamp);
+    }
+
+    private Map<String, User> readUsers(Content previous) throws LoginException {
+        Properties props = new Properties();
+        try (FileInputStream stream = new FileInputStream(loginFile.toFile())) {
+            props.load(new BufferedReader(new InputStreamReader(stream)));
+        } catch (IOException e) {
+            throw new LoginException(e.toString());
+        }
+        Map<String, User> users = new HashMap<>(props.size() * 2);
+        for (String username : props.stringPropertyNames()) {
+            String encryptedPassword = props.getProperty(username);
+            User user = previous != null ? previous.users.get(username) : null;
+            if (user == null || !user.encryptedPassword.equals(encryptedPassword)) {
+                // the password hash is kept only if the user did not change
+                user = new User(encryptedPassword);
+            }
+            users.put(username, user);
+        }
+        return users;
+    }
+
+    private Map<String, List<String>> readGroups() throws LoginException {
+        Map<String, List<String>> groups = new HashMap<>();
+        try (FileInputStream stream = new FileInputStream(groupFile.toFile())) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] u2g = line.split(":");
+                if (u2g.length < 2) {
+                    continue;
+                }
+                String username = u2g[0].trim();
+                List<String> userGroups = groups.get(username);
+                if (userGroups == null) {
+                    userGroups = new ArrayList<>(2);
+                    groups.put(username, userGroups);
+                }
+                userGroups.add(u2g[1]);
+            }
+        } catch (IOException e) {
+            throw new LoginException(e.toString());
+        }
+        return groups;
+    }
+
+    private static Stamp stamp(Path file) throws LoginException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new Stamp(attributes.lastModifiedTime().toMillis(), attributes.size(), attributes.fileKey());
+        } catch (IOException e) {
+            throw new LoginException(e.toString());
+        }
+    }
+
+    private static synchronized void watch(FileLoginStore store) {
+        if (watcher == null) {
+            try {
+                watcher = new FileWatcher(FileSystems.getDefault().newWatchService());
+            } catch (IOException | UnsupportedOperationException e) {
+                logger.debug("Cannot watch the login files, only their modification times will be checked", e);
+                return;
+            }
+        }
+        watcher.register(store, store.loginFile);
+        watcher.register(store, store.groupFile);
+    }
+
+    /**
+     * A user of the login file, with the hash of its password once it is known.
+     */
+    static final class User {
+
+        private final String encryptedPassword;
+
+        private volatile SaltedHash passwordHash;
+
+        private User(String encryptedPassword) {
+            this.encryptedPassword = encryptedPassword;
+        }
+
+        String getEncryptedPassword() {
+            return encryptedPassword;
+        }
+
+        /**
+         * @return true if the password was already checked against the encrypted password
+         */
+        boolean isKnownPassword(String password) {
+            SaltedHash hash = passwordHash;
+            return hash != null && hash.matches(password);
+        }
+
+        /**
+         * Keeps the hash of the password, called once it is checked against the encrypted password.
+         */
+        void setKnownPassword(String password) {
+            passwordHash = SaltedHash.of(password);
+        }
+    }
+
+    private static final class Content {
+
+        private final Stamp loginStamp;
+
+        private final Map<String, User> users;
+
+        private final Stamp groupStamp;
+
+        private final Map<String, List<String>> groups;
+
+        /* true if the files were modified long enough before they were read */
+        private final boolean settled;
+
+        private Content(Stamp loginStamp, Map<String, User> users, Stamp groupStamp,
+                Map<String, List<String>> groups, boolean settled) {
+            this.loginStamp = loginStamp;
+            this.users = users;
+            this.groupStamp = groupStamp;
+            this.groups = groups;
+            this.settled = settled;
+        }
+    }
+
+    private static final class Stamp {
+
+        private final long lastModified;
+
+        private final long size;
+
+        private final Object fileKey;
+
+        private Stamp(long lastModified, long size, Object fileKey) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.fileKey = fileKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Stamp)) {
+                return false;
+            }
+            Stamp other = (Stamp) o;
+            return lastModified == other.lastModified && size == other.size && Objects.equals(fileKey, other.fileKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(lastModified, size, fileKey);
+        }
+    }
+
+    /**
+     * Marks the stores as modified when the watch service reports a change of
+     * one of their files, including a file replaced by another one.
+     */
+    private static final class FileWatcher implements Runnable {
+
+        private final WatchService watchService;
+
+        private final Map<Path, Set<FileLoginStore>> storesByFile = new HashMap<>();
+
+        private final Set<Path> directories = new HashSet<>();
+
+        private FileWatcher(WatchService watchService) {
+            this.watchService = watchService;
+            Thread thread = new Thread(this, "Login files watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private synchronized void register(FileLoginStore store, Path file) {
+            Path directory = file.getParent();
+            if (directory == null) {
+                return;
+            }
+            if (!directories.contains(directory)) {
+                try {
+                    directory.register(watchService,
+                                       StandardWatchEventKinds.ENTRY_CREATE,
+                                       StandardWatchEventKinds.ENTRY_MODIFY,
+                                       StandardWatchEventKinds.ENTRY_DELETE);
+                    directories.add(directory);
+                } catch (IOException e) {
+                    logger.debug("Cannot watch " + directory + ", only the modification time of " + file +
+                                 " will be checked", e);
+                    return;
+                }
+            }
+            Set<FileLoginStore> fileStores = storesByFile.get(file);
+            if (fileStores == null) {
+                fileStores = new HashSet<>();
+                storesByFile.put(file, fileStores);
+            }
+            fileStores.add(store);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    WatchKey key = watchService.take();
+                    Path directory = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        markModified(event.kind() == StandardWatchEventKinds.OVERFLOW ? null
+                                                                                       : directory.resolve((Path) event.context()));
+                    }
+                    key.reset();
+                }
+            } catch (InterruptedException e) {
+                logger.debug("Login files watcher interrupted");
+            } catch (ClosedWatchServiceException e) {
+                logger.debug("Login files watch service closed");
+            }
+        }
+
+        private synchronized void markModified(Path file) {
+            for (Map.Entry<Path, Set<FileLoginStore>> entry : storesByFile.entrySet()) {
+                if (file == null || entry.getKey().equals(file)) {
+                    for (FileLoginStore store : entry.getValue()) {
+                        store.modified = true;
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.authentication;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+
+/**
+ * Caches the results of LDAP lookups and authentications for a short time.
+ * <p>
+ * Two caches are kept, each one disabled when its time to live is not positive:
+ * <ul>
+ * <li>the DN and the groups of users, filled by the user and group searches</li>
+ * <li>the successful credential verifications, so that a user logging in again
+ * with the same password does not need a new bind. Only a salted hash of the
+ * password is kept and the entry is removed as soon as a different password is
+ * given for the user.</li>
+ * </ul>
+ *
+ * @author ActiveEon Team
+ */
+final class LDAPAuthenticationCache {
+
+    private final Cache<String, UserEntry> users;
+
+    private final Cache<String, SaltedHash> credentials;
+
+    /**
+     * @param usersTtl time to live of user DN and groups, in seconds
+     * @param credentialsTtl time to live of successful credential verifications, in seconds
+     * @param maxSize maximum number of users in each cache
+     */
+    LDAPAuthenticationCache(long usersTtl, long credentialsTtl, int maxSize) {
+        this.users = usersTtl > 0 ? CacheBuilder.newBuilder()
+                                                .maximumSize(maxSize)
+                                                .expireAfterWrite(usersTtl, TimeUnit.SECONDS)
+                                                .<String, UserEntry> build()
+                                  : null;
+        this.credentials = credentialsTtl > 0 ? CacheBuilder.newBuilder()
+                                                            .maximumSize(maxSize)
+                                                            .expireAfterWrite(credentialsTtl, TimeUnit.SECONDS)
+                                                            .<String, SaltedHash> build()
+                                              : null;
+    }
+
+    /**
+     * @return the cached DN and groups of the user, or null if they are not cached
+     */
+    UserEntry getUser(String username) {
+        return users == null ? null : users.getIfPresent(username);
+    }
+
+    void putUser(String username, UserEntry entry) {
+        if (users != null) {
+            users.put(username, entry);
+        }
+    }
+
+    /**
+     * @return true if a previous successful authentication of the user with the same password is cached
+     */
+    boolean isAuthenticated(String username, String password) {
+        if (credentials == null || password == null) {
+            return false;
+        }
+        SaltedHash cached = credentials.getIfPresent(username);
+        if (cached == null) {
+            return false;
+        }
+        if (cached.matches(password)) {
+            return true;
+        }
+        // the password may have changed, the next authentication goes to the server
+        credentials.invalidate(username);
+        return false;
+    }
+
+    void putAuthenticated(String username, String password) {
+        if (credentials != null && password != null) {
+            credentials.put(username, SaltedHash.of(password));
+        }
+    }
+
+    /**
+     * Forgets everything about the user, called when its authentication failed.
+     */
+    void invalidate(String username) {
+        if (users != null) {
+            users.invalidate(username);
+        }
+        if (credentials != null) {
+            credentials.invalidate(username);
+        }
+    }
+
+    /**
+     * DN of a user and names of the groups it belongs to.
+     */
+    static final class UserEntry {
+
+        final String dn;
+
+        final List<String> groups;
+
+        UserEntry(String dn, List<String> groups) {
+            this.dn = dn;
+            this.groups = groups;
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.authentication;
+
+import java.util.Hashtable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.NamingException;
+import javax.naming.ServiceUnavailableException;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.InitialDirContext;
+
+import org.apache.log4j.Logger;
+
+
+/**
+ * Bounded pool of LDAP directory contexts, all created with the same environment
+ * (typically bound with the service account used to search users and groups).
+ * <p>
+ * At most <code>maxSize</code> contexts are in use at the same time, callers wait for
+ * a context to be released when the limit is reached. A context is used by a single
+ * thread between {@link #borrow()} and {@link #release(DirContext)} or
+ * {@link #invalidate(DirContext)}.
+ *
+ * @author ActiveEon Team
+ */
+final class LDAPContextPool {
+
+    private static final Logger logger = Logger.getLogger(LDAPContextPool.class);
+
+    private final Hashtable<String, String> env;
+
+    private final BlockingQueue<DirContext> idleContexts;
+
+    private final Semaphore permits;
+
+    private final long borrowTimeout;
+
+    /**
+     * @param env environment used to create the contexts
+     * @param maxSize maximum number of contexts in use at the same time
+     * @param borrowTimeout time to wait for a context when all of them are in use, in milliseconds
+     */
+    LDAPContextPool(Hashtable<String, String> env, int maxSize, long borrowTimeout) {
+        this.env = env;
+        this.idleContexts = new ArrayBlockingQueue<>(maxSize);
+        this.permits = new Semaphore(maxSize, true);
+        this.borrowTimeout = borrowTimeout;
+    }
+
+    /**
+     * Gets an idle context, or creates a new one if none is available.
+     *
+     * @return a context that must be given back with {@link #release(DirContext)} or {@link #invalidate(DirContext)}
+     * @throws NamingException if no context is available in time or if a new context cannot be created
+     */
+    DirContext borrow() throws NamingException {
+        try {
+            if (!permits.tryAcquire(borrowTimeout, TimeUnit.MILLISECONDS)) {
+                throw new ServiceUnavailableException("No LDAP connection available after " + borrowTimeout + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for an LDAP connection");
+        }
+
+        DirContext ctx = idleContexts.poll();
+        if (ctx != null) {
+            return ctx;
+        }
+        try {
+            return new InitialDirContext(env);
+        } catch (NamingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Gives back a context which can be reused.
+     */
+    void release(DirContext ctx) {
+        if (!idleContexts.offer(ctx)) {
+            close(ctx);
+        }
+        permits.release();
+    }
+
+    /**
+     * Gives back a context which must not be reused, after a communication failure for instance.
+     */
+    void invalidate(DirContext ctx) {
+        close(ctx);
+        permits.release();
+    }
+
+    /**
+     * Closes all the idle contexts.
+     */
+    void clear() {
+        DirContext ctx;
+        while ((ctx = idleContexts.poll()) != null) {
+            close(ctx);
+        }
+    }
+
+    int getIdleCount() {
+        return idleContexts.size();
+    }
+
+    private void close(DirContext ctx) {
+        try {
+            ctx.close();
+        } catch (NamingException e) {
+            logger.debug("Problem closing LDAP connection", e);
+        }
+    }
+
+}
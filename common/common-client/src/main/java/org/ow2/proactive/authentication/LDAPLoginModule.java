@@ -25,8 +25,12 @@
  */
 package org.ow2.proactive.authentication;
 
+import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.naming.Context;
 import javax.naming.NamingEnumeration;
@@ -44,6 +48,7 @@ import javax.security.auth.login.FailedLoginException;
 import javax.security.auth.login.LoginException;
 
 import org.apache.log4j.Logger;
+import org.ow2.proactive.authentication.LDAPAuthenticationCache.UserEntry;
 import org.ow2.proactive.authentication.principals.GroupNamePrincipal;
 import org.ow2.proactive.authentication.principals.UserNamePrincipal;
 
@@ -55,12 +60,32 @@ import org.ow2.proactive.authentication.principals.UserNamePrincipal;
  *
  * support custom filters for username and group
  *
+ * Searches are performed with a bounded pool of connections bound with the
+ * service account, user entries, group membership and optionally successful
+ * authentications are cached for a short time. Pools and caches are shared by
+ * all the login modules using the same configuration file.
  *
  * @author The ActiveEon Team
  * @since ProActive Scheduling 2.1.1
  */
 public abstract class LDAPLoginModule extends FileLoginModule implements Loggable {
 
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private static final int DEFAULT_POOL_TIMEOUT = 30000;
+
+    private static final int DEFAULT_CACHE_TTL = 60;
+
+    private static final int DEFAULT_CREDENTIALS_CACHE_TTL = 0;
+
+    private static final int DEFAULT_CACHE_SIZE = 1000;
+
+    /** connection pools per configuration file */
+    private static final ConcurrentMap<String, LDAPContextPool> contextPools = new ConcurrentHashMap<>();
+
+    /** authentication caches per configuration file */
+    private static final ConcurrentMap<String, LDAPAuthenticationCache> authenticationCaches = new ConcurrentHashMap<>();
+
     /** connection logger */
     private final Logger logger = getLogger();
 
@@ -120,6 +145,12 @@ public abstract class LDAPLoginModule extends FileLoginModule implements Loggabl
     /** authentication status */
     private boolean succeeded = false;
 
+    /** connections used to search users and groups */
+    private final LDAPContextPool contextPool;
+
+    /** cached user entries and authentications */
+    private final LDAPAuthenticationCache authenticationCache;
+
     /**
      * Creates a new instance of LDAPLoginModule
      */
@@ -128,6 +159,10 @@ public abstract class LDAPLoginModule extends FileLoginModule implements Loggabl
             GROUPS_DN = USERS_DN;
         }
 
+        String configFileName = getLDAPConfigFileName();
+        contextPool = getContextPool(configFileName);
+        authenticationCache = getAuthenticationCache(configFileName);
+
         if (fallbackUserAuth) {
             checkLoginFile();
             checkGroupFile();
@@ -155,6 +190,52 @@ public abstract class LDAPLoginModule extends FileLoginModule implements Loggabl
         }
     }
 
+    private LDAPContextPool getContextPool(String configFileName) {
+        LDAPContextPool pool = contextPools.get(configFileName);
+        if (pool == null) {
+            LDAPContextPool newPool = new LDAPContextPool(createServiceEnvForInitialContext(),
+                                                          getIntProperty(LDAPProperties.LDAP_POOL_SIZE,
+                                                                         DEFAULT_POOL_SIZE),
+                                                          getIntProperty(LDAPProperties.LDAP_POOL_TIMEOUT,
+                                                                         DEFAULT_POOL_TIMEOUT));
+            pool = contextPools.putIfAbsent(configFileName, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return pool;
+    }
+
+    private LDAPAuthenticationCache getAuthenticationCache(String configFileName) {
+        LDAPAuthenticationCache cache = authenticationCaches.get(configFileName);
+        if (cache == null) {
+            LDAPAuthenticationCache newCache = new LDAPAuthenticationCache(getIntProperty(LDAPProperties.LDAP_CACHE_TTL,
+                                                                                          DEFAULT_CACHE_TTL),
+                                                                           getIntProperty(LDAPProperties.LDAP_CREDENTIALS_CACHE_TTL,
+                                                                                          DEFAULT_CREDENTIALS_CACHE_TTL),
+                                                                           getIntProperty(LDAPProperties.LDAP_CACHE_SIZE,
+                                                                                          DEFAULT_CACHE_SIZE));
+            cache = authenticationCaches.putIfAbsent(configFileName, newCache);
+            if (cache == null) {
+                cache = newCache;
+            }
+        }
+        return cache;
+    }
+
+    private int getIntProperty(String propertyName, int defaultValue) {
+        String value = ldapProperties.getProperty(propertyName);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value " + value + " for property " + propertyName + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
     /**
      * Checks if property is already defined.
      *
@@ -282,23 +363,31 @@ public abstract class LDAPLoginModule extends FileLoginModule implements Loggabl
     }
 
     private boolean internalLogUser(String username, String password) throws LoginException {
-        // check the user name, get the RDN of the user
+        // check the user name, get the DN and the groups of the user
         // (null = not found)
-        String userDN = null;
+        UserEntry user = null;
         boolean passwordMatch = false;
         try {
-            userDN = getLDAPUserDN(username);
+            user = getLDAPUser(username);
         } catch (NamingException e) {
             logger.error("Cannot connect to LDAP server", e);
             throw new FailedLoginException("Cannot connect to LDAP server");
         }
 
-        if (userDN == null) {
+        if (user == null) {
             logger.info("user entry not found in subtree " + USERS_DN + " for user " + username);
             throw new FailedLoginException("User name doesn't exists");
+        } else if (authenticationCache.isAuthenticated(username, password)) {
+            passwordMatch = true;
+            if (logger.isDebugEnabled()) {
+                logger.debug("user " + username + " already authenticated with the same password");
+            }
         } else {
             // Check if the password match the user name
-            passwordMatch = checkLDAPPassword(userDN, password);
+            passwordMatch = checkLDAPPassword(user.dn, password);
+            if (passwordMatch) {
+                authenticationCache.putAuthenticated(username, password);
+            }
         }
 
         if (passwordMatch) {
@@ -306,11 +395,17 @@ public abstract class LDAPLoginModule extends FileLoginModule implements Loggabl
                 logger.debug("authentication succeeded, checking group");
             }
 
+            subject.getPrincipals().add(new UserNamePrincipal(username));
+            for (String groupName : user.groups) {
+                subject.getPrincipals().add(new GroupNamePrincipal(groupName));
+            }
+
             if (fallbackGroupMembership) {
                 super.groupMembershipFromFile(username);
             }
         } else {
             // authentication failed
+            authenticationCache.invalidate(username);
             logger.info("password verification failed for user: " + username);
             throw new FailedLoginException("Password Incorrect");
         }
@@ -420,92 +515,119 @@ public abstract class LDAPLoginModule extends FileLoginModule implements Loggabl
     }
 
     /**
-     * Connects anonymously to the LDAP server <code>url</code> and retrieve
-     * DN of the user <code>username</code>
+     * Retrieves the DN and the groups of the user <code>username</code>, from the
+     * cache or from the LDAP server <code>url</code>.
      *
      * <p>
      * @exception NamingException
      *                if a naming exception is encountered.
      * <p>
      *
-     * @return the String containing the UID of the user or null if the user is
+     * @return the DN and the groups of the user or null if the user is
      *         not found.
      */
-    private String getLDAPUserDN(String username) throws NamingException {
+    private UserEntry getLDAPUser(String username) throws NamingException {
+        UserEntry user = authenticationCache.getUser(username);
+        if (user != null) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("User " + username + " has cached LDAP entry " + user.dn);
+            }
+            return user;
+        }
 
-        String userDN = null;
-        DirContext ctx = null;
-        try {
+        NamingException searchException = null;
+        boolean searched = false;
+        // a pooled connection may have been closed by the server, the search is retried once
+        for (int attempt = 0; attempt < 2 && !searched; attempt++) {
+            DirContext ctx = contextPool.borrow();
+            try {
+                user = searchLDAPUser(ctx, username);
+                searched = true;
+            } catch (NamingException e) {
+                searchException = e;
+            } finally {
+                if (searched) {
+                    contextPool.release(ctx);
+                } else {
+                    contextPool.invalidate(ctx);
+                }
+            }
+        }
 
-            // Create the initial directory context
-            ctx = this.connectAndGetContext();
-            SearchControls sControl = new SearchControls();
-            sControl.setSearchScope(SearchControls.SUBTREE_SCOPE);
-            String filter = String.format(ldapProperties.getProperty(LDAPProperties.LDAP_USER_FILTER), username);
-            // looking for the user dn (distinguish name)
-            NamingEnumeration<SearchResult> answer = ctx.search(USERS_DN, filter, sControl);
-            if (answer.hasMoreElements()) {
-                SearchResult result = (SearchResult) answer.next();
-                userDN = result.getNameInNamespace();
+        if (!searched) {
+            logger.error("Problem with the search in mode: " + AUTHENTICATION_METHOD + searchException);
+            throw searchException;
+        }
+
+        if (user != null) {
+            authenticationCache.putUser(username, user);
+        }
+        return user;
+    }
+
+    /**
+     * Searches the DN of the user <code>username</code> and the groups it belongs to.
+     *
+     * @return the DN and the groups of the user or null if the user is not found.
+     */
+    private UserEntry searchLDAPUser(DirContext ctx, String username) throws NamingException {
+        SearchControls sControl = new SearchControls();
+        sControl.setSearchScope(SearchControls.SUBTREE_SCOPE);
+        String filter = String.format(ldapProperties.getProperty(LDAPProperties.LDAP_USER_FILTER), username);
+        // looking for the user dn (distinguish name)
+        NamingEnumeration<SearchResult> answer = ctx.search(USERS_DN, filter, sControl);
+        try {
+            if (!answer.hasMoreElements()) {
                 if (logger.isDebugEnabled()) {
-                    logger.debug("User " + username + " has LDAP entry " + userDN);
+                    logger.debug("User DN not found");
                 }
-                subject.getPrincipals().add(new UserNamePrincipal(username));
+                return null;
+            }
+            SearchResult result = answer.next();
+            String userDN = result.getNameInNamespace();
+            if (logger.isDebugEnabled()) {
+                logger.debug("User " + username + " has LDAP entry " + userDN);
+            }
 
-                // looking for the user groups
-                String groupFilter = String.format(ldapProperties.getProperty(LDAPProperties.LDAP_GROUP_FILTER),
-                                                   userDN);
+            // looking for the user groups
+            List<String> groups = new ArrayList<>();
+            String groupFilter = String.format(ldapProperties.getProperty(LDAPProperties.LDAP_GROUP_FILTER), userDN);
 
-                NamingEnumeration<SearchResult> groupResults = ctx.search(GROUPS_DN, groupFilter, sControl);
+            NamingEnumeration<SearchResult> groupResults = ctx.search(GROUPS_DN, groupFilter, sControl);
+            try {
                 while (groupResults.hasMoreElements()) {
-                    SearchResult res = (SearchResult) groupResults.next();
+                    SearchResult res = groupResults.next();
                     Attribute attr = res.getAttributes()
                                         .get(ldapProperties.getProperty(LDAPProperties.LDAP_GROUPNAME_ATTR));
                     if (attr != null) {
                         String groupName = attr.get().toString();
-                        subject.getPrincipals().add(new GroupNamePrincipal(groupName));
+                        groups.add(groupName);
                         if (logger.isDebugEnabled()) {
                             logger.debug("User " + username + " is a member of group " + groupName);
                         }
                     }
                 }
-
-            } else {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("User DN not found");
-                }
+            } finally {
+                groupResults.close();
             }
-        } catch (NamingException e) {
-            logger.error("Problem with the search in mode: " + AUTHENTICATION_METHOD + e);
-            throw e;
+            return new UserEntry(userDN, groups);
         } finally {
-            try {
-                if (ctx != null) {
-                    ctx.close();
-                }
-            } catch (NamingException e) {
-                logger.error("", e);
-                logger.error("Problem closing LDAP connection: " + e.getMessage());
-            }
+            answer.close();
         }
-
-        return userDN;
     }
 
     /**
-     * Performs connection to LDAP with appropriate security parameters
-     * @return directory service interface.
-     * @throws NamingException
+     * Environment of the connections used to search users and groups,
+     * bound with the service account if the authentication method is not anonymous.
      */
-    private DirContext connectAndGetContext() throws NamingException {
+    private Hashtable<String, String> createServiceEnvForInitialContext() {
         Hashtable<String, String> env = createBasicEnvForInitalContext();
 
         if (!AUTHENTICATION_METHOD.equals(ANONYMOUS_LDAP_CONNECTION)) {
             env.put(Context.SECURITY_PRINCIPAL, BIND_LOGIN);
             env.put(Context.SECURITY_CREDENTIALS, BIND_PASSWD);
         }
-        // Create the initial directory context
-        return new InitialDirContext(env);
+        return env;
     }
 
     /**
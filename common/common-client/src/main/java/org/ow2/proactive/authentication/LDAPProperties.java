@@ -95,6 +95,21 @@ public class LDAPProperties {
     /** boolean defining whether the LDAP service provider has to use connection pooling or not */
     public static final String LDAP_CONNECTION_POOLING = "pa.ldap.connection.pooling";
 
+    /** maximum number of connections bound with pa.ldap.bind.login used at the same time to search users and groups */
+    public static final String LDAP_POOL_SIZE = "pa.ldap.pool.size";
+
+    /** time to wait for a connection when all of them are in use, in milliseconds */
+    public static final String LDAP_POOL_TIMEOUT = "pa.ldap.pool.timeout";
+
+    /** time to live of the cached user DN and group membership, in seconds. 0 disables the cache */
+    public static final String LDAP_CACHE_TTL = "pa.ldap.cache.ttl";
+
+    /** time to live of the cached successful authentications, in seconds. 0 disables the cache */
+    public static final String LDAP_CREDENTIALS_CACHE_TTL = "pa.ldap.credentials.cache.ttl";
+
+    /** maximum number of users kept in the caches */
+    public static final String LDAP_CACHE_SIZE = "pa.ldap.cache.size";
+
     /** fall back property, check user/password and group in files if user is not found in LDAP.
      * true or false */
     public static final String FALLBACK_USER_AUTH = "pa.ldap.authentication.fallback";
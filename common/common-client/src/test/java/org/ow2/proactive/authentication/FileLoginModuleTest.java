@@ -0,0 +1,232 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.authentication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.KeyException;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.security.auth.Subject;
+import javax.security.auth.login.FailedLoginException;
+import javax.security.auth.login.LoginException;
+
+import org.apache.log4j.Logger;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ow2.proactive.authentication.crypto.HybridEncryptionUtil;
+import org.ow2.proactive.authentication.crypto.KeyPairUtil;
+import org.ow2.proactive.authentication.principals.GroupNamePrincipal;
+import org.ow2.proactive.authentication.principals.UserNamePrincipal;
+
+
+/**
+ * Checks that the file login module takes into account the modifications
+ * of the login and group files made between two logins.
+ */
+public class FileLoginModuleTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static KeyPair keyPair;
+
+    private File loginFile;
+
+    private File groupFile;
+
+    @Before
+    public void createFiles() throws Exception {
+        if (keyPair == null) {
+            keyPair = KeyPairUtil.generateKeyPair("RSA", 1024);
+        }
+        // stores are shared per file, each test uses its own files
+        loginFile = folder.newFile("login.cfg");
+        groupFile = folder.newFile("group.cfg");
+        Properties users = new Properties();
+        users.setProperty("user1", encrypt("pwd1"));
+        writeUsers(users);
+        writeGroups("user1:user", "user1:admin");
+
+        TestFileLoginModule.loginFileName = loginFile.getAbsolutePath();
+        TestFileLoginModule.groupFileName = groupFile.getAbsolutePath();
+        TestFileLoginModule.privateKey = keyPair.getPrivate();
+        TestFileLoginModule.privateKeyRequests.set(0);
+    }
+
+    @Test
+    public void testLoginWithGroups() throws Exception {
+        Subject subject = login("user1", "pwd1");
+
+        assertTrue(subject.getPrincipals().contains(new UserNamePrincipal("user1")));
+        assertTrue(subject.getPrincipals().contains(new GroupNamePrincipal("user")));
+        assertTrue(subject.getPrincipals().contains(new GroupNamePrincipal("admin")));
+    }
+
+    @Test(expected = FailedLoginException.class)
+    public void testWrongPassword() throws Exception {
+        login("user1", "pwd1");
+
+        login("user1", "wrong");
+    }
+
+    @Test(expected = FailedLoginException.class)
+    public void testUnknownUser() throws Exception {
+        login("unknown", "pwd1");
+    }
+
+    @Test
+    public void testPasswordIsDecryptedOnce() throws Exception {
+        login("user1", "pwd1");
+        login("user1", "pwd1");
+        login("user1", "pwd1");
+
+        assertEquals(1, TestFileLoginModule.privateKeyRequests.get());
+    }
+
+    @Test
+    public void testUserAddedWhileRunning() throws Exception {
+        login("user1", "pwd1");
+
+        Properties users = new Properties();
+        users.setProperty("user1", encrypt("pwd1"));
+        users.setProperty("user2", encrypt("pwd2"));
+        writeUsers(users);
+        writeGroups("user1:user", "user1:admin", "user2:user");
+
+        Subject subject = login("user2", "pwd2");
+        assertTrue(subject.getPrincipals().contains(new GroupNamePrincipal("user")));
+    }
+
+    @Test
+    public void testPasswordChangedWhileRunning() throws Exception {
+        login("user1", "pwd1");
+
+        // same file size, the modification time may not change either
+        Properties users = new Properties();
+        users.setProperty("user1", encrypt("pwd2"));
+        writeUsers(users);
+
+        login("user1", "pwd2");
+        try {
+            login("user1", "pwd1");
+            throw new AssertionError("The old password should be rejected");
+        } catch (FailedLoginException expected) {
+        }
+    }
+
+    @Test
+    public void testGroupRemovedWhileRunning() throws Exception {
+        login("user1", "pwd1");
+
+        writeGroups("user1:user");
+
+        Subject subject = login("user1", "pwd1");
+        assertTrue(subject.getPrincipals().contains(new GroupNamePrincipal("user")));
+        assertFalse(subject.getPrincipals().contains(new GroupNamePrincipal("admin")));
+    }
+
+    private String encrypt(String password) throws KeyException {
+        return HybridEncryptionUtil.encryptStringToBase64(password,
+                                                          keyPair.getPublic(),
+                                                          FileLoginModule.ENCRYPTED_DATA_SEP);
+    }
+
+    private void writeUsers(Properties users) throws IOException {
+        try (OutputStream out = new FileOutputStream(loginFile)) {
+            users.store(out, null);
+        }
+    }
+
+    private void writeGroups(String... lines) throws IOException {
+        StringBuilder groups = new StringBuilder();
+        for (String line : lines) {
+            groups.append(line).append(System.lineSeparator());
+        }
+        Files.write(groupFile.toPath(), groups.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Subject login(String username, String password) throws LoginException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("username", username);
+        params.put("pw", password);
+
+        Subject subject = new Subject();
+        FileLoginModule loginModule = new TestFileLoginModule();
+        loginModule.initialize(subject, new NoCallbackHandler(params), null, null);
+        loginModule.login();
+        loginModule.commit();
+        return subject;
+    }
+
+    public static class TestFileLoginModule extends FileLoginModule {
+
+        static volatile String loginFileName;
+
+        static volatile String groupFileName;
+
+        static volatile PrivateKey privateKey;
+
+        static final AtomicInteger privateKeyRequests = new AtomicInteger();
+
+        @Override
+        protected String getLoginFileName() {
+            return loginFileName;
+        }
+
+        @Override
+        protected String getGroupFileName() {
+            return groupFileName;
+        }
+
+        @Override
+        protected PrivateKey getPrivateKey() throws KeyException {
+            privateKeyRequests.incrementAndGet();
+            return privateKey;
+        }
+
+        @Override
+        public Logger getLogger() {
+            return Logger.getLogger(TestFileLoginModule.class);
+        }
+    }
+
+}
@@ -0,0 +1,330 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.authentication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.KeyException;
+import java.security.PrivateKey;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+import javax.naming.Context;
+import javax.naming.ServiceUnavailableException;
+import javax.naming.directory.DirContext;
+import javax.security.auth.Subject;
+import javax.security.auth.login.FailedLoginException;
+import javax.security.auth.login.LoginException;
+
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ow2.proactive.authentication.principals.GroupNamePrincipal;
+import org.ow2.proactive.authentication.principals.UserNamePrincipal;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.sdk.Modification;
+import com.unboundid.ldap.sdk.ModificationType;
+
+
+/**
+ * Runs the LDAP login module against an in-memory LDAP server.
+ */
+public class LDAPLoginModuleTest {
+
+    private static final String BASE_DN = "dc=activeeon,dc=com";
+
+    private static final String USER_DN = "uid=user1," + BASE_DN;
+
+    private static final String GROUP_DN = "cn=admin," + BASE_DN;
+
+    private static final int LOGINS = 200;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private InMemoryDirectoryServer server;
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    @Before
+    public void startServer() throws Exception {
+        InMemoryDirectoryServerConfig config = new InMemoryDirectoryServerConfig(BASE_DN);
+        config.addAdditionalBindCredentials("cn=service", "service");
+        config.setAccessLogHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                // counts CONNECT but not DISCONNECT records
+                if (record.getMessage().contains(" CONNECT ")) {
+                    connections.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        server = new InMemoryDirectoryServer(config);
+        server.startListening();
+
+        server.add("dn: " + BASE_DN, "objectClass: top", "objectClass: domain", "dc: activeeon");
+        server.add("dn: " + USER_DN,
+                   "objectClass: inetOrgPerson",
+                   "uid: user1",
+                   "cn: user1",
+                   "sn: user1",
+                   "userPassword: pwd1");
+        server.add("dn: " + GROUP_DN,
+                   "objectClass: groupOfUniqueNames",
+                   "cn: admin",
+                   "uniqueMember: " + USER_DN,
+                   "uniqueMember: uid=admin," + BASE_DN);
+    }
+
+    @After
+    public void stopServer() {
+        server.shutDown(true);
+    }
+
+    @Test
+    public void testLoginWithGroups() throws Exception {
+        configure(0, 0);
+
+        Subject subject = login("user1", "pwd1");
+
+        assertTrue(subject.getPrincipals().contains(new UserNamePrincipal("user1")));
+        assertTrue(subject.getPrincipals().contains(new GroupNamePrincipal("admin")));
+    }
+
+    @Test(expected = FailedLoginException.class)
+    public void testWrongPassword() throws Exception {
+        configure(60, 60);
+
+        login("user1", "wrong");
+    }
+
+    @Test(expected = FailedLoginException.class)
+    public void testUnknownUser() throws Exception {
+        configure(60, 60);
+
+        login("unknown", "pwd1");
+    }
+
+    @Test
+    public void testSearchConnectionsAreReused() throws Exception {
+        configure(0, 0);
+
+        for (int i = 0; i < LOGINS; i++) {
+            login("user1", "pwd1");
+        }
+
+        // one connection per password verification, searches reuse the pooled connection
+        assertTrue("Too many connections: " + connections.get(), connections.get() < 2 * LOGINS);
+    }
+
+    @Test
+    public void testUserLookupIsCached() throws Exception {
+        configure(60, 0);
+        login("user1", "pwd1");
+
+        server.modify(GROUP_DN, new Modification(ModificationType.DELETE, "uniqueMember", USER_DN));
+
+        // group membership is taken from the cache
+        Subject subject = login("user1", "pwd1");
+        assertTrue(subject.getPrincipals().contains(new GroupNamePrincipal("admin")));
+    }
+
+    @Test
+    public void testSuccessfulAuthenticationIsCached() throws Exception {
+        configure(60, 60);
+        login("user1", "pwd1");
+
+        server.modify(USER_DN, new Modification(ModificationType.REPLACE, "userPassword", "pwd2"));
+        int connectionsBefore = connections.get();
+
+        // the previous authentication is still valid and no bind is performed
+        login("user1", "pwd1");
+        assertEquals(connectionsBefore, connections.get());
+
+        // a failure invalidates the cached authentication
+        try {
+            login("user1", "wrong");
+            fail("Authentication with a wrong password should fail");
+        } catch (FailedLoginException expected) {
+        }
+        try {
+            login("user1", "pwd1");
+            fail("Authentication with the old password should fail");
+        } catch (FailedLoginException expected) {
+        }
+        login("user1", "pwd2");
+    }
+
+    @Test
+    public void testContextPoolIsBounded() throws Exception {
+        LDAPContextPool pool = new LDAPContextPool(serviceEnv(), 2, 100);
+
+        DirContext ctx1 = pool.borrow();
+        DirContext ctx2 = pool.borrow();
+        try {
+            pool.borrow();
+            fail("No more than 2 contexts should be borrowed");
+        } catch (ServiceUnavailableException expected) {
+        }
+
+        pool.release(ctx1);
+        assertTrue(ctx1 == pool.borrow());
+
+        pool.invalidate(ctx2);
+        pool.release(ctx1);
+        assertEquals(1, pool.getIdleCount());
+        pool.clear();
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    @Test
+    public void testLoginThroughput() throws Exception {
+        configure(0, 0);
+        double withoutCache = loginsPerSecond();
+
+        configure(60, 60);
+        double withCache = loginsPerSecond();
+
+        System.out.println(String.format("LDAP logins/sec: %.0f without cache, %.0f with cache",
+                                         withoutCache,
+                                         withCache));
+    }
+
+    private double loginsPerSecond() throws LoginException {
+        // warm up
+        login("user1", "pwd1");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < LOGINS; i++) {
+            login("user1", "pwd1");
+        }
+        return LOGINS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private void configure(int cacheTtl, int credentialsCacheTtl) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(LDAPProperties.LDAP_URL, "ldap://localhost:" + server.getListenPort());
+        properties.setProperty(LDAPProperties.LDAP_USERS_SUBTREE, BASE_DN);
+        properties.setProperty(LDAPProperties.LDAP_USER_FILTER, "(&(objectclass=inetOrgPerson)(uid=%s))");
+        properties.setProperty(LDAPProperties.LDAP_GROUP_FILTER,
+                               "(&(objectclass=groupOfUniqueNames)(uniqueMember=%s))");
+        properties.setProperty(LDAPProperties.LDAP_GROUPNAME_ATTR, "cn");
+        properties.setProperty(LDAPProperties.LDAP_AUTHENTICATION_METHOD, "simple");
+        properties.setProperty(LDAPProperties.LDAP_BIND_LOGIN, "cn=service");
+        properties.setProperty(LDAPProperties.LDAP_BIND_PASSWD, "service");
+        properties.setProperty(LDAPProperties.LDAP_CONNECTION_POOLING, "false");
+        properties.setProperty(LDAPProperties.FALLBACK_USER_AUTH, "false");
+        properties.setProperty(LDAPProperties.FALLBACK_GROUP_MEMBERSHIP, "false");
+        properties.setProperty(LDAPProperties.LDAP_POOL_SIZE, "4");
+        properties.setProperty(LDAPProperties.LDAP_CACHE_TTL, String.valueOf(cacheTtl));
+        properties.setProperty(LDAPProperties.LDAP_CREDENTIALS_CACHE_TTL, String.valueOf(credentialsCacheTtl));
+
+        // pools and caches are shared per configuration file, each test uses its own file
+        File configFile = folder.newFile();
+        try (OutputStream out = new FileOutputStream(configFile)) {
+            properties.store(out, null);
+        }
+        TestLDAPLoginModule.configFile = configFile.getAbsolutePath();
+    }
+
+    private Subject login(String username, String password) throws LoginException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("username", username);
+        params.put("pw", password);
+
+        Subject subject = new Subject();
+        LDAPLoginModule loginModule = new TestLDAPLoginModule();
+        loginModule.initialize(subject, new NoCallbackHandler(params), null, null);
+        loginModule.login();
+        loginModule.commit();
+        return subject;
+    }
+
+    private Hashtable<String, String> serviceEnv() {
+        Hashtable<String, String> env = new Hashtable<>();
+        env.put(Context.INITIAL_CONTEXT_FACTORY, "com.sun.jndi.ldap.LdapCtxFactory");
+        env.put(Context.PROVIDER_URL, "ldap://localhost:" + server.getListenPort());
+        env.put(Context.SECURITY_AUTHENTICATION, "simple");
+        env.put(Context.SECURITY_PRINCIPAL, "cn=service");
+        env.put(Context.SECURITY_CREDENTIALS, "service");
+        return env;
+    }
+
+    public static class TestLDAPLoginModule extends LDAPLoginModule {
+
+        static volatile String configFile;
+
+        @Override
+        protected String getLDAPConfigFileName() {
+            return configFile;
+        }
+
+        @Override
+        protected String getLoginFileName() {
+            return "login.cfg";
+        }
+
+        @Override
+        protected String getGroupFileName() {
+            return "group.cfg";
+        }
+
+        @Override
+        protected PrivateKey getPrivateKey() throws KeyException {
+            throw new KeyException("No private key, file authentication is not used");
+        }
+
+        @Override
+        public Logger getLogger() {
+            return Logger.getLogger(TestLDAPLoginModule.class);
+        }
+    }
+
+}
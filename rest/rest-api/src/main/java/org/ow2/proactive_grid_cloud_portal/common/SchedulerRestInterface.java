@@ -50,6 +50,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.PathSegment;
+import javax.ws.rs.core.Response;
 
 import org.jboss.resteasy.annotations.GZIP;
 import org.jboss.resteasy.annotations.providers.multipart.MultipartForm;
@@ -68,6 +69,7 @@ import org.ow2.proactive_grid_cloud_portal.scheduler.dto.RestPage;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.SchedulerStatusData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.SchedulerUserData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskResultData;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskResultValueChunkData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskStateData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.UserJobData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.exception.JobAlreadyFinishedRestException;
@@ -257,6 +259,22 @@ public interface SchedulerRestInterface {
     boolean removeJob(@HeaderParam("sessionid") String sessionId, @PathParam("jobid") String jobId)
             throws NotConnectedRestException, UnknownJobRestException, PermissionRestException;
 
+    /**
+     * Delete a set of jobs, jobs not yet finished are killed then removed
+     *
+     * @param sessionId
+     *            a valid session id
+     * @param jobsId
+     *            the ids of the jobs to delete
+     * @return true if all the jobs were removed, false if some of them were
+     *         already removed
+     */
+    @DELETE
+    @Path("jobs")
+    @Produces("application/json")
+    boolean removeJobs(@HeaderParam("sessionid") String sessionId, @QueryParam("jobsid") List<String> jobsId)
+            throws NotConnectedRestException, UnknownJobRestException, PermissionRestException;
+
     /**
      * Returns job server logs
      * 
@@ -856,14 +874,44 @@ public interface SchedulerRestInterface {
      *            the id of the job
      * @param taskname
      *            the name of the task
-     * @return the value of the task result as a byte array.
+     * @return the value of the task result as a byte array, streamed while it is read from the scheduler.
      */
     @GET
     @GZIP
     @Path("jobs/{jobid}/tasks/{taskname}/result/serializedvalue")
     @Produces("*/*")
-    byte[] serializedValueOfTaskResult(@HeaderParam("sessionid") String sessionId, @PathParam("jobid") String jobId,
-            @PathParam("taskname") String taskname) throws Throwable;
+    InputStream serializedValueOfTaskResult(@HeaderParam("sessionid") String sessionId,
+            @PathParam("jobid") String jobId, @PathParam("taskname") String taskname) throws Throwable;
+
+    /**
+     * Returns a chunk of the serialized value of a result of the task <code>taskName</code>
+     * of the job <code>jobId</code>. Reading the chunks one by one allows to get big results
+     * without holding them entirely in memory. The first chunk is read with the result id -1,
+     * which selects the last result of the task, the next ones with the result id of the first
+     * chunk so that they all belong to the same result even if the task is restarted meanwhile.
+     *
+     * @param sessionId
+     *            a valid session id
+     * @param jobId
+     *            the id of the job
+     * @param taskname
+     *            the name of the task
+     * @param chunkIndex
+     *            index of the chunk, starting at 0
+     * @param resultId
+     *            id of the result to read, -1 for the last result of the task
+     * @return the chunk, or no content if there is no such chunk, the task is not
+     *         finished or its result has no value
+     */
+    @GET
+    @GZIP
+    @Path("jobs/{jobid}/tasks/{taskname}/result/serializedvalue/chunks/{chunkindex}")
+    @Produces("application/json")
+    TaskResultValueChunkData serializedValueChunkOfTaskResult(@HeaderParam("sessionid") String sessionId,
+            @PathParam("jobid") String jobId, @PathParam("taskname") String taskname,
+            @PathParam("chunkindex") int chunkIndex, @QueryParam("resultid") @DefaultValue("-1") long resultId)
+            throws NotConnectedRestException, UnknownJobRestException, UnknownTaskRestException,
+            PermissionRestException;
 
     /**
      * Returns the values of a set of tasks of the job <code>jobId</code>
@@ -1772,6 +1820,46 @@ public interface SchedulerRestInterface {
             throws NotConnectedRestException, UnknownJobRestException, PermissionRestException,
             LogForwardingRestException, IOException;
 
+    /**
+     * Streams the live logs of a job as server-sent events.
+     * <p>
+     * The id of each event is the sequence number of the log it contains, its data is the log
+     * formatted with the task log layout. The <code>level</code>, <code>time</code>,
+     * <code>mdc</code> and <code>message</code> fields of the event give the level, the time in
+     * ms, the job and task identification as one <code>key=value</code> per line and the raw
+     * message of the log. An <code>end</code> event is sent once the job is finished and all its
+     * logs have been sent. The stream is closed after a while, clients then reconnect from the
+     * next sequence number.
+     * <p>
+     * When the logs do not follow the cursor, a <code>gap</code> event is sent if logs were
+     * dropped, or a <code>reset</code> event if the cursor is not known anymore, e.g. the logs
+     * of the job were not followed for a while. The data of these events is the sequence
+     * number of the next log sent.
+     * <p>
+     * The number of streams opened at once is limited by the server, the status 503 is
+     * returned with a <code>Retry-After</code> header when it is reached. If the limit is
+     * reached while the stream is being opened, a <code>busy</code> event is sent instead,
+     * its data is the delay in seconds before trying again.
+     *
+     * @param sessionId
+     *            a valid session id
+     * @param jobId
+     *            the id of the job
+     * @param cursor
+     *            sequence number of the first log to stream
+     * @param lastEventId
+     *            id of the last event received, takes precedence over the cursor when
+     *            a client reconnects
+     * @return the logs of the job, streamed as they are produced
+     */
+    @GET
+    @Path("jobs/{jobid}/livelog/stream")
+    @Produces("text/event-stream")
+    Response streamLiveLogJob(@HeaderParam("sessionid") String sessionId, @PathParam("jobid") String jobId,
+            @QueryParam("cursor") @DefaultValue("0") long cursor, @HeaderParam("Last-Event-ID") String lastEventId)
+            throws NotConnectedRestException, UnknownJobRestException, PermissionRestException,
+            LogForwardingRestException;
+
     @GET
     @Path("jobs/{jobid}/livelog/available")
     @Produces("application/json")
@@ -0,0 +1,98 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler.client;
+
+import java.util.Collections;
+import java.util.Map;
+
+
+/**
+ * A live log of a job, received with
+ * {@link SchedulerRestClient#followLiveLog(String, String, long, LiveLogListener)}.
+ *
+ * @author ActiveEon Team
+ */
+public class LiveLogEntry {
+
+    private final String log;
+
+    private final String level;
+
+    private final long time;
+
+    private final Map<String, String> mdc;
+
+    private final String message;
+
+    public LiveLogEntry(String log, String level, long time, Map<String, String> mdc, String message) {
+        this.log = log;
+        this.level = level;
+        this.time = time;
+        this.mdc = Collections.unmodifiableMap(mdc);
+        this.message = message;
+    }
+
+    /**
+     * @return the log formatted by the server, without its trailing line separator
+     */
+    public String getLog() {
+        return log;
+    }
+
+    /**
+     * @return the name of the log4j level of the log, null if not sent by the server
+     */
+    public String getLevel() {
+        return level;
+    }
+
+    /**
+     * @return the time of the log in ms, 0 if not sent by the server
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return the job and task identification of the log, keyed as in the task logs
+     *         diagnostic context
+     */
+    public Map<String, String> getMdc() {
+        return mdc;
+    }
+
+    /**
+     * @return the raw message of the log, null if not sent by the server
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return log;
+    }
+}
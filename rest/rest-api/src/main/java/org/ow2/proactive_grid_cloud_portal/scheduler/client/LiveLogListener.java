@@ -0,0 +1,55 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler.client;
+
+/**
+ * Receives the live logs of a job followed with
+ * {@link SchedulerRestClient#followLiveLog(String, String, long, LiveLogListener)}.
+ *
+ * @author ActiveEon Team
+ */
+public interface LiveLogListener {
+
+    /**
+     * Called for each log of the job, in order.
+     *
+     * @param sequence the sequence number of the log, the stream can be resumed from the next one
+     * @param log the log
+     */
+    void onLog(long sequence, LiveLogEntry log);
+
+    /**
+     * Called when the next logs do not follow the logs received so far.
+     *
+     * @param next the sequence number of the next log received
+     * @param reset true if the server does not know the logs received so far anymore, e.g. its
+     *            logs buffer expired, the logs following the gap may repeat logs already
+     *            received; false if the server dropped logs because they were not read fast
+     *            enough
+     */
+    void onGap(long next, boolean reset);
+
+}
@@ -27,10 +27,12 @@ package org.ow2.proactive_grid_cloud_portal.scheduler.client;
 
 import static org.apache.commons.io.FileUtils.copyInputStreamToFile;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
@@ -39,9 +41,12 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.net.HttpURLConnection;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.ProcessingException;
@@ -80,6 +85,11 @@ import com.google.common.net.UrlEscapers;
 
 public class SchedulerRestClient {
 
+    private static final String SERVER_SENT_EVENTS = "text/event-stream";
+
+    /* time in s to wait before following live logs again when the server is busy and does not tell */
+    private static final int LIVE_LOG_RETRY_DELAY = 5;
+
     private SchedulerRestInterface scheduler;
 
     private String restEndpointURL;
@@ -429,6 +439,155 @@ public class SchedulerRestClient {
         }
     }
 
+    /**
+     * Follows the live logs of a job until it is finished or the current thread is interrupted.
+     * <p>
+     * The logs are streamed as server-sent events. When the server closes the stream before the
+     * end of the job, it is reopened from the log following the last one received. When the
+     * server already streams as many logs as it allows, the stream is opened again later.
+     *
+     * @param sessionId a valid session id
+     * @param jobId the id of the job
+     * @param cursor sequence number of the first log to receive, 0 to receive all the logs still
+     *            kept by the server
+     * @param listener receives the logs
+     * @return the sequence number following the last log received
+     */
+    public long followLiveLog(String sessionId, String jobId, long cursor, LiveLogListener listener)
+            throws Exception {
+        String uriTmpl = restEndpointURL + addSlashIfMissing(restEndpointURL) + "scheduler/jobs/" +
+                         escapeUrlPathSegment(jobId) + "/livelog/stream";
+
+        ResteasyClient client = new ResteasyClientBuilder().httpEngine(httpEngine)
+                                                           .providerFactory(providerFactory)
+                                                           .build();
+        long[] next = { cursor };
+        try {
+            boolean ended = false;
+            while (!ended && !Thread.currentThread().isInterrupted()) {
+                Response response = client.target(uriTmpl)
+                                          .queryParam("cursor", next[0])
+                                          .request(SERVER_SENT_EVENTS)
+                                          .header("sessionid", sessionId)
+                                          .get();
+                try {
+                    if (response.getStatus() == HttpURLConnection.HTTP_UNAVAILABLE) {
+                        TimeUnit.SECONDS.sleep(retryDelay(response));
+                        continue;
+                    }
+                    if (response.getStatus() != HttpURLConnection.HTTP_OK) {
+                        if (response.getStatus() == HttpURLConnection.HTTP_UNAUTHORIZED) {
+                            throw new NotConnectedRestException("User not authenticated or session timeout.");
+                        } else {
+                            throwException(String.format("Cannot stream the live logs of job %s, status code: %d",
+                                                         jobId,
+                                                         response.getStatus()),
+                                           response);
+                        }
+                    }
+                    ended = readLiveLogEvents(response.readEntity(InputStream.class), next, listener);
+                } finally {
+                    response.close();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            client.close();
+        }
+        return next[0];
+    }
+
+    private static int retryDelay(Response response) {
+        String retryAfter = response.getHeaderString("Retry-After");
+        if (retryAfter != null) {
+            try {
+                return Integer.parseInt(retryAfter.trim());
+            } catch (NumberFormatException e) {
+                // a date, not sent by the scheduler
+            }
+        }
+        return LIVE_LOG_RETRY_DELAY;
+    }
+
+    /**
+     * Reads server-sent events until the end of the stream, an <code>end</code> event or the
+     * interruption of the current thread. The server sends a comment periodically so the
+     * interruption is noticed even when the job does not log anything. The <code>gap</code> and
+     * <code>reset</code> events give the sequence number of the next log, the <code>busy</code>
+     * event the delay in seconds before opening the stream again.
+     *
+     * @return true if the <code>end</code> event was received
+     */
+    private boolean readLiveLogEvents(InputStream stream, long[] next, LiveLogListener listener)
+            throws IOException, InterruptedException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        String id = null;
+        String event = null;
+        StringBuilder data = null;
+        String level = null;
+        long time = 0;
+        Map<String, String> mdc = new LinkedHashMap<>();
+        StringBuilder message = null;
+        String line;
+        while (!Thread.currentThread().isInterrupted() && (line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if ("end".equals(event)) {
+                    return true;
+                }
+                if ("busy".equals(event)) {
+                    TimeUnit.SECONDS.sleep(data == null ? LIVE_LOG_RETRY_DELAY
+                                                        : Integer.parseInt(data.toString().trim()));
+                    return false;
+                }
+                if (("gap".equals(event) || "reset".equals(event)) && data != null) {
+                    long first = Long.parseLong(data.toString().trim());
+                    listener.onGap(first, "reset".equals(event));
+                    next[0] = first;
+                } else if (data != null && id != null) {
+                    long sequence = Long.parseLong(id);
+                    listener.onLog(sequence,
+                                   new LiveLogEntry(data.toString(),
+                                                    level,
+                                                    time,
+                                                    mdc,
+                                                    message == null ? null : message.toString()));
+                    next[0] = sequence + 1;
+                }
+                id = null;
+                event = null;
+                data = null;
+                level = null;
+                time = 0;
+                mdc = new LinkedHashMap<>();
+                message = null;
+            } else if (!line.startsWith(":")) {
+                int colon = line.indexOf(':');
+                String field = colon < 0 ? line : line.substring(0, colon);
+                String value = colon < 0 ? "" : line.substring(colon + 1);
+                if (value.startsWith(" ")) {
+                    value = value.substring(1);
+                }
+                if ("id".equals(field)) {
+                    id = value;
+                } else if ("event".equals(field)) {
+                    event = value;
+                } else if ("data".equals(field)) {
+                    data = data == null ? new StringBuilder(value) : data.append('\n').append(value);
+                } else if ("level".equals(field)) {
+                    level = value;
+                } else if ("time".equals(field)) {
+                    time = Long.parseLong(value);
+                } else if ("mdc".equals(field) && value.indexOf('=') > 0) {
+                    mdc.put(value.substring(0, value.indexOf('=')), value.substring(value.indexOf('=') + 1));
+                } else if ("message".equals(field)) {
+                    message = message == null ? new StringBuilder(value) : message.append('\n').append(value);
+                }
+            }
+        }
+        return false;
+    }
+
     private JobIdData submit(String sessionId, InputStream job, MediaType mediaType, Map<String, String> variables)
             throws Exception {
         String uriTmpl = restEndpointURL + addSlashIfMissing(restEndpointURL) + "scheduler/submit";
@@ -25,6 +25,14 @@
  */
 package org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing;
 
+/**
+ * Scheduler event sent to the REST clients subscribed to the scheduler events.
+ * <p>
+ * Each notification of the job changes is tagged with the revision under which its
+ * event was recorded by the REST server. A client reconnecting can ask for the events
+ * it missed by subscribing with {@link EventSubscription#setSinceRevision(long)}. The
+ * notifications holding the full job states have no revision.
+ */
 public class EventNotification {
 
     public enum Action {
@@ -34,7 +42,11 @@ public class EventNotification {
         JOB_STATE_UPDATED,
         JOB_FULL_DATA_UPDATED,
         TASK_STATE_UPDATED,
-        USERS_UPDATED
+        USERS_UPDATED,
+        /** job fields and task states that changed, data is a {@link JobDeltaData} */
+        JOB_DELTA,
+        /** the requested revision is no longer available, the client must reload the full state */
+        RESYNC_REQUIRED
     };
 
     private Action action;
@@ -43,6 +55,8 @@ public class EventNotification {
 
     private Object data;
 
+    private long revision = -1;
+
     public EventNotification() {
     }
 
@@ -52,6 +66,11 @@ public class EventNotification {
         this.data = data;
     }
 
+    public EventNotification(Action action, String eventyType, Object data, long revision) {
+        this(action, eventyType, data);
+        this.revision = revision;
+    }
+
     public void setAction(Action action) {
         this.action = action;
     }
@@ -76,4 +95,12 @@ public class EventNotification {
         this.data = data;
     }
 
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
 }
@@ -33,6 +33,17 @@ public class EventSubscription {
 
     private List<String> events;
 
+    /**
+     * Send the whole job state on job updates, as done by the first versions of the
+     * REST eventing, instead of the changed fields only.
+     */
+    private boolean fullState = false;
+
+    /**
+     * When not negative, the events which occurred after this revision are sent first.
+     */
+    private long sinceRevision = -1;
+
     public EventSubscription() {
     }
 
@@ -56,4 +67,20 @@ public class EventSubscription {
     public void setEvents(List<String> events) {
         this.events = events;
     }
+
+    public boolean isFullState() {
+        return fullState;
+    }
+
+    public void setFullState(boolean fullState) {
+        this.fullState = fullState;
+    }
+
+    public long getSinceRevision() {
+        return sinceRevision;
+    }
+
+    public void setSinceRevision(long sinceRevision) {
+        this.sinceRevision = sinceRevision;
+    }
 }
@@ -0,0 +1,69 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobInfoData;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskInfoData;
+
+
+/**
+ * Changes of a job sent instead of the whole job state: the job information and
+ * the information of the tasks which changed since the previous notification.
+ */
+public class JobDeltaData {
+
+    private JobInfoData jobInfo;
+
+    private List<TaskInfoData> tasks = new ArrayList<>();
+
+    public JobDeltaData() {
+    }
+
+    public JobDeltaData(JobInfoData jobInfo, List<TaskInfoData> tasks) {
+        this.jobInfo = jobInfo;
+        this.tasks = tasks;
+    }
+
+    public JobInfoData getJobInfo() {
+        return jobInfo;
+    }
+
+    public void setJobInfo(JobInfoData jobInfo) {
+        this.jobInfo = jobInfo;
+    }
+
+    public List<TaskInfoData> getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(List<TaskInfoData> tasks) {
+        this.tasks = tasks;
+    }
+
+}
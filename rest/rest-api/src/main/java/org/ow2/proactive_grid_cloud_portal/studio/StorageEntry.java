@@ -0,0 +1,111 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.studio;
+
+import java.io.Serializable;
+
+
+/**
+ * Description of a stored workflow or script, without its content.
+ *
+ * @author ActiveEon Team
+ */
+public class StorageEntry implements Serializable {
+
+    private String id;
+
+    private String name;
+
+    private long creationTime;
+
+    private long modificationTime;
+
+    private long size;
+
+    public StorageEntry() {
+    }
+
+    public StorageEntry(String id, String name, long creationTime, long modificationTime, long size) {
+        this.id = id;
+        this.name = name;
+        this.creationTime = creationTime;
+        this.modificationTime = modificationTime;
+        this.size = size;
+    }
+
+    public StorageEntry(StorageEntry entry) {
+        this(entry.id, entry.name, entry.creationTime, entry.modificationTime, entry.size);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    public void setCreationTime(long creationTime) {
+        this.creationTime = creationTime;
+    }
+
+    public long getModificationTime() {
+        return modificationTime;
+    }
+
+    public void setModificationTime(long modificationTime) {
+        this.modificationTime = modificationTime;
+    }
+
+    /**
+     * @return the size in bytes of the stored files
+     */
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    @Override
+    public String toString() {
+        return "StorageEntry{" + "id='" + id + '\'' + ", name='" + name + '\'' + ", creationTime=" + creationTime +
+               ", modificationTime=" + modificationTime + ", size=" + size + '}';
+    }
+}
@@ -37,6 +37,7 @@ import java.util.Map;
 import javax.security.auth.login.LoginException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.FormParam;
 import javax.ws.rs.GET;
 import javax.ws.rs.HeaderParam;
@@ -45,6 +46,7 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.PathSegment;
 
@@ -54,6 +56,7 @@ import org.ow2.proactive.authentication.UserData;
 import org.ow2.proactive_grid_cloud_portal.common.dto.LoginForm;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobIdData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobValidationData;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.RestPage;
 import org.ow2.proactive_grid_cloud_portal.scheduler.exception.JobCreationRestException;
 import org.ow2.proactive_grid_cloud_portal.scheduler.exception.NotConnectedRestException;
 import org.ow2.proactive_grid_cloud_portal.scheduler.exception.PermissionRestException;
@@ -97,6 +100,19 @@ public interface StudioInterface {
     List<Workflow> getWorkflows(@HeaderParam("sessionid") String sessionId)
             throws NotConnectedRestException, IOException;
 
+    /**
+     * Lists the workflows of the user without their content, which can be read
+     * with {@link #getWorkflow(String, String)}.
+     *
+     * @param index index of the first workflow of the page, ordered by id
+     * @param limit maximum number of workflows in the page, -1 for all
+     */
+    @GET
+    @Path("workflows/entries")
+    RestPage<StorageEntry> getWorkflowEntries(@HeaderParam("sessionid") String sessionId,
+            @QueryParam("index") @DefaultValue("-1") int index, @QueryParam("limit") @DefaultValue("-1") int limit)
+            throws NotConnectedRestException, IOException;
+
     @POST
     @Path("workflows")
     @Consumes(APPLICATION_JSON)
@@ -131,6 +147,19 @@ public interface StudioInterface {
     List<Workflow> getTemplates(@HeaderParam("sessionid") String sessionId)
             throws NotConnectedRestException, IOException;
 
+    /**
+     * Lists the templates without their content, which can be read
+     * with {@link #getTemplate(String, String)}.
+     *
+     * @param index index of the first template of the page, ordered by id
+     * @param limit maximum number of templates in the page, -1 for all
+     */
+    @GET
+    @Path("templates/entries")
+    RestPage<StorageEntry> getTemplateEntries(@HeaderParam("sessionid") String sessionId,
+            @QueryParam("index") @DefaultValue("-1") int index, @QueryParam("limit") @DefaultValue("-1") int limit)
+            throws NotConnectedRestException, IOException;
+
     @POST
     @Path("templates")
     @Consumes(APPLICATION_JSON)
@@ -164,6 +193,18 @@ public interface StudioInterface {
     @Path("scripts")
     List<Script> getScripts(@HeaderParam("sessionid") String sessionId) throws NotConnectedRestException, IOException;
 
+    /**
+     * Lists the scripts of the user without their content.
+     *
+     * @param index index of the first script of the page, ordered by name
+     * @param limit maximum number of scripts in the page, -1 for all
+     */
+    @GET
+    @Path("scripts/entries")
+    RestPage<StorageEntry> getScriptEntries(@HeaderParam("sessionid") String sessionId,
+            @QueryParam("index") @DefaultValue("-1") int index, @QueryParam("limit") @DefaultValue("-1") int limit)
+            throws NotConnectedRestException, IOException;
+
     @POST
     @Path("scripts")
     String createScript(@HeaderParam("sessionid") String sessionId, @FormParam("name") String name,
@@ -27,12 +27,13 @@ package org.ow2.proactive_grid_cloud_portal.cli.cmd.sched;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
 import org.ow2.proactive_grid_cloud_portal.cli.ApplicationContext;
 import org.ow2.proactive_grid_cloud_portal.cli.CLIException;
 import org.ow2.proactive_grid_cloud_portal.cli.cmd.AbstractJobCommand;
-import org.ow2.proactive_grid_cloud_portal.common.SchedulerRestInterface;
+import org.ow2.proactive_grid_cloud_portal.scheduler.client.LiveLogEntry;
+import org.ow2.proactive_grid_cloud_portal.scheduler.client.LiveLogListener;
+import org.ow2.proactive_grid_cloud_portal.scheduler.client.SchedulerRestClient;
 
 import com.google.common.base.Strings;
 
@@ -75,21 +76,38 @@ public class LiveLogCommand extends AbstractJobCommand {
 
         @Override
         public void run() {
-            SchedulerRestInterface scheduler = currentContext.getRestClient().getScheduler();
+            SchedulerRestClient client = currentContext.getRestClient();
             writeLine(currentContext, "Displaying live log for job %s. Press 'q' to stop.", jobId);
             try {
-                while (!terminate) {
-                    String log = scheduler.getLiveLogJob(currentContext.getSessionId(), jobId);
-                    if (!Strings.isNullOrEmpty(log)) {
-                        writeLine(currentContext, "%s", log.trim());
+                client.followLiveLog(currentContext.getSessionId(), jobId, 0, new LiveLogListener() {
+                    @Override
+                    public void onLog(long sequence, LiveLogEntry log) {
+                        if (!terminate) {
+                            writeLine(currentContext, "%s", log.getLog());
+                        }
                     }
-                    try {
-                        TimeUnit.SECONDS.sleep(1);
-                    } catch (InterruptedException ignorable) {
+
+                    @Override
+                    public void onGap(long next, boolean reset) {
+                        if (terminate) {
+                            return;
+                        }
+                        if (reset) {
+                            writeLine(currentContext,
+                                      "[The live log of job %s was reset by the server, lines may be repeated]",
+                                      jobId);
+                        } else {
+                            writeLine(currentContext, "[Some lines of the live log of job %s were lost]", jobId);
+                        }
                     }
+                });
+                if (!terminate) {
+                    writeLine(currentContext, "Job %s is finished. Press 'q' to stop.", jobId);
                 }
             } catch (Exception e) {
-                handleError("An error occurred while displaying live log", e, currentContext);
+                if (!terminate) {
+                    handleError("An error occurred while displaying live log", e, currentContext);
+                }
             }
         }
     }
@@ -37,7 +37,6 @@ import org.ow2.proactive.scheduler.common.exception.UnknownJobException;
 import org.ow2.proactive.scheduler.common.exception.UnknownTaskException;
 import org.ow2.proactive.scheduler.common.job.JobId;
 import org.ow2.proactive.scheduler.common.task.TaskResult;
-import org.ow2.proactive.scheduler.common.util.logforwarder.AppenderProvider;
 
 
 public abstract class ClientBase implements ISchedulerClient {
@@ -82,18 +81,6 @@ public abstract class ClientBase implements ISchedulerClient {
         throw newUnsupportedOperationException();
     }
 
-    @Override
-    public void listenJobLogs(JobId arg0, AppenderProvider arg1)
-            throws NotConnectedException, UnknownJobException, PermissionException {
-        throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public void listenJobLogs(String arg0, AppenderProvider arg1)
-            throws NotConnectedException, UnknownJobException, PermissionException {
-        throw new UnsupportedOperationException();
-    }
-
     @Override
     public boolean reloadPolicyConfiguration() throws NotConnectedException, PermissionException {
         throw new UnsupportedOperationException();
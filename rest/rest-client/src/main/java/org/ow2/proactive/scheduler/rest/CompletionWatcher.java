@@ -0,0 +1,455 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.rest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.job.UserIdentification;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+
+
+/**
+ * Notifies the waits of a {@link SchedulerClient} when the jobs or tasks they wait for may have
+ * finished.
+ * <p>
+ * A single scheduler events subscription is shared by all the waits of a client. A wait is
+ * signaled with the jobs or tasks concerned by an event, and checks their state before returning.
+ * When the subscription is lost, all the waits are signaled periodically so that they poll the
+ * state of their jobs or tasks, while the subscription is reopened. Once it is reopened, all the
+ * waits are signaled one more time since events may have been missed meanwhile.
+ * <p>
+ * The subscription is opened outside of the watcher lock, the waits and the events are not
+ * blocked meanwhile. All the waits are signaled at a longer interval as well, so that the jobs
+ * missed by the subscription are noticed, e.g. the jobs of other users when the subscription is
+ * restricted to the events of the user. Closing the watcher wakes up the current waits, their
+ * watch is then {@link Watch#isClosed() closed}.
+ *
+ * @author ActiveEon Team
+ */
+class CompletionWatcher {
+
+    private static final Logger logger = Logger.getLogger(CompletionWatcher.class);
+
+    /** The events notifying the end of a job or a task */
+    static final SchedulerEvent[] EVENTS = { SchedulerEvent.JOB_PENDING_TO_FINISHED,
+                                             SchedulerEvent.JOB_RUNNING_TO_FINISHED,
+                                             SchedulerEvent.JOB_REMOVE_FINISHED,
+                                             SchedulerEvent.TASK_RUNNING_TO_FINISHED,
+                                             SchedulerEvent.TASK_SKIPPED,
+                                             SchedulerEvent.TASK_IN_ERROR_TO_FINISHED };
+
+    private final Subscriber subscriber;
+
+    private final long retryInterval;
+
+    private final long reconcileInterval;
+
+    private final Set<Watch> watches = new CopyOnWriteArraySet<>();
+
+    private ScheduledExecutorService executor;
+
+    /* the opened subscription and its listener, null when the subscription is lost */
+    private Closeable subscription;
+
+    private EventListener listener;
+
+    /* polls while the subscription is lost, null otherwise */
+    private ScheduledFuture<?> polling;
+
+    private ScheduledFuture<?> reconciling;
+
+    /* true while a subscription is being opened */
+    private boolean subscribing;
+
+    private boolean closed;
+
+    /**
+     * @param subscriber opens the subscription to the scheduler events
+     * @param retryInterval interval in ms between the attempts to reopen the subscription, the
+     *            waits poll at this interval while it is lost
+     * @param reconcileInterval interval in ms between the signals sent to all the waits while the
+     *            subscription is opened
+     */
+    CompletionWatcher(Subscriber subscriber, long retryInterval, long reconcileInterval) {
+        this.subscriber = subscriber;
+        this.retryInterval = retryInterval;
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    /**
+     * Starts watching jobs, the subscription is opened if needed. The watch must be passed to
+     * {@link #unwatch(Watch)} once the wait is over.
+     */
+    Watch watchJobs(Collection<String> jobIds) {
+        return watch(new Watch(null, jobIds));
+    }
+
+    /**
+     * Starts watching tasks of a job, the subscription is opened if needed. The watch must be
+     * passed to {@link #unwatch(Watch)} once the wait is over.
+     */
+    Watch watchTasks(String jobId, Collection<String> taskNames) {
+        return watch(new Watch(jobId, taskNames));
+    }
+
+    void unwatch(Watch watch) {
+        watches.remove(watch);
+    }
+
+    private Watch watch(Watch watch) {
+        boolean subscribe;
+        synchronized (this) {
+            if (closed) {
+                // the wait fails as if the watcher was closed while waiting
+                watch.close();
+                return watch;
+            }
+            watches.add(watch);
+            if (reconciling == null) {
+                reconciling = executor().scheduleWithFixedDelay(new Runnable() {
+                    @Override
+                    public void run() {
+                        signalAll();
+                    }
+                }, reconcileInterval, reconcileInterval, TimeUnit.MILLISECONDS);
+            }
+            subscribe = subscription == null && polling == null && !subscribing;
+            if (subscribe) {
+                subscribing = true;
+            }
+        }
+        if (subscribe) {
+            subscribe();
+        }
+        return watch;
+    }
+
+    /**
+     * Closes the subscription, the current waits are woken up and their watch is closed.
+     */
+    void close() {
+        Closeable closedSubscription;
+        synchronized (this) {
+            closed = true;
+            if (polling != null) {
+                stopPolling();
+            }
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            closedSubscription = subscription;
+            subscription = null;
+            listener = null;
+        }
+        if (closedSubscription != null) {
+            closeQuietly(closedSubscription);
+        }
+        for (Watch watch : watches) {
+            watch.close();
+        }
+    }
+
+    /*
+     * Opens the subscription without holding the watcher lock, subscribing must be set by the
+     * caller. Returns false if it cannot be opened, the waits poll until it is reopened then.
+     */
+    private boolean subscribe() {
+        EventListener newListener = new EventListener();
+        Closeable newSubscription = null;
+        Exception failure = null;
+        try {
+            newSubscription = subscriber.subscribe(newListener);
+        } catch (Exception e) {
+            failure = e;
+        }
+        synchronized (this) {
+            subscribing = false;
+            if (closed) {
+                // the new subscription is closed below
+            } else if (failure == null && !newListener.disconnected) {
+                subscription = newSubscription;
+                listener = newListener;
+                if (polling != null) {
+                    stopPolling();
+                    logger.info("Scheduler events subscription reopened");
+                }
+                // the server registers the listener asynchronously, events sent until then are missed
+                executor().schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        signalAll();
+                    }
+                }, retryInterval, TimeUnit.MILLISECONDS);
+                return true;
+            } else if (polling == null) {
+                logger.warn("Cannot subscribe to the scheduler events, waits will poll the scheduler", failure);
+                startPolling();
+            } else {
+                logger.debug("Cannot reopen the scheduler events subscription", failure);
+            }
+        }
+        if (newSubscription != null) {
+            closeQuietly(newSubscription);
+        }
+        return false;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.debug("Cannot close the scheduler events subscription", e);
+        }
+    }
+
+    private synchronized void disconnected(EventListener disconnectedListener) {
+        disconnectedListener.disconnected = true;
+        if (closed || disconnectedListener != listener) {
+            // closed on purpose, or a previous subscription
+            return;
+        }
+        logger.info("Scheduler events subscription lost, waits will poll the scheduler until it is reopened");
+        subscription = null;
+        listener = null;
+        startPolling();
+    }
+
+    private ScheduledExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "scheduler-client-completion-watcher");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    private void startPolling() {
+        polling = executor().scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                poll();
+            }
+        }, retryInterval, retryInterval, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopPolling() {
+        polling.cancel(false);
+        polling = null;
+    }
+
+    private void poll() {
+        synchronized (this) {
+            if (closed || polling == null) {
+                return;
+            }
+            if (watches.isEmpty()) {
+                // the next wait reopens the subscription
+                stopPolling();
+                return;
+            }
+            subscribing = true;
+        }
+        if (!subscribe()) {
+            // waits poll while the subscription is lost
+            signalAll();
+        }
+    }
+
+    private void signalAll() {
+        for (Watch watch : watches) {
+            watch.signalAll();
+        }
+    }
+
+    private void jobFinished(String jobId) {
+        for (Watch watch : watches) {
+            watch.jobFinished(jobId);
+        }
+    }
+
+    private void taskFinished(String jobId, String taskName) {
+        for (Watch watch : watches) {
+            watch.taskFinished(jobId, taskName);
+        }
+    }
+
+    /**
+     * Opens the subscription to the scheduler events.
+     */
+    interface Subscriber {
+
+        /**
+         * @param listener receives the {@link CompletionWatcher#EVENTS}
+         * @return the subscription, closing it stops the events
+         */
+        Closeable subscribe(DisconnectionAwareSchedulerEventListener listener) throws Exception;
+
+    }
+
+    /**
+     * Listener of a subscription, the disconnections of the previous subscriptions are ignored.
+     */
+    private class EventListener implements DisconnectionAwareSchedulerEventListener {
+
+        /* guarded by the watcher lock, set even if the subscription is not published yet */
+        private boolean disconnected;
+
+        @Override
+        public void jobStateUpdatedEvent(NotificationData<JobInfo> notification) {
+            JobInfo jobInfo = notification.getData();
+            if (notification.getEventType() == SchedulerEvent.JOB_REMOVE_FINISHED ||
+                !jobInfo.getStatus().isJobAlive()) {
+                jobFinished(jobInfo.getJobId().value());
+            }
+        }
+
+        @Override
+        public void taskStateUpdatedEvent(NotificationData<TaskInfo> notification) {
+            TaskInfo taskInfo = notification.getData();
+            if (taskInfo.getJobId() != null && !taskInfo.getStatus().isTaskAlive()) {
+                taskFinished(taskInfo.getJobId().value(), taskInfo.getName());
+            }
+        }
+
+        @Override
+        public void notifyDisconnection() {
+            disconnected(this);
+        }
+
+        @Override
+        public void schedulerStateUpdatedEvent(SchedulerEvent eventType) {
+        }
+
+        @Override
+        public void jobSubmittedEvent(JobState job) {
+        }
+
+        @Override
+        public void jobUpdatedFullDataEvent(JobState job) {
+        }
+
+        @Override
+        public void usersUpdatedEvent(NotificationData<UserIdentification> notification) {
+        }
+    }
+
+    /**
+     * The jobs, or the tasks of a job, waited for by a wait.
+     */
+    static class Watch {
+
+        /* job of the waited tasks, null when jobs are waited for */
+        private final String jobId;
+
+        private final Set<String> names;
+
+        private final Set<String> signaled = new HashSet<>();
+
+        private boolean closed;
+
+        private Watch(String jobId, Collection<String> names) {
+            this.jobId = jobId;
+            this.names = new HashSet<>(names);
+        }
+
+        private void jobFinished(String finishedJobId) {
+            if (jobId == null) {
+                if (names.contains(finishedJobId)) {
+                    signal(Collections.singleton(finishedJobId));
+                }
+            } else if (jobId.equals(finishedJobId)) {
+                // the tasks may end without their own events, e.g. when the job is killed
+                signalAll();
+            }
+        }
+
+        private void taskFinished(String finishedJobId, String taskName) {
+            if (finishedJobId.equals(jobId) && names.contains(taskName)) {
+                signal(Collections.singleton(taskName));
+            }
+        }
+
+        private void signalAll() {
+            signal(names);
+        }
+
+        private synchronized void signal(Collection<String> finished) {
+            signaled.addAll(finished);
+            notifyAll();
+        }
+
+        private synchronized void close() {
+            closed = true;
+            notifyAll();
+        }
+
+        /**
+         * @return true if the watcher is closed, the wait must stop
+         */
+        synchronized boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Waits for a signal.
+         *
+         * @param deadline the time in ms when to stop waiting
+         * @return the job ids or task names signaled since the previous call, empty if the
+         *         deadline is reached without signal or if the watcher is closed
+         */
+        synchronized Set<String> await(long deadline) throws InterruptedException {
+            long remaining = deadline - System.currentTimeMillis();
+            while (signaled.isEmpty() && !closed && remaining > 0) {
+                wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+            Set<String> result = new HashSet<>(signaled);
+            signaled.clear();
+            return result;
+        }
+    }
+}
@@ -41,6 +41,7 @@ import static org.ow2.proactive.scheduler.rest.data.DataUtility.toJobState;
 import static org.ow2.proactive.scheduler.rest.data.DataUtility.toJobUsages;
 import static org.ow2.proactive.scheduler.rest.data.DataUtility.toSchedulerUserInfos;
 import static org.ow2.proactive.scheduler.rest.data.DataUtility.toTaskResult;
+import static org.ow2.proactive.scheduler.rest.data.DataUtility.toTaskResultValueChunk;
 
 import java.io.Closeable;
 import java.io.File;
@@ -54,8 +55,11 @@ import java.net.URLConnection;
 import java.security.KeyException;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -64,7 +68,10 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.apache.http.client.HttpClient;
+import org.apache.log4j.Appender;
+import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
 import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClient4Engine;
 import org.jboss.resteasy.spi.ResteasyProviderFactory;
 import org.objectweb.proactive.core.util.log.ProActiveLogger;
@@ -80,6 +87,7 @@ import org.ow2.proactive.scheduler.common.SchedulerEventListener;
 import org.ow2.proactive.scheduler.common.SchedulerStatus;
 import org.ow2.proactive.scheduler.common.SortSpecifierContainer;
 import org.ow2.proactive.scheduler.common.TaskDescriptor;
+import org.ow2.proactive.scheduler.common.exception.InternalException;
 import org.ow2.proactive.scheduler.common.exception.JobAlreadyFinishedException;
 import org.ow2.proactive.scheduler.common.exception.JobCreationException;
 import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
@@ -96,10 +104,14 @@ import org.ow2.proactive.scheduler.common.job.JobState;
 import org.ow2.proactive.scheduler.common.job.JobStatus;
 import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
 import org.ow2.proactive.scheduler.common.job.factories.Job2XMLTransformer;
+import org.ow2.proactive.scheduler.common.task.Log4JTaskLogs;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.common.task.TaskResultValueChunk;
 import org.ow2.proactive.scheduler.common.task.TaskState;
 import org.ow2.proactive.scheduler.common.usage.JobUsage;
+import org.ow2.proactive.scheduler.common.util.logforwarder.AppenderProvider;
+import org.ow2.proactive.scheduler.common.util.logforwarder.LogForwardingException;
 import org.ow2.proactive.scheduler.job.JobIdImpl;
 import org.ow2.proactive.scheduler.job.SchedulerUserInfo;
 import org.ow2.proactive.scheduler.rest.data.DataUtility;
@@ -112,6 +124,8 @@ import org.ow2.proactive.scheduler.rest.readers.WildCardTypeReader;
 import org.ow2.proactive.scheduler.task.TaskIdImpl;
 import org.ow2.proactive_grid_cloud_portal.common.SchedulerRestInterface;
 import org.ow2.proactive_grid_cloud_portal.common.dto.LoginForm;
+import org.ow2.proactive_grid_cloud_portal.scheduler.client.LiveLogEntry;
+import org.ow2.proactive_grid_cloud_portal.scheduler.client.LiveLogListener;
 import org.ow2.proactive_grid_cloud_portal.scheduler.client.SchedulerRestClient;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobIdData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobInfoData;
@@ -124,6 +138,7 @@ import org.ow2.proactive_grid_cloud_portal.scheduler.dto.SchedulerUserData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskIdData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskInfoData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskResultData;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskResultValueChunkData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskStateData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.UserJobData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.exception.NotConnectedRestException;
@@ -136,6 +151,12 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
 
     private static final long RETRY_INTERVAL = TimeUnit.SECONDS.toMillis(1);
 
+    /* waits check their jobs or tasks at this interval even when no event is received */
+    private static final long RECONCILE_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+
+    /* waits for the server to accept the subscription to the events of all the users */
+    private static final long SUBSCRIPTION_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
     private SchedulerRestClient schedulerRestClient;
 
     private String sid;
@@ -146,6 +167,15 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
 
     private SchedulerEventReceiver schedulerEventReceiver;
 
+    /* notifies the waits for jobs and tasks, shared by all of them */
+    private CompletionWatcher completionWatcher;
+
+    /* set once the events of all the users are refused, the watcher only gets the user events then */
+    private volatile boolean myEventsOnly;
+
+    /* threads following the live logs of each job, by appender provider, guarded by itself */
+    private final Map<String, Map<AppenderProvider, Thread>> logFollowers = new HashMap<>();
+
     private static final Logger logger = ProActiveLogger.getLogger(SchedulerClient.class);
 
     private SchedulerClient() {
@@ -232,6 +262,13 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
 
     @Override
     public void disconnect() throws NotConnectedException, PermissionException {
+        synchronized (this) {
+            if (completionWatcher != null) {
+                completionWatcher.close();
+                completionWatcher = null;
+            }
+            myEventsOnly = false;
+        }
         try {
             restApi().disconnect(sid);
         } catch (Exception e) {
@@ -348,6 +385,25 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
         return getTaskResult(jobId.value(), taskName);
     }
 
+    @Override
+    public TaskResultValueChunk getTaskResultValueChunk(String jobId, String taskName, long resultId, int chunkIndex)
+            throws NotConnectedException, UnknownJobException, UnknownTaskException, PermissionException {
+        TaskResultValueChunk chunk = null;
+        try {
+            TaskResultValueChunkData chunkData = restApi().serializedValueChunkOfTaskResult(sid,
+                                                                                             jobId,
+                                                                                             taskName,
+                                                                                             chunkIndex,
+                                                                                             resultId);
+            if (chunkData != null) {
+                chunk = toTaskResultValueChunk(chunkData);
+            }
+        } catch (Exception e) {
+            throwUJEOrNCEOrPEOrUTE(e);
+        }
+        return chunk;
+    }
+
     @Override
     public List<TaskResult> getTaskResultsByTag(JobId jobId, String taskTag)
             throws NotConnectedException, UnknownJobException, PermissionException {
@@ -578,6 +634,22 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
         return isJobRemoved;
     }
 
+    @Override
+    public boolean removeJobs(List<JobId> jobIds)
+            throws NotConnectedException, UnknownJobException, PermissionException {
+        List<String> jobsId = new ArrayList<>(jobIds.size());
+        for (JobId jobId : jobIds) {
+            jobsId.add(jobId.value());
+        }
+        boolean areJobsRemoved = false;
+        try {
+            areJobsRemoved = restApi().removeJobs(sid, jobsId);
+        } catch (Exception e) {
+            throwNCEOrPE(e);
+        }
+        return areJobsRemoved;
+    }
+
     @Override
     public boolean restartTask(JobId jobId, String taskName, int restartDelay)
             throws NotConnectedException, UnknownJobException, UnknownTaskException, PermissionException {
@@ -768,18 +840,11 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
     @Override
     public JobResult waitForJob(String jobId, long timeout)
             throws NotConnectedException, UnknownJobException, PermissionException, TimeoutException {
-        timeout += currentTimeMillis();
-        while (currentTimeMillis() < timeout) {
-            if (isJobFinished(jobId)) {
-                return getJobResult(jobId);
-            }
-            if (currentTimeMillis() + RETRY_INTERVAL < timeout) {
-                sleep(RETRY_INTERVAL);
-            } else {
-                break;
-            }
-        }
-        throw new TimeoutException(format("Timeout waiting for the job: job-id=%s", jobId));
+        waitForJobsToFinish(Collections.singletonList(jobId),
+                            true,
+                            timeout,
+                            format("Timeout waiting for the job: job-id=%s", jobId));
+        return getJobResult(jobId);
     }
 
     @Override
@@ -799,29 +864,24 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
     @Override
     public TaskResult waitForTask(String jobId, String taskName, long timeout) throws UnknownJobException,
             NotConnectedException, PermissionException, UnknownTaskException, TimeoutException {
-        timeout += currentTimeMillis();
-        while (currentTimeMillis() < timeout) {
-            if (isTaskFinished(jobId, taskName)) {
-                return getTaskResult(jobId, taskName);
-            }
-            if (currentTimeMillis() + RETRY_INTERVAL < timeout) {
-                sleep(RETRY_INTERVAL);
-            } else {
-                break;
-            }
-        }
-        throw new TimeoutException(format("Timeout waiting for the task: job-id=%s, task-id=%s", jobId, taskName));
+        waitForTasksToFinish(jobId,
+                             Collections.singletonList(taskName),
+                             true,
+                             timeout,
+                             format("Timeout waiting for the task: job-id=%s, task-id=%s", jobId, taskName));
+        return getTaskResult(jobId, taskName);
     }
 
     @Override
     public List<JobResult> waitForAllJobs(List<String> jobIds, long timeout)
             throws NotConnectedException, UnknownJobException, PermissionException, TimeoutException {
-        long timestamp = 0;
+        waitForJobsToFinish(jobIds,
+                            false,
+                            timeout,
+                            format("Timeout waiting for all jobs: jobIds=%s.", String.valueOf(jobIds)));
         List<JobResult> results = new ArrayList<>(jobIds.size());
         for (String jobId : jobIds) {
-            timestamp = currentTimeMillis();
-            results.add(waitForJob(jobId, timeout));
-            timeout = timeout - (currentTimeMillis() - timestamp);
+            results.add(getJobResult(jobId));
         }
         return results;
     }
@@ -829,59 +889,186 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
     @Override
     public Map.Entry<String, JobResult> waitForAnyJob(List<String> jobIds, long timeout)
             throws NotConnectedException, UnknownJobException, PermissionException, TimeoutException {
-        timeout += currentTimeMillis();
-        while (currentTimeMillis() < timeout) {
-            for (String jobId : jobIds) {
-                if (isJobFinished(jobId)) {
-                    return toEntry(jobId, getJobResult(jobId));
-                }
-            }
-            if (currentTimeMillis() + RETRY_INTERVAL < timeout) {
-                sleep(RETRY_INTERVAL);
-            } else {
-                break;
-            }
-        }
-        throw new TimeoutException(format("Timeout waiting for any job: jobIds=%s.", String.valueOf(jobIds)));
+        String jobId = waitForJobsToFinish(jobIds,
+                                           true,
+                                           timeout,
+                                           format("Timeout waiting for any job: jobIds=%s.",
+                                                  String.valueOf(jobIds))).get(0);
+        return toEntry(jobId, getJobResult(jobId));
     }
 
     @Override
     public Entry<String, TaskResult> waitForAnyTask(String jobId, List<String> taskNames, long timeout)
             throws UnknownJobException, NotConnectedException, PermissionException, UnknownTaskException,
             TimeoutException {
-        timeout += currentTimeMillis();
-        while (currentTimeMillis() < timeout) {
-            for (String taskName : taskNames) {
-                if (isTaskFinished(jobId, taskName)) {
-                    return toEntry(taskName, getTaskResult(jobId, taskName));
-                }
-            }
-            if (currentTimeMillis() + RETRY_INTERVAL < timeout) {
-                sleep(RETRY_INTERVAL);
-            } else {
-                break;
-            }
-        }
-        throw new TimeoutException(format("Timeout waiting for any task: job-id=%s, task-ids=%s.",
-                                          jobId,
-                                          String.valueOf(taskNames)));
+        String taskName = waitForTasksToFinish(jobId,
+                                               taskNames,
+                                               true,
+                                               timeout,
+                                               format("Timeout waiting for any task: job-id=%s, task-ids=%s.",
+                                                      jobId,
+                                                      String.valueOf(taskNames))).get(0);
+        return toEntry(taskName, getTaskResult(jobId, taskName));
     }
 
     @Override
     public List<Entry<String, TaskResult>> waitForAllTasks(String jobId, List<String> taskNames, long timeout)
             throws UnknownJobException, NotConnectedException, PermissionException, UnknownTaskException,
             TimeoutException {
-        long timestamp = 0;
+        waitForTasksToFinish(jobId,
+                             taskNames,
+                             false,
+                             timeout,
+                             format("Timeout waiting for all tasks: job-id=%s, task-ids=%s.",
+                                    jobId,
+                                    String.valueOf(taskNames)));
         List<Map.Entry<String, TaskResult>> taskResults = new ArrayList<>(taskNames.size());
         for (String taskName : taskNames) {
-            timestamp = currentTimeMillis();
-            Entry<String, TaskResult> taskResultEntry = toEntry(taskName, waitForTask(jobId, taskName, timeout));
-            taskResults.add(taskResultEntry);
-            timeout = timeout - (currentTimeMillis() - timestamp);
+            taskResults.add(toEntry(taskName, getTaskResult(jobId, taskName)));
         }
         return taskResults;
     }
 
+    /**
+     * Waits until all the jobs, or any of them, are finished. The state of a job is checked
+     * first, then each time the {@link CompletionWatcher} signals it.
+     *
+     * @return the ids of the finished jobs, in the order they were found finished
+     */
+    private List<String> waitForJobsToFinish(List<String> jobIds, boolean any, long timeout, String timeoutMessage)
+            throws NotConnectedException, UnknownJobException, PermissionException, TimeoutException {
+        long deadline = currentTimeMillis() + timeout;
+        CompletionWatcher watcher = completionWatcher();
+        CompletionWatcher.Watch watch = watcher.watchJobs(jobIds);
+        try {
+            Set<String> pending = new HashSet<>(jobIds);
+            List<String> finished = new ArrayList<>(pending.size());
+            Collection<String> signaled = jobIds;
+            while (true) {
+                for (String jobId : signaled) {
+                    if (pending.contains(jobId) && isJobFinished(jobId)) {
+                        pending.remove(jobId);
+                        finished.add(jobId);
+                        if (any) {
+                            return finished;
+                        }
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return finished;
+                }
+                signaled = awaitSignal(watch, deadline, timeoutMessage);
+            }
+        } finally {
+            watcher.unwatch(watch);
+        }
+    }
+
+    /**
+     * Waits until all the tasks, or any of them, are finished. The state of a task is checked
+     * first, then each time the {@link CompletionWatcher} signals it.
+     *
+     * @return the names of the finished tasks, in the order they were found finished
+     */
+    private List<String> waitForTasksToFinish(String jobId, List<String> taskNames, boolean any, long timeout,
+            String timeoutMessage) throws NotConnectedException, UnknownJobException, PermissionException,
+            UnknownTaskException, TimeoutException {
+        long deadline = currentTimeMillis() + timeout;
+        CompletionWatcher watcher = completionWatcher();
+        CompletionWatcher.Watch watch = watcher.watchTasks(jobId, taskNames);
+        try {
+            Set<String> pending = new HashSet<>(taskNames);
+            List<String> finished = new ArrayList<>(pending.size());
+            Collection<String> signaled = taskNames;
+            while (true) {
+                for (String taskName : signaled) {
+                    if (pending.contains(taskName) && isTaskFinished(jobId, taskName)) {
+                        pending.remove(taskName);
+                        finished.add(taskName);
+                        if (any) {
+                            return finished;
+                        }
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return finished;
+                }
+                signaled = awaitSignal(watch, deadline, timeoutMessage);
+            }
+        } finally {
+            watcher.unwatch(watch);
+        }
+    }
+
+    private Set<String> awaitSignal(CompletionWatcher.Watch watch, long deadline, String timeoutMessage)
+            throws NotConnectedException, TimeoutException {
+        try {
+            Set<String> signaled = watch.await(deadline);
+            if (watch.isClosed()) {
+                throw new NotConnectedException("The client is disconnected");
+            }
+            if (signaled.isEmpty()) {
+                throw new TimeoutException(timeoutMessage);
+            }
+            return signaled;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            TimeoutException timeoutException = new TimeoutException("Interrupted: " + timeoutMessage);
+            timeoutException.initCause(e);
+            throw timeoutException;
+        }
+    }
+
+    private synchronized CompletionWatcher completionWatcher() {
+        checkInitialized();
+        if (completionWatcher == null) {
+            completionWatcher = new CompletionWatcher(new CompletionWatcher.Subscriber() {
+                @Override
+                public Closeable subscribe(DisconnectionAwareSchedulerEventListener listener) throws Exception {
+                    if (!myEventsOnly) {
+                        // the waits on other users' jobs are signaled by their events as well
+                        SchedulerEventReceiver receiver = startEventReceiver(listener, false);
+                        try {
+                            receiver.awaitSubscription(SUBSCRIPTION_TIMEOUT);
+                            return closeable(receiver);
+                        } catch (PermissionException e) {
+                            logger.debug("Waits only receive the events of the user jobs", e);
+                            myEventsOnly = true;
+                            receiver.stop();
+                        } catch (Exception e) {
+                            receiver.stop();
+                            throw e;
+                        }
+                    }
+                    return closeable(startEventReceiver(listener, true));
+                }
+
+                private SchedulerEventReceiver startEventReceiver(DisconnectionAwareSchedulerEventListener listener,
+                        boolean userEventsOnly) throws IOException {
+                    SchedulerEventReceiver.Builder builder = new SchedulerEventReceiver.Builder();
+                    SchedulerEventReceiver receiver = builder.restServerUrl(connectionInfo.getUrl())
+                                                             .sessionId(sid)
+                                                             .schedulerEventListener(listener)
+                                                             .myEventsOnly(userEventsOnly)
+                                                             .selectedEvents(CompletionWatcher.EVENTS)
+                                                             .build();
+                    receiver.start();
+                    return receiver;
+                }
+
+                private Closeable closeable(final SchedulerEventReceiver receiver) {
+                    return new Closeable() {
+                        @Override
+                        public void close() {
+                            receiver.stop();
+                        }
+                    };
+                }
+            }, RETRY_INTERVAL, RECONCILE_INTERVAL);
+        }
+        return completionWatcher;
+    }
+
     @Override
     public boolean pushFile(String spacename, String pathname, String filename, String file)
             throws NotConnectedException, PermissionException {
@@ -987,14 +1174,6 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
         }
     }
 
-    private void sleep(long millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException ie) {
-            // ignore
-        }
-    }
-
     private void closeIfPossible(Closeable closeable) {
         if (closeable != null) {
             try {
@@ -1147,6 +1326,133 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
         return jobInfoImpl;
     }
 
+    @Override
+    public void listenJobLogs(JobId jobId, AppenderProvider appenderProvider)
+            throws NotConnectedException, UnknownJobException, PermissionException {
+        listenJobLogs(jobId.value(), appenderProvider);
+    }
+
+    /**
+     * Follows the live logs of the job on a daemon thread, until the job is finished. The logs
+     * are appended as events of the job logger to the appender of the given provider, with the
+     * level, time, raw message and task diagnostic context of the task logs.
+     */
+    @Override
+    public void listenJobLogs(final String jobId, AppenderProvider appenderProvider)
+            throws NotConnectedException, UnknownJobException, PermissionException {
+        // fails early when the job does not exist or cannot be accessed
+        getJobInfo(jobId);
+
+        final Appender appender;
+        try {
+            appender = appenderProvider.getAppender();
+        } catch (LogForwardingException e) {
+            throw new InternalException("Cannot create an appender for job " + jobId, e);
+        }
+
+        final String sessionId = sid;
+        final AppenderProvider provider = appenderProvider;
+        Thread follower = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final Logger jobLogger = Logger.getLogger(Log4JTaskLogs.getLoggerName(jobId));
+                try {
+                    restApiClient().followLiveLog(sessionId, jobId, 0, new LiveLogListener() {
+                        @Override
+                        public void onLog(long sequence, LiveLogEntry log) {
+                            if (log.getMessage() == null) {
+                                // only the formatted log is sent by the server
+                                append(Log4JTaskLogs.STDOUT_LEVEL, log.getLog());
+                                return;
+                            }
+                            appender.doAppend(new LoggingEvent(SchedulerClient.class.getName(),
+                                                               jobLogger,
+                                                               log.getTime() > 0 ? log.getTime()
+                                                                                 : System.currentTimeMillis(),
+                                                               Level.toLevel(log.getLevel(),
+                                                                             Log4JTaskLogs.STDOUT_LEVEL),
+                                                               log.getMessage(),
+                                                               Thread.currentThread().getName(),
+                                                               null,
+                                                               null,
+                                                               null,
+                                                               new HashMap<String, String>(log.getMdc())));
+                        }
+
+                        @Override
+                        public void onGap(long next, boolean reset) {
+                            if (reset) {
+                                append(Level.WARN,
+                                       "The live logs of job " + jobId +
+                                                   " were reset by the server, logs may be received again");
+                            } else {
+                                append(Level.WARN, "Some live logs of job " + jobId + " were lost");
+                            }
+                        }
+
+                        private void append(Level level, String log) {
+                            appender.doAppend(new LoggingEvent(SchedulerClient.class.getName(),
+                                                               jobLogger,
+                                                               level,
+                                                               log,
+                                                               null));
+                        }
+                    });
+                } catch (Exception e) {
+                    if (!Thread.currentThread().isInterrupted()) {
+                        logger.warn("Cannot follow the live logs of job " + jobId, e);
+                    }
+                } finally {
+                    removeLogFollower(jobId, provider, Thread.currentThread());
+                }
+            }
+        }, "live-logs-job-" + jobId);
+        follower.setDaemon(true);
+        synchronized (logFollowers) {
+            Map<AppenderProvider, Thread> jobFollowers = logFollowers.get(jobId);
+            if (jobFollowers == null) {
+                jobFollowers = new HashMap<>();
+                logFollowers.put(jobId, jobFollowers);
+            }
+            // listening again with the same provider replaces the previous follower
+            Thread previous = jobFollowers.put(appenderProvider, follower);
+            if (previous != null) {
+                previous.interrupt();
+            }
+        }
+        follower.start();
+    }
+
+    /**
+     * Stops the thread following the live logs of the job for the given provider.
+     */
+    @Override
+    public void stopListeningJobLogs(String jobId, AppenderProvider appenderProvider)
+            throws NotConnectedException, UnknownJobException, PermissionException {
+        synchronized (logFollowers) {
+            Map<AppenderProvider, Thread> jobFollowers = logFollowers.get(jobId);
+            Thread follower = jobFollowers == null ? null : jobFollowers.remove(appenderProvider);
+            if (follower != null) {
+                follower.interrupt();
+                if (jobFollowers.isEmpty()) {
+                    logFollowers.remove(jobId);
+                }
+            }
+        }
+    }
+
+    private void removeLogFollower(String jobId, AppenderProvider appenderProvider, Thread follower) {
+        synchronized (logFollowers) {
+            Map<AppenderProvider, Thread> jobFollowers = logFollowers.get(jobId);
+            if (jobFollowers != null && jobFollowers.get(appenderProvider) == follower) {
+                jobFollowers.remove(appenderProvider);
+                if (jobFollowers.isEmpty()) {
+                    logFollowers.remove(jobId);
+                }
+            }
+        }
+    }
+
     @Override
     public boolean changeStartAt(JobId jobId, String startAt)
             throws NotConnectedException, UnknownJobException, PermissionException {
@@ -29,8 +29,11 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Strings.isNullOrEmpty;
 
 import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
@@ -48,9 +51,11 @@ import org.atmosphere.wasync.Socket;
 import org.ow2.proactive.scheduler.common.NotificationData;
 import org.ow2.proactive.scheduler.common.SchedulerEvent;
 import org.ow2.proactive.scheduler.common.SchedulerEventListener;
+import org.ow2.proactive.scheduler.common.exception.PermissionException;
 import org.ow2.proactive.scheduler.common.job.UserIdentification;
 import org.ow2.proactive.scheduler.rest.data.DataUtility;
 import org.ow2.proactive.scheduler.rest.utils.EventCodecUtil;
+import org.ow2.proactive_grid_cloud_portal.common.exceptionmapper.ExceptionToJson;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobInfoData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobStateData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskInfoData;
@@ -83,6 +88,12 @@ public class SchedulerEventReceiver {
 
     private Socket socket;
 
+    /* counted down when the server answers the subscription */
+    private final CountDownLatch answered = new CountDownLatch(1);
+
+    /* the error sent by the server if the subscription is refused */
+    private volatile ExceptionToJson refusal;
+
     private SchedulerEventReceiver() {
     }
 
@@ -100,7 +111,8 @@ public class SchedulerEventReceiver {
         socket.on(Event.CLOSE, new Function() {
             public void on(Object t) {
                 SchedulerEventReceiver.logger.info("#### Websocket connection is closed ####");
-                if (eventListener instanceof DisconnectionAwareSchedulerEventListener) {
+                // a refused subscription was never connected
+                if (refusal == null && eventListener instanceof DisconnectionAwareSchedulerEventListener) {
                     ((DisconnectionAwareSchedulerEventListener) eventListener).notifyDisconnection();
                 }
             }
@@ -118,9 +130,32 @@ public class SchedulerEventReceiver {
         socket.open(requestBuilder.build());
         // submit subscription request
         EventSubscription eventSubscription = new EventSubscription(myEventsOnly, asStringArray(events));
+        // SchedulerEventListener expects the whole job state on job updates
+        eventSubscription.setFullState(true);
         socket.fire(EventCodecUtil.toJsonString(eventSubscription));
     }
 
+    /**
+     * Waits for the server to answer the subscription sent by {@link #start()}.
+     *
+     * @param timeout the maximum time to wait in ms
+     * @return false if the server did not answer in time
+     * @throws PermissionException if the subscription is refused, e.g. the events of all the
+     *             users are requested without the permission to handle other users jobs
+     * @throws IOException if the subscription fails on the server
+     */
+    public boolean awaitSubscription(long timeout) throws InterruptedException, PermissionException, IOException {
+        boolean answeredInTime = answered.await(timeout, TimeUnit.MILLISECONDS);
+        ExceptionToJson error = refusal;
+        if (error != null) {
+            if (error.getHttpErrorCode() == HttpURLConnection.HTTP_FORBIDDEN) {
+                throw new PermissionException(error.getErrorMessage());
+            }
+            throw new IOException(error.getErrorMessage());
+        }
+        return answeredInTime;
+    }
+
     public void stop() {
         if (socket != null) {
             socket.close();
@@ -180,7 +215,11 @@ public class SchedulerEventReceiver {
         }
     }
 
-    private static class EventNotificationDecoder implements Decoder<String, EventNotification> {
+    /*
+     * The server answers the subscription with a NONE notification, or with an error when it
+     * refuses it.
+     */
+    private class EventNotificationDecoder implements Decoder<String, EventNotification> {
 
         @Override
         public EventNotification decode(Event event, String message) {
@@ -188,15 +227,34 @@ public class SchedulerEventReceiver {
             if (Event.MESSAGE == event) {
                 try {
                     notification = EventCodecUtil.fromJsonString(message, EventNotification.class);
+                    if (notification.getAction() == Action.NONE) {
+                        answered.countDown();
+                    }
                 } catch (Exception e) {
-                    logger.error(String.format("Cannot construct %s type object from: %n%s",
-                                               EventNotification.class.getName(),
-                                               message),
-                                 e);
+                    ExceptionToJson error = toError(message);
+                    if (error != null) {
+                        logger.warn("Scheduler events subscription failed: " + error.getErrorMessage());
+                        refusal = error;
+                        answered.countDown();
+                    } else {
+                        logger.error(String.format("Cannot construct %s type object from: %n%s",
+                                                   EventNotification.class.getName(),
+                                                   message),
+                                     e);
+                    }
                 }
             }
             return notification;
         }
+
+        private ExceptionToJson toError(String message) {
+            try {
+                ExceptionToJson error = EventCodecUtil.fromJsonString(message, ExceptionToJson.class);
+                return error.getHttpErrorCode() > 0 ? error : null;
+            } catch (Exception e) {
+                return null;
+            }
+        }
     }
 
     private static class EventSubscriptionEncoder implements Encoder<EventSubscription, String> {
@@ -220,6 +278,10 @@ public class SchedulerEventReceiver {
         @SuppressWarnings("unchecked")
         @Override
         public void on(EventNotification eventData) {
+            if (eventData == null) {
+                // not decoded, e.g. the error answering a refused subscription
+                return;
+            }
             Action action = eventData.getAction();
             switch (action) {
                 case NONE:
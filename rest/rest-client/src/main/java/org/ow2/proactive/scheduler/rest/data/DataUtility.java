@@ -39,6 +39,7 @@ import org.ow2.proactive.scheduler.common.job.JobStatus;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskInfo;
 import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.common.task.TaskResultValueChunk;
 import org.ow2.proactive.scheduler.common.task.TaskState;
 import org.ow2.proactive.scheduler.common.task.TaskStatus;
 import org.ow2.proactive.scheduler.common.usage.JobUsage;
@@ -118,6 +119,10 @@ public class DataUtility {
         return new TaskResultImpl(taskId(jobId, d.getId()), d);
     }
 
+    public static TaskResultValueChunk toTaskResultValueChunk(TaskResultValueChunkData d) {
+        return new TaskResultValueChunk(d.getResultId(), d.getChunkIndex(), d.getChunkCount(), d.getValue());
+    }
+
     public static TaskLogsImpl toTaskLogs(String all, String out, String err) {
         return new TaskLogsImpl(out, err, all);
     }
@@ -43,6 +43,7 @@ import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobStateData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskInfoData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.EventNotification;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.EventNotification.Action;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.JobDeltaData;
 
 
 public class EventCodecUtil {
@@ -107,10 +108,17 @@ public class EventCodecUtil {
                 case USERS_UPDATED:
                     notification.setData(mapper.readValue(data, UserIdentification.class));
                     break;
+                case JOB_DELTA:
+                    notification.setData(mapper.readValue(data, JobDeltaData.class));
+                    break;
                 default:
                     break;
             }
             notification.setSchedulerEvent(root.get("schedulerEvent").asText());
+            JsonNode revision = root.get("revision");
+            if (revision != null) {
+                notification.setRevision(revision.asLong());
+            }
             return notification;
 
         }
@@ -0,0 +1,311 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.rest.data.JobInfoImpl;
+import org.ow2.proactive.scheduler.rest.data.TaskInfoImpl;
+
+
+public class CompletionWatcherTest {
+
+    private static final long RETRY_INTERVAL = 50;
+
+    private static final long RECONCILE_INTERVAL = 60000;
+
+    private FakeSubscriber subscriber;
+
+    private CompletionWatcher watcher;
+
+    @Before
+    public void setUp() {
+        subscriber = new FakeSubscriber();
+        watcher = new CompletionWatcher(subscriber, RETRY_INTERVAL, RECONCILE_INTERVAL);
+    }
+
+    @After
+    public void tearDown() {
+        watcher.close();
+    }
+
+    @Test
+    public void finished_jobs_are_signaled() throws Exception {
+        CompletionWatcher.Watch watch = watcher.watchJobs(Arrays.asList("1", "2"));
+        awaitReconciliation(watch);
+
+        subscriber.lastListener().jobStateUpdatedEvent(jobEvent("2", JobStatus.FINISHED));
+        subscriber.lastListener().jobStateUpdatedEvent(jobEvent("3", JobStatus.KILLED));
+
+        assertEquals(Collections.singleton("2"), watch.await(deadline()));
+        assertEquals(1, subscriber.subscriptions);
+    }
+
+    @Test
+    public void running_jobs_are_not_signaled() throws Exception {
+        CompletionWatcher.Watch watch = watcher.watchJobs(Collections.singletonList("1"));
+        awaitReconciliation(watch);
+
+        subscriber.lastListener().jobStateUpdatedEvent(jobEvent("1", JobStatus.RUNNING));
+
+        assertTrue(watch.await(System.currentTimeMillis() + 100).isEmpty());
+    }
+
+    @Test
+    public void subscription_is_shared_by_the_watches() throws Exception {
+        CompletionWatcher.Watch first = watcher.watchJobs(Collections.singletonList("1"));
+        CompletionWatcher.Watch second = watcher.watchJobs(Collections.singletonList("1"));
+        awaitReconciliation(first);
+        awaitReconciliation(second);
+
+        subscriber.lastListener().jobStateUpdatedEvent(jobEvent("1", JobStatus.FINISHED));
+
+        assertEquals(Collections.singleton("1"), first.await(deadline()));
+        assertEquals(Collections.singleton("1"), second.await(deadline()));
+        assertEquals(1, subscriber.subscriptions);
+    }
+
+    @Test
+    public void finished_tasks_are_signaled() throws Exception {
+        CompletionWatcher.Watch watch = watcher.watchTasks("1", Arrays.asList("A", "B", "C"));
+        awaitReconciliation(watch);
+
+        subscriber.lastListener().taskStateUpdatedEvent(taskEvent("1", "A", TaskStatus.FINISHED));
+        subscriber.lastListener().taskStateUpdatedEvent(taskEvent("2", "B", TaskStatus.FINISHED));
+        subscriber.lastListener().taskStateUpdatedEvent(taskEvent("1", "C", TaskStatus.RUNNING));
+
+        assertEquals(Collections.singleton("A"), watch.await(deadline()));
+    }
+
+    @Test
+    public void all_tasks_are_signaled_when_their_job_is_finished() throws Exception {
+        CompletionWatcher.Watch watch = watcher.watchTasks("1", Arrays.asList("A", "B"));
+        awaitReconciliation(watch);
+
+        subscriber.lastListener().jobStateUpdatedEvent(jobEvent("1", JobStatus.KILLED));
+
+        assertEquals(new HashSet<>(Arrays.asList("A", "B")), watch.await(deadline()));
+    }
+
+    @Test
+    public void watches_poll_until_the_subscription_is_reopened() throws Exception {
+        CompletionWatcher.Watch watch = watcher.watchJobs(Collections.singletonList("1"));
+        awaitReconciliation(watch);
+
+        subscriber.failures = 2;
+        subscriber.lastListener().notifyDisconnection();
+
+        // signaled while polling
+        assertEquals(Collections.singleton("1"), watch.await(deadline()));
+        long deadline = deadline();
+        while (subscriber.subscriptions < 2 && System.currentTimeMillis() < deadline) {
+            watch.await(System.currentTimeMillis() + RETRY_INTERVAL);
+        }
+        assertEquals(2, subscriber.subscriptions);
+    }
+
+    @Test
+    public void subscription_is_retried_when_it_cannot_be_opened() throws Exception {
+        subscriber.failures = 1;
+
+        CompletionWatcher.Watch watch = watcher.watchJobs(Collections.singletonList("1"));
+
+        awaitReconciliation(watch);
+        assertEquals(1, subscriber.subscriptions);
+    }
+
+    @Test
+    public void disconnection_of_a_previous_subscription_is_ignored() throws Exception {
+        CompletionWatcher.Watch watch = watcher.watchJobs(Collections.singletonList("1"));
+        awaitReconciliation(watch);
+        DisconnectionAwareSchedulerEventListener first = subscriber.lastListener();
+        first.notifyDisconnection();
+        awaitReconciliation(watch);
+
+        first.notifyDisconnection();
+
+        assertTrue(watch.await(System.currentTimeMillis() + 5 * RETRY_INTERVAL).isEmpty());
+        assertEquals(2, subscriber.subscriptions);
+    }
+
+    @Test
+    public void close_wakes_up_the_waits() throws Exception {
+        final CompletionWatcher.Watch watch = watcher.watchJobs(Collections.singletonList("1"));
+        awaitReconciliation(watch);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Set<String>> wait = executor.submit(new Callable<Set<String>>() {
+                @Override
+                public Set<String> call() throws Exception {
+                    return watch.await(deadline());
+                }
+            });
+
+            watcher.close();
+
+            assertTrue(wait.get(5, TimeUnit.SECONDS).isEmpty());
+            assertTrue(watch.isClosed());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void watches_of_a_closed_watcher_are_closed() throws Exception {
+        watcher.close();
+
+        CompletionWatcher.Watch watch = watcher.watchJobs(Collections.singletonList("1"));
+
+        assertTrue(watch.isClosed());
+        assertTrue(watch.await(deadline()).isEmpty());
+        assertEquals(0, subscriber.subscriptions);
+    }
+
+    @Test
+    public void subscription_is_opened_without_blocking_the_watcher() throws Exception {
+        subscriber.blocked = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<CompletionWatcher.Watch> first = executor.submit(new Callable<CompletionWatcher.Watch>() {
+                @Override
+                public CompletionWatcher.Watch call() {
+                    return watcher.watchJobs(Collections.singletonList("1"));
+                }
+            });
+            subscriber.subscribing.await(5, TimeUnit.SECONDS);
+
+            // neither waits for the subscription being opened
+            CompletionWatcher.Watch second = watcher.watchJobs(Collections.singletonList("2"));
+            watcher.close();
+
+            assertTrue(second.isClosed());
+            subscriber.blocked.countDown();
+            assertTrue(first.get(5, TimeUnit.SECONDS).isClosed());
+            assertEquals(1, subscriber.subscriptions);
+            assertEquals(1, subscriber.closed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /*
+     * Waits for the signal sent once the subscription is opened.
+     */
+    private void awaitReconciliation(CompletionWatcher.Watch watch) throws InterruptedException {
+        assertFalse(watch.await(deadline()).isEmpty());
+    }
+
+    private static long deadline() {
+        return System.currentTimeMillis() + 10000;
+    }
+
+    private static NotificationData<JobInfo> jobEvent(String jobId, JobStatus status) {
+        JobInfoImpl jobInfo = new JobInfoImpl();
+        jobInfo.setJobId(JobIdImpl.makeJobId(jobId));
+        jobInfo.setJobStatus(status);
+        return new NotificationData<JobInfo>(status.isJobAlive() ? SchedulerEvent.JOB_PENDING_TO_RUNNING
+                                                                 : SchedulerEvent.JOB_RUNNING_TO_FINISHED,
+                                             jobInfo);
+    }
+
+    private static NotificationData<TaskInfo> taskEvent(String jobId, String taskName, TaskStatus status) {
+        TaskInfoImpl taskInfo = new TaskInfoImpl();
+        taskInfo.setJobId(JobIdImpl.makeJobId(jobId));
+        taskInfo.setName(taskName);
+        taskInfo.setStatus(status);
+        return new NotificationData<TaskInfo>(status.isTaskAlive() ? SchedulerEvent.TASK_PENDING_TO_RUNNING
+                                                                   : SchedulerEvent.TASK_RUNNING_TO_FINISHED,
+                                              taskInfo);
+    }
+
+    private static class FakeSubscriber implements CompletionWatcher.Subscriber {
+
+        private final List<DisconnectionAwareSchedulerEventListener> listeners = new ArrayList<>();
+
+        private volatile int failures;
+
+        private volatile int subscriptions;
+
+        private volatile int closed;
+
+        /* when set, the subscriptions are opened once it is counted down */
+        private volatile CountDownLatch blocked;
+
+        private final CountDownLatch subscribing = new CountDownLatch(1);
+
+        @Override
+        public Closeable subscribe(DisconnectionAwareSchedulerEventListener listener) throws Exception {
+            subscribing.countDown();
+            if (blocked != null) {
+                blocked.await();
+            }
+            synchronized (this) {
+                if (failures > 0) {
+                    failures--;
+                    throw new Exception("Cannot connect");
+                }
+                subscriptions++;
+                listeners.add(listener);
+                return new Closeable() {
+                    @Override
+                    public void close() {
+                        closed++;
+                    }
+                };
+            }
+        }
+
+        synchronized DisconnectionAwareSchedulerEventListener lastListener() {
+            return listeners.get(listeners.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.rest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.ow2.proactive.authentication.ConnectionInfo;
+import org.ow2.proactive.scheduler.common.task.TaskResultValueChunk;
+import org.ow2.proactive.scheduler.common.util.SchedulerProxyUserInterface;
+import org.ow2.proactive_grid_cloud_portal.RestTestServer;
+import org.ow2.proactive_grid_cloud_portal.common.SharedSessionStoreTestUtils;
+import org.ow2.proactive_grid_cloud_portal.scheduler.SchedulerStateRest;
+
+
+public class SchedulerClientTaskResultValueChunkTest extends RestTestServer {
+
+    private static final long RESULT_ID = 12;
+
+    private SchedulerProxyUserInterface scheduler;
+
+    private ISchedulerClient client;
+
+    @BeforeClass
+    public static void setUpRest() throws Exception {
+        addResource(new SchedulerStateRest());
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        scheduler = mock(SchedulerProxyUserInterface.class);
+        SharedSessionStoreTestUtils.createValidSession(scheduler);
+
+        client = SchedulerClient.createInstance();
+        client.init(new ConnectionInfo("http://localhost:" + port + "/", "demo", "demo", null, true));
+    }
+
+    @Test
+    public void chunks_are_read_from_the_result_of_the_first_one() throws Exception {
+        TaskResultValueChunk first = new TaskResultValueChunk(RESULT_ID, 0, 2, new byte[] { 1, 2, 3 });
+        TaskResultValueChunk second = new TaskResultValueChunk(RESULT_ID, 1, 2, new byte[] { 4, 5 });
+        when(scheduler.getTaskResultValueChunk("42", "mytask", TaskResultValueChunk.LAST_RESULT, 0)).thenReturn(first);
+        when(scheduler.getTaskResultValueChunk("42", "mytask", RESULT_ID, 1)).thenReturn(second);
+
+        ByteArrayOutputStream value = new ByteArrayOutputStream();
+        TaskResultValueChunk chunk = client.getTaskResultValueChunk("42",
+                                                                    "mytask",
+                                                                    TaskResultValueChunk.LAST_RESULT,
+                                                                    0);
+        value.write(chunk.getValue());
+        while (!chunk.isLast()) {
+            chunk = client.getTaskResultValueChunk("42", "mytask", chunk.getResultId(), chunk.getChunkIndex() + 1);
+            value.write(chunk.getValue());
+        }
+
+        assertArrayEquals(new byte[] { 1, 2, 3, 4, 5 }, value.toByteArray());
+        assertEquals(RESULT_ID, chunk.getResultId());
+        assertEquals(2, chunk.getChunkCount());
+        verify(scheduler).getTaskResultValueChunk("42", "mytask", RESULT_ID, 1);
+    }
+
+    @Test
+    public void missing_chunk_is_null() throws Exception {
+        assertNull(client.getTaskResultValueChunk("42", "mytask", TaskResultValueChunk.LAST_RESULT, 0));
+    }
+}
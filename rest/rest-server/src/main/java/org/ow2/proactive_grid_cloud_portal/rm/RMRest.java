@@ -38,6 +38,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import javax.management.Attribute;
@@ -75,6 +76,7 @@ import org.ow2.proactive.authentication.crypto.Credentials;
 import org.ow2.proactive.resourcemanager.common.RMState;
 import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMStateDelta;
 import org.ow2.proactive.resourcemanager.common.util.RMProxyUserInterface;
 import org.ow2.proactive.resourcemanager.core.jmx.RMJMXBeans;
 import org.ow2.proactive.resourcemanager.exception.RMException;
@@ -91,6 +93,7 @@ import org.ow2.proactive_grid_cloud_portal.common.SharedSessionStore;
 import org.ow2.proactive_grid_cloud_portal.common.StatHistoryCaching;
 import org.ow2.proactive_grid_cloud_portal.common.StatHistoryCaching.StatHistoryCacheEntry;
 import org.ow2.proactive_grid_cloud_portal.common.dto.LoginForm;
+import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
 import org.rrd4j.ConsolFun;
 import org.rrd4j.core.FetchData;
 import org.rrd4j.core.FetchRequest;
@@ -258,6 +261,28 @@ public class RMRest implements RMRestInterface {
         return RMStateCaching.getRMInitialState();
     }
 
+    /**
+     * Returns the changes of the resource manager state since a previous call.
+     * <p>
+     * When the given counter is too old, or negative, the whole state is returned and
+     * {@link RMStateDelta#isReset()} is true.
+     *
+     * @param sessionId a valid session id
+     * @param counter the counter of the last delta received, -1 to get the whole state
+     * @return the nodes and node sources which changed, and the counter to give for the next call
+     * @throws NotConnectedException
+     */
+    @Override
+    @GET
+    @GZIP
+    @Path("monitoring/delta")
+    @Produces("application/json")
+    public RMStateDelta getStateDelta(@HeaderParam("sessionid") String sessionId,
+            @QueryParam("counter") @DefaultValue("-1") long counter) throws NotConnectedException {
+        checkAccess(sessionId);
+        return RMStateCaching.getRMStateDelta(counter);
+    }
+
     /**
      * Returns true if the resource manager is operational.
      *
@@ -566,6 +591,37 @@ public class RMRest implements RMRestInterface {
         return rmProxy.getNodeMBeanInfo(nodeJmxUrl, objectName, attrs);
     }
 
+    /**
+     * Retrieves attributes of the specified mbean on several nodes.
+     * Nodes are queried concurrently using pooled mbean server connections.
+     *
+     * @param sessionId current session
+     * @param nodeJmxUrls mbean server urls of the nodes
+     * @param objectName name of mbean
+     * @param attrs set of mbean attributes
+     * @param timeout maximum time in ms to wait for each node, defaults to {@code rm.node.jmx.query.timeout}
+     *
+     * @return mbean attributes values by node jmx url, nodes which could not be queried
+     * contain a single {@code error} entry
+     */
+    @Override
+    @GET
+    @GZIP
+    @Produces("application/json")
+    @Path("nodes/mbean")
+    public Map<String, Object> getNodesMBeanInfo(@HeaderParam("sessionid") String sessionId,
+            @QueryParam("nodesjmxurl") List<String> nodeJmxUrls, @QueryParam("objectname") String objectName,
+            @QueryParam("attrs") List<String> attrs, @QueryParam("timeout") Long timeout)
+            throws NotConnectedException {
+
+        // checking that still connected to the RM
+        RMProxyUserInterface rmProxy = checkAccess(sessionId);
+        if (timeout == null) {
+            timeout = PortalConfiguration.RM_NODE_JMX_QUERY_TIMEOUT.getValueAsLong();
+        }
+        return PAFuture.getFutureValue(rmProxy.getNodesMBeanInfo(nodeJmxUrls, objectName, attrs, timeout));
+    }
+
     /**
      * Return the statistic history contained in the node RRD database,
      * without redundancy, in a friendly JSON format.
@@ -29,6 +29,7 @@ import java.io.IOException;
 import java.security.KeyException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.management.InstanceNotFoundException;
@@ -58,6 +59,7 @@ import org.ow2.proactive.authentication.UserData;
 import org.ow2.proactive.resourcemanager.common.RMState;
 import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMStateDelta;
 import org.ow2.proactive.resourcemanager.exception.RMException;
 import org.ow2.proactive.resourcemanager.frontend.topology.Topology;
 import org.ow2.proactive.resourcemanager.nodesource.common.PluginDescriptor;
@@ -125,6 +127,13 @@ public interface RMRestInterface {
     @Produces("application/json")
     RMInitialState getInitialState(@HeaderParam("sessionid") String sessionId) throws NotConnectedException;
 
+    @GET
+    @GZIP
+    @Path("monitoring/delta")
+    @Produces("application/json")
+    RMStateDelta getStateDelta(@HeaderParam("sessionid") String sessionId,
+            @QueryParam("counter") @DefaultValue("-1") long counter) throws NotConnectedException;
+
     @GET
     @Path("isactive")
     @Produces("application/json")
@@ -205,6 +214,15 @@ public interface RMRestInterface {
             throws InstanceNotFoundException, IntrospectionException, ReflectionException, IOException,
             NotConnectedException, MalformedObjectNameException, NullPointerException;
 
+    @GET
+    @GZIP
+    @Produces("application/json")
+    @Path("nodes/mbean")
+    Map<String, Object> getNodesMBeanInfo(@HeaderParam("sessionid") String sessionId,
+            @QueryParam("nodesjmxurl") List<String> nodeJmxUrls, @QueryParam("objectname") String objectName,
+            @QueryParam("attrs") List<String> attrs, @QueryParam("timeout") Long timeout)
+            throws NotConnectedException;
+
     @GET
     @GZIP
     @Produces("application/json")
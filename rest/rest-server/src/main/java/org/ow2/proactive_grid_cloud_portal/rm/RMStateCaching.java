@@ -35,18 +35,23 @@ import org.objectweb.proactive.utils.Sleeper;
 import org.ow2.proactive.authentication.crypto.CredData;
 import org.ow2.proactive.authentication.crypto.Credentials;
 import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
+import org.ow2.proactive.resourcemanager.common.event.RMStateDelta;
+import org.ow2.proactive.resourcemanager.common.util.RMCachedState;
 import org.ow2.proactive.resourcemanager.common.util.RMProxyUserInterface;
 import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
 
 
 /**
- * Periodically request {@link RMProxyUserInterface#getMonitoring()} and store it locally.
+ * Periodically request the changes of the RM state from {@link RMProxyUserInterface} and
+ * apply them to a local {@link RMCachedState}.
  * <p>
- * The {@link RMInitialState} fetched from {@link RMProxyUserInterface} is a large object
- * that is long to serialize, but is always the same for every client.
+ * The {@link RMInitialState} is a large object that is long to serialize, but is always the
+ * same for every client. Only the nodes and node sources which changed since the previous
+ * request are transferred.
  * <p>
- * Use this class to start a thread that will periodically get this object
+ * Use this class to start a thread that will periodically synchronize the state
  * using a watcher account, making the cached version available to any client instantly.
+ * Clients can also get the changes since a previous state with {@link #getRMStateDelta(long)}.
  * <p>
  * Refresh rate can be configured using {@link PortalConfiguration#RM_CACHE_REFRESHRATE}
  */
@@ -56,7 +61,10 @@ public class RMStateCaching {
 
     private static RMProxyUserInterface rm;
 
-    private static RMInitialState state;
+    private static final RMCachedState state = new RMCachedState();
+
+    /* counter of the last delta received from the proxy, -1 to get the whole state */
+    private static long proxyCounter = -1;
 
     private static Thread rmUpdater;
 
@@ -69,7 +77,8 @@ public class RMStateCaching {
      * <p>
      * Thread frequency can be customized using {@link PortalConfiguration#RM_CACHE_REFRESHRATE}.
      * <p>
-     * Cached object can be retrieved using {@link #getRMInitialState()}.
+     * Cached object can be retrieved using {@link #getRMInitialState()}
+     * or {@link #getRMStateDelta(long)}.
      * <p>
      * Stop this thread by calling {@link #kill()}.
      */
@@ -77,7 +86,6 @@ public class RMStateCaching {
         new Thread(new Runnable() {
             @Override
             public void run() {
-                state = new RMInitialState();
                 init_();
                 run_();
             }
@@ -134,15 +142,19 @@ public class RMStateCaching {
                             startTime = System.currentTimeMillis();
                         }
 
-                        state = PAFuture.getFutureValue(rm.getRMInitialState());
+                        RMStateDelta delta = PAFuture.getFutureValue(rm.getRMStateDelta(proxyCounter));
+                        state.apply(delta);
+                        proxyCounter = delta.getCounter();
 
                         if (isDebugEnabled) {
-                            logger.debug("Updated RM initial state in " + (System.currentTimeMillis() - startTime) +
-                                         "ms");
+                            logger.debug("Updated RM initial state with " + delta.getNodesEvents().size() +
+                                         " node changes in " + (System.currentTimeMillis() - startTime) + "ms");
                         }
                     } catch (Throwable t) {
                         logger.error("Exception occurrend while updating RM state cache, connection reset", t);
                         init_();
+                        // the counters of a new proxy are not related to the previous ones
+                        proxyCounter = -1;
                     }
 
                     new Sleeper(refreshInterval, logger).sleep();
@@ -158,7 +170,15 @@ public class RMStateCaching {
      * @return cached RM State as returned by {@link RMProxyUserInterface#getMonitoring()}
      */
     public static RMInitialState getRMInitialState() {
-        return state;
+        return state.getRMInitialState();
+    }
+
+    /**
+     * @param counter the counter of the last delta received by the client, or -1 to get the whole state
+     * @return the changes of the cached RM state since the given counter
+     */
+    public static RMStateDelta getRMStateDelta(long counter) {
+        return state.getDelta(counter);
     }
 
     /**
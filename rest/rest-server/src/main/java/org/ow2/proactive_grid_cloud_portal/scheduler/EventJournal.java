@@ -0,0 +1,183 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.EventNotification;
+
+
+/**
+ * Bounded in-memory history of the scheduler events, indexed by the scheduler
+ * state revision.
+ * <p>
+ * It allows a REST client which lost its connection to receive the events it missed
+ * instead of reloading the whole scheduler state. Once the journal is full, the
+ * oldest events are dropped, and a client asking for them has to reload the state.
+ * <p>
+ * The journal also hands each recorded event to its {@link Listener listeners}, in
+ * revision order, so that the live events sent to the clients carry the revision
+ * under which they were recorded.
+ */
+class EventJournal {
+
+    private static final Logger logger = Logger.getLogger(EventJournal.class);
+
+    interface Listener {
+
+        /**
+         * Called for each recorded event, in revision order, while the journal is locked.
+         */
+        void recorded(Entry entry);
+
+    }
+
+    static final class Entry {
+
+        private final long revision;
+
+        private final SchedulerEvent event;
+
+        private final String owner;
+
+        private final EventNotification notification;
+
+        Entry(long revision, SchedulerEvent event, String owner, EventNotification notification) {
+            this.revision = revision;
+            this.event = event;
+            this.owner = owner;
+            this.notification = notification;
+        }
+
+        long getRevision() {
+            return revision;
+        }
+
+        SchedulerEvent getEvent() {
+            return event;
+        }
+
+        /**
+         * @return the owner of the job concerned by the event, or null if the event
+         *         concerns the whole scheduler
+         */
+        String getOwner() {
+            return owner;
+        }
+
+        EventNotification getNotification() {
+            return notification;
+        }
+
+        /**
+         * @param owner if not null, only the events concerning the whole scheduler or the jobs of this user match
+         * @param events the types of events which match, all types if empty
+         */
+        boolean matches(String owner, Set<SchedulerEvent> events) {
+            return (events.isEmpty() || events.contains(event)) &&
+                   (owner == null || this.owner == null || owner.equals(this.owner));
+        }
+
+    }
+
+    private final int capacity;
+
+    private final ArrayDeque<Entry> entries;
+
+    private long revision = -1;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    EventJournal(int capacity) {
+        this.capacity = capacity;
+        this.entries = new ArrayDeque<>(Math.min(capacity, 1024));
+    }
+
+    /**
+     * Increments the revision and records the given notification, tagged with the new revision.
+     *
+     * @return the new revision
+     */
+    synchronized long append(SchedulerEvent event, String owner, EventNotification notification) {
+        revision++;
+        notification.setRevision(revision);
+        Entry entry = new Entry(revision, event, owner, notification);
+        if (capacity > 0) {
+            if (entries.size() == capacity) {
+                entries.removeFirst();
+            }
+            entries.addLast(entry);
+        }
+        for (Listener listener : listeners) {
+            try {
+                listener.recorded(entry);
+            } catch (RuntimeException e) {
+                logger.warn("Cannot notify listener of event " + revision, e);
+            }
+        }
+        return revision;
+    }
+
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    synchronized long getRevision() {
+        return revision;
+    }
+
+    /**
+     * @return the entries recorded after the given revision, in order, or null if
+     *         some of them are no longer in the journal
+     */
+    synchronized List<Entry> since(long sinceRevision) {
+        if (sinceRevision >= revision) {
+            return new ArrayList<>(0);
+        }
+        Entry oldest = entries.peekFirst();
+        if (oldest == null || oldest.getRevision() > sinceRevision + 1) {
+            return null;
+        }
+        List<Entry> result = new ArrayList<>((int) (revision - sinceRevision));
+        for (Entry entry : entries) {
+            if (entry.getRevision() > sinceRevision) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+}
@@ -33,12 +33,19 @@ import org.ow2.proactive.scheduler.common.job.JobState;
 import org.ow2.proactive.scheduler.common.job.UserIdentification;
 import org.ow2.proactive.scheduler.common.task.TaskInfo;
 import org.ow2.proactive_grid_cloud_portal.scheduler.SchedulerStateListener.State;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.EventNotification;
 
 
+/**
+ * Listens to all the scheduler events to maintain the scheduler state revision and
+ * the journal of the events sent to the REST clients.
+ */
 public class EventListener implements SchedulerEventListener {
 
     private State state;
 
+    private SchedulerEventDeltas deltas = new SchedulerEventDeltas();
+
     public EventListener() {
     }
 
@@ -48,35 +55,42 @@ public class EventListener implements SchedulerEventListener {
 
     @Override
     public void jobStateUpdatedEvent(NotificationData<JobInfo> data) {
-        state.incrementRevision();
+        state.record(data.getEventType(), data.getData().getJobOwner(), deltas.jobStateUpdated(data));
     }
 
     @Override
     public void jobSubmittedEvent(JobState jobState) {
-        state.incrementRevision();
+        state.record(SchedulerEvent.JOB_SUBMITTED, jobState.getOwner(), deltas.jobSubmitted(jobState));
     }
 
     @Override
     public void schedulerStateUpdatedEvent(SchedulerEvent event) {
-        state.incrementRevision();
+        state.record(event,
+                     null,
+                     new EventNotification(EventNotification.Action.SCHEDULER_STATE_UPDATED, event.name(), null));
         // event doesn't provide current state, just reset stored value so that state will be re-read on demand
         state.setStatus(null);
     }
 
     @Override
     public void jobUpdatedFullDataEvent(JobState jobState) {
-        state.incrementRevision();
-
+        state.record(SchedulerEvent.JOB_UPDATED, jobState.getOwner(), deltas.jobUpdatedFullData(jobState));
     }
 
     @Override
     public void taskStateUpdatedEvent(NotificationData<TaskInfo> event) {
-        state.incrementRevision();
+        state.record(event.getEventType(),
+                     event.getData().getJobInfo().getJobOwner(),
+                     deltas.taskStateUpdated(event));
     }
 
     @Override
     public void usersUpdatedEvent(NotificationData<UserIdentification> event) {
-        state.incrementRevision();
+        state.record(event.getEventType(),
+                     event.getData().getUsername(),
+                     new EventNotification(EventNotification.Action.USERS_UPDATED,
+                                           event.getEventType().name(),
+                                           event.getData()));
     }
 
 }
@@ -26,17 +26,23 @@
 package org.ow2.proactive_grid_cloud_portal.scheduler;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.core.util.log.ProActiveLogger;
+import org.ow2.proactive.scheduler.common.Scheduler;
 import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
 import org.ow2.proactive.scheduler.common.exception.PermissionException;
 import org.ow2.proactive.scheduler.common.exception.UnknownJobException;
 import org.ow2.proactive.scheduler.common.task.Log4JTaskLogs;
+import org.ow2.proactive.scheduler.common.util.logforwarder.AppenderProvider;
 import org.ow2.proactive.scheduler.common.util.logforwarder.LogForwardingException;
 import org.ow2.proactive.scheduler.common.util.logforwarder.LogForwardingService;
 import org.ow2.proactive_grid_cloud_portal.common.Session;
@@ -52,6 +58,17 @@ import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
 public class JobsOutputController {
     private static final Logger LOGGER = ProActiveLogger.getLogger(JobsOutputController.class);
 
+    /** Live logs buffers are removed when no client read them during this time in ms */
+    static final long LIVE_LOG_RETENTION = 60 * 1000;
+
+    /* live logs shared by all the sessions, guarded by itself */
+    private static final Map<String, LiveLog> liveLogs = new HashMap<>();
+
+    /* expired live logs whose forwarding is being stopped, guarded by liveLogs */
+    private static final Map<String, LiveLog> stoppingLiveLogs = new HashMap<>();
+
+    private static LogForwardingService liveLogForwardingService;
+
     private LogForwardingService logForwardingService;
 
     private Map<String, JobOutputAppender> appenders = new HashMap<>();
@@ -74,6 +91,74 @@ public class JobsOutputController {
         return getJobOutputAppender(jobId).fetchAllLogs();
     }
 
+    /**
+     * Returns the live logs buffer of a job, shared by all the sessions following the logs of the job.
+     * The logs of the job are forwarded to the buffer when it is created.
+     */
+    public LiveLogBuffer getLiveLogBuffer(String jobId)
+            throws LogForwardingException, NotConnectedException, UnknownJobException, PermissionException {
+        while (true) {
+            List<LiveLog> expired;
+            LiveLog liveLog;
+            boolean created = false;
+            synchronized (liveLogs) {
+                expired = removeExpiredLiveLogs();
+                liveLog = liveLogs.get(jobId);
+                if (liveLog == null) {
+                    liveLog = new LiveLog(jobId, session.getScheduler(), stoppingLiveLogs.get(jobId));
+                    liveLogs.put(jobId, liveLog);
+                    created = true;
+                }
+            }
+            // the scheduler is called outside of the lock, it may be slow to answer
+            for (LiveLog expiredLiveLog : expired) {
+                expiredLiveLog.stopForwarding();
+            }
+            if (created) {
+                try {
+                    liveLog.startForwarding();
+                } catch (NotConnectedException | UnknownJobException | PermissionException |
+                        LogForwardingException e) {
+                    synchronized (liveLogs) {
+                        if (liveLogs.get(jobId) == liveLog) {
+                            liveLogs.remove(jobId);
+                        }
+                    }
+                    throw e;
+                }
+                return liveLog.buffer;
+            }
+            if (liveLog.awaitStarted()) {
+                return liveLog.buffer;
+            }
+            // the session that created the live logs could not forward them, try with this session
+        }
+    }
+
+    private static List<LiveLog> removeExpiredLiveLogs() {
+        List<LiveLog> expired = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        Iterator<LiveLog> iterator = liveLogs.values().iterator();
+        while (iterator.hasNext()) {
+            LiveLog liveLog = iterator.next();
+            if (now - liveLog.buffer.getLastAccessTime() > LIVE_LOG_RETENTION) {
+                iterator.remove();
+                stoppingLiveLogs.put(liveLog.jobId, liveLog);
+                expired.add(liveLog);
+            }
+        }
+        return expired;
+    }
+
+    private static synchronized LogForwardingService getLiveLogForwardingService() throws LogForwardingException {
+        if (liveLogForwardingService == null) {
+            LogForwardingService forwardingService = new LogForwardingService(PortalConfiguration.SCHEDULER_LOGINFORWARDINGSERVICE_PROVIDER.getValueAsString());
+            forwardingService.initialize();
+            liveLogForwardingService = forwardingService;
+        }
+        return liveLogForwardingService;
+    }
+
     public synchronized int availableLinesCount(String jobId) {
         JobOutputAppender appender = appenders.get(jobId);
         if (appender != null) {
@@ -141,4 +226,130 @@ public class JobsOutputController {
         appenders.put(jobId, jobOutputAppender);
     }
 
+    /**
+     * Live logs of a job, forwarded by the scheduler to a buffer.
+     */
+    private static class LiveLog {
+
+        private final String jobId;
+
+        private final LiveLogBuffer buffer = new LiveLogBuffer();
+
+        /* scheduler of the session that created the live logs */
+        private final Scheduler scheduler;
+
+        /* expired live logs of the same job, stopped before forwarding to this buffer */
+        private final LiveLog previous;
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private final CountDownLatch stopped = new CountDownLatch(1);
+
+        private volatile boolean failed;
+
+        /* the fields below are guarded by this */
+        private LogForwardingService forwardingService;
+
+        private AppenderProvider appenderProvider;
+
+        private boolean stopping;
+
+        LiveLog(String jobId, Scheduler scheduler, LiveLog previous) {
+            this.jobId = jobId;
+            this.scheduler = scheduler;
+            this.previous = previous;
+        }
+
+        void startForwarding()
+                throws LogForwardingException, NotConnectedException, UnknownJobException, PermissionException {
+            if (previous != null) {
+                // otherwise stopping the previous forwarding could stop this one
+                previous.awaitStopped();
+            }
+            LogForwardingService service = null;
+            try {
+                service = getLiveLogForwardingService();
+                service.addAppender(Log4JTaskLogs.getLoggerName(jobId), buffer);
+                synchronized (this) {
+                    forwardingService = service;
+                }
+                AppenderProvider provider = service.getAppenderProvider();
+                scheduler.listenJobLogs(jobId, provider);
+                boolean expired;
+                synchronized (this) {
+                    appenderProvider = provider;
+                    expired = stopping;
+                }
+                if (expired) {
+                    // expired while the scheduler was called
+                    stopListening(provider);
+                }
+            } catch (NotConnectedException | UnknownJobException | PermissionException |
+                    LogForwardingException e) {
+                if (service != null) {
+                    service.removeAppender(Log4JTaskLogs.getLoggerName(jobId), buffer);
+                }
+                buffer.close();
+                failed = true;
+                throw e;
+            } finally {
+                started.countDown();
+            }
+        }
+
+        /**
+         * @return true if the logs are forwarded to the buffer
+         */
+        boolean awaitStarted() {
+            try {
+                started.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return !failed;
+        }
+
+        void stopForwarding() {
+            try {
+                LogForwardingService service;
+                AppenderProvider provider;
+                synchronized (this) {
+                    stopping = true;
+                    service = forwardingService;
+                    provider = appenderProvider;
+                }
+                if (service != null) {
+                    service.removeAppender(Log4JTaskLogs.getLoggerName(jobId), buffer);
+                }
+                buffer.close();
+                if (provider != null) {
+                    stopListening(provider);
+                }
+            } finally {
+                synchronized (liveLogs) {
+                    if (stoppingLiveLogs.get(jobId) == this) {
+                        stoppingLiveLogs.remove(jobId);
+                    }
+                }
+                stopped.countDown();
+            }
+        }
+
+        private void stopListening(AppenderProvider provider) {
+            try {
+                scheduler.stopListeningJobLogs(jobId, provider);
+            } catch (Exception e) {
+                LOGGER.debug("Could not stop forwarding the live logs of job " + jobId, e);
+            }
+        }
+
+        private void awaitStopped() {
+            try {
+                stopped.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
 }
@@ -0,0 +1,126 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.EventNotification;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.JobDeltaData;
+
+
+/**
+ * Sends the events recorded in the {@link EventJournal} to the target REST client, job
+ * updates being sent as {@link JobDeltaData}.
+ * <p>
+ * The notifications are the ones of the journal, so each of them carries the revision
+ * under which its event was recorded, and a client reconnecting with the last revision
+ * it received gets exactly the events which followed.
+ *
+ * @author ActiveEon Team
+ */
+class JournalEventBroadcaster implements EventJournal.Listener {
+
+    private final String broadcasterUUID;
+
+    private final String owner;
+
+    private final Set<SchedulerEvent> events;
+
+    /*
+     * Events recorded before the missed events were replayed
+     */
+    private List<EventNotification> pendingNotifications;
+
+    private long lastSentRevision = -1;
+
+    /**
+     * @param owner if not null, only the events concerning the whole scheduler or the jobs of this user are sent
+     * @param events the types of events to send, all types if empty
+     * @param awaitReplay hold the events until {@link #replay(List)} is called
+     */
+    JournalEventBroadcaster(String broadcasterUUID, String owner, Set<SchedulerEvent> events, boolean awaitReplay) {
+        this.broadcasterUUID = broadcasterUUID;
+        this.owner = owner;
+        this.events = events;
+        if (awaitReplay) {
+            this.pendingNotifications = new ArrayList<>();
+        }
+    }
+
+    @Override
+    public synchronized void recorded(EventJournal.Entry entry) {
+        if (!entry.matches(owner, events)) {
+            return;
+        }
+        if (pendingNotifications != null) {
+            pendingNotifications.add(entry.getNotification());
+        } else {
+            send(entry.getNotification());
+        }
+    }
+
+    /**
+     * Sends the events missed by the client, then the events recorded since the
+     * subscription which were not among them.
+     *
+     * @param missedNotifications the missed events, or null if they are no longer
+     *            available, in which case the client is asked to reload the state
+     */
+    synchronized void replay(List<EventNotification> missedNotifications) {
+        if (missedNotifications == null) {
+            send(new EventNotification(EventNotification.Action.RESYNC_REQUIRED,
+                                       null,
+                                       null,
+                                       SchedulerStateListener.getInstance().getSchedulerStateRevision()));
+        } else {
+            for (EventNotification notification : missedNotifications) {
+                send(notification);
+            }
+        }
+        List<EventNotification> pending = pendingNotifications;
+        pendingNotifications = null;
+        if (pending != null) {
+            for (EventNotification notification : pending) {
+                if (notification.getRevision() > lastSentRevision) {
+                    send(notification);
+                }
+            }
+        }
+    }
+
+    private void send(EventNotification notification) {
+        lastSentRevision = Math.max(lastSentRevision, notification.getRevision());
+        broadcast(notification);
+    }
+
+    void broadcast(EventNotification notification) {
+        SchedulerEventBroadcaster.send(broadcasterUUID, notification);
+    }
+
+}
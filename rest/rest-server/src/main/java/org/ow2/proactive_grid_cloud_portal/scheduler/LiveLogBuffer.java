@@ -0,0 +1,282 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.spi.LoggingEvent;
+import org.ow2.proactive.scheduler.common.task.Log4JTaskLogs;
+
+
+/**
+ * Live logs of a job, shared by all the clients following them.
+ * <p>
+ * Each log is kept formatted with the task log layout, along with its level, time, task
+ * identification and raw message so that clients can rebuild the logging event. Each log gets
+ * a sequence number. Clients read the logs from a cursor, i.e. the sequence
+ * number of the next log they expect, so that they can resume exactly where they stopped.
+ * Only the last {@link #CAPACITY} logs are kept.
+ * <p>
+ * The sequence numbers of a buffer start at its creation time in microseconds, so that a
+ * buffer created again for a job does not reuse the sequence numbers of the previous one.
+ * A read tells when the logs returned do not follow the cursor, because they were dropped
+ * or because the cursor comes from another buffer.
+ *
+ * @author ActiveEon Team
+ */
+public class LiveLogBuffer extends AppenderSkeleton {
+
+    static final int CAPACITY = 10000;
+
+    /** Maximum number of logs returned by a read */
+    static final int MAX_READ = 1000;
+
+    /* diagnostic context of the task logs kept with each log */
+    private static final String[] MDC_KEYS = { Log4JTaskLogs.MDC_JOB_ID, Log4JTaskLogs.MDC_TASK_ID,
+                                               Log4JTaskLogs.MDC_TASK_NAME, Log4JTaskLogs.MDC_HOST };
+
+    private final Log[] logs;
+
+    /* sequence number of the first log */
+    private final long first;
+
+    /* sequence number of the next log */
+    private long next;
+
+    private boolean finished;
+
+    private volatile long lastAccessTime = System.currentTimeMillis();
+
+    public LiveLogBuffer() {
+        this(CAPACITY, TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()));
+    }
+
+    LiveLogBuffer(int capacity, long first) {
+        this.name = "Live logs buffer";
+        this.logs = new Log[capacity];
+        this.first = first;
+        this.next = first;
+        this.setLayout(Log4JTaskLogs.getTaskLogLayout());
+    }
+
+    @Override
+    protected void append(LoggingEvent event) {
+        if (!super.closed) {
+            add(new Log(this.layout.format(event), event));
+        }
+    }
+
+    synchronized void add(Log log) {
+        logs[(int) (next % logs.length)] = log;
+        next++;
+        notifyAll();
+    }
+
+    /**
+     * Returns the logs available from the cursor, waiting for new logs if there are none.
+     *
+     * @param cursor sequence number of the first log to return, 0 to start from the oldest log
+     * @param timeout maximum time to wait for new logs in ms
+     * @return the logs from the cursor, starting at the oldest log kept if the cursor is older
+     *         or comes from another buffer, empty if no log arrived before the timeout or if the
+     *         logs are finished
+     */
+    synchronized Logs read(long cursor, long timeout) throws InterruptedException {
+        lastAccessTime = System.currentTimeMillis();
+        boolean reset = cursor > 0 && (cursor < first || cursor > next);
+        long start = Math.max(cursor, oldest());
+        if (reset) {
+            start = oldest();
+        }
+        long deadline = System.currentTimeMillis() + timeout;
+        long remaining = timeout;
+        while (next == start && !finished && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        // logs may have been overwritten while waiting
+        start = Math.max(start, oldest());
+        int count = (int) Math.min(MAX_READ, next - start);
+        List<Log> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(logs[(int) ((start + i) % logs.length)]);
+        }
+        boolean gap = !reset && cursor > 0 && start > cursor;
+        return new Logs(start, result, reset, gap);
+    }
+
+    private long oldest() {
+        return Math.max(first, next - logs.length);
+    }
+
+    /**
+     * Marks the logs as finished, waiting readers are released.
+     */
+    synchronized void finish() {
+        finished = true;
+        notifyAll();
+    }
+
+    synchronized boolean isFinished() {
+        return finished;
+    }
+
+    synchronized long getNextSequence() {
+        return next;
+    }
+
+    long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    @Override
+    public void close() {
+        super.closed = true;
+        finish();
+    }
+
+    @Override
+    public boolean requiresLayout() {
+        return false;
+    }
+
+    /**
+     * A log of a task.
+     */
+    static class Log {
+
+        private final String formatted;
+
+        private final String level;
+
+        private final long time;
+
+        private final Map<String, String> mdc = new LinkedHashMap<>();
+
+        private final String message;
+
+        Log(String formatted, LoggingEvent event) {
+            this.formatted = formatted;
+            this.level = event.getLevel().toString();
+            this.time = event.getTimeStamp();
+            for (String key : MDC_KEYS) {
+                Object value = event.getMDC(key);
+                if (value != null) {
+                    mdc.put(key, value.toString());
+                }
+            }
+            this.message = event.getRenderedMessage();
+        }
+
+        /**
+         * @return the log formatted with the task log layout
+         */
+        String getFormatted() {
+            return formatted;
+        }
+
+        String getLevel() {
+            return level;
+        }
+
+        long getTime() {
+            return time;
+        }
+
+        /**
+         * @return the job and task identification of the log
+         */
+        Map<String, String> getMdc() {
+            return mdc;
+        }
+
+        String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return formatted;
+        }
+    }
+
+    /**
+     * Consecutive logs, starting at a given sequence number.
+     */
+    static class Logs {
+
+        private final long first;
+
+        private final List<Log> logs;
+
+        private final boolean reset;
+
+        private final boolean gap;
+
+        Logs(long first, List<Log> logs, boolean reset, boolean gap) {
+            this.first = first;
+            this.logs = Collections.unmodifiableList(logs);
+            this.reset = reset;
+            this.gap = gap;
+        }
+
+        long getFirst() {
+            return first;
+        }
+
+        List<Log> getLogs() {
+            return logs;
+        }
+
+        /**
+         * @return true if the cursor read comes from another buffer, these logs may repeat logs
+         *         already read
+         */
+        boolean isReset() {
+            return reset;
+        }
+
+        /**
+         * @return true if logs following the cursor read were dropped before being read
+         */
+        boolean isGap() {
+            return gap;
+        }
+
+        /**
+         * @return the cursor to read the logs following these ones
+         */
+        long getNext() {
+            return first + logs.size();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.scheduler.common.Scheduler;
+import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
+
+
+/**
+ * Streams the live logs of a job as server-sent events, read from the {@link LiveLogBuffer}
+ * shared by all the clients following the job.
+ * <p>
+ * The id of each event is the sequence number of the log, so that clients can resume the
+ * stream from the next one. Its data is the log formatted with the task log layout. The
+ * <code>level</code>, <code>time</code>, <code>mdc</code> (one <code>key=value</code> per line)
+ * and <code>message</code> fields give the level, time in ms, job and task identification and
+ * raw message of the log, browsers ignore them. An <code>end</code> event is sent once the job is finished and
+ * all its logs have been sent. A <code>gap</code> event is sent when logs were dropped before
+ * being sent, a <code>reset</code> event when the cursor of the client comes from a previous
+ * buffer. Their data is the id of the next log sent.
+ * <p>
+ * A stream holds a servlet thread until it is closed. At most
+ * {@link PortalConfiguration#SCHEDULER_LIVELOG_MAX_STREAMS} streams are written at once, a
+ * <code>busy</code> event is sent instead of the logs when this limit is reached. Its data is the
+ * time in s after which the client should try again, see also
+ * {@link #open(Scheduler, String, LiveLogBuffer, long)}.
+ *
+ * @author ActiveEon Team
+ */
+class LiveLogStreamingOutput implements StreamingOutput {
+
+    private static final Logger logger = Logger.getLogger(LiveLogStreamingOutput.class);
+
+    /** A comment is sent when no log arrives during this time in ms, closed connections are detected this way */
+    static final long KEEP_ALIVE_PERIOD = 5000;
+
+    /** The stream is closed after this time in ms, clients reconnect from their cursor */
+    static final long MAX_STREAM_DURATION = 10 * 60 * 1000;
+
+    /** Time in s after which clients refused because of the streams limit should try again */
+    static final int RETRY_DELAY = 5;
+
+    /* a permit per stream being written */
+    private static final Semaphore streams = new Semaphore(PortalConfiguration.SCHEDULER_LIVELOG_MAX_STREAMS.getValueAsInt());
+
+    private final Scheduler scheduler;
+
+    private final String jobId;
+
+    private final LiveLogBuffer buffer;
+
+    private final long cursor;
+
+    private LiveLogStreamingOutput(Scheduler scheduler, String jobId, LiveLogBuffer buffer, long cursor) {
+        this.scheduler = scheduler;
+        this.jobId = jobId;
+        this.buffer = buffer;
+        this.cursor = cursor;
+    }
+
+    /**
+     * Opens a stream, nothing is reserved until the stream is written.
+     *
+     * @return the stream, or null if the maximum number of streams are already written
+     */
+    static LiveLogStreamingOutput open(Scheduler scheduler, String jobId, LiveLogBuffer buffer, long cursor) {
+        if (streams.availablePermits() == 0) {
+            return null;
+        }
+        return new LiveLogStreamingOutput(scheduler, jobId, buffer, cursor);
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        if (!streams.tryAcquire()) {
+            writer.write("retry: " + RETRY_DELAY * 1000 + "\nevent: busy\ndata: " + RETRY_DELAY + "\n\n");
+            writer.flush();
+            return;
+        }
+        try {
+            stream(writer);
+        } finally {
+            streams.release();
+        }
+    }
+
+    private void stream(Writer writer) {
+        long next = cursor;
+        long end = System.currentTimeMillis() + MAX_STREAM_DURATION;
+        try {
+            while (System.currentTimeMillis() < end) {
+                LiveLogBuffer.Logs logs = buffer.read(next, KEEP_ALIVE_PERIOD);
+                if (logs.isReset() || logs.isGap()) {
+                    writer.write("event: " + (logs.isReset() ? "reset" : "gap") + "\ndata: " + logs.getFirst() +
+                                 "\n\n");
+                    next = logs.getFirst();
+                }
+                if (!logs.getLogs().isEmpty()) {
+                    writeLogs(writer, logs);
+                    next = logs.getNext();
+                } else if (buffer.isFinished() || isJobFinished()) {
+                    buffer.finish();
+                    writer.write("event: end\ndata: \n\n");
+                    writer.flush();
+                    return;
+                } else {
+                    writer.write(": keep-alive\n\n");
+                }
+                writer.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.debug("Live logs stream of job " + jobId + " closed", e);
+        }
+    }
+
+    private void writeLogs(Writer writer, LiveLogBuffer.Logs logs) throws IOException {
+        List<LiveLogBuffer.Log> entries = logs.getLogs();
+        for (int i = 0; i < entries.size(); i++) {
+            LiveLogBuffer.Log log = entries.get(i);
+            writer.write("id: " + (logs.getFirst() + i) + "\n");
+            writer.write("level: " + log.getLevel() + "\n");
+            writer.write("time: " + log.getTime() + "\n");
+            for (Map.Entry<String, String> entry : log.getMdc().entrySet()) {
+                writeField(writer, "mdc", entry.getKey() + "=" + entry.getValue());
+            }
+            if (log.getMessage() != null) {
+                writeField(writer, "message", log.getMessage());
+            }
+            String formatted = log.getFormatted();
+            if (formatted.endsWith("\n")) {
+                formatted = formatted.substring(0, formatted.length() - (formatted.endsWith("\r\n") ? 2 : 1));
+            }
+            writeField(writer, "data", formatted);
+            writer.write("\n");
+        }
+    }
+
+    /**
+     * Writes a field, once per line of its value.
+     */
+    private static void writeField(Writer writer, String field, String value) throws IOException {
+        for (String line : value.split("\r\n|\r|\n", -1)) {
+            writer.write(field + ": " + line + "\n");
+        }
+    }
+
+    private boolean isJobFinished() {
+        try {
+            return !scheduler.getJobInfo(jobId).getStatus().isJobAlive();
+        } catch (Exception e) {
+            // the job was removed or the session is closed
+            logger.debug("Cannot get the status of job " + jobId, e);
+            return true;
+        }
+    }
+}
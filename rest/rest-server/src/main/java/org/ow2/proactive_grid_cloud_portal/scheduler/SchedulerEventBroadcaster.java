@@ -49,7 +49,14 @@ import com.google.common.base.Throwables;
 
 
 /**
- * Broadcasts the scheduler events which it receives to the target REST client.
+ * Broadcasts the scheduler events which it receives to the target REST client,
+ * with the full job states.
+ * <p>
+ * The clients receiving the job changes instead are sent the notifications of the
+ * event journal by a {@link JournalEventBroadcaster}, tagged with their revision.
+ * This listener is still registered to the scheduler for them, so that the scheduler
+ * checks the user may receive these events and drops the subscription with the
+ * session, but it does not forward the events it receives.
  */
 public class SchedulerEventBroadcaster implements SchedulerEventListener {
 
@@ -67,58 +74,89 @@ public class SchedulerEventBroadcaster implements SchedulerEventListener {
 
     private String broadcasterUUID;
 
+    private boolean forwardEvents;
+
     public SchedulerEventBroadcaster() {
         super();
     }
 
     public SchedulerEventBroadcaster(String broadcasterUuid) {
+        this(broadcasterUuid, true);
+    }
+
+    /**
+     * @param forwardEvents false if the notifications are sent by a {@link JournalEventBroadcaster}
+     */
+    public SchedulerEventBroadcaster(String broadcasterUuid, boolean forwardEvents) {
         this();
         this.broadcasterUUID = broadcasterUuid;
+        this.forwardEvents = forwardEvents;
     }
 
     @Override
     public void jobStateUpdatedEvent(NotificationData<JobInfo> notification) {
-        broadcast(new EventNotification(EventNotification.Action.JOB_STATE_UPDATED,
-                                        eventTypeName(notification),
-                                        notification.getData()));
+        if (forwardEvents) {
+            send(broadcasterUUID,
+                 new EventNotification(EventNotification.Action.JOB_STATE_UPDATED,
+                                       eventTypeName(notification),
+                                       notification.getData()));
+        }
     }
 
     @Override
     public void jobUpdatedFullDataEvent(JobState jobState) {
-        broadcast(new EventNotification(EventNotification.Action.JOB_FULL_DATA_UPDATED,
-                                        SchedulerEvent.JOB_UPDATED.name(),
-                                        jobState));
+        if (forwardEvents) {
+            send(broadcasterUUID,
+                 new EventNotification(EventNotification.Action.JOB_FULL_DATA_UPDATED,
+                                       SchedulerEvent.JOB_UPDATED.name(),
+                                       jobState));
+        }
     }
 
     @Override
     public void jobSubmittedEvent(JobState jobState) {
-        broadcast(new EventNotification(EventNotification.Action.JOB_SUBMITTED,
-                                        SchedulerEvent.JOB_SUBMITTED.name(),
-                                        jobState));
+        if (forwardEvents) {
+            send(broadcasterUUID,
+                 new EventNotification(EventNotification.Action.JOB_SUBMITTED,
+                                       SchedulerEvent.JOB_SUBMITTED.name(),
+                                       jobState));
+        }
     }
 
     @Override
     public void schedulerStateUpdatedEvent(SchedulerEvent schedulerEvent) {
-        broadcast(new EventNotification(EventNotification.Action.SCHEDULER_STATE_UPDATED, schedulerEvent.name(), null));
+        if (forwardEvents) {
+            send(broadcasterUUID,
+                 new EventNotification(EventNotification.Action.SCHEDULER_STATE_UPDATED, schedulerEvent.name(), null));
+        }
     }
 
     @Override
     public void taskStateUpdatedEvent(NotificationData<TaskInfo> notification) {
-        TaskInfoData taskInfoData = dozerMapper.map(notification.getData(), TaskInfoData.class);
+        if (forwardEvents) {
+            TaskInfoData taskInfoData = dozerMapper.map(notification.getData(), TaskInfoData.class);
 
-        broadcast(new EventNotification(EventNotification.Action.TASK_STATE_UPDATED,
-                                        eventTypeName(notification),
-                                        taskInfoData));
+            send(broadcasterUUID,
+                 new EventNotification(EventNotification.Action.TASK_STATE_UPDATED,
+                                       eventTypeName(notification),
+                                       taskInfoData));
+        }
     }
 
     @Override
     public void usersUpdatedEvent(NotificationData<UserIdentification> notification) {
-        broadcast(new EventNotification(EventNotification.Action.USERS_UPDATED,
-                                        eventTypeName(notification),
-                                        notification.getData()));
+        if (forwardEvents) {
+            send(broadcasterUUID,
+                 new EventNotification(EventNotification.Action.USERS_UPDATED,
+                                       eventTypeName(notification),
+                                       notification.getData()));
+        }
     }
 
-    private void broadcast(EventNotification eventNotification) {
+    /**
+     * Sends the notification to the client listening to the given broadcaster.
+     */
+    static void send(String broadcasterUUID, EventNotification eventNotification) {
         try {
             ServletContext servletContext = ServletContextFactory.getDefault().getServletContext();
 
@@ -0,0 +1,141 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dozer.DozerBeanMapper;
+import org.dozer.Mapper;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.common.task.TaskState;
+import org.ow2.proactive.scheduler.job.JobInfoImpl;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobInfoData;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskInfoData;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.EventNotification;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.JobDeltaData;
+
+import com.google.common.base.Objects;
+
+
+/**
+ * Builds the compact notifications of the job updates: instead of the whole job
+ * state, a {@link JobDeltaData} holding the job information and the information of
+ * the tasks which changed since the previous notification of the job.
+ * <p>
+ * The last information sent for each task of the alive jobs is kept to compute the
+ * changes. This class is not thread safe, it is meant to be used by an active object.
+ */
+class SchedulerEventDeltas {
+
+    private static final Mapper mapper = new DozerBeanMapper(Collections.singletonList("org/ow2/proactive_grid_cloud_portal/scheduler/dozer-mappings.xml"));
+
+    private final Map<JobId, Map<TaskId, TaskInfoData>> sentTasks = new HashMap<>();
+
+    EventNotification jobSubmitted(JobState jobState) {
+        return new EventNotification(EventNotification.Action.JOB_SUBMITTED,
+                                     SchedulerEvent.JOB_SUBMITTED.name(),
+                                     jobState);
+    }
+
+    EventNotification jobStateUpdated(NotificationData<JobInfo> notification) {
+        JobInfo jobInfo = notification.getData();
+        List<TaskInfoData> tasks = new ArrayList<>();
+        if (jobInfo instanceof JobInfoImpl && ((JobInfoImpl) jobInfo).getModifiedTasks() != null) {
+            addChangedTasks(jobInfo.getJobId(), ((JobInfoImpl) jobInfo).getModifiedTasks(), tasks);
+        }
+        if (notification.getEventType() == SchedulerEvent.JOB_REMOVE_FINISHED ||
+            !jobInfo.getStatus().isJobAlive()) {
+            sentTasks.remove(jobInfo.getJobId());
+        }
+        return new EventNotification(EventNotification.Action.JOB_DELTA,
+                                     notification.getEventType().name(),
+                                     new JobDeltaData(mapper.map(jobInfo, JobInfoData.class), tasks));
+    }
+
+    EventNotification jobUpdatedFullData(JobState jobState) {
+        List<TaskInfoData> tasks = new ArrayList<>();
+        addChangedTasks(jobState.getId(), jobState.getTasks(), tasks);
+        return new EventNotification(EventNotification.Action.JOB_DELTA,
+                                     SchedulerEvent.JOB_UPDATED.name(),
+                                     new JobDeltaData(mapper.map(jobState.getJobInfo(), JobInfoData.class), tasks));
+    }
+
+    EventNotification taskStateUpdated(NotificationData<TaskInfo> notification) {
+        TaskInfo taskInfo = notification.getData();
+        TaskInfoData taskInfoData = mapper.map(taskInfo, TaskInfoData.class);
+        Map<TaskId, TaskInfoData> jobTasks = sentTasks.get(taskInfo.getJobId());
+        if (jobTasks != null) {
+            jobTasks.put(taskInfo.getTaskId(), taskInfoData);
+        }
+        return new EventNotification(EventNotification.Action.TASK_STATE_UPDATED,
+                                     notification.getEventType().name(),
+                                     taskInfoData);
+    }
+
+    int getTrackedJobsCount() {
+        return sentTasks.size();
+    }
+
+    private void addChangedTasks(JobId jobId, Collection<? extends TaskState> taskStates,
+            List<TaskInfoData> changedTasks) {
+        Map<TaskId, TaskInfoData> jobTasks = sentTasks.get(jobId);
+        if (jobTasks == null) {
+            jobTasks = new HashMap<>();
+            sentTasks.put(jobId, jobTasks);
+        }
+        for (TaskState taskState : taskStates) {
+            TaskInfo taskInfo = taskState.getTaskInfo();
+            TaskInfoData taskInfoData = mapper.map(taskInfo, TaskInfoData.class);
+            TaskInfoData previous = jobTasks.put(taskInfo.getTaskId(), taskInfoData);
+            if (previous == null || !sameState(previous, taskInfoData)) {
+                changedTasks.add(taskInfoData);
+            }
+        }
+    }
+
+    private static boolean sameState(TaskInfoData first, TaskInfoData second) {
+        return first.getTaskStatus() == second.getTaskStatus() && first.getProgress() == second.getProgress() &&
+               first.getStartTime() == second.getStartTime() && first.getFinishedTime() == second.getFinishedTime() &&
+               first.getInErrorTime() == second.getInErrorTime() &&
+               first.getScheduledTime() == second.getScheduledTime() &&
+               first.getExecutionDuration() == second.getExecutionDuration() &&
+               first.getNumberOfExecutionLeft() == second.getNumberOfExecutionLeft() &&
+               first.getNumberOfExecutionOnFailureLeft() == second.getNumberOfExecutionOnFailureLeft() &&
+               Objects.equal(first.getExecutionHostName(), second.getExecutionHostName());
+    }
+
+}
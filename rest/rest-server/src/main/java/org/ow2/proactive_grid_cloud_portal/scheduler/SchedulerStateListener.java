@@ -26,17 +26,21 @@
 package org.ow2.proactive_grid_cloud_portal.scheduler;
 
 import java.io.File;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.api.PAActiveObject;
 import org.objectweb.proactive.core.mop.MOPClassLoader;
 import org.ow2.proactive.authentication.crypto.Credentials;
 import org.ow2.proactive.scheduler.common.Scheduler;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
 import org.ow2.proactive.scheduler.common.SchedulerStatus;
 import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
 import org.ow2.proactive.scheduler.common.exception.PermissionException;
 import org.ow2.proactive.scheduler.common.util.SchedulerProxyUserInterface;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.EventNotification;
 import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
 
 
@@ -55,16 +59,25 @@ public class SchedulerStateListener {
      */
     static class State {
 
-        private AtomicLong revision = new AtomicLong(-1);
+        private final EventJournal journal = new EventJournal(PortalConfiguration.SCHEDULER_EVENTS_JOURNAL_SIZE.getValueAsInt());
 
         private volatile SchedulerStatus status;
 
-        void incrementRevision() {
-            revision.incrementAndGet();
+        /**
+         * Increments the revision and keeps the notification of the event in the journal.
+         *
+         * @param owner the owner of the job concerned by the event, null if the event concerns the whole scheduler
+         */
+        void record(SchedulerEvent event, String owner, EventNotification notification) {
+            journal.append(event, owner, notification);
         }
 
         long getRevision() {
-            return revision.get();
+            return journal.getRevision();
+        }
+
+        EventJournal getJournal() {
+            return journal;
         }
 
         public SchedulerStatus getStatus() {
@@ -154,6 +167,40 @@ public class SchedulerStateListener {
         return state.getRevision();
     }
 
+    /**
+     * Returns the notifications of the events which occurred after the given revision.
+     *
+     * @param revision the last revision known by the client
+     * @param owner if not null, only the events concerning the whole scheduler or the jobs of this user are returned
+     * @param events the types of events to return, all types if empty
+     * @return the notifications in order, or null if the events following the given
+     *         revision are no longer kept
+     */
+    public List<EventNotification> getEventsSince(long revision, String owner, Set<SchedulerEvent> events) {
+        List<EventJournal.Entry> entries = state.getJournal().since(revision);
+        if (entries == null) {
+            return null;
+        }
+        List<EventNotification> result = new ArrayList<>(entries.size());
+        for (EventJournal.Entry entry : entries) {
+            if (entry.matches(owner, events)) {
+                result.add(entry.getNotification());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Registers a listener to the events recorded in the journal from now on.
+     */
+    void addJournalListener(EventJournal.Listener listener) {
+        state.getJournal().addListener(listener);
+    }
+
+    void removeJournalListener(EventJournal.Listener listener) {
+        state.getJournal().removeListener(listener);
+    }
+
     public SchedulerStatus getSchedulerStatus(Scheduler scheduler) throws PermissionException, NotConnectedException {
         SchedulerStatus status = state.getStatus();
         if (status == null) {
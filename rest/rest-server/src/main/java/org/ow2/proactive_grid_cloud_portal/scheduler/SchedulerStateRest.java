@@ -34,9 +34,11 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectInputStream;
 import java.io.PrintWriter;
 import java.io.SequenceInputStream;
 import java.io.Serializable;
+import java.io.StreamCorruptedException;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -47,6 +49,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -113,6 +116,7 @@ import org.ow2.proactive.scheduler.common.Scheduler;
 import org.ow2.proactive.scheduler.common.SchedulerAuthenticationInterface;
 import org.ow2.proactive.scheduler.common.SchedulerConnection;
 import org.ow2.proactive.scheduler.common.SchedulerConstants;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
 import org.ow2.proactive.scheduler.common.SortSpecifierContainer;
 import org.ow2.proactive.scheduler.common.exception.ConnectionException;
 import org.ow2.proactive.scheduler.common.exception.InternalSchedulerException;
@@ -134,6 +138,7 @@ import org.ow2.proactive.scheduler.common.job.factories.FlatJobFactory;
 import org.ow2.proactive.scheduler.common.task.Task;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.common.task.TaskResultValueChunk;
 import org.ow2.proactive.scheduler.common.task.TaskState;
 import org.ow2.proactive.scheduler.common.task.TaskStatesPage;
 import org.ow2.proactive.scheduler.common.util.PageBoundaries;
@@ -161,6 +166,7 @@ import org.ow2.proactive_grid_cloud_portal.scheduler.dto.SchedulerStatusData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.SchedulerUserData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskIdData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskResultData;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskResultValueChunkData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskStateData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.UserJobData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.EventNotification;
@@ -477,6 +483,62 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         }
     }
 
+    /**
+     * Streams the live logs of a job as server-sent events. The logs are
+     * buffered once per job for all the clients following them. The number of
+     * streams opened at once is limited, see
+     * {@link PortalConfiguration#SCHEDULER_LIVELOG_MAX_STREAMS}.
+     *
+     * @param sessionId
+     *            a valid session id
+     * @param jobId
+     *            the id of the job to retrieve
+     * @param cursor
+     *            sequence number of the first log to stream
+     * @param lastEventId
+     *            id of the last event received by a reconnecting client
+     */
+    @Override
+    @GET
+    @Path("jobs/{jobid}/livelog/stream")
+    @Produces("text/event-stream")
+    public Response streamLiveLogJob(@HeaderParam("sessionid") String sessionId, @PathParam("jobid") String jobId,
+            @QueryParam("cursor") @DefaultValue("0") long cursor, @HeaderParam("Last-Event-ID") String lastEventId)
+            throws NotConnectedRestException, UnknownJobRestException, PermissionRestException,
+            LogForwardingRestException {
+        try {
+            Scheduler scheduler = checkAccess(sessionId, "/scheduler/jobs/" + jobId + "/livelog/stream");
+            Session session = sessionStore.get(sessionId);
+
+            // checks that the user can access the job, the buffer may have been created by another user
+            scheduler.getJobInfo(jobId);
+            LiveLogBuffer buffer = session.getJobsOutputController().getLiveLogBuffer(jobId);
+
+            if (lastEventId != null && !lastEventId.trim().isEmpty()) {
+                try {
+                    cursor = Long.parseLong(lastEventId.trim()) + 1;
+                } catch (NumberFormatException e) {
+                    logger.debug("Invalid last event id " + lastEventId, e);
+                }
+            }
+            LiveLogStreamingOutput stream = LiveLogStreamingOutput.open(scheduler, jobId, buffer, cursor);
+            if (stream == null) {
+                return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                               .header("Retry-After", LiveLogStreamingOutput.RETRY_DELAY)
+                               .build();
+            }
+            return Response.ok(stream).header("Cache-Control", "no-cache").build();
+        } catch (PermissionException e) {
+            throw new PermissionRestException(e);
+        } catch (NotConnectedException e) {
+            throw new NotConnectedRestException(e);
+        } catch (UnknownJobException e) {
+            throw new UnknownJobRestException(e);
+        } catch (LogForwardingException e) {
+            throw new LogForwardingRestException(e);
+        }
+    }
+
     /**
      * number of available bytes in the stream or -1 if the stream does not
      * exist.
@@ -640,6 +702,38 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         }
     }
 
+    /**
+     * Delete a set of jobs, jobs not yet finished are killed then removed
+     *
+     * @param sessionId
+     *            a valid session id
+     * @param jobsId
+     *            the ids of the jobs to delete
+     * @return true if all the jobs were removed, false if some of them were
+     *         already removed
+     */
+    @Override
+    @DELETE
+    @Path("jobs")
+    @Produces("application/json")
+    public boolean removeJobs(@HeaderParam("sessionid") String sessionId, @QueryParam("jobsid") List<String> jobsId)
+            throws NotConnectedRestException, UnknownJobRestException, PermissionRestException {
+        try {
+            Scheduler s = checkAccess(sessionId, "DELETE jobs");
+            List<JobId> jobIds = new ArrayList<>(jobsId.size());
+            for (String jobId : jobsId) {
+                jobIds.add(JobIdImpl.makeJobId(jobId));
+            }
+            return s.removeJobs(jobIds);
+        } catch (PermissionException e) {
+            throw new PermissionRestException(e);
+        } catch (UnknownJobException e) {
+            throw new UnknownJobRestException(e);
+        } catch (NotConnectedException e) {
+            throw new NotConnectedRestException(e);
+        }
+    }
+
     /**
      * Returns job server logs
      * 
@@ -1359,6 +1453,20 @@ public class SchedulerStateRest implements SchedulerRestInterface {
     public Serializable valueOfTaskResult(@HeaderParam("sessionid") String sessionId, @PathParam("jobid") String jobId,
             @PathParam("taskname") String taskname) throws Throwable {
         Scheduler s = checkAccess(sessionId, "jobs/" + jobId + "/tasks/" + taskname + "/result/value");
+        InputStream serializedValue = TaskResultValueInputStream.open(s, jobId, taskname);
+        if (serializedValue != null) {
+            // deserialize the value while it is read rather than loading the whole result first
+            try (ObjectInputStream objectInput = new ObjectInputStream(serializedValue)) {
+                Object value = objectInput.readObject();
+                return value == null ? null : value.toString();
+            } catch (StreamCorruptedException e) {
+                // raw results are not serialized objects
+            } catch (ClassNotFoundException e) {
+                return UNKNOWN_VALUE_TYPE;
+            } catch (Throwable t) {
+                return "Unable to get the value due to " + t.getMessage();
+            }
+        }
         TaskResult taskResult = s.getTaskResult(jobId, taskname);
         return getTaskResultValueAsStringOrExceptionStackTrace(taskResult);
     }
@@ -1486,19 +1594,69 @@ public class SchedulerStateRest implements SchedulerRestInterface {
      *            the id of the job
      * @param taskname
      *            the name of the task
-     * @return the value of the task result as a byte array.
+     * @return the value of the task result as a byte array, streamed while it is read from the scheduler.
      */
     @Override
     @GET
     @GZIP
     @Path("jobs/{jobid}/tasks/{taskname}/result/serializedvalue")
     @Produces("*/*")
-    public byte[] serializedValueOfTaskResult(@HeaderParam("sessionid") String sessionId,
+    public InputStream serializedValueOfTaskResult(@HeaderParam("sessionid") String sessionId,
             @PathParam("jobid") String jobId, @PathParam("taskname") String taskname) throws Throwable {
         Scheduler s = checkAccess(sessionId, "jobs/" + jobId + "/tasks/" + taskname + "/result/serializedvalue");
-        TaskResult tr = s.getTaskResult(jobId, taskname);
-        tr = PAFuture.getFutureValue(tr);
-        return tr.getSerializedValue();
+        return TaskResultValueInputStream.open(s, jobId, taskname);
+    }
+
+    /**
+     * Returns a chunk of the serialized value of a result of the task <code>taskName</code>
+     * of the job <code>jobId</code>.
+     *
+     * @param sessionId
+     *            a valid session id
+     * @param jobId
+     *            the id of the job
+     * @param taskname
+     *            the name of the task
+     * @param chunkIndex
+     *            index of the chunk, starting at 0
+     * @param resultId
+     *            id of the result to read, -1 for the last result of the task
+     * @return the chunk, or no content if there is no such chunk, the task is not
+     *         finished or its result has no value
+     */
+    @Override
+    @GET
+    @GZIP
+    @Path("jobs/{jobid}/tasks/{taskname}/result/serializedvalue/chunks/{chunkindex}")
+    @Produces("application/json")
+    public TaskResultValueChunkData serializedValueChunkOfTaskResult(@HeaderParam("sessionid") String sessionId,
+            @PathParam("jobid") String jobId, @PathParam("taskname") String taskname,
+            @PathParam("chunkindex") int chunkIndex, @QueryParam("resultid") @DefaultValue("-1") long resultId)
+            throws NotConnectedRestException, UnknownJobRestException, UnknownTaskRestException,
+            PermissionRestException {
+        try {
+            Scheduler s = checkAccess(sessionId,
+                                      "jobs/" + jobId + "/tasks/" + taskname + "/result/serializedvalue/chunks/" +
+                                                 chunkIndex);
+            TaskResultValueChunk chunk = s.getTaskResultValueChunk(jobId, taskname, resultId, chunkIndex);
+            if (chunk == null) {
+                return null;
+            }
+            TaskResultValueChunkData chunkData = new TaskResultValueChunkData();
+            chunkData.setResultId(chunk.getResultId());
+            chunkData.setChunkIndex(chunk.getChunkIndex());
+            chunkData.setChunkCount(chunk.getChunkCount());
+            chunkData.setValue(chunk.getValue());
+            return chunkData;
+        } catch (PermissionException e) {
+            throw new PermissionRestException(e);
+        } catch (UnknownJobException e) {
+            throw new UnknownJobRestException(e);
+        } catch (NotConnectedException e) {
+            throw new NotConnectedRestException(e);
+        } catch (UnknownTaskException e) {
+            throw new UnknownTaskRestException(e);
+        }
     }
 
     /**
@@ -3394,6 +3552,12 @@ public class SchedulerStateRest implements SchedulerRestInterface {
      * occurs, it will be communicated to the client in the form of
      * {@link EventNotification} utilizing the WebSocket channel initialized
      * previously.
+     * <p>
+     * Job updates are sent as changes unless {@link EventSubscription#isFullState()}
+     * is set. If {@link EventSubscription#getSinceRevision()} is set, the events
+     * which occurred after this revision are sent first, or a
+     * {@link EventNotification.Action#RESYNC_REQUIRED} notification if they are no
+     * longer available.
      */
     @POST
     @Path("/events")
@@ -3403,18 +3567,40 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         HttpSession session = req.getSession();
         String broadcasterId = (String) session.getAttribute(ATM_BROADCASTER_ID);
         final SchedulerProxyUserInterface scheduler = checkAccess(broadcasterId);
-        SchedulerEventBroadcaster eventListener = new SchedulerEventBroadcaster(broadcasterId);
+        SchedulerEventBroadcaster eventListener = new SchedulerEventBroadcaster(broadcasterId,
+                                                                                subscription.isFullState());
         try {
             final SchedulerEventBroadcaster activedEventListener = PAActiveObject.turnActive(eventListener);
-            scheduler.addEventListener(activedEventListener,
-                                       subscription.isMyEventsOnly(),
-                                       EventUtil.toSchedulerEvents(subscription.getEvents()));
+            SchedulerEvent[] events = EventUtil.toSchedulerEvents(subscription.getEvents());
+            scheduler.addEventListener(activedEventListener, subscription.isMyEventsOnly(), events);
+
+            final JournalEventBroadcaster journalListener;
+            if (subscription.isFullState()) {
+                journalListener = null;
+            } else {
+                // the events recorded meanwhile are held by the broadcaster until the replay is done
+                boolean replay = subscription.getSinceRevision() >= 0;
+                String owner = subscription.isMyEventsOnly() ? sessionStore.get(broadcasterId).getUserName() : null;
+                Set<SchedulerEvent> eventTypes = events.length == 0 ? Collections.<SchedulerEvent> emptySet()
+                                                                    : EnumSet.copyOf(Arrays.asList(events));
+                journalListener = new JournalEventBroadcaster(broadcasterId, owner, eventTypes, replay);
+                SchedulerStateListener.getInstance().addJournalListener(journalListener);
+                if (replay) {
+                    journalListener.replay(SchedulerStateListener.getInstance()
+                                                                 .getEventsSince(subscription.getSinceRevision(),
+                                                                                 owner,
+                                                                                 eventTypes));
+                }
+            }
 
             AtmosphereResource atmResource = getAtmosphereResourceFactory().find((String) session.getAttribute(ATM_RESOURCE_ID));
 
             atmResource.addEventListener(new WebSocketEventListenerAdapter() {
                 @Override
                 public void onDisconnect(@SuppressWarnings("rawtypes") WebSocketEvent event) {
+                    if (journalListener != null) {
+                        SchedulerStateListener.getInstance().removeJournalListener(journalListener);
+                    }
                     try {
                         logger.info("#### websocket disconnected remove listener ####");
                         scheduler.removeEventListener();
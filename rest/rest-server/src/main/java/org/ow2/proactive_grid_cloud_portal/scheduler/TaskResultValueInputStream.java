@@ -0,0 +1,136 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.ow2.proactive.scheduler.common.Scheduler;
+import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
+import org.ow2.proactive.scheduler.common.exception.PermissionException;
+import org.ow2.proactive.scheduler.common.exception.UnknownJobException;
+import org.ow2.proactive.scheduler.common.exception.UnknownTaskException;
+import org.ow2.proactive.scheduler.common.task.TaskResultValueChunk;
+
+
+/**
+ * Reads the serialized value of a task result from the scheduler one chunk at a time,
+ * so that big results are never held entirely in memory by the scheduler nor by the REST server.
+ * All the chunks are read from the result of the first one, even if the task is restarted meanwhile.
+ *
+ * @author ActiveEon Team
+ */
+class TaskResultValueInputStream extends InputStream {
+
+    private final Scheduler scheduler;
+
+    private final String jobId;
+
+    private final String taskName;
+
+    private TaskResultValueChunk chunk;
+
+    private int position;
+
+    private TaskResultValueInputStream(Scheduler scheduler, String jobId, String taskName,
+            TaskResultValueChunk firstChunk) {
+        this.scheduler = scheduler;
+        this.jobId = jobId;
+        this.taskName = taskName;
+        this.chunk = firstChunk;
+    }
+
+    /**
+     * @return a stream over the serialized value of the last result of the task,
+     *         or null if the task is not finished or its result has no value
+     */
+    static TaskResultValueInputStream open(Scheduler scheduler, String jobId, String taskName)
+            throws NotConnectedException, UnknownJobException, UnknownTaskException, PermissionException {
+        TaskResultValueChunk firstChunk = scheduler.getTaskResultValueChunk(jobId,
+                                                                            taskName,
+                                                                            TaskResultValueChunk.LAST_RESULT,
+                                                                            0);
+        if (firstChunk == null) {
+            return null;
+        }
+        return new TaskResultValueInputStream(scheduler, jobId, taskName, firstChunk);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        return chunk.getValue()[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        int count = Math.min(length, chunk.getValue().length - position);
+        System.arraycopy(chunk.getValue(), position, buffer, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return chunk == null ? 0 : chunk.getValue().length - position;
+    }
+
+    @Override
+    public void close() {
+        chunk = null;
+    }
+
+    private boolean ensureAvailable() throws IOException {
+        while (chunk != null && position == chunk.getValue().length) {
+            chunk = chunk.isLast() ? null : nextChunk();
+            position = 0;
+        }
+        return chunk != null;
+    }
+
+    private TaskResultValueChunk nextChunk() throws IOException {
+        TaskResultValueChunk next;
+        try {
+            next = scheduler.getTaskResultValueChunk(jobId, taskName, chunk.getResultId(), chunk.getChunkIndex() + 1);
+        } catch (NotConnectedException | UnknownJobException | UnknownTaskException | PermissionException e) {
+            throw new IOException("Cannot read the result of task " + taskName + " of job " + jobId, e);
+        }
+        if (next == null) {
+            throw new IOException("Missing chunk " + (chunk.getChunkIndex() + 1) + " of the result of task " +
+                                  taskName + " of job " + jobId);
+        }
+        return next;
+    }
+
+}
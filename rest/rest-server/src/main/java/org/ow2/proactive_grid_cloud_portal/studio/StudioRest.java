@@ -38,9 +38,11 @@ import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
 import javax.security.auth.login.LoginException;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.FormParam;
 import javax.ws.rs.HeaderParam;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.PathSegment;
 
 import org.apache.commons.io.FileUtils;
@@ -57,6 +59,7 @@ import org.ow2.proactive_grid_cloud_portal.common.dto.LoginForm;
 import org.ow2.proactive_grid_cloud_portal.scheduler.SchedulerStateRest;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobIdData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobValidationData;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.RestPage;
 import org.ow2.proactive_grid_cloud_portal.scheduler.exception.JobCreationRestException;
 import org.ow2.proactive_grid_cloud_portal.scheduler.exception.NotConnectedRestException;
 import org.ow2.proactive_grid_cloud_portal.scheduler.exception.PermissionRestException;
@@ -146,6 +149,14 @@ public class StudioRest implements StudioInterface {
         return getFileStorageSupport().getWorkflowStorage(userName).readAll();
     }
 
+    @Override
+    public RestPage<StorageEntry> getWorkflowEntries(@HeaderParam("sessionid") String sessionId,
+            @QueryParam("index") @DefaultValue("-1") int index, @QueryParam("limit") @DefaultValue("-1") int limit)
+            throws NotConnectedRestException, IOException {
+        String userName = getUserName(sessionId);
+        return page(getFileStorageSupport().getWorkflowStorage(userName).readEntries(), index, limit);
+    }
+
     @Override
     public Workflow createWorkflow(@HeaderParam("sessionid") String sessionId, Workflow workflow)
             throws NotConnectedRestException, IOException {
@@ -190,6 +201,13 @@ public class StudioRest implements StudioInterface {
         return getFileStorageSupport().getTemplateStorage().readAll();
     }
 
+    @Override
+    public RestPage<StorageEntry> getTemplateEntries(@HeaderParam("sessionid") String sessionId,
+            @QueryParam("index") @DefaultValue("-1") int index, @QueryParam("limit") @DefaultValue("-1") int limit)
+            throws NotConnectedRestException, IOException {
+        return page(getFileStorageSupport().getTemplateStorage().readEntries(), index, limit);
+    }
+
     @Override
     public Workflow createTemplate(@HeaderParam("sessionid") String sessionId, Workflow template)
             throws NotConnectedRestException, IOException {
@@ -227,6 +245,20 @@ public class StudioRest implements StudioInterface {
         return getFileStorageSupport().getScriptStorage(userName).readAll();
     }
 
+    @Override
+    public RestPage<StorageEntry> getScriptEntries(@HeaderParam("sessionid") String sessionId,
+            @QueryParam("index") @DefaultValue("-1") int index, @QueryParam("limit") @DefaultValue("-1") int limit)
+            throws NotConnectedRestException, IOException {
+        String userName = getUserName(sessionId);
+        return page(getFileStorageSupport().getScriptStorage(userName).readEntries(), index, limit);
+    }
+
+    private static RestPage<StorageEntry> page(List<StorageEntry> entries, int index, int limit) {
+        int from = Math.min(Math.max(index, 0), entries.size());
+        int to = limit < 0 ? entries.size() : (int) Math.min((long) from + limit, entries.size());
+        return new RestPage<>(entries.subList(from, to), entries.size());
+    }
+
     @Override
     public String createScript(@HeaderParam("sessionid") String sessionId, @FormParam("name") String name,
             @FormParam("content") String content) throws NotConnectedRestException, IOException {
@@ -28,56 +28,102 @@ package org.ow2.proactive_grid_cloud_portal.studio.storage;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Logger;
 import org.ow2.proactive_grid_cloud_portal.studio.Named;
+import org.ow2.proactive_grid_cloud_portal.studio.StorageEntry;
 
 
 public class FileStorage<T extends Named> {
 
+    private static final Logger logger = Logger.getLogger(FileStorage.class);
+
     protected final File rootDir;
 
     protected final IdGenerator idGenerator;
 
     protected Serializer<T> serializer;
 
+    protected final FileStorageIndex index;
+
     public FileStorage(File rootDir, Serializer<T> serializer, IdGenerator generator) {
         this.rootDir = rootDir;
         this.serializer = serializer;
         this.idGenerator = generator;
+        this.index = FileStorageIndex.forDirectory(rootDir);
     }
 
     public T store(T entity) throws IOException {
-        String id = idGenerator.generateId(rootDir, entity);
-        File entityPath = getPathForId(id);
-        return serializer.serialize(entityPath, id, entity);
+        synchronized (index) {
+            String id = idGenerator.generateId(rootDir, entity);
+            File entityPath = getPathForId(id);
+            T stored = serializer.serialize(entityPath, id, entity);
+            index.put(id, entity.getName());
+            return stored;
+        }
     }
 
     public T update(String id, T entity) throws IOException {
-        File entityPath = getPathForId(id);
-        return serializer.serialize(entityPath, id, entity);
+        synchronized (index) {
+            File entityPath = getPathForId(id);
+            T updated = serializer.serialize(entityPath, id, entity);
+            index.put(id, entity.getName());
+            return updated;
+        }
     }
 
     public List<T> readAll() throws IOException {
-        File[] files = rootDir.listFiles();
-        ArrayList<T> entities = new ArrayList<>(files.length);
-        for (File f : files) {
-            entities.add(read(f.getName()));
+        List<StorageEntry> entries = index.getEntries();
+        ArrayList<T> entities = new ArrayList<>(entries.size());
+        for (StorageEntry entry : entries) {
+            entities.add(read(entry.getId()));
         }
         return entities;
     }
 
+    /**
+     * Lists the stored entities without reading their content, which can be read
+     * afterwards with {@link #read(String)}.
+     *
+     * @return the entries ordered by id
+     */
+    public List<StorageEntry> readEntries() {
+        List<StorageEntry> entries = index.getEntries();
+        // entities added to the directory by another process are read once to know their names
+        Map<String, String> names = new HashMap<>();
+        for (StorageEntry entry : entries) {
+            if (entry.getName() == null) {
+                try {
+                    entry.setName(read(entry.getId()).getName());
+                    names.put(entry.getId(), entry.getName());
+                } catch (IOException e) {
+                    logger.warn("Could not read the name of " + getPathForId(entry.getId()), e);
+                }
+            }
+        }
+        if (!names.isEmpty()) {
+            index.setNames(names);
+        }
+        return entries;
+    }
+
     public T read(String id) throws IOException {
         File entityPath = getPathForId(id);
         return serializer.deserialize(entityPath, id);
     }
 
     public T delete(String workflowId) throws IOException {
-        File entityPath = getPathForId(workflowId);
-        T result = read(entityPath.getName());
-        FileUtils.forceDelete(entityPath);
-        return result;
+        synchronized (index) {
+            File entityPath = getPathForId(workflowId);
+            T result = read(entityPath.getName());
+            FileUtils.forceDelete(entityPath);
+            index.remove(workflowId);
+            return result;
+        }
     }
 
     private File getPathForId(String id) {
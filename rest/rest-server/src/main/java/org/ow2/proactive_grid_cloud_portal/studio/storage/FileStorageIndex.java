@@ -0,0 +1,331 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.studio.storage;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Logger;
+import org.ow2.proactive_grid_cloud_portal.studio.StorageEntry;
+
+
+/**
+ * Index of the entries of a storage directory, kept in memory and in a hidden
+ * file of the directory so that the entries can be listed and new ids can be
+ * generated without reading the content of every entry.
+ * <p>
+ * The index is shared by all the storages of the directory. Entries added or
+ * removed by another process are detected with the modification time of the
+ * directory, in which case the directory is listed again.
+ *
+ * @author ActiveEon Team
+ */
+public class FileStorageIndex {
+
+    private static final Logger logger = Logger.getLogger(FileStorageIndex.class);
+
+    static final String INDEX_FILE_NAME = ".storage-index";
+
+    /**
+     * Time in ms after a modification of the directory during which it is listed at each access,
+     * as file systems with a coarse timestamp granularity may not show a modification made
+     * right after the previous one
+     */
+    static final long TIMESTAMP_GRANULARITY = 2000;
+
+    private static final String NEXT_ID_KEY = "next.id";
+
+    private static final String DIRECTORY_MODIFIED_KEY = "directory.modified";
+
+    private static final String ENTRY_COUNT_KEY = "entry.count";
+
+    private static final String ENTRY_KEY_PREFIX = "entry.id.";
+
+    private static final ConcurrentMap<File, FileStorageIndex> indexes = new ConcurrentHashMap<>();
+
+    private static final Comparator<StorageEntry> ID_ORDER = new Comparator<StorageEntry>() {
+        @Override
+        public int compare(StorageEntry e1, StorageEntry e2) {
+            Long id1 = parseId(e1.getId());
+            Long id2 = parseId(e2.getId());
+            if (id1 != null && id2 != null) {
+                return id1.compareTo(id2);
+            } else if (id1 != null) {
+                return -1;
+            } else if (id2 != null) {
+                return 1;
+            }
+            return e1.getId().compareTo(e2.getId());
+        }
+    };
+
+    private final File rootDir;
+
+    private final File indexFile;
+
+    private final Map<String, StorageEntry> entries = new HashMap<>();
+
+    private long nextId = 1;
+
+    private long directoryModified = -1;
+
+    private long directoryCheckTime;
+
+    private boolean loaded;
+
+    private FileStorageIndex(File rootDir) {
+        this.rootDir = rootDir;
+        this.indexFile = new File(rootDir, INDEX_FILE_NAME);
+    }
+
+    /**
+     * @return the index of the given storage directory
+     */
+    public static FileStorageIndex forDirectory(File rootDir) {
+        File key = rootDir.getAbsoluteFile();
+        FileStorageIndex index = indexes.get(key);
+        if (index == null) {
+            FileStorageIndex newIndex = new FileStorageIndex(key);
+            index = indexes.putIfAbsent(key, newIndex);
+            if (index == null) {
+                index = newIndex;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return true if the file is used by the index and is not an entry of the storage
+     */
+    static boolean isIndexFile(String fileName) {
+        return fileName.startsWith(INDEX_FILE_NAME);
+    }
+
+    /**
+     * @return the smallest numeric id which is not used by an entry
+     */
+    public synchronized long getSmallestAvailableId() {
+        sync(true);
+        return nextId;
+    }
+
+    /**
+     * @return a copy of the entries ordered by id, the name is null for the entries
+     * found in the directory whose content was never read
+     */
+    synchronized List<StorageEntry> getEntries() {
+        sync(true);
+        List<StorageEntry> copies = new ArrayList<>(entries.size());
+        for (StorageEntry entry : entries.values()) {
+            copies.add(new StorageEntry(entry));
+        }
+        Collections.sort(copies, ID_ORDER);
+        return copies;
+    }
+
+    /**
+     * Records an entry which was just written.
+     */
+    synchronized void put(String id, String name) {
+        sync(false);
+        long now = System.currentTimeMillis();
+        StorageEntry previous = entries.get(id);
+        File path = new File(rootDir, id);
+        entries.put(id,
+                    new StorageEntry(id,
+                                     name,
+                                     previous != null ? previous.getCreationTime() : now,
+                                     now,
+                                     sizeOf(path)));
+        Long numericId = parseId(id);
+        if (numericId != null && numericId == nextId) {
+            while (entries.containsKey(Long.toString(nextId))) {
+                nextId++;
+            }
+        }
+        save();
+    }
+
+    /**
+     * Forgets an entry which was just deleted.
+     */
+    synchronized void remove(String id) {
+        sync(false);
+        entries.remove(id);
+        Long numericId = parseId(id);
+        if (numericId != null && numericId > 0 && numericId < nextId) {
+            nextId = numericId;
+        }
+        save();
+    }
+
+    /**
+     * Records the names of entries whose content was read.
+     */
+    synchronized void setNames(Map<String, String> names) {
+        for (Map.Entry<String, String> name : names.entrySet()) {
+            StorageEntry entry = entries.get(name.getKey());
+            if (entry != null) {
+                entry.setName(name.getValue());
+            }
+        }
+        save();
+    }
+
+    /**
+     * Updates the entries if the directory was modified by another process.
+     *
+     * @param saveChanges false if the caller saves the index itself
+     */
+    private void sync(boolean saveChanges) {
+        if (!loaded) {
+            load();
+            loaded = true;
+        }
+        long modified = rootDir.lastModified();
+        if (modified == directoryModified && directoryCheckTime - modified > TIMESTAMP_GRANULARITY) {
+            return;
+        }
+        directoryModified = modified;
+        directoryCheckTime = System.currentTimeMillis();
+
+        String[] fileNames = rootDir.list();
+        Set<String> ids = new HashSet<>();
+        boolean changed = false;
+        if (fileNames != null) {
+            for (String fileName : fileNames) {
+                if (isIndexFile(fileName)) {
+                    continue;
+                }
+                ids.add(fileName);
+                if (!entries.containsKey(fileName)) {
+                    File path = new File(rootDir, fileName);
+                    long lastModified = path.lastModified();
+                    entries.put(fileName, new StorageEntry(fileName, null, lastModified, lastModified, sizeOf(path)));
+                    changed = true;
+                }
+            }
+        }
+        changed |= entries.keySet().retainAll(ids);
+        if (changed) {
+            nextId = 1;
+            while (entries.containsKey(Long.toString(nextId))) {
+                nextId++;
+            }
+            if (saveChanges) {
+                save();
+            }
+        }
+    }
+
+    private void load() {
+        if (!indexFile.exists()) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(indexFile)) {
+            properties.load(in);
+            for (String key : properties.stringPropertyNames()) {
+                if (key.startsWith(ENTRY_KEY_PREFIX)) {
+                    String id = key.substring(ENTRY_KEY_PREFIX.length());
+                    String[] values = properties.getProperty(key).split(",", 4);
+                    entries.put(id,
+                                new StorageEntry(id,
+                                                 values.length > 3 ? values[3] : null,
+                                                 Long.parseLong(values[0]),
+                                                 Long.parseLong(values[1]),
+                                                 Long.parseLong(values[2])));
+                }
+            }
+            if (entries.size() != Integer.parseInt(properties.getProperty(ENTRY_COUNT_KEY))) {
+                throw new IllegalStateException("Incomplete storage index");
+            }
+            nextId = Long.parseLong(properties.getProperty(NEXT_ID_KEY, "1"));
+            directoryModified = Long.parseLong(properties.getProperty(DIRECTORY_MODIFIED_KEY, "-1"));
+            directoryCheckTime = System.currentTimeMillis();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not read the storage index " + indexFile + ", the directory will be listed again", e);
+            entries.clear();
+            nextId = 1;
+            directoryModified = -1;
+        }
+    }
+
+    private void save() {
+        if (!rootDir.isDirectory()) {
+            return;
+        }
+        Properties properties = new Properties();
+        properties.setProperty(NEXT_ID_KEY, Long.toString(nextId));
+        properties.setProperty(ENTRY_COUNT_KEY, Integer.toString(entries.size()));
+        for (StorageEntry entry : entries.values()) {
+            String value = entry.getCreationTime() + "," + entry.getModificationTime() + "," + entry.getSize();
+            if (entry.getName() != null) {
+                value += "," + entry.getName();
+            }
+            properties.setProperty(ENTRY_KEY_PREFIX + entry.getId(), value);
+        }
+        // the index file is rewritten in place so that the directory is only modified when it is created,
+        // a partially written index is detected when it is loaded and the directory is listed again
+        properties.setProperty(DIRECTORY_MODIFIED_KEY, Long.toString(rootDir.lastModified()));
+        try (OutputStream out = new FileOutputStream(indexFile)) {
+            properties.store(out, null);
+        } catch (IOException e) {
+            logger.warn("Could not write the storage index " + indexFile, e);
+        }
+        directoryModified = rootDir.lastModified();
+        directoryCheckTime = System.currentTimeMillis();
+    }
+
+    private static long sizeOf(File path) {
+        return path.exists() ? FileUtils.sizeOf(path) : 0;
+    }
+
+    private static Long parseId(String id) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+}
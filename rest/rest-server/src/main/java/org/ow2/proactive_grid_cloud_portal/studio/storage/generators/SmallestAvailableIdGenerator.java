@@ -28,16 +28,14 @@ package org.ow2.proactive_grid_cloud_portal.studio.storage.generators;
 import java.io.File;
 
 import org.ow2.proactive_grid_cloud_portal.studio.Named;
+import org.ow2.proactive_grid_cloud_portal.studio.storage.FileStorageIndex;
 import org.ow2.proactive_grid_cloud_portal.studio.storage.IdGenerator;
 
 
 public class SmallestAvailableIdGenerator implements IdGenerator {
     public String generateId(File f, Named n) {
-        long id = 1;
-        while (new File(f, String.valueOf(id)).exists()) {
-            id++;
-        }
-        return Long.toString(id);
+        // maintained by the index of the directory instead of probing the ids one by one
+        return Long.toString(FileStorageIndex.forDirectory(f).getSmallestAvailableId());
     }
 
 }
@@ -47,6 +47,15 @@ public enum PortalConfiguration implements PACommonProperties {
 
     SCHEDULER_CACHE_CREDENTIALS("scheduler.cache.credential", PropertyType.STRING),
 
+    /** Number of scheduler events kept to be sent again to the REST clients which reconnect */
+    SCHEDULER_EVENTS_JOURNAL_SIZE("scheduler.events.journal.size", PropertyType.INTEGER, "1000"),
+
+    /**
+     * Maximum number of job live logs streamed at once, each stream holds a thread of the web
+     * server while it is opened. Clients asking for more streams are told to retry later.
+     */
+    SCHEDULER_LIVELOG_MAX_STREAMS("scheduler.livelog.max.streams", PropertyType.INTEGER, "50"),
+
     SCHEDULER_LOGINFORWARDINGSERVICE_PROVIDER(
             "scheduler.logforwardingservice.provider",
             PropertyType.STRING,
@@ -62,6 +71,9 @@ public enum PortalConfiguration implements PACommonProperties {
 
     RM_CACHE_REFRESHRATE("rm.cache.refreshrate", PropertyType.INTEGER, "3500"),
 
+    /** Default time in ms to wait for each node when querying mbeans on several nodes */
+    RM_NODE_JMX_QUERY_TIMEOUT("rm.node.jmx.query.timeout", PropertyType.INTEGER, "10000"),
+
     NOVNC_ENABLED("novnc.enabled", PropertyType.BOOLEAN, "false"),
 
     NOVNC_PORT("novnc.port", PropertyType.INTEGER, "5900"),
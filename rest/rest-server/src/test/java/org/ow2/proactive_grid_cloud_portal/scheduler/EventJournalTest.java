@@ -0,0 +1,109 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.EventNotification;
+
+
+public class EventJournalTest {
+
+    @Test
+    public void appendTagsNotificationsWithIncreasingRevisions() {
+        EventJournal journal = new EventJournal(10);
+        assertEquals(-1, journal.getRevision());
+
+        EventNotification first = notification();
+        EventNotification second = notification();
+        assertEquals(0, journal.append(SchedulerEvent.JOB_SUBMITTED, "user", first));
+        assertEquals(1, journal.append(SchedulerEvent.JOB_RUNNING_TO_FINISHED, "user", second));
+
+        assertEquals(0, first.getRevision());
+        assertEquals(1, second.getRevision());
+        assertEquals(1, journal.getRevision());
+    }
+
+    @Test
+    public void sinceReturnsTheEntriesAfterTheRevision() {
+        EventJournal journal = new EventJournal(10);
+        for (int i = 0; i < 5; i++) {
+            journal.append(SchedulerEvent.TASK_PROGRESS, "user", notification());
+        }
+
+        List<EventJournal.Entry> entries = journal.since(2);
+
+        assertEquals(2, entries.size());
+        assertEquals(3, entries.get(0).getRevision());
+        assertEquals(4, entries.get(1).getRevision());
+        assertTrue(journal.since(4).isEmpty());
+        assertEquals(5, journal.since(-1).size());
+    }
+
+    @Test
+    public void sinceReturnsNullWhenEntriesWereDropped() {
+        EventJournal journal = new EventJournal(3);
+        for (int i = 0; i < 5; i++) {
+            journal.append(SchedulerEvent.TASK_PROGRESS, "user", notification());
+        }
+
+        assertNull(journal.since(0));
+        assertEquals(3, journal.since(1).size());
+    }
+
+    @Test
+    public void listenersReceiveTheEntriesInRevisionOrder() {
+        EventJournal journal = new EventJournal(0);
+        final List<Long> revisions = new ArrayList<>();
+        journal.addListener(new EventJournal.Listener() {
+            @Override
+            public void recorded(EventJournal.Entry entry) {
+                revisions.add(entry.getNotification().getRevision());
+            }
+        });
+
+        for (int i = 0; i < 3; i++) {
+            journal.append(SchedulerEvent.TASK_PROGRESS, "user", notification());
+        }
+
+        assertEquals(Arrays.asList(0L, 1L, 2L), revisions);
+    }
+
+    private static EventNotification notification() {
+        return new EventNotification(EventNotification.Action.TASK_STATE_UPDATED,
+                                     SchedulerEvent.TASK_PROGRESS.name(),
+                                     null);
+    }
+
+}
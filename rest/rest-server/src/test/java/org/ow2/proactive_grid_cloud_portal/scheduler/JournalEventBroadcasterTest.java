@@ -0,0 +1,123 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.EventNotification;
+
+
+public class JournalEventBroadcasterTest {
+
+    private EventJournal journal;
+
+    private List<Long> sentRevisions;
+
+    @Before
+    public void setUp() {
+        journal = new EventJournal(100);
+        sentRevisions = new ArrayList<>();
+    }
+
+    @Test
+    public void live_events_carry_their_journal_revision() {
+        journal.append(SchedulerEvent.TASK_PROGRESS, "user", notification());
+        journal.addListener(broadcaster(null, Collections.<SchedulerEvent> emptySet(), false));
+
+        journal.append(SchedulerEvent.TASK_PROGRESS, "user", notification());
+        journal.append(SchedulerEvent.TASK_PROGRESS, "user", notification());
+
+        assertEquals(revisions(1, 2), sentRevisions);
+    }
+
+    @Test
+    public void events_are_filtered_by_owner_and_type() {
+        journal.addListener(broadcaster("user", EnumSet.of(SchedulerEvent.TASK_PROGRESS), false));
+
+        journal.append(SchedulerEvent.TASK_PROGRESS, "other", notification());
+        journal.append(SchedulerEvent.JOB_SUBMITTED, "user", notification());
+        journal.append(SchedulerEvent.TASK_PROGRESS, "user", notification());
+        journal.append(SchedulerEvent.TASK_PROGRESS, null, notification());
+
+        assertEquals(revisions(2, 3), sentRevisions);
+    }
+
+    @Test
+    public void replayed_events_are_not_sent_twice() {
+        for (int i = 0; i < 3; i++) {
+            journal.append(SchedulerEvent.TASK_PROGRESS, "user", notification());
+        }
+        JournalEventBroadcaster broadcaster = broadcaster(null, Collections.<SchedulerEvent> emptySet(), true);
+        journal.addListener(broadcaster);
+        // recorded after the subscription, but before the missed events are read
+        journal.append(SchedulerEvent.TASK_PROGRESS, "user", notification());
+        List<EventNotification> missed = new ArrayList<>();
+        for (EventJournal.Entry entry : journal.since(0)) {
+            missed.add(entry.getNotification());
+        }
+        // recorded after the missed events are read
+        journal.append(SchedulerEvent.TASK_PROGRESS, "user", notification());
+
+        broadcaster.replay(missed);
+        journal.append(SchedulerEvent.TASK_PROGRESS, "user", notification());
+
+        assertEquals(revisions(1, 2, 3, 4, 5), sentRevisions);
+    }
+
+    private JournalEventBroadcaster broadcaster(String owner, Set<SchedulerEvent> events,
+            boolean awaitReplay) {
+        return new JournalEventBroadcaster("broadcaster", owner, events, awaitReplay) {
+            @Override
+            void broadcast(EventNotification notification) {
+                sentRevisions.add(notification.getRevision());
+            }
+        };
+    }
+
+    private static List<Long> revisions(long... revisions) {
+        List<Long> result = new ArrayList<>();
+        for (long revision : revisions) {
+            result.add(revision);
+        }
+        return result;
+    }
+
+    private static EventNotification notification() {
+        return new EventNotification(EventNotification.Action.TASK_STATE_UPDATED,
+                                     SchedulerEvent.TASK_PROGRESS.name(),
+                                     null);
+    }
+
+}
@@ -0,0 +1,239 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.apache.log4j.MDC;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.task.Log4JTaskLogs;
+
+
+public class LiveLogBufferTest {
+
+    @Test
+    public void logs_are_read_from_cursor() throws Exception {
+        LiveLogBuffer buffer = new LiveLogBuffer(10, 0);
+        add(buffer, "a");
+        add(buffer, "b");
+        add(buffer, "c");
+
+        LiveLogBuffer.Logs logs = buffer.read(1, 0);
+
+        assertEquals(1, logs.getFirst());
+        assertEquals(Arrays.asList("b", "c"), messages(logs));
+        assertEquals(3, logs.getNext());
+    }
+
+    @Test
+    public void overwritten_logs_are_skipped() throws Exception {
+        LiveLogBuffer buffer = new LiveLogBuffer(3, 0);
+        for (int i = 0; i < 5; i++) {
+            add(buffer, "log" + i);
+        }
+
+        LiveLogBuffer.Logs logs = buffer.read(0, 0);
+
+        assertEquals(2, logs.getFirst());
+        assertEquals(Arrays.asList("log2", "log3", "log4"), messages(logs));
+        assertFalse(logs.isGap());
+        assertFalse(logs.isReset());
+    }
+
+    @Test
+    public void overwritten_logs_after_cursor_are_a_gap() throws Exception {
+        LiveLogBuffer buffer = new LiveLogBuffer(3, 0);
+        for (int i = 0; i < 5; i++) {
+            add(buffer, "log" + i);
+        }
+
+        LiveLogBuffer.Logs logs = buffer.read(1, 0);
+
+        assertEquals(2, logs.getFirst());
+        assertTrue(logs.isGap());
+        assertFalse(logs.isReset());
+    }
+
+    @Test
+    public void cursor_of_another_buffer_is_a_reset() throws Exception {
+        LiveLogBuffer buffer = new LiveLogBuffer(10, 100);
+        add(buffer, "a");
+        add(buffer, "b");
+
+        LiveLogBuffer.Logs logs = buffer.read(50, 0);
+
+        assertEquals(100, logs.getFirst());
+        assertEquals(Arrays.asList("a", "b"), messages(logs));
+        assertTrue(logs.isReset());
+        assertFalse(logs.isGap());
+    }
+
+    @Test
+    public void following_logs_are_neither_a_gap_nor_a_reset() throws Exception {
+        LiveLogBuffer buffer = new LiveLogBuffer(10, 100);
+        add(buffer, "a");
+        add(buffer, "b");
+
+        LiveLogBuffer.Logs logs = buffer.read(101, 0);
+
+        assertEquals(Collections.singletonList("b"), messages(logs));
+        assertFalse(logs.isGap());
+        assertFalse(logs.isReset());
+    }
+
+    @Test
+    public void cursor_from_the_future_restarts_from_oldest_log() throws Exception {
+        LiveLogBuffer buffer = new LiveLogBuffer(10, 0);
+        add(buffer, "a");
+
+        LiveLogBuffer.Logs logs = buffer.read(42, 0);
+
+        assertEquals(0, logs.getFirst());
+        assertEquals(Collections.singletonList("a"), messages(logs));
+        assertTrue(logs.isReset());
+    }
+
+    @Test
+    public void read_times_out_without_new_logs() throws Exception {
+        LiveLogBuffer buffer = new LiveLogBuffer(10, 0);
+        add(buffer, "a");
+
+        LiveLogBuffer.Logs logs = buffer.read(1, 50);
+
+        assertTrue(logs.getLogs().isEmpty());
+        assertEquals(1, logs.getNext());
+    }
+
+    @Test
+    public void read_waits_for_new_logs() throws Exception {
+        final LiveLogBuffer buffer = new LiveLogBuffer(10, 0);
+        final CountDownLatch reading = new CountDownLatch(1);
+        final LiveLogBuffer.Logs[] result = new LiveLogBuffer.Logs[1];
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    reading.countDown();
+                    result[0] = buffer.read(0, TimeUnit.SECONDS.toMillis(30));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        reader.start();
+        reading.await();
+
+        add(buffer, "a");
+        reader.join(TimeUnit.SECONDS.toMillis(30));
+
+        assertEquals(Collections.singletonList("a"), messages(result[0]));
+    }
+
+    @Test
+    public void finish_releases_readers() throws Exception {
+        LiveLogBuffer buffer = new LiveLogBuffer(10, 0);
+        add(buffer, "a");
+        buffer.finish();
+
+        long start = System.currentTimeMillis();
+        LiveLogBuffer.Logs logs = buffer.read(1, TimeUnit.SECONDS.toMillis(30));
+
+        assertTrue(logs.getLogs().isEmpty());
+        assertTrue(System.currentTimeMillis() - start < TimeUnit.SECONDS.toMillis(30));
+        assertThat(buffer.isFinished(), is(true));
+    }
+
+    @Test
+    public void reads_are_bounded() throws Exception {
+        LiveLogBuffer buffer = new LiveLogBuffer(LiveLogBuffer.MAX_READ * 2, 0);
+        for (int i = 0; i < LiveLogBuffer.MAX_READ + 10; i++) {
+            add(buffer, "log" + i);
+        }
+
+        LiveLogBuffer.Logs logs = buffer.read(0, 0);
+
+        assertEquals(LiveLogBuffer.MAX_READ, logs.getLogs().size());
+        assertEquals(10, buffer.read(logs.getNext(), 0).getLogs().size());
+    }
+
+    @Test
+    public void level_time_and_task_of_logs_are_kept() throws Exception {
+        LiveLogBuffer buffer = new LiveLogBuffer(10, 0);
+        MDC.put(Log4JTaskLogs.MDC_JOB_ID, "42");
+        MDC.put(Log4JTaskLogs.MDC_TASK_ID, "1");
+        try {
+            LoggingEvent event = new LoggingEvent(null,
+                                                  Logger.getLogger(Log4JTaskLogs.getLoggerName("42")),
+                                                  Log4JTaskLogs.STDERR_LEVEL,
+                                                  "error",
+                                                  null);
+            event.getMDCCopy();
+            buffer.doAppend(event);
+        } finally {
+            MDC.remove(Log4JTaskLogs.MDC_JOB_ID);
+            MDC.remove(Log4JTaskLogs.MDC_TASK_ID);
+        }
+
+        LiveLogBuffer.Log log = buffer.read(0, 0).getLogs().get(0);
+
+        assertEquals("error", log.getMessage());
+        assertEquals(Log4JTaskLogs.STDERR_LEVEL.toString(), log.getLevel());
+        assertEquals("42", log.getMdc().get(Log4JTaskLogs.MDC_JOB_ID));
+        assertEquals("1", log.getMdc().get(Log4JTaskLogs.MDC_TASK_ID));
+        assertTrue(log.getFormatted().contains("error"));
+        assertTrue(log.getTime() > 0);
+    }
+
+    private static void add(LiveLogBuffer buffer, String message) {
+        buffer.add(new LiveLogBuffer.Log(message,
+                                         new LoggingEvent(null,
+                                                          Logger.getLogger("test"),
+                                                          Log4JTaskLogs.STDOUT_LEVEL,
+                                                          message,
+                                                          null)));
+    }
+
+    private static List<String> messages(LiveLogBuffer.Logs logs) {
+        List<String> messages = new ArrayList<>();
+        for (LiveLogBuffer.Log log : logs.getLogs()) {
+            messages.add(log.getMessage());
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.common.task.TaskState;
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.job.JobInfoImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.scheduler.task.TaskInfoImpl;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.EventNotification;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.JobDeltaData;
+
+
+public class SchedulerEventDeltasTest {
+
+    private static final int NB_TASKS = 10;
+
+    private SchedulerEventDeltas deltas;
+
+    private JobInfoImpl jobInfo;
+
+    private TaskInfoImpl[] taskInfos;
+
+    private JobState jobState;
+
+    @Before
+    public void setUp() {
+        deltas = new SchedulerEventDeltas();
+
+        jobInfo = new JobInfoImpl();
+        jobInfo.setJobId(new JobIdImpl(42, "job"));
+        jobInfo.setJobOwner("user");
+        jobInfo.setStatus(JobStatus.RUNNING);
+        jobInfo.setTotalNumberOfTasks(NB_TASKS);
+
+        ArrayList<TaskState> tasks = new ArrayList<>();
+        taskInfos = new TaskInfoImpl[NB_TASKS];
+        for (int i = 0; i < NB_TASKS; i++) {
+            TaskInfoImpl taskInfo = new TaskInfoImpl();
+            taskInfo.setJobInfo(jobInfo);
+            taskInfo.setTaskId(TaskIdImpl.createTaskId(jobInfo.getJobId(), "task" + i, i));
+            taskInfo.setStatus(TaskStatus.PENDING);
+            taskInfos[i] = taskInfo;
+
+            TaskState taskState = mock(TaskState.class);
+            when(taskState.getTaskInfo()).thenReturn(taskInfo);
+            tasks.add(taskState);
+        }
+
+        jobState = mock(JobState.class);
+        when(jobState.getId()).thenReturn(jobInfo.getJobId());
+        when(jobState.getJobInfo()).thenReturn(jobInfo);
+        when(jobState.getTasks()).thenReturn(tasks);
+    }
+
+    @Test
+    public void firstFullDataUpdateContainsAllTasks() {
+        EventNotification notification = deltas.jobUpdatedFullData(jobState);
+
+        assertEquals(EventNotification.Action.JOB_DELTA, notification.getAction());
+        assertEquals(SchedulerEvent.JOB_UPDATED.name(), notification.getSchedulerEvent());
+        JobDeltaData delta = (JobDeltaData) notification.getData();
+        assertEquals(NB_TASKS, delta.getTasks().size());
+        assertEquals(NB_TASKS, delta.getJobInfo().getTotalNumberOfTasks());
+    }
+
+    @Test
+    public void fullDataUpdateContainsOnlyTheChangedTasks() {
+        deltas.jobUpdatedFullData(jobState);
+
+        taskInfos[3].setStatus(TaskStatus.RUNNING);
+        taskInfos[7].setProgress(50);
+        JobDeltaData delta = (JobDeltaData) deltas.jobUpdatedFullData(jobState).getData();
+
+        assertEquals(2, delta.getTasks().size());
+        assertEquals("task3", delta.getTasks().get(0).getTaskId().getReadableName());
+        assertEquals("task7", delta.getTasks().get(1).getTaskId().getReadableName());
+    }
+
+    @Test
+    public void taskUpdatesAreNotSentAgainInFullDataUpdates() {
+        deltas.jobUpdatedFullData(jobState);
+
+        taskInfos[5].setStatus(TaskStatus.FINISHED);
+        deltas.taskStateUpdated(new NotificationData<TaskInfo>(SchedulerEvent.TASK_RUNNING_TO_FINISHED,
+                                                               taskInfos[5]));
+        JobDeltaData delta = (JobDeltaData) deltas.jobUpdatedFullData(jobState).getData();
+
+        assertTrue(delta.getTasks().isEmpty());
+    }
+
+    @Test
+    public void finishedJobsAreForgotten() {
+        deltas.jobUpdatedFullData(jobState);
+        assertEquals(1, deltas.getTrackedJobsCount());
+
+        jobInfo.setStatus(JobStatus.FINISHED);
+        EventNotification notification = deltas.jobStateUpdated(new NotificationData<JobInfo>(SchedulerEvent.JOB_RUNNING_TO_FINISHED,
+                                                                                               jobInfo));
+
+        assertEquals(EventNotification.Action.JOB_DELTA, notification.getAction());
+        assertEquals(0, deltas.getTrackedJobsCount());
+    }
+
+}
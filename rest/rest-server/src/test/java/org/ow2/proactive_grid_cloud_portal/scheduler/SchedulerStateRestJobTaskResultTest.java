@@ -25,16 +25,25 @@
  */
 package org.ow2.proactive_grid_cloud_portal.scheduler;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Map;
 
+import org.apache.commons.io.IOUtils;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.objectweb.proactive.core.util.converter.ObjectToByteConverter;
+import org.ow2.proactive.scheduler.common.task.TaskResultValueChunk;
 import org.ow2.proactive.scheduler.common.util.SchedulerProxyUserInterface;
 import org.ow2.proactive.scheduler.job.JobIdImpl;
 import org.ow2.proactive.scheduler.job.JobInfoImpl;
@@ -50,6 +59,8 @@ import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskResultData;
 
 public class SchedulerStateRestJobTaskResultTest extends RestTestServer {
 
+    private static final long RESULT_ID = 12;
+
     private SchedulerRestInterface restInterface = null;
 
     private SchedulerProxyUserInterface mockOfScheduler = null;
@@ -126,4 +137,56 @@ public class SchedulerStateRestJobTaskResultTest extends RestTestServer {
         assertEquals("hello", result);
     }
 
+    @Test
+    public void testValueOfTaskResult_ReadByChunks() throws Throwable {
+        mockValueChunks(ObjectToByteConverter.ObjectStream.convert("a value read by chunks"), 7);
+
+        String value = (String) restInterface.valueOfTaskResult(sessionId, "42", "mytask");
+
+        assertEquals("a value read by chunks", value);
+        verify(mockOfScheduler, never()).getTaskResult(anyString(), anyString());
+    }
+
+    @Test
+    public void testSerializedValueOfTaskResult_ReadByChunks() throws Throwable {
+        byte[] serializedValue = ObjectToByteConverter.ObjectStream.convert("a value read by chunks");
+        mockValueChunks(serializedValue, 7);
+
+        InputStream value = restInterface.serializedValueOfTaskResult(sessionId, "42", "mytask");
+
+        assertArrayEquals(serializedValue, IOUtils.toByteArray(value));
+        verify(mockOfScheduler, never()).getTaskResult(anyString(), anyString());
+    }
+
+    private void mockValueChunks(byte[] serializedValue, int chunkSize) throws Exception {
+        int chunkCount = (serializedValue.length + chunkSize - 1) / chunkSize;
+        for (int index = 0; index < chunkCount; index++) {
+            int offset = index * chunkSize;
+            TaskResultValueChunk chunk = new TaskResultValueChunk(RESULT_ID,
+                                                                  index,
+                                                                  chunkCount,
+                                                                  Arrays.copyOfRange(serializedValue,
+                                                                                     offset,
+                                                                                     Math.min(offset + chunkSize,
+                                                                                              serializedValue.length)));
+            when(mockOfScheduler.getTaskResultValueChunk("42", "mytask", RESULT_ID, index)).thenReturn(chunk);
+            if (index == 0) {
+                when(mockOfScheduler.getTaskResultValueChunk("42",
+                                                             "mytask",
+                                                             TaskResultValueChunk.LAST_RESULT,
+                                                             0)).thenReturn(chunk);
+            } else {
+                // the task was restarted after the first chunk was read
+                TaskResultValueChunk newerChunk = new TaskResultValueChunk(RESULT_ID + 1,
+                                                                           index,
+                                                                           chunkCount,
+                                                                           new byte[chunkSize]);
+                when(mockOfScheduler.getTaskResultValueChunk("42",
+                                                             "mytask",
+                                                             TaskResultValueChunk.LAST_RESULT,
+                                                             index)).thenReturn(newerChunk);
+            }
+        }
+    }
+
 }
@@ -87,6 +87,47 @@ public class FileStorageTest {
         }
     }
 
+    @Test
+    public void smallest_available_id() throws IOException {
+        storage.store(new Workflow("name1", "xml", "metadata"));
+        storage.store(new Workflow("name2", "xml", "metadata"));
+        storage.store(new Workflow("name3", "xml", "metadata"));
+        storage.delete("2");
+
+        assertEquals(2L, storage.store(new Workflow("name2", "xml", "metadata")).getId());
+        assertEquals(4L, storage.store(new Workflow("name4", "xml", "metadata")).getId());
+    }
+
+    @Test
+    public void entries_without_content() throws IOException {
+        storage.store(new Workflow("name1", "xml", "metadata"));
+        storage.store(new Workflow("name2", "xml", "metadata"));
+        FileUtils.forceDelete(new File(folder.getRoot(), "2/job.xml"));
+
+        List<StorageEntry> entries = storage.readEntries();
+
+        assertEquals(2, entries.size());
+        assertEquals("1", entries.get(0).getId());
+        assertEquals("name1", entries.get(0).getName());
+        assertEquals("name1xmlmetadata".length(), entries.get(0).getSize());
+        assertEquals("name2", entries.get(1).getName());
+    }
+
+    @Test
+    public void entries_added_by_another_process() throws IOException {
+        storage.store(new Workflow("name1", "xml", "metadata"));
+        new WorkflowSerializer().serialize(new File(folder.getRoot(), "5"),
+                                           "5",
+                                           new Workflow("copied", "xml", "metadata"));
+
+        List<StorageEntry> entries = storage.readEntries();
+
+        assertEquals(2, entries.size());
+        assertEquals("copied", entries.get(1).getName());
+        assertEquals(new Workflow(5L, "copied", "xml", "metadata"), storage.read("5"));
+        assertEquals(2L, storage.store(new Workflow("name2", "xml", "metadata")).getId());
+    }
+
     @Test
     public void corrupted_no_name() throws IOException {
         exception.expect(IOException.class);
@@ -0,0 +1,95 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.common.event;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.ow2.proactive.resourcemanager.common.util.RMCachedState;
+
+
+/**
+ * Changes of the Resource Manager state since a given counter value, as returned by
+ * {@link RMCachedState#getDelta(long)}.
+ * <p>
+ * It contains the last event of each node and node source which changed. Removed
+ * nodes and node sources are reported with their {@link RMEventType#NODE_REMOVED} or
+ * {@link RMEventType#NODESOURCE_REMOVED} event. When {@link #isReset()} is true, the
+ * delta contains the whole state, which replaces the previous one.
+ *
+ * @author ActiveEon Team
+ */
+@XmlRootElement
+public class RMStateDelta implements Serializable {
+
+    /** Counter of the state this delta leads to */
+    private long counter;
+
+    private boolean reset;
+
+    private ArrayList<RMNodeEvent> nodesEvents = new ArrayList<>();
+
+    private ArrayList<RMNodeSourceEvent> nodeSources = new ArrayList<>();
+
+    /**
+     * ProActive empty constructor
+     */
+    public RMStateDelta() {
+    }
+
+    public RMStateDelta(long counter, boolean reset, ArrayList<RMNodeEvent> nodesEvents,
+            ArrayList<RMNodeSourceEvent> nodeSources) {
+        this.counter = counter;
+        this.reset = reset;
+        this.nodesEvents = nodesEvents;
+        this.nodeSources = nodeSources;
+    }
+
+    /**
+     * @return the counter to give to get the next changes
+     */
+    public long getCounter() {
+        return counter;
+    }
+
+    /**
+     * @return true if this delta contains the whole state
+     */
+    public boolean isReset() {
+        return reset;
+    }
+
+    public ArrayList<RMNodeEvent> getNodesEvents() {
+        return nodesEvents;
+    }
+
+    public ArrayList<RMNodeSourceEvent> getNodeSource() {
+        return nodeSources;
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.common.util;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.jmx.provider.JMXProviderUtils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+
+/**
+ * Bounded pool of mbean server connections to nodes, keyed by the node JMX url.
+ * <p>
+ * Least recently used connections are closed when the pool is full and connections
+ * which have not been used for a given time are closed on the next access to the pool.
+ * The pool is thread safe so that several nodes can be queried concurrently.
+ */
+public class NodeJMXConnectorPool {
+
+    private static final Logger logger = Logger.getLogger(NodeJMXConnectorPool.class);
+
+    /** Default maximum number of opened node connections */
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    /** Default time in ms after which an unused node connection is closed */
+    public static final long DEFAULT_IDLE_TIMEOUT = 5 * 60 * 1000;
+
+    /**
+     * Opens a connection to a node mbean server.
+     */
+    public interface ConnectorFactory {
+        JMXConnector connect(String url) throws IOException;
+    }
+
+    private final Cache<String, JMXConnector> connectors;
+
+    private final ConnectorFactory factory;
+
+    public NodeJMXConnectorPool(final Object credentials) {
+        this(DEFAULT_MAX_SIZE, DEFAULT_IDLE_TIMEOUT, credentialsConnectorFactory(credentials));
+    }
+
+    public NodeJMXConnectorPool(int maxSize, long idleTimeout, ConnectorFactory factory) {
+        this.factory = factory;
+        this.connectors = CacheBuilder.newBuilder()
+                                      .maximumSize(maxSize)
+                                      .expireAfterAccess(idleTimeout, TimeUnit.MILLISECONDS)
+                                      .removalListener(new RemovalListener<String, JMXConnector>() {
+                                          @Override
+                                          public void onRemoval(RemovalNotification<String, JMXConnector> notification) {
+                                              close(notification.getKey(), notification.getValue());
+                                          }
+                                      })
+                                      .build();
+    }
+
+    /**
+     * Returns the pooled connection to the given node mbean server, connecting
+     * to it if there is none yet.
+     *
+     * @param url node mbean server url
+     * @return an opened connector
+     * @throws IOException if the connection cannot be established
+     */
+    public JMXConnector get(final String url) throws IOException {
+        if (url == null) {
+            throw new NullPointerException("nodeJmxUrl cannot be null");
+        }
+        try {
+            return connectors.get(url, new Callable<JMXConnector>() {
+                @Override
+                public JMXConnector call() throws Exception {
+                    return factory.connect(url);
+                }
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                if (cause.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) cause.getCause();
+                }
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Closes and forgets the connection to the given node, for example
+     * after a communication failure.
+     *
+     * @param url node mbean server url
+     */
+    public void invalidate(String url) {
+        connectors.invalidate(url);
+    }
+
+    /**
+     * Closes the connections which have been idle for too long.
+     */
+    public void evictIdle() {
+        connectors.cleanUp();
+    }
+
+    /**
+     * @return the number of opened connections
+     */
+    public long size() {
+        return connectors.size();
+    }
+
+    /**
+     * Closes all the pooled connections.
+     */
+    public void closeAll() {
+        connectors.invalidateAll();
+        connectors.cleanUp();
+    }
+
+    private static void close(String url, JMXConnector connector) {
+        if (connector == null) {
+            return;
+        }
+        try {
+            connector.close();
+        } catch (IOException e) {
+            logger.warn("Could not properly close the mbean server connection to " + url +
+                        " (node might have been deleted)", e);
+        }
+    }
+
+    private static ConnectorFactory credentialsConnectorFactory(final Object credentials) {
+        return new ConnectorFactory() {
+            @Override
+            public JMXConnector connect(String url) throws IOException {
+                final HashMap<String, Object> env = new HashMap<>(2);
+                env.put(JMXConnector.CREDENTIALS, new Object[] { "", credentials });
+                if (url.startsWith("service:jmx:ro")) {
+                    env.put(JMXConnectorFactory.PROTOCOL_PROVIDER_PACKAGES, JMXProviderUtils.RO_PROVIDER_PKGS);
+                }
+                return JMXConnectorFactory.connect(new JMXServiceURL(url), env);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,282 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.common.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.ow2.proactive.resourcemanager.common.event.RMEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMEventType;
+import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMStateDelta;
+
+
+/**
+ * Copy of the Resource Manager state, indexed by node url and node source name, and
+ * maintained either from the resource manager events or from the deltas of another
+ * {@link RMCachedState}.
+ * <p>
+ * Every change increments a counter. {@link #getDelta(long)} returns what changed
+ * since a given counter value, so that a copy can be kept up to date without
+ * transferring the whole state. Removed nodes and node sources are remembered, up to
+ * a limit, to be reported as removed. A delta asked for a counter older than that
+ * contains the whole state.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author ActiveEon Team
+ */
+public class RMCachedState {
+
+    /** Default number of removed nodes, and of removed node sources, which are remembered */
+    public static final int DEFAULT_MAX_REMOVED_ENTRIES = 10000;
+
+    private static final class Entry<T extends RMEvent> {
+
+        private final T event;
+
+        private final long counter;
+
+        private Entry(T event, long counter) {
+            this.event = event;
+            this.counter = counter;
+        }
+
+    }
+
+    private final int maxRemovedEntries;
+
+    private final LinkedHashMap<String, Entry<RMNodeEvent>> nodes = new LinkedHashMap<>();
+
+    private final LinkedHashMap<String, Entry<RMNodeSourceEvent>> nodeSources = new LinkedHashMap<>();
+
+    /* removal events, oldest first */
+    private final LinkedHashMap<String, Entry<RMNodeEvent>> removedNodes = new LinkedHashMap<>();
+
+    private final LinkedHashMap<String, Entry<RMNodeSourceEvent>> removedNodeSources = new LinkedHashMap<>();
+
+    private long counter = 0;
+
+    /* deltas asked for a lower counter contain the whole state */
+    private long oldestCounter = 0;
+
+    private RMInitialState initialState;
+
+    private long initialStateCounter = -1;
+
+    public RMCachedState() {
+        this(DEFAULT_MAX_REMOVED_ENTRIES);
+    }
+
+    public RMCachedState(int maxRemovedEntries) {
+        this.maxRemovedEntries = maxRemovedEntries;
+    }
+
+    /**
+     * Replaces the whole state.
+     */
+    public synchronized void reset(RMInitialState state) {
+        reset(state.getNodesEvents(), state.getNodeSource());
+    }
+
+    public synchronized void nodeEvent(RMNodeEvent event) {
+        switch (event.getEventType()) {
+            case NODE_ADDED:
+                counter++;
+                putNode(event, true);
+                break;
+            case NODE_STATE_CHANGED:
+                if (nodes.containsKey(event.getNodeUrl())) {
+                    counter++;
+                    putNode(event, false);
+                }
+                break;
+            case NODE_REMOVED:
+                if (nodes.containsKey(event.getNodeUrl())) {
+                    counter++;
+                    removeNode(event);
+                }
+                break;
+        }
+    }
+
+    public synchronized void nodeSourceEvent(RMNodeSourceEvent event) {
+        switch (event.getEventType()) {
+            case NODESOURCE_CREATED:
+                counter++;
+                putNodeSource(event);
+                break;
+            case NODESOURCE_REMOVED:
+                if (nodeSources.containsKey(event.getSourceName())) {
+                    counter++;
+                    removeNodeSource(event);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Applies the changes returned by the {@link #getDelta(long)} method of another
+     * instance.
+     */
+    public synchronized void apply(RMStateDelta delta) {
+        if (delta.isReset()) {
+            reset(delta.getNodesEvents(), delta.getNodeSource());
+            return;
+        }
+        if (delta.getNodesEvents().isEmpty() && delta.getNodeSource().isEmpty()) {
+            return;
+        }
+        counter++;
+        for (RMNodeSourceEvent event : delta.getNodeSource()) {
+            if (event.getEventType() == RMEventType.NODESOURCE_REMOVED) {
+                removeNodeSource(event);
+            } else {
+                putNodeSource(event);
+            }
+        }
+        for (RMNodeEvent event : delta.getNodesEvents()) {
+            if (event.getEventType() == RMEventType.NODE_REMOVED) {
+                removeNode(event);
+            } else {
+                // a node added since the previous delta goes to the end, as in the source state
+                putNode(event, event.getEventType() == RMEventType.NODE_ADDED);
+            }
+        }
+    }
+
+    /**
+     * @param sinceCounter a counter value previously returned by this instance, or
+     *            a negative value to get the whole state
+     * @return the changes since the given counter value
+     */
+    public synchronized RMStateDelta getDelta(long sinceCounter) {
+        boolean reset = sinceCounter < oldestCounter;
+        ArrayList<RMNodeEvent> nodeEvents = new ArrayList<>();
+        ArrayList<RMNodeSourceEvent> nodeSourceEvents = new ArrayList<>();
+        if (reset) {
+            addEvents(nodes, -1, nodeEvents);
+            addEvents(nodeSources, -1, nodeSourceEvents);
+        } else if (sinceCounter < counter) {
+            addEvents(removedNodeSources, sinceCounter, nodeSourceEvents);
+            addEvents(nodeSources, sinceCounter, nodeSourceEvents);
+            addEvents(removedNodes, sinceCounter, nodeEvents);
+            addEvents(nodes, sinceCounter, nodeEvents);
+        }
+        return new RMStateDelta(counter, reset, nodeEvents, nodeSourceEvents);
+    }
+
+    /**
+     * @return the current state, the same instance is returned as long as the state
+     *         does not change
+     */
+    public synchronized RMInitialState getRMInitialState() {
+        if (initialState == null || initialStateCounter != counter) {
+            ArrayList<RMNodeEvent> nodeEvents = new ArrayList<>(nodes.size());
+            addEvents(nodes, -1, nodeEvents);
+            ArrayList<RMNodeSourceEvent> nodeSourceEvents = new ArrayList<>(nodeSources.size());
+            addEvents(nodeSources, -1, nodeSourceEvents);
+            initialState = new RMInitialState(nodeEvents, nodeSourceEvents);
+            initialStateCounter = counter;
+        }
+        return initialState;
+    }
+
+    public synchronized long getCounter() {
+        return counter;
+    }
+
+    private void reset(Iterable<RMNodeEvent> nodeEvents, Iterable<RMNodeSourceEvent> nodeSourceEvents) {
+        counter++;
+        oldestCounter = counter;
+        nodes.clear();
+        nodeSources.clear();
+        removedNodes.clear();
+        removedNodeSources.clear();
+        for (RMNodeSourceEvent event : nodeSourceEvents) {
+            nodeSources.put(event.getSourceName(), new Entry<>(event, counter));
+        }
+        for (RMNodeEvent event : nodeEvents) {
+            nodes.put(event.getNodeUrl(), new Entry<>(event, counter));
+        }
+    }
+
+    private void putNode(RMNodeEvent event, boolean moveToEnd) {
+        String url = event.getNodeUrl();
+        removedNodes.remove(url);
+        if (moveToEnd) {
+            nodes.remove(url);
+        }
+        nodes.put(url, new Entry<>(event, counter));
+    }
+
+    private void removeNode(RMNodeEvent event) {
+        String url = event.getNodeUrl();
+        nodes.remove(url);
+        removedNodes.remove(url);
+        removedNodes.put(url, new Entry<>(event, counter));
+        trimRemoved(removedNodes);
+    }
+
+    private void putNodeSource(RMNodeSourceEvent event) {
+        String name = event.getSourceName();
+        removedNodeSources.remove(name);
+        nodeSources.remove(name);
+        nodeSources.put(name, new Entry<>(event, counter));
+    }
+
+    private void removeNodeSource(RMNodeSourceEvent event) {
+        String name = event.getSourceName();
+        nodeSources.remove(name);
+        removedNodeSources.remove(name);
+        removedNodeSources.put(name, new Entry<>(event, counter));
+        trimRemoved(removedNodeSources);
+    }
+
+    private <T extends RMEvent> void trimRemoved(Map<String, Entry<T>> removed) {
+        Iterator<Entry<T>> iterator = removed.values().iterator();
+        while (removed.size() > maxRemovedEntries) {
+            Entry<T> forgotten = iterator.next();
+            iterator.remove();
+            // the clients older than this removal can no longer be told about it
+            oldestCounter = Math.max(oldestCounter, forgotten.counter);
+        }
+    }
+
+    private static <T extends RMEvent> void addEvents(Map<String, Entry<T>> entries, long sinceCounter,
+            ArrayList<T> result) {
+        for (Entry<T> entry : entries.values()) {
+            if (entry.counter > sinceCounter) {
+                result.add(entry.event);
+            }
+        }
+    }
+
+}
@@ -30,13 +30,19 @@ import java.security.KeyException;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.management.*;
 import javax.management.openmbean.CompositeData;
 import javax.management.remote.JMXConnector;
-import javax.management.remote.JMXConnectorFactory;
-import javax.management.remote.JMXServiceURL;
 import javax.security.auth.login.LoginException;
 
 import org.apache.log4j.Logger;
@@ -44,10 +50,10 @@ import org.objectweb.proactive.api.PAActiveObject;
 import org.objectweb.proactive.core.util.log.ProActiveLogger;
 import org.objectweb.proactive.core.util.wrapper.BooleanWrapper;
 import org.objectweb.proactive.extensions.annotation.ActiveObject;
+import org.objectweb.proactive.utils.NamedThreadFactory;
 import org.ow2.proactive.authentication.crypto.CredData;
 import org.ow2.proactive.authentication.crypto.Credentials;
 import org.ow2.proactive.jmx.JMXClientHelper;
-import org.ow2.proactive.jmx.provider.JMXProviderUtils;
 import org.ow2.proactive.resourcemanager.authentication.RMAuthentication;
 import org.ow2.proactive.resourcemanager.common.event.*;
 import org.ow2.proactive.resourcemanager.exception.RMException;
@@ -60,6 +66,8 @@ import org.ow2.proactive.resourcemanager.frontend.ResourceManager;
 /**
  * This class adds a cache mechanism that maintains the {@link RMInitialState} state of the
  * remote resource manager.
+ * The state is kept in a {@link RMCachedState}, so that the changes since a previous call
+ * can be fetched with {@link #getRMStateDelta(long)} instead of the whole state.
  * You must init the proxy by calling the {@link #init(String, Credentials)} method
  * after having created it
  */
@@ -70,7 +78,7 @@ public class RMListenerProxy extends RMGroupEventListener {
 
     protected RMAuthentication rmAuth;
 
-    protected RMInitialState rmInitialState;
+    protected RMCachedState cachedState = new RMCachedState();
 
     protected RMEventType RMstate;
 
@@ -80,9 +88,12 @@ public class RMListenerProxy extends RMGroupEventListener {
 
     protected JMXClientHelper jmxClient;
 
-    protected JMXConnector nodeConnector;
+    /** Maximum number of nodes queried in parallel by {@link #getNodesMBeanInfo(List, String, List, long)} */
+    protected static final int NODE_QUERY_THREADS = 16;
 
-    protected String nodeConnectorUrl;
+    protected NodeJMXConnectorPool nodeConnectors;
+
+    protected ExecutorService nodeQueryExecutor;
 
     protected long counter = 0;
 
@@ -104,6 +115,8 @@ public class RMListenerProxy extends RMGroupEventListener {
         // credentials are used.
         this.jmxClient = new JMXClientHelper(rmAuth, new Object[] { "", credentials });
         this.jmxClient.connect();
+
+        this.nodeConnectors = new NodeJMXConnectorPool(credentials);
         return true;
     }
 
@@ -116,12 +129,18 @@ public class RMListenerProxy extends RMGroupEventListener {
         } catch (RMException ignored) {
         }
         BooleanWrapper r = target.disconnect();
+        if (nodeQueryExecutor != null) {
+            nodeQueryExecutor.shutdownNow();
+        }
+        if (nodeConnectors != null) {
+            nodeConnectors.closeAll();
+        }
         return r;
     }
 
     private void rebindListener() {
-        rmInitialState = this.target.getMonitoring()
-                                    .addRMEventListener((RMEventListener) PAActiveObject.getStubOnThis());
+        cachedState.reset(this.target.getMonitoring()
+                                     .addRMEventListener((RMEventListener) PAActiveObject.getStubOnThis()));
     }
 
     private void checkCounter(RMEvent event) {
@@ -161,20 +180,7 @@ public class RMListenerProxy extends RMGroupEventListener {
      * @see org.ow2.proactive.resourcemanager.frontend.RMEventListener#nodeSourceEvent(org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent)
      */
     public void nodeSourceEvent(RMNodeSourceEvent event) {
-        switch (event.getEventType()) {
-            case NODESOURCE_CREATED:
-                rmInitialState.getNodeSource().add(event);
-                break;
-            case NODESOURCE_REMOVED:
-                for (int i = 0; i < rmInitialState.getNodeSource().size(); i++) {
-                    if (rmInitialState.getNodeSource().get(i).getSourceName().equals(event.getSourceName())) {
-                        rmInitialState.getNodeSource().remove(i);
-                        break;
-                    }
-                }
-                break;
-        }
-
+        cachedState.nodeSourceEvent(event);
         checkCounter(event);
     }
 
@@ -182,18 +188,7 @@ public class RMListenerProxy extends RMGroupEventListener {
      * @see org.ow2.proactive.resourcemanager.frontend.RMEventListener#nodeEvent(org.ow2.proactive.resourcemanager.common.event.RMNodeEvent)
      */
     public void nodeEvent(RMNodeEvent event) {
-        switch (event.getEventType()) {
-            case NODE_REMOVED:
-                rmInitialState.nodeRemoved(event);
-                break;
-            case NODE_ADDED:
-                rmInitialState.nodeAdded(event);
-                break;
-            case NODE_STATE_CHANGED:
-                rmInitialState.nodeStateChanged(event);
-                break;
-
-        }
+        cachedState.nodeEvent(event);
         checkCounter(event);
     }
 
@@ -202,7 +197,17 @@ public class RMListenerProxy extends RMGroupEventListener {
      * @return the local version of the initial state
      */
     public RMInitialState getRMInitialState() {
-        return rmInitialState;
+        return cachedState.getRMInitialState();
+    }
+
+    /**
+     * Returns the changes of the cached state since the given counter value.
+     *
+     * @param counter the counter of the last delta received, or -1 to get the whole state
+     * @return the changes since the given counter
+     */
+    public RMStateDelta getRMStateDelta(long counter) {
+        return cachedState.getDelta(counter);
     }
 
     /**
@@ -218,18 +223,29 @@ public class RMListenerProxy extends RMGroupEventListener {
             throws IOException, InstanceNotFoundException, IntrospectionException, MalformedObjectNameException,
             ReflectionException, NullPointerException {
 
-        initNodeConnector(nodeJmxUrl);
+        JMXConnector nodeConnector = nodeConnectors.get(nodeJmxUrl);
 
         if ((attrs == null) || (attrs.size() == 0)) {
             // no attribute is requested, we return
             // the description of the mbean
-            return nodeConnector.getMBeanServerConnection().getMBeanInfo(new ObjectName(objectName));
+            try {
+                return nodeConnector.getMBeanServerConnection().getMBeanInfo(new ObjectName(objectName));
+            } catch (IOException e) {
+                nodeConnectors.invalidate(nodeJmxUrl);
+                throw e;
+            }
         } else {
 
             List<Object> result = new LinkedList<>();
-            AttributeList attributes = nodeConnector.getMBeanServerConnection()
-                                                    .getAttributes(new ObjectName(objectName),
-                                                                   attrs.toArray(new String[attrs.size()]));
+            AttributeList attributes;
+            try {
+                attributes = nodeConnector.getMBeanServerConnection()
+                                          .getAttributes(new ObjectName(objectName),
+                                                         attrs.toArray(new String[attrs.size()]));
+            } catch (IOException e) {
+                nodeConnectors.invalidate(nodeJmxUrl);
+                throw e;
+            }
 
             for (Object attrObj : attributes) {
                 if (attrObj instanceof Attribute) {
@@ -259,19 +275,92 @@ public class RMListenerProxy extends RMGroupEventListener {
         }
     }
 
+    /**
+     * Retrieves attributes of the specified mbean on several nodes at once.
+     * Nodes are queried concurrently, a node which fails or does not answer within
+     * the timeout does not prevent the others from being returned.
+     * At most {@link #NODE_QUERY_THREADS} nodes are queried at once, the timeout of a node
+     * starts when it is queried.
+     *
+     * @param nodeJmxUrls mbean server urls of the nodes
+     * @param objectName name of mbean
+     * @param attrs set of mbean attributes
+     * @param timeout maximum time in ms to wait for each node once it is queried
+     *
+     * @return mbean attributes values by node jmx url, or an entry
+     * named {@code error} describing the failure for the nodes which could not be queried
+     */
+    public Map<String, Object> getNodesMBeanInfo(List<String> nodeJmxUrls, final String objectName,
+            final List<String> attrs, long timeout) {
+
+        if (nodeQueryExecutor == null) {
+            nodeQueryExecutor = Executors.newFixedThreadPool(NODE_QUERY_THREADS,
+                                                             new NamedThreadFactory("RMListenerProxy node queries"));
+        }
+
+        Map<String, NodeQuery> queries = new HashMap<>(nodeJmxUrls.size());
+        for (final String nodeJmxUrl : nodeJmxUrls) {
+            NodeQuery query = new NodeQuery(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return getNodeMBeanInfo(nodeJmxUrl, objectName, attrs);
+                }
+            });
+            query.future = nodeQueryExecutor.submit(query);
+            queries.put(nodeJmxUrl, query);
+        }
+
+        // nodes are queried by rounds of NODE_QUERY_THREADS, each round taking at most the timeout
+        long rounds = (nodeJmxUrls.size() + NODE_QUERY_THREADS - 1) / NODE_QUERY_THREADS;
+        long deadline = System.currentTimeMillis() + rounds * timeout;
+        HashMap<String, Object> results = new HashMap<>(nodeJmxUrls.size());
+        for (Map.Entry<String, NodeQuery> entry : queries.entrySet()) {
+            String nodeJmxUrl = entry.getKey();
+            NodeQuery query = entry.getValue();
+            try {
+                results.put(nodeJmxUrl, query.get(timeout, deadline));
+            } catch (TimeoutException e) {
+                query.future.cancel(true);
+                results.put(nodeJmxUrl, nodeQueryError(e.getMessage()));
+            } catch (ExecutionException e) {
+                nodeConnectors.invalidate(nodeJmxUrl);
+                results.put(nodeJmxUrl, nodeQueryError(String.valueOf(e.getCause().getMessage())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.put(nodeJmxUrl, nodeQueryError("Interrupted while querying node"));
+            }
+        }
+        nodeConnectors.evictIdle();
+        return results;
+    }
+
+    private static HashMap<String, Object> nodeQueryError(String message) {
+        HashMap<String, Object> error = new HashMap<>(1);
+        error.put("error", message);
+        return error;
+    }
+
     public String getNodeMBeanHistory(String nodeJmxUrl, String objectName, List<String> attrs, String range)
             throws IOException, MalformedObjectNameException, IntrospectionException, InstanceNotFoundException,
             ReflectionException, MBeanException {
 
-        initNodeConnector(nodeJmxUrl);
+        JMXConnector nodeConnector = nodeConnectors.get(nodeJmxUrl);
 
         String[] signature = { String.class.getName(), String[].class.getName(), String.class.getName() };
         Object[] params = new Object[] { objectName, attrs.toArray(new String[] {}), range };
 
         // use Processes mbean as the entry point
-        return nodeConnector.getMBeanServerConnection()
-                            .invoke(new ObjectName("sigar:Type=Processes"), "getAttributesHistory", params, signature)
-                            .toString();
+        try {
+            return nodeConnector.getMBeanServerConnection()
+                                .invoke(new ObjectName("sigar:Type=Processes"),
+                                        "getAttributesHistory",
+                                        params,
+                                        signature)
+                                .toString();
+        } catch (IOException e) {
+            nodeConnectors.invalidate(nodeJmxUrl);
+            throw e;
+        }
     }
 
     /**
@@ -298,9 +387,9 @@ public class RMListenerProxy extends RMGroupEventListener {
             throws IOException, InstanceNotFoundException, IntrospectionException, MalformedObjectNameException,
             ReflectionException, NullPointerException {
 
-        initNodeConnector(nodeJmxUrl);
+        JMXConnector nodeConnector = nodeConnectors.get(nodeJmxUrl);
 
-        Set<ObjectName> beans = nodeConnector.getMBeanServerConnection().queryNames(new ObjectName(objectNames), null);
+        Set<ObjectName> beans = queryNames(nodeJmxUrl, nodeConnector, objectNames);
 
         HashMap<String, Object> results = new HashMap<>();
         for (ObjectName bean : beans) {
@@ -310,13 +399,23 @@ public class RMListenerProxy extends RMGroupEventListener {
         return results;
     }
 
+    private Set<ObjectName> queryNames(String nodeJmxUrl, JMXConnector nodeConnector, String objectNames)
+            throws IOException, MalformedObjectNameException {
+        try {
+            return nodeConnector.getMBeanServerConnection().queryNames(new ObjectName(objectNames), null);
+        } catch (IOException e) {
+            nodeConnectors.invalidate(nodeJmxUrl);
+            throw e;
+        }
+    }
+
     public Object getNodeMBeansHistory(String nodeJmxUrl, String objectNames, List<String> attrs, String range)
             throws IOException, MalformedObjectNameException, IntrospectionException, InstanceNotFoundException,
             ReflectionException, MBeanException {
 
-        initNodeConnector(nodeJmxUrl);
+        JMXConnector nodeConnector = nodeConnectors.get(nodeJmxUrl);
 
-        Set<ObjectName> beans = nodeConnector.getMBeanServerConnection().queryNames(new ObjectName(objectNames), null);
+        Set<ObjectName> beans = queryNames(nodeJmxUrl, nodeConnector, objectNames);
 
         HashMap<String, Object> results = new HashMap<>();
         for (ObjectName bean : beans) {
@@ -328,47 +427,46 @@ public class RMListenerProxy extends RMGroupEventListener {
     }
 
     /**
-     * Initializes mbean server connection to specified url.
-     * If the connection is already established returns existing
-     * connection. 
-     * 
-     * @param url mbean server url
-     * @throws IOException
+     * Query of a node, which knows when it started to run.
      */
-    private void initNodeConnector(String url) throws IOException {
+    private static class NodeQuery implements Callable<Object> {
 
-        if (url == null) {
-            throw new NullPointerException("nodeJmxUrl cannot be null");
-        }
+        private final Callable<Object> query;
 
-        if (url.equals(nodeConnectorUrl) && nodeConnector != null) {
-            // already connected
-            return;
-        }
+        private volatile long startTime;
 
-        if (nodeConnector != null) {
-            try {
-                nodeConnector.close();
-            } catch (IOException e) {
-                logger.warn("Could not properly close the previous mbean server connection (node might have been deleted)",
-                            e);
-            }
-            nodeConnector = null;
+        private Future<Object> future;
+
+        NodeQuery(Callable<Object> query) {
+            this.query = query;
         }
 
-        final HashMap<String, Object> env = new HashMap<>(2);
-        env.put(JMXConnector.CREDENTIALS, new Object[] { "", credentials });
-        if (url.startsWith("service:jmx:ro")) {
-            env.put(JMXConnectorFactory.PROTOCOL_PROVIDER_PACKAGES, JMXProviderUtils.RO_PROVIDER_PKGS);
+        @Override
+        public Object call() throws Exception {
+            startTime = System.currentTimeMillis();
+            return query.call();
         }
-        try {
-            nodeConnector = JMXConnectorFactory.connect(new JMXServiceURL(url), env);
-            nodeConnectorUrl = url;
-        } catch (IOException ex) {
-            if (ex.getCause() != null && ex.getCause() instanceof RuntimeException) {
-                throw (RuntimeException) ex.getCause();
-            } else {
-                throw ex;
+
+        /**
+         * Waits for the result of the query, at most the timeout once the query is started.
+         *
+         * @param timeout maximum time in ms to wait once the query is started
+         * @param deadline time after which a query which is not started is not waited for
+         */
+        Object get(long timeout, long deadline) throws InterruptedException, ExecutionException, TimeoutException {
+            while (true) {
+                long started = startTime;
+                long now = System.currentTimeMillis();
+                long remaining = started > 0 ? started + timeout - now : deadline - now;
+                if (remaining <= 0) {
+                    throw new TimeoutException(started > 0 ? "Timeout while querying node after " + timeout + " ms"
+                                                           : "Timeout while waiting to query node");
+                }
+                try {
+                    return future.get(remaining, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // the query may have started while waiting, its own timeout applies then
+                }
             }
         }
     }
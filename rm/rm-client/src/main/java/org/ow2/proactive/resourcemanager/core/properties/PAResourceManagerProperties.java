@@ -59,6 +59,13 @@ public enum PAResourceManagerProperties implements PACommonProperties {
     /** Ping frequency in ms used by node source for keeping a watch on handled nodes */
     RM_NODE_SOURCE_PING_FREQUENCY("pa.rm.node.source.ping.frequency", PropertyType.INTEGER, "45000"),
 
+    /**
+     * Duration in ms of the lease granted to a node each time its agent reports it as available.
+     * Node sources only ping the nodes whose lease expired. Must be greater than the node agent
+     * ping delay (proactive.node.ping.delay). Set to 0 to ping every node at each period.
+     */
+    RM_NODE_LEASE_DURATION("pa.rm.node.lease.duration", PropertyType.INTEGER, "90000"),
+
     /** Ping frequency used by resource manager to ping connected clients (in ms) */
     RM_CLIENT_PING_FREQUENCY("pa.rm.client.ping.frequency", PropertyType.INTEGER, "45000"),
 
@@ -174,6 +181,12 @@ public enum PAResourceManagerProperties implements PACommonProperties {
     /** Max number of threads in the core for cleaning nodes after computations */
     RM_CLEANING_MAX_THREAD_NUMBER("pa.rm.cleaning.maxthreadnumber", PropertyType.INTEGER, "5"),
 
+    /**
+     * Names of the node sources whose nodes are not cleaned when released after computations,
+     * separated by ','. Nodes of these node sources are made free immediately.
+     */
+    RM_CLEANING_SKIPPED_NODE_SOURCES("pa.rm.cleaning.skipped.nodesources", PropertyType.LIST, ""),
+
     /** Maximum node history period in seconds (Default: disabled) */
     RM_HISTORY_MAX_PERIOD("pa.rm.history.maxperiod", PropertyType.INTEGER),
 
@@ -209,6 +222,15 @@ public enum PAResourceManagerProperties implements PACommonProperties {
      */
     RM_ALIVE_EVENT_FREQUENCY("pa.rm.aliveevent.frequency", PropertyType.INTEGER, "300000"),
 
+    /** Maximum number of node history records waiting to be written to the database */
+    RM_DB_NODE_HISTORY_QUEUE_SIZE("pa.rm.db.history.queue.size", PropertyType.INTEGER, "10000"),
+
+    /** Maximum number of node history records written to the database in a single transaction */
+    RM_DB_NODE_HISTORY_BATCH_SIZE("pa.rm.db.history.batch.size", PropertyType.INTEGER, "100"),
+
+    /** Rebuild the per user, per hour node usage rollups from the node history on startup */
+    RM_DB_NODE_USAGE_REBUILD("pa.rm.db.usage.rebuild", PropertyType.BOOLEAN, "false"),
+
     /** Accounting refresh rate from the database in seconds */
     RM_ACCOUNT_REFRESH_RATE("pa.rm.account.refreshrate", PropertyType.INTEGER, "180"),
 
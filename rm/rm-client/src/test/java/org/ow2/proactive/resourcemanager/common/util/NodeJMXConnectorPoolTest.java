@@ -0,0 +1,128 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.common.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.management.remote.JMXConnector;
+
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class NodeJMXConnectorPoolTest {
+
+    private Map<String, Integer> connections;
+
+    private NodeJMXConnectorPool.ConnectorFactory factory;
+
+    @Before
+    public void setUp() {
+        connections = new HashMap<>();
+        factory = new NodeJMXConnectorPool.ConnectorFactory() {
+            @Override
+            public JMXConnector connect(String url) throws IOException {
+                Integer count = connections.get(url);
+                connections.put(url, count == null ? 1 : count + 1);
+                return mock(JMXConnector.class);
+            }
+        };
+    }
+
+    @Test
+    public void testConnectionIsReused() throws Exception {
+        NodeJMXConnectorPool pool = new NodeJMXConnectorPool(10, 60000, factory);
+
+        JMXConnector first = pool.get("node1");
+        pool.get("node2");
+        JMXConnector again = pool.get("node1");
+
+        assertThat(again).isSameAs(first);
+        assertThat(connections.get("node1")).isEqualTo(1);
+        assertThat(pool.size()).isEqualTo(2);
+        verify(first, never()).close();
+    }
+
+    @Test
+    public void testLeastRecentlyUsedConnectionIsClosedWhenFull() throws Exception {
+        NodeJMXConnectorPool pool = new NodeJMXConnectorPool(1, 60000, factory);
+
+        JMXConnector first = pool.get("node1");
+        pool.get("node2");
+
+        verify(first).close();
+        assertThat(pool.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testIdleConnectionIsClosed() throws Exception {
+        NodeJMXConnectorPool pool = new NodeJMXConnectorPool(10, 1, factory);
+
+        JMXConnector first = pool.get("node1");
+        Thread.sleep(50);
+        pool.evictIdle();
+
+        verify(first).close();
+        assertThat(pool.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testInvalidateReconnects() throws Exception {
+        NodeJMXConnectorPool pool = new NodeJMXConnectorPool(10, 60000, factory);
+
+        JMXConnector first = pool.get("node1");
+        pool.invalidate("node1");
+        JMXConnector second = pool.get("node1");
+
+        verify(first).close();
+        assertThat(second).isNotSameAs(first);
+        assertThat(connections.get("node1")).isEqualTo(2);
+    }
+
+    @Test(expected = IOException.class)
+    public void testConnectionFailureIsPropagated() throws Exception {
+        NodeJMXConnectorPool pool = new NodeJMXConnectorPool(10, 60000, new NodeJMXConnectorPool.ConnectorFactory() {
+            @Override
+            public JMXConnector connect(String url) throws IOException {
+                throw new IOException("unreachable");
+            }
+        });
+        pool.get("node1");
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullUrl() throws Exception {
+        new NodeJMXConnectorPool(10, 60000, factory).get(null);
+    }
+
+}
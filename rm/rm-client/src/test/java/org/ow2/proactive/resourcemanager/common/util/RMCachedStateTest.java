@@ -0,0 +1,250 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.common.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+import org.ow2.proactive.resourcemanager.common.NodeState;
+import org.ow2.proactive.resourcemanager.common.event.RMEventType;
+import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeDescriptor;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMStateDelta;
+
+
+public class RMCachedStateTest {
+
+    private static final NodeState[] STATES = { NodeState.FREE, NodeState.BUSY, NodeState.DOWN,
+                                                NodeState.TO_BE_REMOVED };
+
+    @Test
+    public void testDeltaContainsOnlyTheChanges() {
+        RMCachedState state = new RMCachedState();
+        RMNodeEvent node1 = nodeEvent("node1", RMEventType.NODE_ADDED, NodeState.FREE);
+        RMNodeEvent node2 = nodeEvent("node2", RMEventType.NODE_ADDED, NodeState.FREE);
+        state.nodeSourceEvent(nodeSourceEvent("ns", RMEventType.NODESOURCE_CREATED));
+        state.nodeEvent(node1);
+        state.nodeEvent(node2);
+        long counter = state.getCounter();
+
+        RMNodeEvent busy = nodeEvent("node2", RMEventType.NODE_STATE_CHANGED, NodeState.BUSY);
+        state.nodeEvent(busy);
+        RMStateDelta delta = state.getDelta(counter);
+
+        assertThat(delta.isReset()).isFalse();
+        assertThat(delta.getNodesEvents()).containsExactly(busy);
+        assertSame(busy, delta.getNodesEvents().get(0));
+        assertThat(delta.getNodeSource()).isEmpty();
+        assertEquals(state.getCounter(), delta.getCounter());
+        assertThat(state.getDelta(delta.getCounter()).getNodesEvents()).isEmpty();
+    }
+
+    @Test
+    public void testRemovedNodesAreReported() {
+        RMCachedState state = new RMCachedState();
+        state.nodeEvent(nodeEvent("node1", RMEventType.NODE_ADDED, NodeState.FREE));
+        long counter = state.getCounter();
+
+        RMNodeEvent removed = nodeEvent("node1", RMEventType.NODE_REMOVED, NodeState.FREE);
+        state.nodeEvent(removed);
+        RMStateDelta delta = state.getDelta(counter);
+
+        assertSame(removed, delta.getNodesEvents().get(0));
+        assertThat(state.getRMInitialState().getNodesEvents()).isEmpty();
+    }
+
+    @Test
+    public void testTooOldCounterGetsTheWholeState() {
+        RMCachedState state = new RMCachedState(2);
+        state.nodeEvent(nodeEvent("node1", RMEventType.NODE_ADDED, NodeState.FREE));
+        state.nodeEvent(nodeEvent("node2", RMEventType.NODE_ADDED, NodeState.FREE));
+        long counter = state.getCounter();
+        for (int i = 3; i < 6; i++) {
+            state.nodeEvent(nodeEvent("node" + i, RMEventType.NODE_ADDED, NodeState.FREE));
+            state.nodeEvent(nodeEvent("node" + i, RMEventType.NODE_REMOVED, NodeState.FREE));
+        }
+
+        RMStateDelta delta = state.getDelta(counter);
+
+        assertThat(delta.isReset()).isTrue();
+        assertEquals(2, delta.getNodesEvents().size());
+        assertThat(state.getDelta(-1).isReset()).isTrue();
+    }
+
+    @Test
+    public void testInitialStateIsRebuiltOnlyWhenChanged() {
+        RMCachedState state = new RMCachedState();
+        state.nodeEvent(nodeEvent("node1", RMEventType.NODE_ADDED, NodeState.FREE));
+        RMInitialState first = state.getRMInitialState();
+
+        assertSame(first, state.getRMInitialState());
+        state.nodeEvent(nodeEvent("node1", RMEventType.NODE_STATE_CHANGED, NodeState.BUSY));
+        assertThat(state.getRMInitialState()).isNotSameAs(first);
+    }
+
+    /**
+     * Applies random event sequences to a source state, synchronizes a copy, and a copy of the copy,
+     * with deltas fetched at random times, and checks they end up equal to the source and to the
+     * state maintained as the proxy used to do, with full lists.
+     */
+    @Test
+    public void testCopiesConvergeUnderRandomEvents() {
+        for (int seed = 0; seed < 50; seed++) {
+            Random random = new Random(seed);
+            RMCachedState source = new RMCachedState(1 + random.nextInt(20));
+            RMInitialState fullState = new RMInitialState();
+            RMCachedState copy = new RMCachedState(1 + random.nextInt(20));
+            RMCachedState copyOfCopy = new RMCachedState();
+            long copyCounter = -1;
+            long copyOfCopyCounter = -1;
+
+            for (int i = 0; i < 2000; i++) {
+                applyRandomEvent(random, source, fullState);
+                if (random.nextInt(10) == 0) {
+                    RMStateDelta delta = source.getDelta(copyCounter);
+                    copy.apply(delta);
+                    copyCounter = delta.getCounter();
+                }
+                if (random.nextInt(20) == 0) {
+                    RMStateDelta delta = copy.getDelta(copyOfCopyCounter);
+                    copyOfCopy.apply(delta);
+                    copyOfCopyCounter = delta.getCounter();
+                }
+                if (random.nextInt(500) == 0) {
+                    // as after a reconnection of the proxy
+                    source.reset(source.getRMInitialState());
+                }
+            }
+            RMStateDelta delta = source.getDelta(copyCounter);
+            copy.apply(delta);
+            delta = copy.getDelta(copyOfCopyCounter);
+            copyOfCopy.apply(delta);
+
+            assertSameState(fullState, source.getRMInitialState());
+            assertSameState(fullState, copy.getRMInitialState());
+            assertSameState(fullState, copyOfCopy.getRMInitialState());
+        }
+    }
+
+    private static void applyRandomEvent(Random random, RMCachedState source, RMInitialState fullState) {
+        List<RMNodeSourceEvent> nodeSources = fullState.getNodeSource();
+        List<RMNodeEvent> nodes = fullState.getNodesEvents();
+        int choice = random.nextInt(100);
+        if (choice < 3) {
+            String name = "ns" + random.nextInt(5);
+            if (indexOfNodeSource(nodeSources, name) < 0) {
+                RMNodeSourceEvent event = nodeSourceEvent(name, RMEventType.NODESOURCE_CREATED);
+                source.nodeSourceEvent(event);
+                nodeSources.add(event);
+            }
+        } else if (choice < 5) {
+            String name = "ns" + random.nextInt(5);
+            int index = indexOfNodeSource(nodeSources, name);
+            if (index >= 0) {
+                source.nodeSourceEvent(nodeSourceEvent(name, RMEventType.NODESOURCE_REMOVED));
+                nodeSources.remove(index);
+            }
+        } else {
+            String url = "node" + random.nextInt(60);
+            boolean exists = indexOfNode(nodes, url) >= 0;
+            RMNodeEvent event;
+            if (!exists && choice < 30) {
+                event = nodeEvent(url, RMEventType.NODE_ADDED, NodeState.DEPLOYING);
+                fullState.nodeAdded(event);
+            } else if (choice < 40) {
+                event = nodeEvent(url, RMEventType.NODE_REMOVED, NodeState.DOWN);
+                fullState.nodeRemoved(event);
+            } else {
+                event = nodeEvent(url, RMEventType.NODE_STATE_CHANGED, STATES[random.nextInt(STATES.length)]);
+                fullState.nodeStateChanged(event);
+            }
+            if (exists || event.getEventType() == RMEventType.NODE_ADDED || random.nextBoolean()) {
+                // events about unknown nodes are sent sometimes, they must be ignored
+                source.nodeEvent(event);
+            }
+        }
+    }
+
+    private static void assertSameState(RMInitialState expected, RMInitialState actual) {
+        Map<String, RMNodeEvent> actualNodes = new HashMap<>();
+        for (RMNodeEvent event : actual.getNodesEvents()) {
+            actualNodes.put(event.getNodeUrl(), event);
+        }
+        assertEquals(expected.getNodesEvents().size(), actual.getNodesEvents().size());
+        for (RMNodeEvent event : expected.getNodesEvents()) {
+            // RMNodeEvent equality only depends on the url
+            assertSame(event, actualNodes.get(event.getNodeUrl()));
+        }
+        Map<String, RMNodeSourceEvent> actualNodeSources = new HashMap<>();
+        for (RMNodeSourceEvent event : actual.getNodeSource()) {
+            actualNodeSources.put(event.getSourceName(), event);
+        }
+        assertEquals(expected.getNodeSource().size(), actual.getNodeSource().size());
+        for (RMNodeSourceEvent event : expected.getNodeSource()) {
+            assertSame(event, actualNodeSources.get(event.getSourceName()));
+        }
+    }
+
+    private static int indexOfNode(List<RMNodeEvent> nodes, String url) {
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i).getNodeUrl().equals(url)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOfNodeSource(List<RMNodeSourceEvent> nodeSources, String name) {
+        for (int i = 0; i < nodeSources.size(); i++) {
+            if (nodeSources.get(i).getSourceName().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static RMNodeEvent nodeEvent(String url, RMEventType type, NodeState state) {
+        RMNodeDescriptor descriptor = new RMNodeDescriptor();
+        descriptor.setNodeURL(url);
+        descriptor.setNodeSourceName("ns");
+        descriptor.setState(state);
+        return new RMNodeEvent(descriptor, type, null, "admin");
+    }
+
+    private static RMNodeSourceEvent nodeSourceEvent(String name, RMEventType type) {
+        return new RMNodeSourceEvent(type, "admin", name, "description", "admin");
+    }
+
+}
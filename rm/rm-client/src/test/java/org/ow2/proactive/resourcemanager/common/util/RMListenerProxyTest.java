@@ -0,0 +1,124 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.common.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.AttributeList;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnector;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+
+public class RMListenerProxyTest {
+
+    private RMListenerProxy proxy;
+
+    private MBeanServerConnection connection;
+
+    private AtomicInteger connections;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = mock(MBeanServerConnection.class);
+        connections = new AtomicInteger();
+        proxy = new RMListenerProxy();
+        proxy.nodeConnectors = new NodeJMXConnectorPool(NodeJMXConnectorPool.DEFAULT_MAX_SIZE,
+                                                        60000,
+                                                        new NodeJMXConnectorPool.ConnectorFactory() {
+                                                            @Override
+                                                            public JMXConnector connect(String url) throws IOException {
+                                                                connections.incrementAndGet();
+                                                                JMXConnector connector = mock(JMXConnector.class);
+                                                                when(connector.getMBeanServerConnection()).thenReturn(connection);
+                                                                return connector;
+                                                            }
+                                                        });
+    }
+
+    @After
+    public void tearDown() {
+        if (proxy.nodeQueryExecutor != null) {
+            proxy.nodeQueryExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testQueuedNodesAreNotTimedOut() throws Exception {
+        when(connection.getAttributes(any(ObjectName.class), any(String[].class))).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                Thread.sleep(200);
+                return new AttributeList();
+            }
+        });
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < RMListenerProxy.NODE_QUERY_THREADS * 3 + 1; i++) {
+            urls.add("node" + i);
+        }
+
+        Map<String, Object> results = proxy.getNodesMBeanInfo(urls,
+                                                              "java.lang:type=Memory",
+                                                              Collections.singletonList("HeapMemoryUsage"),
+                                                              500);
+
+        assertThat(results).hasSize(urls.size());
+        for (Object result : results.values()) {
+            assertThat(result).isInstanceOf(List.class);
+        }
+    }
+
+    @Test
+    public void testConnectionIsInvalidatedOnIOFailure() throws Exception {
+        when(connection.getAttributes(any(ObjectName.class),
+                                      any(String[].class))).thenThrow(new IOException("connection lost"));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                proxy.getNodeMBeanInfo("node", "java.lang:type=Memory", Collections.singletonList("HeapMemoryUsage"));
+            } catch (IOException expected) {
+            }
+        }
+
+        assertThat(connections.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.resourcemanager.nodesource.policy;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Sizing logic of the {@link QueueAwareElasticPolicy}, independent from the
+ * resource manager and the scheduler.
+ * <p>
+ * The node source is sized for its busy nodes plus the pending tasks
+ * which can be executed on new nodes: as a node only becomes available after
+ * the acquisition latency, each new node is expected to run
+ * {@code max(1, latency / duration)} pending tasks while the pending queue
+ * is drained. The task duration and the acquisition latency are estimated
+ * from the finished tasks and from the arrival of the requested nodes.
+ * <p>
+ * Nodes are acquired at most {@code scaleUpStep} at a time. When the node
+ * source exceeds the target, the nodes which have been free for
+ * {@code nodeIdleTime} are released, the longest idle first, but not before
+ * {@code coolDown} after the last acquisition. Busy nodes are never released.
+ *
+ * @author ActiveEon Team
+ */
+class ElasticNodeSourceScaler implements Serializable {
+
+    /** Weight of a new observation in the task duration and acquisition latency estimates */
+    static final double SMOOTHING_FACTOR = 0.2;
+
+    /** Requested nodes which did not arrive after this number of acquisition latencies are forgotten */
+    static final int ACQUISITION_TIMEOUT_FACTOR = 5;
+
+    /** Minimum time in ms before requested nodes which did not arrive are forgotten */
+    static final long MIN_ACQUISITION_TIMEOUT = 60000;
+
+    private final int minNodes;
+
+    private final int maxNodes;
+
+    private final int scaleUpStep;
+
+    private final long coolDown;
+
+    private final long nodeIdleTime;
+
+    private double taskDuration;
+
+    private double acquisitionLatency;
+
+    /* request times of the nodes which did not arrive yet, oldest first */
+    private final Deque<Long> acquisitionRequests = new ArrayDeque<>();
+
+    /* times since which the free nodes are idle, by node url, oldest first */
+    private final Map<String, Long> idleNodes = new LinkedHashMap<>();
+
+    /* urls of the idle nodes to release, decided by the last evaluation */
+    private List<String> nodesToRelease = new ArrayList<>();
+
+    private Set<String> knownNodes = new HashSet<>();
+
+    private long lastAcquisitionTime = Long.MIN_VALUE;
+
+    private int targetNodes;
+
+    ElasticNodeSourceScaler(int minNodes, int maxNodes, int scaleUpStep, long coolDown, long nodeIdleTime,
+            long initialTaskDuration, long initialAcquisitionLatency) {
+        if (minNodes < 0 || maxNodes < minNodes || scaleUpStep <= 0 || coolDown < 0 || nodeIdleTime < 0 ||
+            initialTaskDuration <= 0 || initialAcquisitionLatency < 0) {
+            throw new IllegalArgumentException("Invalid elastic policy parameters");
+        }
+        this.minNodes = minNodes;
+        this.maxNodes = maxNodes;
+        this.scaleUpStep = scaleUpStep;
+        this.coolDown = coolDown;
+        this.nodeIdleTime = nodeIdleTime;
+        this.taskDuration = initialTaskDuration;
+        this.acquisitionLatency = initialAcquisitionLatency;
+    }
+
+    /**
+     * Updates the task duration estimate with a finished task.
+     */
+    void taskFinished(long duration) {
+        if (duration > 0) {
+            taskDuration += SMOOTHING_FACTOR * (duration - taskDuration);
+        }
+    }
+
+    /**
+     * Computes how the node source must be resized, the idle nodes to release
+     * are then given by {@link #getNodesToRelease()}.
+     *
+     * @param now current time in ms
+     * @param pendingTasks number of tasks waiting for a node
+     * @param aliveNodes urls of the nodes of the node source
+     * @param freeNodes urls of the nodes of the node source which do not run a task
+     * @return the number of nodes to acquire
+     */
+    int evaluate(long now, int pendingTasks, Set<String> aliveNodes, Set<String> freeNodes) {
+        observeArrivals(now, aliveNodes);
+        forgetLostRequests(now);
+        observeIdleNodes(now, aliveNodes, freeNodes);
+        nodesToRelease = new ArrayList<>();
+
+        targetNodes = computeTarget(pendingTasks, aliveNodes.size() - idleNodes.size());
+        int currentNodes = aliveNodes.size() + acquisitionRequests.size();
+
+        if (targetNodes > currentNodes) {
+            int toAcquire = Math.min(scaleUpStep, targetNodes - currentNodes);
+            for (int i = 0; i < toAcquire; i++) {
+                acquisitionRequests.addLast(now);
+            }
+            lastAcquisitionTime = now;
+            return toAcquire;
+        }
+
+        if (lastAcquisitionTime != Long.MIN_VALUE && now - lastAcquisitionTime < coolDown) {
+            return 0;
+        }
+        int excess = currentNodes - targetNodes;
+        Iterator<Map.Entry<String, Long>> idleNode = idleNodes.entrySet().iterator();
+        while (nodesToRelease.size() < excess && idleNode.hasNext()) {
+            Map.Entry<String, Long> node = idleNode.next();
+            if (now - node.getValue() < nodeIdleTime) {
+                break;
+            }
+            nodesToRelease.add(node.getKey());
+            idleNode.remove();
+        }
+        return 0;
+    }
+
+    /**
+     * @return the urls of the idle nodes to release, decided by the last evaluation
+     */
+    List<String> getNodesToRelease() {
+        return nodesToRelease;
+    }
+
+    private int computeTarget(int pendingTasks, int busyNodes) {
+        double tasksPerNewNode = Math.max(1, acquisitionLatency / taskDuration);
+        long target = busyNodes + (long) Math.ceil(pendingTasks / tasksPerNewNode);
+        return (int) Math.max(minNodes, Math.min(maxNodes, target));
+    }
+
+    private void observeIdleNodes(long now, Set<String> aliveNodes, Set<String> freeNodes) {
+        Iterator<String> idleNode = idleNodes.keySet().iterator();
+        while (idleNode.hasNext()) {
+            String node = idleNode.next();
+            if (!aliveNodes.contains(node) || !freeNodes.contains(node)) {
+                idleNode.remove();
+            }
+        }
+        for (String node : freeNodes) {
+            if (aliveNodes.contains(node) && !idleNodes.containsKey(node)) {
+                idleNodes.put(node, now);
+            }
+        }
+    }
+
+    private void observeArrivals(long now, Set<String> aliveNodes) {
+        for (String node : aliveNodes) {
+            if (!knownNodes.contains(node) && !acquisitionRequests.isEmpty()) {
+                long latency = now - acquisitionRequests.removeFirst();
+                acquisitionLatency += SMOOTHING_FACTOR * (latency - acquisitionLatency);
+            }
+        }
+        knownNodes = new HashSet<>(aliveNodes);
+    }
+
+    private void forgetLostRequests(long now) {
+        long timeout = Math.max(MIN_ACQUISITION_TIMEOUT, (long) (ACQUISITION_TIMEOUT_FACTOR * acquisitionLatency));
+        while (!acquisitionRequests.isEmpty() && now - acquisitionRequests.peekFirst() > timeout) {
+            acquisitionRequests.removeFirst();
+        }
+    }
+
+    int getTargetNodes() {
+        return targetNodes;
+    }
+
+    int getRequestedNodes() {
+        return acquisitionRequests.size();
+    }
+
+    long getTaskDurationEstimate() {
+        return (long) taskDuration;
+    }
+
+    long getAcquisitionLatencyEstimate() {
+        return (long) acquisitionLatency;
+    }
+
+}
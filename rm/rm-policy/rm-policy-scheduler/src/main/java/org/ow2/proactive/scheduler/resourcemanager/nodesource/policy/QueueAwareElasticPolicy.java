@@ -0,0 +1,269 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.resourcemanager.nodesource.policy;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import org.objectweb.proactive.Body;
+import org.objectweb.proactive.InitActive;
+import org.objectweb.proactive.api.PAActiveObject;
+import org.objectweb.proactive.core.node.Node;
+import org.objectweb.proactive.core.util.wrapper.BooleanWrapper;
+import org.objectweb.proactive.extensions.annotation.ActiveObject;
+import org.ow2.proactive.resourcemanager.authentication.Client;
+import org.ow2.proactive.resourcemanager.nodesource.common.Configurable;
+import org.ow2.proactive.resourcemanager.rmnode.RMNode;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.SchedulerEventListener;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+
+
+/**
+ * Sizes the node source from the scheduler queue: nodes are acquired when tasks
+ * are pending, taking into account the estimated task duration and the observed
+ * node acquisition latency, and released when they are no longer needed.
+ * <p>
+ * The sizing itself is done by {@link ElasticNodeSourceScaler}, this policy feeds it
+ * with the number of pending tasks of the scheduler and the free nodes of the node
+ * source, and periodically applies its decisions to the node source: the idle nodes
+ * are released by url, so that busy nodes are never removed.
+ *
+ * @author ActiveEon Team
+ */
+@ActiveObject
+public class QueueAwareElasticPolicy extends SchedulerAwarePolicy implements InitActive, SchedulerEventListener {
+
+    @Configurable(description = "minimum number of nodes")
+    private int minNodes = 0;
+
+    @Configurable(description = "maximum number of nodes")
+    private int maxNodes = 10;
+
+    @Configurable(description = "maximum number of nodes acquired at each refresh")
+    private int scaleUpStep = 2;
+
+    @Configurable(description = "ms, no node is released during this time after an acquisition")
+    private long coolDown = 60 * 1000;
+
+    @Configurable(description = "ms, time after which an unneeded node is released")
+    private long nodeIdleTime = 5 * 60 * 1000;
+
+    @Configurable(description = "ms, task duration assumed until tasks have finished")
+    private long defaultTaskDuration = 60 * 1000;
+
+    @Configurable(description = "ms, node acquisition latency assumed until nodes have been acquired")
+    private long defaultAcquisitionLatency = 60 * 1000;
+
+    @Configurable(description = "ms, period of the node source resizing")
+    private long refreshTime = 10 * 1000;
+
+    private ElasticNodeSourceScaler scaler;
+
+    /* pending tasks of the alive jobs */
+    private Map<JobId, JobInfo> activeJobs = new HashMap<>();
+
+    private transient Timer timer;
+
+    private QueueAwareElasticPolicy thisStub;
+
+    public QueueAwareElasticPolicy() {
+    }
+
+    /**
+     * Configure a policy with given parameters.
+     * @param policyParameters parameters defined by user
+     */
+    @Override
+    public BooleanWrapper configure(Object... policyParameters) {
+        super.configure(policyParameters);
+        try {
+            int index = 6;
+            minNodes = Integer.parseInt(policyParameters[index++].toString());
+            maxNodes = Integer.parseInt(policyParameters[index++].toString());
+            scaleUpStep = Integer.parseInt(policyParameters[index++].toString());
+            coolDown = Long.parseLong(policyParameters[index++].toString());
+            nodeIdleTime = Long.parseLong(policyParameters[index++].toString());
+            defaultTaskDuration = Long.parseLong(policyParameters[index++].toString());
+            defaultAcquisitionLatency = Long.parseLong(policyParameters[index++].toString());
+            refreshTime = Long.parseLong(policyParameters[index].toString());
+            if (refreshTime <= 0) {
+                throw new IllegalArgumentException("Refresh time must be positive");
+            }
+            scaler = new ElasticNodeSourceScaler(minNodes,
+                                                 maxNodes,
+                                                 scaleUpStep,
+                                                 coolDown,
+                                                 nodeIdleTime,
+                                                 defaultTaskDuration,
+                                                 defaultAcquisitionLatency);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return new BooleanWrapper(true);
+    }
+
+    public void initActivity(Body body) {
+        thisStub = (QueueAwareElasticPolicy) PAActiveObject.getStubOnThis();
+    }
+
+    @Override
+    public BooleanWrapper activate() {
+        BooleanWrapper activationStatus = super.activate();
+        if (!activationStatus.getBooleanValue()) {
+            return activationStatus;
+        }
+
+        for (JobState job : state.getPendingJobs()) {
+            activeJobs.put(job.getId(), job.getJobInfo());
+        }
+        for (JobState job : state.getRunningJobs()) {
+            activeJobs.put(job.getId(), job.getJobInfo());
+        }
+        debug("Policy is activated. Current number of jobs is " + activeJobs.size());
+
+        timer = new Timer("QueueAwareElasticPolicy Timer", true);
+        timer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                thisStub.refresh();
+            }
+        }, 0, refreshTime);
+        return new BooleanWrapper(true);
+    }
+
+    @Override
+    public void shutdown(Client initiator) {
+        if (timer != null) {
+            timer.cancel();
+        }
+        super.shutdown(initiator);
+    }
+
+    /**
+     * Resizes the node source according to the current scheduler queue.
+     * Called periodically through the active object stub.
+     */
+    public void refresh() {
+        int pendingTasks = 0;
+        for (JobInfo job : activeJobs.values()) {
+            if (job.getStatus() != JobStatus.PAUSED) {
+                pendingTasks += job.getNumberOfPendingTasks();
+            }
+        }
+
+        Set<String> aliveNodes = new HashSet<>();
+        for (Node node : nodeSource.getAliveNodes()) {
+            aliveNodes.add(node.getNodeInformation().getURL());
+        }
+        Set<String> freeNodes = new HashSet<>();
+        for (RMNode node : nodeSource.getRMCore().getFreeNodes()) {
+            if (nodeSource.getName().equals(node.getNodeSourceName())) {
+                freeNodes.add(node.getNodeURL());
+            }
+        }
+
+        int nodes = scaler.evaluate(System.currentTimeMillis(), pendingTasks, aliveNodes, freeNodes);
+        debug("Pending tasks: " + pendingTasks + ", nodes: " + aliveNodes.size() + ", free nodes: " +
+              freeNodes.size() + ", requested nodes: " + scaler.getRequestedNodes() + ", target: " +
+              scaler.getTargetNodes());
+        if (nodes > 0) {
+            acquireNodes(nodes);
+        }
+        for (String url : scaler.getNodesToRelease()) {
+            removeNode(url, false);
+        }
+    }
+
+    @Override
+    protected SchedulerEvent[] getEventsList() {
+        return new SchedulerEvent[] { SchedulerEvent.JOB_SUBMITTED, SchedulerEvent.JOB_PENDING_TO_RUNNING,
+                                      SchedulerEvent.JOB_PENDING_TO_FINISHED, SchedulerEvent.JOB_RUNNING_TO_FINISHED,
+                                      SchedulerEvent.JOB_PAUSED, SchedulerEvent.JOB_RESUMED,
+                                      SchedulerEvent.JOB_REMOVE_FINISHED, SchedulerEvent.TASK_PENDING_TO_RUNNING,
+                                      SchedulerEvent.TASK_RUNNING_TO_FINISHED,
+                                      SchedulerEvent.TASK_WAITING_FOR_RESTART };
+    }
+
+    @Override
+    protected SchedulerEventListener getSchedulerListener() {
+        return thisStub;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Acquires nodes for the pending tasks of the scheduler, according to the estimated\n" +
+               "task durations and node acquisition latency. Releases the nodes not needed anymore.";
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + " [min nodes: " + minNodes + ", max nodes: " + maxNodes + ", scale up step: " +
+               scaleUpStep + ", cool down: " + coolDown + " ms, node idle time: " + nodeIdleTime + " ms]";
+    }
+
+    @Override
+    public void jobSubmittedEvent(JobState job) {
+        activeJobs.put(job.getId(), job.getJobInfo());
+    }
+
+    @Override
+    public void jobStateUpdatedEvent(NotificationData<JobInfo> notification) {
+        JobInfo job = notification.getData();
+        switch (notification.getEventType()) {
+            case JOB_PENDING_TO_FINISHED:
+            case JOB_RUNNING_TO_FINISHED:
+            case JOB_REMOVE_FINISHED:
+                activeJobs.remove(job.getJobId());
+                break;
+            default:
+                if (activeJobs.containsKey(job.getJobId())) {
+                    activeJobs.put(job.getJobId(), job);
+                }
+        }
+    }
+
+    @Override
+    public void taskStateUpdatedEvent(NotificationData<TaskInfo> notification) {
+        TaskInfo task = notification.getData();
+        JobInfo job = task.getJobInfo();
+        if (job != null && activeJobs.containsKey(job.getJobId())) {
+            activeJobs.put(job.getJobId(), job);
+        }
+        if (notification.getEventType() == SchedulerEvent.TASK_RUNNING_TO_FINISHED) {
+            scaler.taskFinished(task.getExecutionDuration());
+        }
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.resourcemanager.nodesource.policy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+
+public class ElasticNodeSourceScalerTest {
+
+    private static final long SECOND = 1000;
+
+    private static final long MINUTE = 60 * SECOND;
+
+    @Test
+    public void scale_up_is_limited_by_step_and_max() {
+        ElasticNodeSourceScaler scaler = new ElasticNodeSourceScaler(0, 5, 2, 0, 0, MINUTE, MINUTE);
+        Set<String> nodes = new HashSet<>();
+
+        assertEquals(2, scaler.evaluate(0, 100, nodes, nodes));
+        assertEquals(2, scaler.evaluate(SECOND, 100, nodes, nodes));
+        assertEquals(1, scaler.evaluate(2 * SECOND, 100, nodes, nodes));
+        assertEquals(0, scaler.evaluate(3 * SECOND, 100, nodes, nodes));
+        assertEquals(5, scaler.getRequestedNodes());
+    }
+
+    @Test
+    public void min_nodes_are_acquired_without_tasks() {
+        ElasticNodeSourceScaler scaler = new ElasticNodeSourceScaler(3, 5, 10, 0, 0, MINUTE, MINUTE);
+
+        assertEquals(3, scaler.evaluate(0, 0, nodes(0, 0), nodes(0, 0)));
+        assertEquals(0, scaler.evaluate(SECOND, 0, nodes(0, 3), nodes(0, 3)));
+        assertEquals(0, scaler.getNodesToRelease().size());
+    }
+
+    @Test
+    public void nodes_are_released_after_idle_time_and_cool_down() {
+        ElasticNodeSourceScaler scaler = new ElasticNodeSourceScaler(0, 10, 10, 2 * MINUTE, MINUTE, MINUTE, 0);
+
+        assertEquals(4, scaler.evaluate(0, 4, nodes(0, 0), nodes(0, 0)));
+        assertEquals(0, scaler.evaluate(SECOND, 0, nodes(0, 4), nodes(0, 0)));
+        // the tasks are finished, nodes are idle for the idle time but the cool down is not elapsed
+        assertEquals(0, scaler.evaluate(10 * SECOND, 0, nodes(0, 4), nodes(1, 4)));
+        assertEquals(0, scaler.evaluate(MINUTE + 10 * SECOND, 0, nodes(0, 4), nodes(1, 4)));
+        assertEquals(0, scaler.getNodesToRelease().size());
+        assertEquals(0, scaler.evaluate(2 * MINUTE, 0, nodes(0, 4), nodes(1, 4)));
+        assertEquals(nodes(1, 4), new HashSet<>(scaler.getNodesToRelease()));
+    }
+
+    @Test
+    public void nodes_needed_again_are_not_released() {
+        ElasticNodeSourceScaler scaler = new ElasticNodeSourceScaler(0, 10, 10, 0, MINUTE, MINUTE, 0);
+
+        assertEquals(4, scaler.evaluate(0, 4, nodes(0, 0), nodes(0, 0)));
+        assertEquals(0, scaler.evaluate(SECOND, 0, nodes(0, 4), nodes(0, 4)));
+        assertEquals(0, scaler.evaluate(30 * SECOND, 0, nodes(0, 4), nodes(2, 4)));
+        // only the two nodes which stayed idle are released
+        assertEquals(0, scaler.evaluate(MINUTE + SECOND, 0, nodes(0, 4), nodes(2, 4)));
+        assertEquals(nodes(2, 4), new HashSet<>(scaler.getNodesToRelease()));
+    }
+
+    @Test
+    public void busy_nodes_are_not_released() {
+        ElasticNodeSourceScaler scaler = new ElasticNodeSourceScaler(0, 10, 10, 0, MINUTE, MINUTE, 0);
+
+        assertEquals(4, scaler.evaluate(0, 4, nodes(0, 0), nodes(0, 0)));
+        // the tasks running on the node source keep its nodes, whatever runs elsewhere
+        assertEquals(0, scaler.evaluate(SECOND, 0, nodes(0, 4), nodes(0, 0)));
+        assertEquals(0, scaler.evaluate(10 * MINUTE, 0, nodes(0, 4), nodes(0, 0)));
+        assertEquals(0, scaler.getNodesToRelease().size());
+
+        // a node which was idle for a while but runs a task again is not released
+        assertEquals(0, scaler.evaluate(11 * MINUTE, 0, nodes(0, 4), nodes(0, 4)));
+        assertEquals(0, scaler.evaluate(12 * MINUTE, 0, nodes(0, 4), nodes(1, 4)));
+        assertEquals(nodes(1, 4), new HashSet<>(scaler.getNodesToRelease()));
+    }
+
+    @Test
+    public void free_nodes_are_kept_for_the_pending_tasks() {
+        ElasticNodeSourceScaler scaler = new ElasticNodeSourceScaler(0, 10, 10, 0, MINUTE, MINUTE, 0);
+
+        assertEquals(0, scaler.evaluate(0, 2, nodes(0, 2), nodes(0, 2)));
+        assertEquals(0, scaler.evaluate(10 * MINUTE, 2, nodes(0, 2), nodes(0, 2)));
+        assertEquals(0, scaler.getNodesToRelease().size());
+        assertEquals(0, scaler.evaluate(11 * MINUTE, 0, nodes(0, 2), nodes(0, 2)));
+        assertEquals(nodes(0, 2), new HashSet<>(scaler.getNodesToRelease()));
+    }
+
+    @Test
+    public void acquisition_latency_and_task_duration_are_learnt() {
+        ElasticNodeSourceScaler scaler = new ElasticNodeSourceScaler(0, 100, 100, 0, MINUTE, MINUTE, 0);
+
+        long now = 0;
+        for (int i = 1; i <= 20; i++) {
+            assertEquals(1, scaler.evaluate(now, i, nodes(0, i - 1), nodes(0, i - 1)));
+            now += 40 * SECOND;
+            scaler.evaluate(now, i, nodes(0, i), nodes(0, i));
+        }
+        assertEquals(40 * SECOND, scaler.getAcquisitionLatencyEstimate(), SECOND);
+
+        for (int i = 0; i < 50; i++) {
+            scaler.taskFinished(10 * SECOND);
+        }
+        assertEquals(10 * SECOND, scaler.getTaskDurationEstimate(), SECOND);
+
+        // a new node would only be available after four tasks of the queue are finished
+        scaler.evaluate(now, 38, nodes(0, 20), nodes(0, 20));
+        assertEquals(10, scaler.getTargetNodes());
+    }
+
+    @Test
+    public void lost_acquisitions_are_requested_again() {
+        ElasticNodeSourceScaler scaler = new ElasticNodeSourceScaler(0, 10, 10, 0, 0, MINUTE, SECOND);
+
+        assertEquals(2, scaler.evaluate(0, 2, nodes(0, 0), nodes(0, 0)));
+        assertEquals(0, scaler.evaluate(SECOND, 2, nodes(0, 0), nodes(0, 0)));
+        assertEquals(2, scaler.evaluate(ElasticNodeSourceScaler.MIN_ACQUISITION_TIMEOUT + 2 * SECOND,
+                                        2,
+                                        nodes(0, 0),
+                                        nodes(0, 0)));
+    }
+
+    /**
+     * Replays a synthetic trace of job arrivals against a simulated infrastructure
+     * whose nodes are available after an acquisition latency.
+     */
+    @Test
+    public void simulated_infrastructure_follows_the_job_arrivals() {
+        int minNodes = 1;
+        int maxNodes = 20;
+        ElasticNodeSourceScaler scaler = new ElasticNodeSourceScaler(minNodes,
+                                                                     maxNodes,
+                                                                     4,
+                                                                     MINUTE,
+                                                                     2 * MINUTE,
+                                                                     MINUTE,
+                                                                     MINUTE);
+        SimulatedInfrastructure infrastructure = new SimulatedInfrastructure(30 * SECOND);
+
+        // bursts of jobs separated by quiet periods
+        List<long[]> trace = new ArrayList<>();
+        trace.add(new long[] { 0, 40, 45 * SECOND });
+        trace.add(new long[] { 10 * MINUTE, 10, 90 * SECOND });
+        trace.add(new long[] { 12 * MINUTE, 80, 30 * SECOND });
+        trace.add(new long[] { 30 * MINUTE, 5, 20 * SECOND });
+        long end = 60 * MINUTE;
+
+        int submitted = 0;
+        LinkedList<Long> pending = new LinkedList<>();
+        long nodeTime = 0;
+        int maxObserved = 0;
+        for (long now = 0; now < end; now += SECOND) {
+            Iterator<long[]> arrivals = trace.iterator();
+            while (arrivals.hasNext()) {
+                long[] job = arrivals.next();
+                if (job[0] <= now) {
+                    for (int i = 0; i < job[1]; i++) {
+                        pending.add(job[2]);
+                    }
+                    submitted += job[1];
+                    arrivals.remove();
+                }
+            }
+
+            for (long duration : infrastructure.progress(now)) {
+                scaler.taskFinished(duration);
+            }
+            while (!pending.isEmpty() && infrastructure.startTask(now, pending.peekFirst())) {
+                pending.removeFirst();
+            }
+
+            int acquired = scaler.evaluate(now, pending.size(), infrastructure.nodes(), infrastructure.freeNodes());
+            if (acquired > 0) {
+                infrastructure.acquire(now, acquired);
+            }
+            infrastructure.release(scaler.getNodesToRelease());
+
+            int size = infrastructure.nodes().size();
+            assertTrue("too many nodes: " + size, size <= maxNodes);
+            if (now > MINUTE) {
+                assertTrue("not enough nodes: " + size, size >= minNodes);
+            }
+            maxObserved = Math.max(maxObserved, size);
+            nodeTime += size * SECOND;
+        }
+
+        assertEquals(submitted, infrastructure.finishedTasks);
+        assertEquals(maxNodes, maxObserved);
+        assertEquals(minNodes, infrastructure.nodes().size());
+        // a static pool able to absorb the bursts would use the maximum number of nodes all along
+        assertTrue("node time: " + nodeTime, nodeTime < maxNodes * end / 3);
+        assertEquals(30 * SECOND, scaler.getAcquisitionLatencyEstimate(), SECOND);
+    }
+
+    /**
+     * @return the urls of the nodes from the first one included to the last one excluded
+     */
+    private static Set<String> nodes(int first, int last) {
+        Set<String> nodes = new HashSet<>();
+        for (int i = first; i < last; i++) {
+            nodes.add("node-" + i);
+        }
+        return nodes;
+    }
+
+    /**
+     * Nodes are available after the acquisition latency, only free nodes can be released.
+     */
+    private static class SimulatedInfrastructure {
+
+        private final long acquisitionLatency;
+
+        private final List<Long> deployments = new LinkedList<>();
+
+        private final List<SimulatedNode> nodes = new ArrayList<>();
+
+        private int nextNode = 0;
+
+        private int finishedTasks = 0;
+
+        SimulatedInfrastructure(long acquisitionLatency) {
+            this.acquisitionLatency = acquisitionLatency;
+        }
+
+        void acquire(long now, int count) {
+            for (int i = 0; i < count; i++) {
+                deployments.add(now + acquisitionLatency);
+            }
+        }
+
+        void release(List<String> urls) {
+            Iterator<SimulatedNode> iterator = nodes.iterator();
+            while (iterator.hasNext()) {
+                SimulatedNode node = iterator.next();
+                if (urls.contains(node.url)) {
+                    assertEquals("busy node released: " + node.url, 0, node.taskEnd);
+                    iterator.remove();
+                }
+            }
+        }
+
+        /**
+         * @return the durations of the tasks finished at this time
+         */
+        List<Long> progress(long now) {
+            Iterator<Long> deployment = deployments.iterator();
+            while (deployment.hasNext()) {
+                if (deployment.next() <= now) {
+                    nodes.add(new SimulatedNode("node-" + nextNode++));
+                    deployment.remove();
+                }
+            }
+            List<Long> finished = new ArrayList<>();
+            for (SimulatedNode node : nodes) {
+                if (node.taskEnd != 0 && node.taskEnd <= now) {
+                    finished.add(node.taskDuration);
+                    node.taskEnd = 0;
+                    finishedTasks++;
+                }
+            }
+            return finished.isEmpty() ? Collections.<Long> emptyList() : finished;
+        }
+
+        boolean startTask(long now, long duration) {
+            for (SimulatedNode node : nodes) {
+                if (node.taskEnd == 0) {
+                    node.taskEnd = now + duration;
+                    node.taskDuration = duration;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Set<String> freeNodes() {
+            Set<String> urls = new HashSet<>();
+            for (SimulatedNode node : nodes) {
+                if (node.taskEnd == 0) {
+                    urls.add(node.url);
+                }
+            }
+            return urls;
+        }
+
+        Set<String> nodes() {
+            Set<String> urls = new HashSet<>();
+            for (SimulatedNode node : nodes) {
+                urls.add(node.url);
+            }
+            return urls;
+        }
+    }
+
+    private static class SimulatedNode {
+
+        private final String url;
+
+        private long taskEnd;
+
+        private long taskDuration;
+
+        SimulatedNode(String url) {
+            this.url = url;
+        }
+    }
+}
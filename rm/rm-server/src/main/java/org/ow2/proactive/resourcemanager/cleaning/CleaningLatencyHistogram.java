@@ -0,0 +1,73 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.cleaning;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Histogram of the time spent cleaning nodes, with fixed buckets.
+ * The class is thread safe as nodes are cleaned in parallel.
+ */
+public class CleaningLatencyHistogram {
+
+    /** Upper bounds (exclusive, in ms) of the buckets, the last bucket is unbounded */
+    static final long[] BUCKET_BOUNDS = { 10, 100, 1000, 10000, 60000 };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS.length + 1);
+
+    /**
+     * Records the duration of a node cleaning.
+     *
+     * @param latency cleaning duration in ms
+     */
+    public void record(long latency) {
+        int index = 0;
+        while (index < BUCKET_BOUNDS.length && latency >= BUCKET_BOUNDS[index]) {
+            index++;
+        }
+        buckets.incrementAndGet(index);
+    }
+
+    /**
+     * @return the number of cleanings by bucket, keys are of the form {@code <100ms} or {@code >=60000ms}
+     */
+    public LinkedHashMap<String, Long> snapshot() {
+        LinkedHashMap<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            result.put("<" + BUCKET_BOUNDS[i] + "ms", buckets.get(i));
+        }
+        result.put(">=" + BUCKET_BOUNDS[BUCKET_BOUNDS.length - 1] + "ms", buckets.get(BUCKET_BOUNDS.length));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Node cleaning latency " + snapshot();
+    }
+
+}
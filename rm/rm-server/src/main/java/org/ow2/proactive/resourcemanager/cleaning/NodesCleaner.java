@@ -25,19 +25,20 @@
  */
 package org.ow2.proactive.resourcemanager.cleaning;
 
-import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.Body;
 import org.objectweb.proactive.RunActive;
 import org.objectweb.proactive.Service;
+import org.objectweb.proactive.annotation.ImmediateService;
 import org.objectweb.proactive.core.body.request.Request;
 import org.objectweb.proactive.core.util.wrapper.BooleanWrapper;
 import org.objectweb.proactive.extensions.annotation.ActiveObject;
@@ -48,7 +49,8 @@ import org.ow2.proactive.resourcemanager.rmnode.RMNode;
 
 /**
  * This class is responsible for the node cleaning.
- * It does it in parallel in a dedicated thread pool.
+ * It does it in parallel in a dedicated thread pool, each node being
+ * set free as soon as its own cleaning is finished.
  */
 @ActiveObject
 public class NodesCleaner implements RunActive {
@@ -60,6 +62,11 @@ public class NodesCleaner implements RunActive {
     /** RMCore reference to be able to set nodes free after the cleaning procedure */
     private RMCore rmcore;
 
+    /** Node sources whose nodes are set free without cleaning */
+    private Set<String> skippedNodeSources;
+
+    private CleaningLatencyHistogram cleaningLatencies;
+
     /** PA Constructor */
     public NodesCleaner() {
     }
@@ -67,57 +74,78 @@ public class NodesCleaner implements RunActive {
     public NodesCleaner(RMCore rmcore) {
         this.rmcore = rmcore;
         this.scriptExecutorThreadPool = Executors.newFixedThreadPool(PAResourceManagerProperties.RM_CLEANING_MAX_THREAD_NUMBER.getValueAsInt());
+        this.skippedNodeSources = new HashSet<>(PAResourceManagerProperties.RM_CLEANING_SKIPPED_NODE_SOURCES.getValueAsList(","));
+        this.cleaningLatencies = new CleaningLatencyHistogram();
     }
 
     /**
      * Cleans nodes in parallel for the nodes specified.
+     * Each node is set free as soon as it has been cleaned, independently
+     * of the cleaning of the other nodes. A node which cannot be cleaned is marked as down.
      *
      * @param nodes to be cleaned
-     * @return true if all the nodes were freed, false if error occurs on one of the node (it will be marked as down in this case)
+     * @return true once the cleaning of the nodes has been initiated
      */
     public BooleanWrapper cleanAndRelease(List<RMNode> nodes) {
-        List<Callable<Boolean>> cleaners = new LinkedList<>();
+        List<RMNode> notCleaned = new LinkedList<>();
         for (RMNode node : nodes) {
-            logger.debug("Cleaning the node " + node.getNodeURL());
-            cleaners.add(new NodeCleaner(node));
+            if (skippedNodeSources.contains(node.getNodeSourceName())) {
+                logger.debug("Skipping the cleaning of the node " + node.getNodeURL());
+                notCleaned.add(node);
+            } else {
+                logger.debug("Cleaning the node " + node.getNodeURL());
+                scriptExecutorThreadPool.submit(new ReleaseAfterCleaning(node));
+            }
         }
 
-        try {
-            Collection<Future<Boolean>> cleanNodes = scriptExecutorThreadPool.invokeAll(cleaners);
+        if (!notCleaned.isEmpty()) {
+            rmcore.setFreeNodes(notCleaned);
+        }
+        return new BooleanWrapper(true);
+    }
 
-            int index = 0;
-            for (Future<Boolean> cleanNode : cleanNodes) {
-                RMNode node = nodes.get(index);
+    /**
+     * @return the number of node cleanings by duration range
+     */
+    @ImmediateService
+    public LinkedHashMap<String, Long> getCleaningLatencyHistogram() {
+        return cleaningLatencies.snapshot();
+    }
 
-                if (!cleanNode.isCancelled()) {
-                    Boolean isClean = null;
-                    try {
-                        isClean = cleanNode.get();
-                        if (!isClean.booleanValue()) {
-                            logger.warn("Cannot clean the node " + node.getNodeURL());
-                            rmcore.setDownNode(node.getNodeURL());
-                        } else {
-                            logger.debug("The node " + node.getNodeURL() + " has been successfully cleaned");
-                        }
-                    } catch (ExecutionException e) {
-                        logger.warn("Cannot clean the node " + node.getNodeURL(), e);
-                        rmcore.setDownNode(node.getNodeURL());
-                    }
-                } else {
-                    logger.warn("Cannot clean the node " + node.getNodeURL());
-                    rmcore.setDownNode(node.getNodeURL());
-                }
-                index++;
-            }
+    /**
+     * Cleans a node and reports the result to the core as soon as it is known.
+     */
+    private class ReleaseAfterCleaning implements Runnable {
 
-            // if we had any error while cleaning a node, this node would have been already marked as down
-            // in this case rmcore.setFreeNodes() will return false
-            return rmcore.setFreeNodes(nodes);
-        } catch (InterruptedException e) {
-            logger.error("", e);
+        private final RMNode node;
+
+        ReleaseAfterCleaning(RMNode node) {
+            this.node = node;
         }
 
-        return new BooleanWrapper(false);
+        @Override
+        public void run() {
+            long start = System.currentTimeMillis();
+            boolean isClean;
+            try {
+                isClean = new NodeCleaner(node).call();
+            } catch (Exception e) {
+                logger.warn("Cannot clean the node " + node.getNodeURL(), e);
+                isClean = false;
+            }
+            cleaningLatencies.record(System.currentTimeMillis() - start);
+
+            if (isClean) {
+                logger.debug("The node " + node.getNodeURL() + " has been successfully cleaned");
+                rmcore.setFreeNodes(Collections.singletonList(node));
+            } else {
+                logger.warn("Cannot clean the node " + node.getNodeURL());
+                rmcore.setDownNode(node.getNodeURL());
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug(cleaningLatencies);
+            }
+        }
     }
 
     /**
@@ -0,0 +1,227 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.core;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.log4j.Logger;
+
+
+/**
+ * Liveness leases of the nodes handled by the resource manager.
+ * <p>
+ * Each time a node agent reports its nodes as available (see {@link RMCore#setNodesAvailable(Set)})
+ * their lease is renewed. Leases are indexed by expiration time so that expiring them
+ * only touches the expired ones. Node sources rely on these leases to ping only the nodes
+ * which did not report themselves recently, instead of pinging every node at each period.
+ * <p>
+ * The class is thread safe as leases are renewed from immediate services.
+ */
+public class NodeLeases {
+
+    private static final Logger logger = Logger.getLogger(NodeLeases.class);
+
+    private final long leaseDuration;
+
+    /** node url -> expiration time of its valid lease */
+    private final Map<String, Long> leases = new HashMap<>();
+
+    /** expiration time -> urls of the nodes whose lease expires at that time */
+    private final TreeMap<Long, Set<String>> expirations = new TreeMap<>();
+
+    /** node url -> expiration time of its lease, for expired leases until the node is down or renewed */
+    private final Map<String, Long> expired = new HashMap<>();
+
+    private long renewalRequests;
+
+    private long renewedLeases;
+
+    private long expiredLeases;
+
+    private long detectedDownNodes;
+
+    private long totalDetectionLatency;
+
+    private long maxDetectionLatency;
+
+    /**
+     * @param leaseDuration duration of a lease in ms, a value lower or equal to 0 disables leases
+     */
+    public NodeLeases(long leaseDuration) {
+        this.leaseDuration = leaseDuration;
+    }
+
+    public boolean isEnabled() {
+        return leaseDuration > 0;
+    }
+
+    /**
+     * Renews the leases of the given nodes.
+     *
+     * @param nodeUrls urls of the nodes reported as available
+     * @param now current time in ms
+     */
+    public synchronized void renew(Collection<String> nodeUrls, long now) {
+        if (!isEnabled()) {
+            return;
+        }
+        long expiration = now + leaseDuration;
+        for (String nodeUrl : nodeUrls) {
+            removeFromIndex(nodeUrl);
+            expired.remove(nodeUrl);
+            leases.put(nodeUrl, expiration);
+            Set<String> urls = expirations.get(expiration);
+            if (urls == null) {
+                urls = new HashSet<>();
+                expirations.put(expiration, urls);
+            }
+            urls.add(nodeUrl);
+        }
+        renewalRequests++;
+        renewedLeases += nodeUrls.size();
+    }
+
+    /**
+     * Expires all the leases whose expiration time is before the given time.
+     *
+     * @param now current time in ms
+     * @return the number of leases which expired
+     */
+    public synchronized int expire(long now) {
+        int count = 0;
+        Iterator<Map.Entry<Long, Set<String>>> it = expirations.headMap(now, true).entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Set<String>> entry = it.next();
+            for (String nodeUrl : entry.getValue()) {
+                leases.remove(nodeUrl);
+                expired.put(nodeUrl, entry.getKey());
+                count++;
+            }
+            it.remove();
+        }
+        expiredLeases += count;
+        if (count > 0 && logger.isDebugEnabled()) {
+            logger.debug(count + " node leases expired");
+        }
+        return count;
+    }
+
+    /**
+     * @param nodeUrl url of the node
+     * @return true if the node has a lease which has not expired yet
+     */
+    public synchronized boolean hasValidLease(String nodeUrl) {
+        return leases.containsKey(nodeUrl);
+    }
+
+    /**
+     * Forgets the lease of a node which has been detected down, and accounts
+     * the time elapsed since the expiration of its lease.
+     *
+     * @param nodeUrl url of the down node
+     * @param now current time in ms
+     */
+    public synchronized void nodeDown(String nodeUrl, long now) {
+        Long expiration = expired.remove(nodeUrl);
+        if (expiration != null) {
+            long latency = now - expiration;
+            detectedDownNodes++;
+            totalDetectionLatency += latency;
+            maxDetectionLatency = Math.max(maxDetectionLatency, latency);
+        }
+        remove(nodeUrl);
+    }
+
+    /**
+     * Forgets the lease of a node which has been removed.
+     *
+     * @param nodeUrl url of the node
+     */
+    public synchronized void remove(String nodeUrl) {
+        removeFromIndex(nodeUrl);
+        leases.remove(nodeUrl);
+        expired.remove(nodeUrl);
+    }
+
+    private void removeFromIndex(String nodeUrl) {
+        Long expiration = leases.get(nodeUrl);
+        if (expiration != null) {
+            Set<String> urls = expirations.get(expiration);
+            if (urls != null) {
+                urls.remove(nodeUrl);
+                if (urls.isEmpty()) {
+                    expirations.remove(expiration);
+                }
+            }
+        }
+    }
+
+    public synchronized int getValidLeasesCount() {
+        return leases.size();
+    }
+
+    public synchronized long getRenewalRequests() {
+        return renewalRequests;
+    }
+
+    public synchronized long getRenewedLeases() {
+        return renewedLeases;
+    }
+
+    public synchronized long getExpiredLeases() {
+        return expiredLeases;
+    }
+
+    public synchronized long getDetectedDownNodes() {
+        return detectedDownNodes;
+    }
+
+    /**
+     * @return the average time in ms between the expiration of a lease and the detection of the node as down
+     */
+    public synchronized long getAverageDetectionLatency() {
+        return detectedDownNodes == 0 ? 0 : totalDetectionLatency / detectedDownNodes;
+    }
+
+    public synchronized long getMaxDetectionLatency() {
+        return maxDetectionLatency;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "NodeLeases[valid=" + leases.size() + ", renewalRequests=" + renewalRequests + ", renewedLeases=" +
+               renewedLeases + ", expiredLeases=" + expiredLeases + ", detectedDownNodes=" + detectedDownNodes +
+               ", averageDetectionLatency=" + getAverageDetectionLatency() + "ms, maxDetectionLatency=" +
+               maxDetectionLatency + "ms]";
+    }
+
+}
@@ -233,6 +233,9 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
     /** Nodes topology */
     public static TopologyManager topologyManager;
 
+    /** Liveness leases of the nodes, renewed by node agents and used by node sources to select the nodes to ping */
+    public static NodeLeases nodeLeases = new NodeLeases(0);
+
     /** Client pinger */
     private ClientPinger clientPinger;
 
@@ -362,6 +365,8 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
 
             topologyManager = new TopologyManager();
 
+            nodeLeases = new NodeLeases(PAResourceManagerProperties.RM_NODE_LEASE_DURATION.getValueAsLong());
+
             nodeConfigurator = (RMNodeConfigurator) PAActiveObject.newActive(RMNodeConfigurator.class.getName(),
                                                                              new Object[] { rmCoreStub },
                                                                              nodeRM);
@@ -634,6 +639,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
             eligibleNodes.remove(rmnode);
         }
         this.allNodes.remove(rmnode.getNodeURL());
+        nodeLeases.remove(rmnode.getNodeURL());
         // create the event
         this.registerAndEmitNodeEvent(rmnode.createNodeEvent(RMEventType.NODE_REMOVED,
                                                              rmnode.getState(),
@@ -1053,6 +1059,9 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
      * The underlying calls to {@code setBusyNode} and {@code internalSetFree}
      * are writing to the {@code freeNodes} data-structure. It explains why this last
      * is synchronized (thread-safe).
+     * <p>
+     * The leases of all the known nodes are renewed, so that their node source
+     * does not need to ping them until the leases expire.
      *
      * @param nodeUrls the URLs of the workers associated to the node that publishes the update.
      *
@@ -1067,6 +1076,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         }
 
         ImmutableSet.Builder<String> nodeUrlsNotKnownByTheRM = new ImmutableSet.Builder<>();
+        List<String> nodeUrlsKnownByTheRM = new ArrayList<>(nodeUrls.size());
 
         for (String nodeUrl : nodeUrls) {
             RMNode node = this.allNodes.get(nodeUrl);
@@ -1074,7 +1084,12 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
             if (node == null) {
                 logger.warn("Cannot set node as available, the node is unknown: " + nodeUrl);
                 nodeUrlsNotKnownByTheRM.add(nodeUrl);
-            } else if (node.isDown()) {
+                continue;
+            }
+
+            nodeUrlsKnownByTheRM.add(nodeUrl);
+
+            if (node.isDown()) {
                 restoreNodeState(nodeUrl, node);
             } else {
                 if (logger.isDebugEnabled()) {
@@ -1082,6 +1097,8 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
                 }
             }
         }
+
+        nodeLeases.renew(nodeUrlsKnownByTheRM, System.currentTimeMillis());
         return nodeUrlsNotKnownByTheRM.build();
     }
 
@@ -1515,6 +1532,8 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         this.clientPinger.shutdown();
         // waiting while all events will be dispatched to listeners
         PAFuture.waitFor(this.monitoring.shutdown());
+        // waiting while the node history of these events is written
+        dbManager.flushNodeHistory();
 
         PAActiveObject.terminateActiveObject(false);
         try {
@@ -1577,6 +1596,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
                 return;
             }
             logger.info("The node " + rmNode.getNodeURL() + " provided by " + rmNode.getProvider() + " is down");
+            nodeLeases.nodeDown(nodeUrl, System.currentTimeMillis());
             // Get the previous state of the node needed for the event
             final NodeState previousNodeState = rmNode.getState();
             if (rmNode.isFree()) {
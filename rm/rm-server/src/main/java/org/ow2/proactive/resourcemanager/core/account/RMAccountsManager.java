@@ -68,7 +68,8 @@ public final class RMAccountsManager extends AbstractAccountsManager<RMAccount>
 
     /**
      * 
-     * Computes user account data by scanning the data base.
+     * Computes user account data from the node usage rollups of ended
+     * node history records and from the node history records still open.
      * 
      */
     public RMAccount readAccount(final String user) {
@@ -86,31 +87,27 @@ public final class RMAccountsManager extends AbstractAccountsManager<RMAccount>
             String providerName = NodeHistory.class.getDeclaredField("providerName").getAnnotation(Column.class).name();
             String nodeUrl = NodeHistory.class.getDeclaredField("nodeUrl").getAnnotation(Column.class).name();
 
-            // counting the time of finished actions 
-            // select SUM(endTime-startTime) from History where endTime <> 0 and nodeState = 1 and userName='NAME'
-            String wereBusy = "SELECT SUM(" + endTime + "-" + startTime + ") " + "FROM " + history + " WHERE " +
-                              userName + "='" + user + "' AND " + endTime + " <> 0 AND " + nodeState + " = 1";
-
-            List<?> rows = dbmanager.executeSqlQuery(wereBusy);
-            account.usedNodeTime += aggregateNodeUsageTime(rows);
+            // the time of finished actions is maintained per hour in the node usage rollups
+            long[] nodeUsage = dbmanager.readNodeUsage(user);
+            account.usedNodeTime += nodeUsage[0];
+            account.providedNodeTime += nodeUsage[1];
 
             String areBusy = "SELECT SUM(" + System.currentTimeMillis() + "-" + startTime + ") " + "FROM " + history +
                              " WHERE " + userName + "='" + user + "' AND " + endTime + " = 0 AND " + nodeState + " = 1";
-            rows = dbmanager.executeSqlQuery(areBusy);
+            List<?> rows = dbmanager.executeSqlQuery(areBusy);
             account.usedNodeTime += aggregateNodeUsageTime(rows);
 
-            // select SUM(endTime-startTime), COUNT(DISTINCT nodeUrl) from History where endTime <> 0 and nodeState in (0,1,3,6) and providerName='rm'
-            String wereProvided = "SELECT COUNT(DISTINCT " + nodeUrl + "), SUM(" + endTime + "-" + startTime + ") " +
-                                  "FROM " + history + " WHERE " + providerName + "='" + user + "' AND " + endTime +
-                                  " <> 0 AND " + nodeState + " in (0,1,3,6)";
+            // select COUNT(DISTINCT nodeUrl) from History where endTime <> 0 and nodeState in (0,1,3,6) and providerName='rm'
+            String wereProvided = "SELECT COUNT(DISTINCT " + nodeUrl + ") " + "FROM " + history + " WHERE " +
+                                  providerName + "='" + user + "' AND " + endTime + " <> 0 AND " + nodeState +
+                                  " in (0,1,3,6)";
             // select SUM(CURRNET_TIME-startTime), COUNT(DISTINCT nodeUrl) from History where endTime = 0 and nodeState in (0,1,3,6) and providerName='rm'
             String areProvided = "SELECT 0, SUM(" + System.currentTimeMillis() + "-" + startTime + ") " + "FROM " +
                                  history + " WHERE " + providerName + "='" + user + "' AND " + endTime + " = 0 AND " +
                                  nodeState + " in (0,1,3,6)";
 
             rows = dbmanager.executeSqlQuery(wereProvided);
-            account.providedNodesCount += aggregateProvidedNodesCount(rows);
-            account.providedNodeTime += aggregateProvidedNodeTime(rows);
+            account.providedNodesCount += aggregateNodesCount(rows);
 
             rows = dbmanager.executeSqlQuery(areProvided);
             account.providedNodesCount += aggregateProvidedNodesCount(rows);
@@ -138,6 +135,22 @@ public final class RMAccountsManager extends AbstractAccountsManager<RMAccount>
         return usedNodeTime;
     }
 
+    private int aggregateNodesCount(List<?> rows) {
+        int nodesCount = 0;
+        for (Object row : rows) {
+            try {
+                if (row != null) {
+                    // result could be empty or null
+                    nodesCount += Integer.parseInt(row.toString());
+                }
+            } catch (RuntimeException e) {
+                logger.warn(e.getMessage(), e);
+                nodesCount = 0;
+            }
+        }
+        return nodesCount;
+    }
+
     private int aggregateProvidedNodesCount(List<?> rows) {
         int providedNodesCount = 0;
         for (Object row : rows) {
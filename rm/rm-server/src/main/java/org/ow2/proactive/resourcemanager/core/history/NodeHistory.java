@@ -40,6 +40,7 @@ import org.ow2.proactive.resourcemanager.common.event.RMNodeEvent;
 @Entity
 @Table(name = "NodeHistory", indexes = { @Index(name = "NODE_HISTORY_END_TIME", columnList = "endTime"),
                                          @Index(name = "NODE_HISTORY_NODE_URL", columnList = "nodeUrl"),
+                                         @Index(name = "NODE_HISTORY_PROVIDER_NAME", columnList = "providerName"),
                                          @Index(name = "NODE_HISTORY_USER_NAME", columnList = "userName"), })
 public class NodeHistory {
 
@@ -0,0 +1,90 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.core.history;
+
+import javax.persistence.*;
+
+
+/**
+ * Node usage of a user during one hour, maintained incrementally
+ * from the {@link NodeHistory} records as they are ended.
+ * <p>
+ * The used time is the time spent by the user's tasks on busy nodes,
+ * the provided time is the time the nodes added by the user were available to others.
+ */
+@Entity
+@Table(name = "NodeUsage", indexes = { @Index(name = "NODE_USAGE_USER_NAME", columnList = "userName") }, uniqueConstraints = { @UniqueConstraint(name = "NODE_USAGE_USER_HOUR", columnNames = { "userName", "hourStart" }) })
+public class NodeUsage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "NODE_USAGE_ID_SEQUENCE")
+    @SequenceGenerator(name = "NODE_USAGE_ID_SEQUENCE", sequenceName = "NODE_USAGE_ID_SEQUENCE")
+    @SuppressWarnings("unused")
+    protected long id;
+
+    @Column(name = "userName", nullable = false)
+    private String userName;
+
+    // start of the hour, in milliseconds since the epoch
+    @Column(name = "hourStart", nullable = false)
+    private long hourStart;
+
+    @Column(name = "usedNodeTime")
+    private long usedNodeTime;
+
+    @Column(name = "providedNodeTime")
+    private long providedNodeTime;
+
+    /**
+     * Default constructor for Hibernate
+     */
+    public NodeUsage() {
+    }
+
+    public NodeUsage(String userName, long hourStart, long usedNodeTime, long providedNodeTime) {
+        this.userName = userName;
+        this.hourStart = hourStart;
+        this.usedNodeTime = usedNodeTime;
+        this.providedNodeTime = providedNodeTime;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public long getHourStart() {
+        return hourStart;
+    }
+
+    public long getUsedNodeTime() {
+        return usedNodeTime;
+    }
+
+    public long getProvidedNodeTime() {
+        return providedNodeTime;
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.resourcemanager.core.history.NodeHistory;
+
+
+/**
+ * Writes node history records to the database from a dedicated thread, so that
+ * node events dispatching does not wait for the database.
+ * <p>
+ * Records are queued in a bounded queue, callers block when the queue is full.
+ * The writer thread persists them in batches, see {@link RMDBManager#saveNodeHistories(List)}.
+ * <p>
+ * The alive time of the resource manager must only be updated once the records
+ * queued before are persisted (see {@link #flush()}), this way recovering after a crash
+ * closes the history records exactly as before.
+ */
+public class NodeHistoryWriter {
+
+    private static final Logger logger = Logger.getLogger(NodeHistoryWriter.class);
+
+    private final RMDBManager dbManager;
+
+    private final BlockingQueue<NodeHistory> queue;
+
+    private final int batchSize;
+
+    private final Thread writerThread;
+
+    private final Object progressLock = new Object();
+
+    /** number of records queued since the creation of the writer */
+    private long queued;
+
+    /** number of records processed (persisted or failed) since the creation of the writer */
+    private long processed;
+
+    private volatile boolean closed;
+
+    public NodeHistoryWriter(RMDBManager dbManager, int queueSize, int batchSize) {
+        this.dbManager = dbManager;
+        this.queue = new LinkedBlockingQueue<>(queueSize);
+        this.batchSize = batchSize;
+        this.writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        }, "Node history writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues a node history record, waiting if the queue is full.
+     *
+     * @param nodeHistory record to persist
+     */
+    public void write(NodeHistory nodeHistory) {
+        if (closed) {
+            logger.warn("Node history writer is closed, saving the node history synchronously");
+            dbManager.saveNodeHistories(Collections.singletonList(nodeHistory));
+            return;
+        }
+        synchronized (progressLock) {
+            queued++;
+        }
+        try {
+            queue.put(nodeHistory);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            synchronized (progressLock) {
+                queued--;
+            }
+            logger.warn("Interrupted while queuing the node history of " + nodeHistory.getNodeUrl());
+        }
+    }
+
+    /**
+     * Waits until all the records queued before the call have been processed.
+     */
+    public void flush() {
+        synchronized (progressLock) {
+            long target = queued;
+            while (processed < target && writerThread.isAlive()) {
+                try {
+                    progressLock.wait(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Persists the pending records and stops the writer thread.
+     */
+    public void close() {
+        flush();
+        closed = true;
+        writerThread.interrupt();
+    }
+
+    /**
+     * @return the number of records waiting to be persisted
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    private void writeLoop() {
+        List<NodeHistory> batch = new ArrayList<>(batchSize);
+        while (!closed) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+            queue.drainTo(batch, batchSize - 1);
+
+            try {
+                dbManager.saveNodeHistories(batch);
+            } catch (RuntimeException e) {
+                logger.error("Cannot save the history of " + batch.size() + " node events", e);
+            }
+
+            synchronized (progressLock) {
+                processed += batch.size();
+                progressLock.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+}
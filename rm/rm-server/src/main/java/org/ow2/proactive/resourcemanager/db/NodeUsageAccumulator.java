@@ -0,0 +1,133 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.db;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.ow2.proactive.resourcemanager.common.NodeState;
+import org.ow2.proactive.resourcemanager.core.history.NodeHistory;
+
+
+/**
+ * Splits ended node history intervals into per user, per hour node usage.
+ * <p>
+ * The busy time of a node is accounted to the user of the node, the time a node
+ * is free, busy, configuring or to be removed is accounted as provided time to the
+ * provider of the node. This is what the accounts used to compute from the whole history.
+ */
+class NodeUsageAccumulator {
+
+    static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    static final Set<NodeState> PROVIDED_STATES = EnumSet.of(NodeState.FREE,
+                                                             NodeState.BUSY,
+                                                             NodeState.TO_BE_REMOVED,
+                                                             NodeState.CONFIGURING);
+
+    // user name -> start of the hour -> { used time, provided time }
+    private final Map<String, Map<Long, long[]>> usage = new HashMap<>();
+
+    static long hourOf(long time) {
+        return time - (time % HOUR);
+    }
+
+    /**
+     * Accounts the interval of a node history record.
+     *
+     * @param nodeHistory record
+     * @param endTime end of the interval, the end time of the record is not used
+     */
+    void add(NodeHistory nodeHistory, long endTime) {
+        add(nodeHistory.getNodeState(),
+            nodeHistory.getUserName(),
+            nodeHistory.getProviderName(),
+            nodeHistory.getStartTime(),
+            endTime);
+    }
+
+    void add(NodeState nodeState, String userName, String providerName, long startTime, long endTime) {
+        boolean used = nodeState == NodeState.BUSY && userName != null;
+        boolean provided = PROVIDED_STATES.contains(nodeState) && providerName != null;
+
+        if (endTime <= startTime || !(used || provided)) {
+            return;
+        }
+
+        for (long hour = hourOf(startTime); hour < endTime; hour += HOUR) {
+            long duration = Math.min(endTime, hour + HOUR) - Math.max(startTime, hour);
+            if (used) {
+                usageOf(userName, hour)[0] += duration;
+            }
+            if (provided) {
+                usageOf(providerName, hour)[1] += duration;
+            }
+        }
+    }
+
+    private long[] usageOf(String userName, long hour) {
+        Map<Long, long[]> userUsage = usage.get(userName);
+        if (userUsage == null) {
+            userUsage = new HashMap<>();
+            usage.put(userName, userUsage);
+        }
+        long[] hourUsage = userUsage.get(hour);
+        if (hourUsage == null) {
+            hourUsage = new long[2];
+            userUsage.put(hour, hourUsage);
+        }
+        return hourUsage;
+    }
+
+    boolean isEmpty() {
+        return usage.isEmpty();
+    }
+
+    /**
+     * @return the usage accumulated so far, one element per user and hour
+     */
+    Map<String, Map<Long, long[]>> getUsage() {
+        return usage;
+    }
+
+    long getUsedNodeTime(String userName, long hour) {
+        Map<Long, long[]> userUsage = usage.get(userName);
+        return userUsage == null || !userUsage.containsKey(hour) ? 0 : userUsage.get(hour)[0];
+    }
+
+    long getProvidedNodeTime(String userName, long hour) {
+        Map<Long, long[]> userUsage = usage.get(userName);
+        return userUsage == null || !userUsage.containsKey(hour) ? 0 : userUsage.get(hour)[1];
+    }
+
+    void clear() {
+        usage.clear();
+    }
+
+}
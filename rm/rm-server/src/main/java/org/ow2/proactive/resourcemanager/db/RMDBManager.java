@@ -29,8 +29,14 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -42,6 +48,7 @@ import org.hibernate.Query;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.jdbc.Work;
 import org.objectweb.proactive.core.util.MutableInteger;
 import org.objectweb.proactive.core.util.log.ProActiveLogger;
 import org.ow2.proactive.db.DatabaseManagerException;
@@ -49,7 +56,9 @@ import org.ow2.proactive.db.SessionWork;
 import org.ow2.proactive.db.TransactionHelper;
 import org.ow2.proactive.resourcemanager.core.history.Alive;
 import org.ow2.proactive.resourcemanager.core.history.LockHistory;
+import org.ow2.proactive.resourcemanager.common.NodeState;
 import org.ow2.proactive.resourcemanager.core.history.NodeHistory;
+import org.ow2.proactive.resourcemanager.core.history.NodeUsage;
 import org.ow2.proactive.resourcemanager.core.history.UserHistory;
 import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
 
@@ -64,6 +73,8 @@ public class RMDBManager {
 
     private static final Logger logger = ProActiveLogger.getLogger(RMDBManager.class);
 
+    private static final int NODE_USAGE_BACKFILL_CHUNK_SIZE = 10000;
+
     private final SessionFactory sessionFactory;
 
     private final TransactionHelper transactionHelper;
@@ -78,6 +89,8 @@ public class RMDBManager {
 
     private Timer timer = null;
 
+    private NodeHistoryWriter nodeHistoryWriter;
+
     public static RMDBManager getInstance() {
         return LazyHolder.INSTANCE;
     }
@@ -144,6 +157,7 @@ public class RMDBManager {
             configuration.addAnnotatedClass(Alive.class);
             configuration.addAnnotatedClass(LockHistory.class);
             configuration.addAnnotatedClass(NodeHistory.class);
+            configuration.addAnnotatedClass(NodeUsage.class);
             configuration.addAnnotatedClass(NodeSourceData.class);
             configuration.addAnnotatedClass(UserHistory.class);
             if (drop) {
@@ -160,12 +174,21 @@ public class RMDBManager {
 
             configuration.setProperty("hibernate.id.new_generator_mappings", "true");
             configuration.setProperty("hibernate.jdbc.use_streams_for_binary", "true");
+            if (configuration.getProperty("hibernate.jdbc.batch_size") == null) {
+                configuration.setProperty("hibernate.jdbc.batch_size",
+                                          PAResourceManagerProperties.RM_DB_NODE_HISTORY_BATCH_SIZE.getValueAsString());
+            }
 
             sessionFactory = configuration.buildSessionFactory();
             transactionHelper = new TransactionHelper(sessionFactory);
 
             Alive lastAliveTimeResult = findRmLastAliveEntry();
 
+            if (PAResourceManagerProperties.RM_DB_NODE_USAGE_REBUILD.getValueAsBoolean()) {
+                deleteNodeUsage();
+            }
+            boolean nodeUsageExists = hasNodeUsage();
+
             if (lastAliveTimeResult == null) {
                 createRmAliveEntry();
             } else if (!drop) {
@@ -173,15 +196,25 @@ public class RMDBManager {
                     removeNodeSources();
                 }
 
-                recover(lastAliveTimeResult.getTime());
+                recover(lastAliveTimeResult.getTime(), nodeUsageExists);
             }
 
+            if (!nodeUsageExists) {
+                backfillNodeUsage();
+            }
+
+            nodeHistoryWriter = new NodeHistoryWriter(this,
+                                                      PAResourceManagerProperties.RM_DB_NODE_HISTORY_QUEUE_SIZE.getValueAsInt(),
+                                                      PAResourceManagerProperties.RM_DB_NODE_HISTORY_BATCH_SIZE.getValueAsInt());
+
             long periodInMilliseconds = PAResourceManagerProperties.RM_ALIVE_EVENT_FREQUENCY.getValueAsLong();
 
             timer = new Timer("Periodic RM live event saver");
             timer.schedule(new TimerTask() {
                 @Override
                 public void run() {
+                    // the alive time must not be ahead of the persisted node history
+                    nodeHistoryWriter.flush();
                     updateRmAliveTime();
                 }
             }, periodInMilliseconds, periodInMilliseconds);
@@ -206,12 +239,27 @@ public class RMDBManager {
         return (Alive) lastAliveTimeResult.get(0);
     }
 
-    private void recover(final long lastAliveTime) {
+    private void recover(final long lastAliveTime, final boolean updateNodeUsage) {
 
         // updating node events with uncompleted end time
         executeReadWriteTransaction(new SessionWork<Void>() {
             @Override
             public Void doInTransaction(Session session) {
+                if (updateNodeUsage) {
+                    NodeUsageAccumulator usage = new NodeUsageAccumulator();
+                    List<?> openRows = session.createQuery("select nodeState, userName, providerName, startTime from NodeHistory where endTime = 0")
+                                              .list();
+                    for (Object row : openRows) {
+                        Object[] columns = (Object[]) row;
+                        usage.add((NodeState) columns[0],
+                                  (String) columns[1],
+                                  (String) columns[2],
+                                  (Long) columns[3],
+                                  lastAliveTime);
+                    }
+                    saveNodeUsage(session, usage);
+                }
+
                 int updated = session.createSQLQuery("update NodeHistory set endTime = :endTime where endTime = 0")
                                      .setParameter("endTime", lastAliveTime)
                                      .executeUpdate();
@@ -269,6 +317,9 @@ public class RMDBManager {
 
     public void close() {
         try {
+            if (nodeHistoryWriter != null) {
+                nodeHistoryWriter.close();
+            }
             if (sessionFactory != null) {
                 logger.info("Closing session factory");
                 sessionFactory.close();
@@ -350,22 +401,216 @@ public class RMDBManager {
     }
 
     public void saveNodeHistory(final NodeHistory nodeHistory) {
+        saveNodeHistories(Collections.singletonList(nodeHistory));
+    }
+
+    /**
+     * Queues a node history record to be written by a background thread.
+     * The caller only waits if too many records are pending.
+     *
+     * @param nodeHistory record to persist
+     */
+    public void saveNodeHistoryAsync(NodeHistory nodeHistory) {
+        nodeHistoryWriter.write(nodeHistory);
+    }
+
+    /**
+     * Waits until all the node history records queued by {@link #saveNodeHistoryAsync(NodeHistory)} are persisted.
+     */
+    public void flushNodeHistory() {
+        nodeHistoryWriter.flush();
+    }
+
+    /**
+     * Saves node history records in a single transaction, in their order.
+     * <p>
+     * Each record ends the previous record of the same node. Previous records already
+     * in the database are ended with a JDBC batch of updates, previous records of
+     * the same batch are ended before being inserted, and inserts are batched by hibernate.
+     *
+     * @param nodeHistories records to persist, ordered by time
+     */
+    public void saveNodeHistories(final List<NodeHistory> nodeHistories) {
         executeReadWriteTransaction(new SessionWork<Void>() {
             @Override
             public Void doInTransaction(Session session) {
-                session.createSQLQuery("update NodeHistory set endTime=:endTime where nodeUrl=:nodeUrl and endTime=0")
-                       .setParameter("endTime", nodeHistory.getStartTime())
-                       .setParameter("nodeUrl", nodeHistory.getNodeUrl())
-                       .executeUpdate();
+                final Map<String, Long> openRowsEndTimes = new LinkedHashMap<>();
+                NodeUsageAccumulator usage = new NodeUsageAccumulator();
+                Map<String, NodeHistory> lastRecords = new HashMap<>();
+                List<NodeHistory> toInsert = new ArrayList<>(nodeHistories.size());
+
+                for (NodeHistory nodeHistory : nodeHistories) {
+                    String nodeUrl = nodeHistory.getNodeUrl();
+                    if (lastRecords.containsKey(nodeUrl)) {
+                        NodeHistory previous = lastRecords.get(nodeUrl);
+                        if (previous != null) {
+                            previous.setEndTime(nodeHistory.getStartTime());
+                            usage.add(previous, nodeHistory.getStartTime());
+                        }
+                    } else {
+                        openRowsEndTimes.put(nodeUrl, nodeHistory.getStartTime());
+                    }
+
+                    if (nodeHistory.isStoreInDataBase()) {
+                        toInsert.add(nodeHistory);
+                        lastRecords.put(nodeUrl, nodeHistory);
+                    } else {
+                        lastRecords.put(nodeUrl, null);
+                    }
+                }
+
+                if (!openRowsEndTimes.isEmpty()) {
+                    List<?> openRows = session.createQuery("select nodeUrl, nodeState, userName, providerName, startTime from NodeHistory " +
+                                                           "where endTime = 0 and nodeUrl in (:nodeUrls)")
+                                              .setParameterList("nodeUrls", openRowsEndTimes.keySet())
+                                              .list();
+                    for (Object row : openRows) {
+                        Object[] columns = (Object[]) row;
+                        usage.add((NodeState) columns[1],
+                                  (String) columns[2],
+                                  (String) columns[3],
+                                  (Long) columns[4],
+                                  openRowsEndTimes.get(columns[0]));
+                    }
+                }
 
-                if (nodeHistory.isStoreInDataBase()) {
+                session.doWork(new Work() {
+                    @Override
+                    public void execute(Connection connection) throws SQLException {
+                        try (PreparedStatement statement = connection.prepareStatement("update NodeHistory set endTime=? where nodeUrl=? and endTime=0")) {
+                            for (Map.Entry<String, Long> entry : openRowsEndTimes.entrySet()) {
+                                statement.setLong(1, entry.getValue());
+                                statement.setString(2, entry.getKey());
+                                statement.addBatch();
+                            }
+                            statement.executeBatch();
+                        }
+                    }
+                });
+
+                for (NodeHistory nodeHistory : toInsert) {
                     session.save(nodeHistory);
                 }
+
+                saveNodeUsage(session, usage);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Adds accumulated usage to the per user, per hour rollups.
+     */
+    private void saveNodeUsage(Session session, NodeUsageAccumulator usage) {
+        for (Map.Entry<String, Map<Long, long[]>> userUsage : usage.getUsage().entrySet()) {
+            for (Map.Entry<Long, long[]> hourUsage : userUsage.getValue().entrySet()) {
+                long usedNodeTime = hourUsage.getValue()[0];
+                long providedNodeTime = hourUsage.getValue()[1];
+                int updated = session.createQuery("update NodeUsage set usedNodeTime = usedNodeTime + :usedNodeTime, " +
+                                                  "providedNodeTime = providedNodeTime + :providedNodeTime " +
+                                                  "where userName = :userName and hourStart = :hourStart")
+                                     .setParameter("usedNodeTime", usedNodeTime)
+                                     .setParameter("providedNodeTime", providedNodeTime)
+                                     .setParameter("userName", userUsage.getKey())
+                                     .setParameter("hourStart", hourUsage.getKey())
+                                     .executeUpdate();
+                if (updated == 0) {
+                    session.save(new NodeUsage(userUsage.getKey(),
+                                               hourUsage.getKey(),
+                                               usedNodeTime,
+                                               providedNodeTime));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the node usage of a user over the ended node history records.
+     *
+     * @param userName name of the user
+     * @return the used node time and the provided node time, in milliseconds
+     */
+    public long[] readNodeUsage(final String userName) {
+        return executeReadTransaction(new SessionWork<long[]>() {
+            @Override
+            public long[] doInTransaction(Session session) {
+                Object[] sums = (Object[]) session.createQuery("select sum(usedNodeTime), sum(providedNodeTime) from NodeUsage where userName = :userName")
+                                                  .setParameter("userName", userName)
+                                                  .uniqueResult();
+                long[] result = new long[2];
+                if (sums != null) {
+                    result[0] = sums[0] == null ? 0 : ((Number) sums[0]).longValue();
+                    result[1] = sums[1] == null ? 0 : ((Number) sums[1]).longValue();
+                }
+                return result;
+            }
+        });
+    }
+
+    private boolean hasNodeUsage() {
+        return executeReadTransaction(new SessionWork<Boolean>() {
+            @Override
+            public Boolean doInTransaction(Session session) {
+                return !session.createQuery("select id from NodeUsage").setMaxResults(1).list().isEmpty();
+            }
+        });
+    }
+
+    private void deleteNodeUsage() {
+        executeReadWriteTransaction(new SessionWork<Void>() {
+            @Override
+            public Void doInTransaction(Session session) {
+                int deleted = session.createQuery("delete from NodeUsage").executeUpdate();
+                logger.info("Deleted " + deleted + " node usage rollups, they will be rebuilt from the node history");
                 return null;
             }
         });
     }
 
+    /**
+     * Builds the node usage rollups from the ended node history records,
+     * for databases created before the rollups were maintained.
+     * The history is read by chunks, but the rollups are written in a single transaction so
+     * that an interrupted backfill leaves no rollup and is started again on the next startup.
+     */
+    void backfillNodeUsage() {
+        int chunks = executeReadWriteTransaction(new SessionWork<Integer>() {
+            @Override
+            public Integer doInTransaction(Session session) {
+                long lastId = -1;
+                int chunksRead = 0;
+                while (true) {
+                    List<?> rows = session.createQuery("select id, nodeState, userName, providerName, startTime, endTime from NodeHistory " +
+                                                       "where endTime <> 0 and id > :fromId order by id")
+                                          .setParameter("fromId", lastId)
+                                          .setMaxResults(NODE_USAGE_BACKFILL_CHUNK_SIZE)
+                                          .list();
+                    if (rows.isEmpty()) {
+                        return chunksRead;
+                    }
+                    NodeUsageAccumulator usage = new NodeUsageAccumulator();
+                    for (Object row : rows) {
+                        Object[] columns = (Object[]) row;
+                        lastId = (Long) columns[0];
+                        usage.add((NodeState) columns[1],
+                                  (String) columns[2],
+                                  (String) columns[3],
+                                  (Long) columns[4],
+                                  (Long) columns[5]);
+                    }
+                    saveNodeUsage(session, usage);
+                    // the rollups saved are not needed anymore by this session
+                    session.flush();
+                    session.clear();
+                    chunksRead++;
+                }
+            }
+        });
+        if (chunks > 0) {
+            logger.info("Node usage rollups built from the node history in " + chunks + " chunk(s)");
+        }
+    }
+
     public void deleteOldNodeHistory() {
         executeReadWriteTransaction(new SessionWork<Void>() {
             @Override
@@ -381,6 +626,10 @@ public class RMDBManager {
                     if (nbEntriesDeleted > 0) {
                         logger.info("HOUSEKEEPING of NodeHistory performed, deleted " + nbEntriesDeleted + " entries");
                     }
+
+                    session.createQuery("delete from NodeUsage where hourStart < :minHour")
+                           .setParameter("minHour", NodeUsageAccumulator.hourOf(oldestTime))
+                           .executeUpdate();
                 }
                 return null;
             }
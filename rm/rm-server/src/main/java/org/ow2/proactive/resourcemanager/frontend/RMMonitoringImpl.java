@@ -404,7 +404,7 @@ public class RMMonitoringImpl implements RMMonitoring, RMEventListener, InitActi
      */
     public void nodeEvent(RMNodeEvent event) {
         RMMonitoringImpl.rmStatistics.nodeEvent(event);
-        RMDBManager.getInstance().saveNodeHistory(new NodeHistory(event));
+        RMDBManager.getInstance().saveNodeHistoryAsync(new NodeHistory(event));
         queueEvent(event);
     }
 
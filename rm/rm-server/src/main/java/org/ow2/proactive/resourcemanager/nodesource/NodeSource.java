@@ -56,6 +56,7 @@ import org.ow2.proactive.resourcemanager.authentication.Client;
 import org.ow2.proactive.resourcemanager.common.event.RMEventType;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeEvent;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
+import org.ow2.proactive.resourcemanager.core.NodeLeases;
 import org.ow2.proactive.resourcemanager.core.RMCore;
 import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
 import org.ow2.proactive.resourcemanager.exception.AddingNodesException;
@@ -243,10 +244,7 @@ public class NodeSource implements InitActive, RunActive {
                 timeStamp = System.currentTimeMillis();
 
                 if (delta > pingFrequency) {
-                    logger.info("[" + name + "] Pinging alive nodes : " + getAliveNodes().size());
-                    for (Node node : getAliveNodes()) {
-                        pingNode(node);
-                    }
+                    pingNodesWithoutValidLease();
                     delta = 0;
                 }
             } catch (InterruptedException e) {
@@ -255,6 +253,29 @@ public class NodeSource implements InitActive, RunActive {
         }
     }
 
+    /**
+     * Pings the alive nodes which have not been reported as available by their agent
+     * recently (see {@link NodeLeases}). When leases are disabled all alive nodes are pinged.
+     */
+    private void pingNodesWithoutValidLease() {
+        NodeLeases nodeLeases = RMCore.nodeLeases;
+        nodeLeases.expire(System.currentTimeMillis());
+
+        LinkedList<Node> aliveNodes = getAliveNodes();
+        int pinged = 0;
+        for (Node node : aliveNodes) {
+            if (!nodeLeases.hasValidLease(node.getNodeInformation().getURL())) {
+                pingNode(node);
+                pinged++;
+            }
+        }
+        logger.info("[" + name + "] Pinging alive nodes : " + pinged + " (" + (aliveNodes.size() - pinged) +
+                    " with a valid lease)");
+        if (logger.isDebugEnabled()) {
+            logger.debug(nodeLeases);
+        }
+    }
+
     /**
      * Updates internal node source structures.
      */
@@ -0,0 +1,396 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.utils.appenders;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Layout;
+import org.apache.log4j.Logger;
+import org.apache.log4j.RollingFileAppender;
+import org.apache.log4j.spi.LoggingEvent;
+
+
+/**
+ * Writes logging events to many files from a single thread, keeping the most
+ * recently used files open.
+ * <p>
+ * A single writer is shared by all the {@link FileAppender}s of the JVM, as job logs
+ * and resource manager selection logs can go to the same files.
+ * <p>
+ * Events are queued in a bounded queue. When the queue is full callers wait,
+ * unless their appender is configured to discard events. The writer thread appends
+ * the queued events in batches and flushes the written files once per batch.
+ * Files are closed when too many of them are open, when they are not used for
+ * a while, or when their directory is removed (see {@link #closeFiles(String, boolean)}).
+ * Files are not opened in a directory while it is being closed.
+ * <p>
+ * Each file is written by a {@link RollingFileAppender} with one backup file,
+ * so files roll over exactly as when each event opened its own appender.
+ */
+class AsyncLogFileWriter {
+
+    private static final int BATCH_SIZE = 256;
+
+    private static AsyncLogFileWriter instance;
+
+    private final int maxOpenFiles;
+
+    private final long idleTimeout;
+
+    private final BlockingQueue<PendingEvent> queue;
+
+    // accessed by the writer thread and by closeFiles, guarded by itself
+    private final LinkedHashMap<String, OpenFile> openFiles;
+
+    // directories being closed, with a trailing separator, guarded by openFiles
+    private final Set<String> closingDirectories = new HashSet<>();
+
+    private final Thread writerThread;
+
+    private final Object progressLock = new Object();
+
+    /** number of events queued since the creation of the writer */
+    private long queued;
+
+    /** number of events written (or failed) since the creation of the writer */
+    private long processed;
+
+    private final AtomicLong discarded = new AtomicLong();
+
+    private volatile boolean closed;
+
+    /**
+     * Returns the writer shared by the appenders, the settings are the ones of the first appender.
+     */
+    static synchronized AsyncLogFileWriter getInstance(int queueSize, int maxOpenFiles, long idleTimeout) {
+        if (instance == null) {
+            instance = new AsyncLogFileWriter(queueSize, maxOpenFiles, idleTimeout);
+        }
+        return instance;
+    }
+
+    AsyncLogFileWriter(int queueSize, int maxOpenFiles, long idleTimeout) {
+        this.maxOpenFiles = maxOpenFiles;
+        this.idleTimeout = idleTimeout;
+        this.queue = new LinkedBlockingQueue<>(queueSize);
+        this.openFiles = new LinkedHashMap<String, OpenFile>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, OpenFile> eldest) {
+                if (size() > AsyncLogFileWriter.this.maxOpenFiles) {
+                    eldest.getValue().appender.close();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        }, "Log files writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues an event to be appended to a file.
+     * The event must be detached from the calling thread already (see {@link FileAppender#append(String, LoggingEvent)}).
+     *
+     * @param fileName absolute name of the file
+     * @param event logging event
+     * @param layout layout used if the file is not open yet
+     * @param maxFileSize size after which the file rolls over, used if the file is not open yet
+     * @param discardWhenFull whether the event is discarded if the queue is full
+     */
+    void write(String fileName, LoggingEvent event, Layout layout, String maxFileSize, boolean discardWhenFull) {
+        if (closed) {
+            return;
+        }
+        PendingEvent pendingEvent = new PendingEvent(fileName, event, layout, maxFileSize);
+        synchronized (progressLock) {
+            queued++;
+        }
+        boolean added;
+        if (discardWhenFull) {
+            added = queue.offer(pendingEvent);
+            if (!added) {
+                discarded.incrementAndGet();
+            }
+        } else {
+            try {
+                queue.put(pendingEvent);
+                added = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                added = false;
+            }
+        }
+        if (!added) {
+            synchronized (progressLock) {
+                queued--;
+            }
+        }
+    }
+
+    /**
+     * Waits until the events queued before the call are written to their files.
+     */
+    void flush() {
+        synchronized (progressLock) {
+            long target = queued;
+            while (processed < target && writerThread.isAlive()) {
+                try {
+                    progressLock.wait(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the files open under a directory, to be called before the directory is removed.
+     * The events of the directory which are pending or written while it is closed are dropped,
+     * the files of the directory can be opened again once closed.
+     *
+     * @param directory absolute name of the directory
+     * @param delete whether the directory is deleted before files can be opened in it again
+     */
+    void closeFiles(String directory, boolean delete) {
+        String prefix = directory.endsWith(File.separator) ? directory : directory + File.separator;
+        synchronized (openFiles) {
+            closingDirectories.add(prefix);
+        }
+        try {
+            flush();
+            synchronized (openFiles) {
+                Iterator<Map.Entry<String, OpenFile>> iterator = openFiles.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<String, OpenFile> entry = iterator.next();
+                    if (entry.getKey().startsWith(prefix)) {
+                        entry.getValue().appender.close();
+                        iterator.remove();
+                    }
+                }
+            }
+            if (delete) {
+                FileUtils.deleteQuietly(new File(directory));
+            }
+        } finally {
+            synchronized (openFiles) {
+                closingDirectories.remove(prefix);
+            }
+        }
+    }
+
+    /**
+     * Writes the pending events, closes all the files and stops the writer thread.
+     * Only used for writers which are not shared.
+     */
+    void close() {
+        flush();
+        closed = true;
+        writerThread.interrupt();
+        synchronized (openFiles) {
+            for (OpenFile openFile : openFiles.values()) {
+                openFile.appender.close();
+            }
+            openFiles.clear();
+        }
+    }
+
+    int getOpenFilesCount() {
+        synchronized (openFiles) {
+            return openFiles.size();
+        }
+    }
+
+    /**
+     * @return the number of events discarded because the queue was full
+     */
+    long getDiscardedCount() {
+        return discarded.get();
+    }
+
+    private void writeLoop() {
+        List<PendingEvent> batch = new ArrayList<>(BATCH_SIZE);
+        long pollTimeout = idleTimeout > 0 ? Math.max(1, idleTimeout / 2) : 1000;
+        while (!closed) {
+            PendingEvent first;
+            try {
+                first = queue.poll(pollTimeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+            if (first != null) {
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                writeBatch(batch);
+                synchronized (progressLock) {
+                    processed += batch.size();
+                    progressLock.notifyAll();
+                }
+                batch.clear();
+            }
+            closeIdleFiles();
+        }
+    }
+
+    private void writeBatch(List<PendingEvent> batch) {
+        long now = System.currentTimeMillis();
+        Set<OpenFile> written = new HashSet<>();
+        synchronized (openFiles) {
+            for (PendingEvent pendingEvent : batch) {
+                OpenFile openFile = open(pendingEvent);
+                if (openFile != null) {
+                    openFile.appender.append(pendingEvent.event);
+                    openFile.lastUsed = now;
+                    written.add(openFile);
+                }
+            }
+            for (OpenFile openFile : written) {
+                openFile.appender.flush();
+            }
+        }
+    }
+
+    private OpenFile open(PendingEvent pendingEvent) {
+        String fileName = pendingEvent.fileName;
+        OpenFile openFile = openFiles.get(fileName);
+        if (openFile == null && !isClosing(fileName)) {
+            try {
+                File parent = new File(fileName).getParentFile();
+                if (parent != null && !parent.exists() && !parent.mkdirs() && !parent.exists()) {
+                    throw new IOException("Cannot create directory " + parent);
+                }
+                openFile = new OpenFile(new CachedRollingFileAppender(pendingEvent.layout,
+                                                                      fileName,
+                                                                      pendingEvent.maxFileSize));
+                openFiles.put(fileName, openFile);
+            } catch (IOException e) {
+                Logger.getRootLogger().error(e.getMessage(), e);
+            }
+        }
+        return openFile;
+    }
+
+    private boolean isClosing(String fileName) {
+        for (String directory : closingDirectories) {
+            if (fileName.startsWith(directory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void closeIdleFiles() {
+        if (idleTimeout <= 0) {
+            return;
+        }
+        long idleSince = System.currentTimeMillis() - idleTimeout;
+        synchronized (openFiles) {
+            // files are ordered from the least recently used
+            Iterator<OpenFile> iterator = openFiles.values().iterator();
+            while (iterator.hasNext()) {
+                OpenFile openFile = iterator.next();
+                if (openFile.lastUsed > idleSince) {
+                    break;
+                }
+                openFile.appender.close();
+                iterator.remove();
+            }
+        }
+    }
+
+    private static final class PendingEvent {
+
+        private final String fileName;
+
+        private final LoggingEvent event;
+
+        private final Layout layout;
+
+        private final String maxFileSize;
+
+        private PendingEvent(String fileName, LoggingEvent event, Layout layout, String maxFileSize) {
+            this.fileName = fileName;
+            this.event = event;
+            this.layout = layout;
+            this.maxFileSize = maxFileSize;
+        }
+    }
+
+    private static final class OpenFile {
+
+        private final CachedRollingFileAppender appender;
+
+        private long lastUsed;
+
+        private OpenFile(CachedRollingFileAppender appender) {
+            this.appender = appender;
+        }
+    }
+
+    /**
+     * A rolling appender which keeps its file open and only flushes on demand.
+     */
+    private static final class CachedRollingFileAppender extends RollingFileAppender {
+
+        private CachedRollingFileAppender(Layout layout, String fileName, String maxFileSize) throws IOException {
+            super(layout, fileName, true);
+            setMaxBackupIndex(1);
+            if (maxFileSize != null) {
+                setMaxFileSize(maxFileSize);
+            }
+            setImmediateFlush(false);
+        }
+
+        private void flush() {
+            if (qw != null) {
+                qw.flush();
+            }
+        }
+    }
+
+}
@@ -26,15 +26,12 @@
 package org.ow2.proactive.utils.appenders;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.Enumeration;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Appender;
 import org.apache.log4j.Logger;
 import org.apache.log4j.MDC;
 import org.apache.log4j.PatternLayout;
-import org.apache.log4j.RollingFileAppender;
 import org.apache.log4j.WriterAppender;
 import org.apache.log4j.spi.LoggingEvent;
 
@@ -46,6 +43,12 @@ import org.apache.log4j.spi.LoggingEvent;
  * 
  * Is used to put server logs for tasks and jobs into files with 
  * different names.
+ * 
+ * Events are written asynchronously by a single thread which keeps
+ * the most recently used files open, see {@link AsyncLogFileWriter}.
+ * {@link #flush()} waits until the events appended before are written.
+ * The queue size, the maximum number of open files and the idle timeout
+ * are the ones of the first appender used in the JVM.
  *
  */
 public class FileAppender extends WriterAppender {
@@ -56,6 +59,16 @@ public class FileAppender extends WriterAppender {
 
     protected String filesLocation;
 
+    private int queueSize = 10000;
+
+    private int maxOpenFiles = 256;
+
+    private long idleTimeout = 30000;
+
+    private boolean discardWhenFull = false;
+
+    private AsyncLogFileWriter writer;
+
     public FileAppender() {
 
         setLayout(new PatternLayout("[%d{ISO8601} %-5p] %m%n"));
@@ -83,31 +96,71 @@ public class FileAppender extends WriterAppender {
         if (filesLocation != null) {
             fileName = filesLocation + File.separator + fileName;
         }
-        File file = new File(fileName);
-        if (!file.exists()) {
-            try {
-                FileUtils.forceMkdirParent(file);
-                FileUtils.touch(file);
-            } catch (IOException e) {
-                Logger.getRootLogger().error(e.getMessage(), e);
-            }
+
+        // the event is written by another thread, taking what depends on the current one
+        event.getNDC();
+        event.getThreadName();
+        event.getMDCCopy();
+        event.getRenderedMessage();
+        event.getThrowableStrRep();
+
+        getWriter().write(new File(fileName).getAbsolutePath(), event, getLayout(), maxFileSize, discardWhenFull);
+    }
+
+    private synchronized AsyncLogFileWriter getWriter() {
+        if (writer == null) {
+            writer = AsyncLogFileWriter.getInstance(queueSize, maxOpenFiles, idleTimeout);
         }
+        return writer;
+    }
 
-        try {
-            RollingFileAppender appender = new RollingFileAppender(getLayout(), fileName, true);
-            appender.setMaxBackupIndex(1);
-            if (maxFileSize != null) {
-                appender.setMaxFileSize(maxFileSize);
-            }
-            appender.append(event);
-            appender.close();
-        } catch (IOException e) {
-            Logger.getRootLogger().error(e.getMessage(), e);
+    /**
+     * Waits until the events appended before the call are written to their files.
+     */
+    public void flush() {
+        getWriter().flush();
+    }
+
+    /**
+     * Closes the files of a directory, which can then be removed.
+     * Events of the directory pending or appended until then are dropped.
+     *
+     * @param directory directory of the files, relative to the files location if it is set
+     */
+    public void closeFiles(String directory) {
+        getWriter().closeFiles(absolutePath(directory), false);
+    }
+
+    /**
+     * Closes the files of a directory and removes it.
+     * Events of the directory pending or appended until then are dropped.
+     *
+     * @param directory directory of the files, relative to the files location if it is set
+     */
+    public void removeFiles(String directory) {
+        getWriter().closeFiles(absolutePath(directory), true);
+    }
+
+    private String absolutePath(String directory) {
+        if (filesLocation != null) {
+            directory = filesLocation + File.separator + directory;
         }
+        return new File(directory).getAbsolutePath();
     }
 
+    /**
+     * Only writes the pending events, the appender can still be used once closed.
+     */
     @Override
     public void close() {
+        AsyncLogFileWriter currentWriter;
+        synchronized (this) {
+            currentWriter = writer;
+        }
+        // the writer is shared with the other appenders
+        if (currentWriter != null) {
+            currentWriter.flush();
+        }
     }
 
     @Override
@@ -130,4 +183,48 @@ public class FileAppender extends WriterAppender {
     public void setMaxFileSize(String maxFileSize) {
         this.maxFileSize = maxFileSize;
     }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * @param queueSize maximum number of events waiting to be written
+     */
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public int getMaxOpenFiles() {
+        return maxOpenFiles;
+    }
+
+    /**
+     * @param maxOpenFiles maximum number of files kept open, the least recently used are closed first
+     */
+    public void setMaxOpenFiles(int maxOpenFiles) {
+        this.maxOpenFiles = maxOpenFiles;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * @param idleTimeout time in milliseconds after which an unused file is closed, 0 to keep files open
+     */
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public boolean isDiscardWhenFull() {
+        return discardWhenFull;
+    }
+
+    /**
+     * @param discardWhenFull whether events are discarded when the queue is full, instead of waiting
+     */
+    public void setDiscardWhenFull(boolean discardWhenFull) {
+        this.discardWhenFull = discardWhenFull;
+    }
 }
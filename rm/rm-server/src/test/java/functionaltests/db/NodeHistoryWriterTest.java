@@ -0,0 +1,109 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package functionaltests.db;
+
+import java.util.List;
+
+import org.hibernate.cfg.Configuration;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.resourcemanager.common.NodeState;
+import org.ow2.proactive.resourcemanager.core.history.NodeHistory;
+import org.ow2.proactive.resourcemanager.db.RMDBManager;
+
+
+public class NodeHistoryWriterTest {
+
+    private RMDBManager dbManager;
+
+    @Before
+    public void initDB() throws Exception {
+        Configuration config = new Configuration().configure("/functionaltests/config/hibernate-unit.cfg.xml");
+        dbManager = new RMDBManager(config, true, true);
+    }
+
+    @After
+    public void cleanup() {
+        if (dbManager != null) {
+            dbManager.close();
+        }
+    }
+
+    @Test
+    public void testAsyncHistoryEndsPreviousRecords() throws Exception {
+        dbManager.saveNodeHistory(createNodeHistory("url1", 1, true));
+
+        dbManager.saveNodeHistoryAsync(createNodeHistory("url1", 2, true));
+        dbManager.saveNodeHistoryAsync(createNodeHistory("url2", 3, true));
+        dbManager.saveNodeHistoryAsync(createNodeHistory("url1", 4, true));
+        dbManager.saveNodeHistoryAsync(createNodeHistory("url2", 5, false));
+        dbManager.flushNodeHistory();
+
+        List<?> rows = dbManager.executeSqlQuery("from NodeHistory order by startTime");
+        Assert.assertEquals(4, rows.size());
+
+        assertTimes("url1", 1, 2, (NodeHistory) rows.get(0));
+        assertTimes("url1", 2, 4, (NodeHistory) rows.get(1));
+        assertTimes("url2", 3, 5, (NodeHistory) rows.get(2));
+        assertTimes("url1", 4, 0, (NodeHistory) rows.get(3));
+    }
+
+    @Test
+    public void testManyEventsAreAllWritten() throws Exception {
+        int events = 1000;
+        for (int i = 1; i <= events; i++) {
+            dbManager.saveNodeHistoryAsync(createNodeHistory("url" + (i % 10), i, true));
+        }
+        dbManager.flushNodeHistory();
+
+        List<?> rows = dbManager.executeSqlQuery("from NodeHistory where endTime=0");
+        Assert.assertEquals(10, rows.size());
+        rows = dbManager.executeSqlQuery("from NodeHistory");
+        Assert.assertEquals(events, rows.size());
+    }
+
+    private void assertTimes(String nodeUrl, long startTime, long endTime, NodeHistory actual) {
+        Assert.assertEquals(nodeUrl, actual.getNodeUrl());
+        Assert.assertEquals(startTime, actual.getStartTime());
+        Assert.assertEquals(endTime, actual.getEndTime());
+    }
+
+    private NodeHistory createNodeHistory(String nodeUrl, long startTime, boolean storeInDataBase) {
+        NodeHistory nodeHistory = new NodeHistory();
+        nodeHistory.setHost("host");
+        nodeHistory.setNodeSource("ns");
+        nodeHistory.setNodeState(NodeState.FREE);
+        nodeHistory.setNodeUrl(nodeUrl);
+        nodeHistory.setProviderName("provider");
+        nodeHistory.setStartTime(startTime);
+        nodeHistory.setEndTime(0);
+        nodeHistory.setStoreInDataBase(storeInDataBase);
+        return nodeHistory;
+    }
+
+}
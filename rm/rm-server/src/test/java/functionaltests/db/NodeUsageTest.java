@@ -0,0 +1,102 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package functionaltests.db;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.cfg.Configuration;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.resourcemanager.common.NodeState;
+import org.ow2.proactive.resourcemanager.core.history.NodeHistory;
+import org.ow2.proactive.resourcemanager.db.RMDBManager;
+
+
+public class NodeUsageTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private RMDBManager dbManager;
+
+    @Before
+    public void initDB() throws Exception {
+        Configuration config = new Configuration().configure("/functionaltests/config/hibernate-unit.cfg.xml");
+        dbManager = new RMDBManager(config, true, true);
+    }
+
+    @After
+    public void cleanup() {
+        if (dbManager != null) {
+            dbManager.close();
+        }
+    }
+
+    @Test
+    public void testUsageIsRolledUpWhenHistoryIsEnded() throws Exception {
+        dbManager.saveNodeHistory(createNodeHistory("url1", NodeState.FREE, null, 0, true));
+        dbManager.saveNodeHistory(createNodeHistory("url1", NodeState.BUSY, "user", HOUR / 2, true));
+
+        assertUsage("user", 0, 0);
+        assertUsage("provider", 0, HOUR / 2);
+
+        // ended in the database
+        dbManager.saveNodeHistory(createNodeHistory("url1", NodeState.FREE, null, 2 * HOUR, true));
+
+        assertUsage("user", HOUR + HOUR / 2, 0);
+        assertUsage("provider", 0, 2 * HOUR);
+
+        // ended in the same batch, then removed
+        dbManager.saveNodeHistoryAsync(createNodeHistory("url2", NodeState.BUSY, "user", 0, true));
+        dbManager.saveNodeHistoryAsync(createNodeHistory("url2", NodeState.FREE, null, 10, true));
+        dbManager.saveNodeHistoryAsync(createNodeHistory("url2", NodeState.TO_BE_REMOVED, null, 20, false));
+        dbManager.flushNodeHistory();
+
+        assertUsage("user", HOUR + HOUR / 2 + 10, 0);
+        assertUsage("provider", 0, 2 * HOUR + 20);
+        assertUsage("nobody", 0, 0);
+    }
+
+    private void assertUsage(String userName, long usedNodeTime, long providedNodeTime) {
+        long[] usage = dbManager.readNodeUsage(userName);
+        Assert.assertEquals("Used node time of " + userName, usedNodeTime, usage[0]);
+        Assert.assertEquals("Provided node time of " + userName, providedNodeTime, usage[1]);
+    }
+
+    private NodeHistory createNodeHistory(String nodeUrl, NodeState nodeState, String userName, long startTime,
+            boolean storeInDataBase) {
+        NodeHistory nodeHistory = new NodeHistory();
+        nodeHistory.setNodeUrl(nodeUrl);
+        nodeHistory.setNodeState(nodeState);
+        nodeHistory.setUserName(userName);
+        nodeHistory.setProviderName("provider");
+        nodeHistory.setStartTime(startTime);
+        nodeHistory.setStoreInDataBase(storeInDataBase);
+        return nodeHistory;
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.cleaning;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+
+public class CleaningLatencyHistogramTest {
+
+    @Test
+    public void testRecord() {
+        CleaningLatencyHistogram histogram = new CleaningLatencyHistogram();
+        histogram.record(0);
+        histogram.record(9);
+        histogram.record(10);
+        histogram.record(5000);
+        histogram.record(120000);
+
+        Map<String, Long> snapshot = histogram.snapshot();
+        assertThat(snapshot.get("<10ms")).isEqualTo(2L);
+        assertThat(snapshot.get("<100ms")).isEqualTo(1L);
+        assertThat(snapshot.get("<1000ms")).isEqualTo(0L);
+        assertThat(snapshot.get("<10000ms")).isEqualTo(1L);
+        assertThat(snapshot.get("<60000ms")).isEqualTo(0L);
+        assertThat(snapshot.get(">=60000ms")).isEqualTo(1L);
+    }
+
+}
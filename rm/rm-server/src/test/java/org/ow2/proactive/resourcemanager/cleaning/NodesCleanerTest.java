@@ -0,0 +1,117 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.cleaning;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.objectweb.proactive.core.node.NodeException;
+import org.ow2.proactive.resourcemanager.core.RMCore;
+import org.ow2.proactive.resourcemanager.nodesource.NodeSource;
+import org.ow2.proactive.resourcemanager.rmnode.RMNode;
+
+
+public class NodesCleanerTest {
+
+    private RMCore rmCore;
+
+    private NodesCleaner nodesCleaner;
+
+    @Before
+    public void setUp() {
+        rmCore = mock(RMCore.class);
+        nodesCleaner = new NodesCleaner(rmCore);
+    }
+
+    @Test
+    public void testNodeIsFreedWithoutWaitingForOtherNodes() throws Exception {
+        final CountDownLatch slowCleaning = new CountDownLatch(1);
+        RMNode slowNode = createNode("slow");
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                slowCleaning.await();
+                return null;
+            }
+        }).when(slowNode).clean();
+        RMNode fastNode = createNode("fast");
+
+        nodesCleaner.cleanAndRelease(Arrays.asList(slowNode, fastNode));
+
+        verify(rmCore, timeout(5000)).setFreeNodes(Collections.singletonList(fastNode));
+        verify(rmCore, never()).setFreeNodes(Collections.singletonList(slowNode));
+
+        slowCleaning.countDown();
+        verify(rmCore, timeout(5000)).setFreeNodes(Collections.singletonList(slowNode));
+    }
+
+    @Test
+    public void testNodeWhichCannotBeCleanedIsDown() throws Exception {
+        RMNode node = createNode("broken");
+        doThrow(new NodeException("Node is down")).when(node).clean();
+        when(node.getNodeSource()).thenReturn(mock(NodeSource.class));
+
+        nodesCleaner.cleanAndRelease(Collections.singletonList(node));
+
+        verify(rmCore, timeout(5000)).setDownNode("broken");
+        verify(rmCore, never()).setFreeNodes(Collections.singletonList(node));
+    }
+
+    @Test
+    public void testCleaningLatencyIsRecorded() throws Exception {
+        RMNode node = createNode("node");
+        nodesCleaner.cleanAndRelease(Collections.singletonList(node));
+
+        verify(rmCore, timeout(5000)).setFreeNodes(Collections.singletonList(node));
+        long cleanings = 0;
+        for (Long count : nodesCleaner.getCleaningLatencyHistogram().values()) {
+            cleanings += count;
+        }
+        assertThat(cleanings).isEqualTo(1L);
+    }
+
+    private RMNode createNode(String url) {
+        RMNode node = mock(RMNode.class);
+        when(node.getNodeURL()).thenReturn(url);
+        when(node.getNodeSourceName()).thenReturn("nodeSource");
+        return node;
+    }
+
+}
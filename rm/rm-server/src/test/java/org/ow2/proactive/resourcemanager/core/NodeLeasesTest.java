@@ -0,0 +1,103 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class NodeLeasesTest {
+
+    private NodeLeases nodeLeases;
+
+    @Before
+    public void setUp() {
+        nodeLeases = new NodeLeases(1000);
+    }
+
+    @Test
+    public void testRenewedLeaseIsValidUntilExpiration() {
+        nodeLeases.renew(Arrays.asList("node1", "node2"), 0);
+
+        assertThat(nodeLeases.expire(999)).isEqualTo(0);
+        assertThat(nodeLeases.hasValidLease("node1")).isTrue();
+        assertThat(nodeLeases.hasValidLease("node2")).isTrue();
+
+        assertThat(nodeLeases.expire(1000)).isEqualTo(2);
+        assertThat(nodeLeases.hasValidLease("node1")).isFalse();
+        assertThat(nodeLeases.hasValidLease("node2")).isFalse();
+    }
+
+    @Test
+    public void testRenewalPostponesExpiration() {
+        nodeLeases.renew(Arrays.asList("node1", "node2"), 0);
+        nodeLeases.renew(Collections.singletonList("node1"), 500);
+
+        assertThat(nodeLeases.expire(1200)).isEqualTo(1);
+        assertThat(nodeLeases.hasValidLease("node1")).isTrue();
+        assertThat(nodeLeases.hasValidLease("node2")).isFalse();
+        assertThat(nodeLeases.getValidLeasesCount()).isEqualTo(1);
+        assertThat(nodeLeases.getRenewalRequests()).isEqualTo(2);
+        assertThat(nodeLeases.getRenewedLeases()).isEqualTo(3);
+    }
+
+    @Test
+    public void testDetectionLatency() {
+        nodeLeases.renew(Arrays.asList("node1", "node2"), 0);
+        nodeLeases.expire(1500);
+
+        nodeLeases.nodeDown("node1", 1100);
+        nodeLeases.nodeDown("node2", 1300);
+
+        assertThat(nodeLeases.getDetectedDownNodes()).isEqualTo(2);
+        assertThat(nodeLeases.getAverageDetectionLatency()).isEqualTo(200);
+        assertThat(nodeLeases.getMaxDetectionLatency()).isEqualTo(300);
+    }
+
+    @Test
+    public void testRemovedNodeIsNotExpired() {
+        nodeLeases.renew(Arrays.asList("node1", "node2"), 0);
+        nodeLeases.remove("node1");
+
+        assertThat(nodeLeases.hasValidLease("node1")).isFalse();
+        assertThat(nodeLeases.expire(2000)).isEqualTo(1);
+    }
+
+    @Test
+    public void testDisabledLeases() {
+        nodeLeases = new NodeLeases(0);
+        nodeLeases.renew(Collections.singletonList("node1"), 0);
+
+        assertThat(nodeLeases.isEnabled()).isFalse();
+        assertThat(nodeLeases.hasValidLease("node1")).isFalse();
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.db;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.ow2.proactive.resourcemanager.db.NodeUsageAccumulator.HOUR;
+
+import org.junit.Test;
+import org.ow2.proactive.resourcemanager.common.NodeState;
+
+
+public class NodeUsageAccumulatorTest {
+
+    private NodeUsageAccumulator usage = new NodeUsageAccumulator();
+
+    @Test
+    public void testBusyTimeIsSplitPerHour() {
+        usage.add(NodeState.BUSY, "user", "provider", HOUR - 10, 2 * HOUR + 20);
+
+        assertThat(usage.getUsedNodeTime("user", 0)).isEqualTo(10L);
+        assertThat(usage.getUsedNodeTime("user", HOUR)).isEqualTo(HOUR);
+        assertThat(usage.getUsedNodeTime("user", 2 * HOUR)).isEqualTo(20L);
+
+        assertThat(usage.getProvidedNodeTime("provider", 0)).isEqualTo(10L);
+        assertThat(usage.getProvidedNodeTime("provider", HOUR)).isEqualTo(HOUR);
+        assertThat(usage.getProvidedNodeTime("provider", 2 * HOUR)).isEqualTo(20L);
+
+        assertThat(usage.getProvidedNodeTime("user", HOUR)).isEqualTo(0L);
+        assertThat(usage.getUsedNodeTime("provider", HOUR)).isEqualTo(0L);
+    }
+
+    @Test
+    public void testOnlyProvidedStatesAreAccounted() {
+        usage.add(NodeState.FREE, null, "provider", 0, 10);
+        usage.add(NodeState.CONFIGURING, null, "provider", 10, 20);
+        usage.add(NodeState.TO_BE_REMOVED, null, "provider", 20, 30);
+        usage.add(NodeState.DOWN, null, "provider", 30, 40);
+        usage.add(NodeState.DEPLOYING, null, "provider", 40, 50);
+        usage.add(NodeState.LOST, null, "provider", 50, 60);
+
+        assertThat(usage.getProvidedNodeTime("provider", 0)).isEqualTo(30L);
+        assertThat(usage.getUsedNodeTime("provider", 0)).isEqualTo(0L);
+    }
+
+    @Test
+    public void testEmptyIntervalsAreIgnored() {
+        usage.add(NodeState.BUSY, "user", "provider", 10, 10);
+        usage.add(NodeState.BUSY, "user", "provider", 10, 5);
+        usage.add(NodeState.DOWN, "user", "provider", 0, 10);
+
+        assertThat(usage.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testIntervalsAreSummed() {
+        usage.add(NodeState.BUSY, "user", "provider", 0, 10);
+        usage.add(NodeState.BUSY, "user", "provider", 20, 35);
+
+        assertThat(usage.getUsedNodeTime("user", 0)).isEqualTo(25L);
+        assertThat(usage.getUsage().size()).isEqualTo(2);
+    }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.utils.appenders;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Layout;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+public class AsyncLogFileWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Layout layout = new PatternLayout("%m%n");
+
+    private AsyncLogFileWriter writer;
+
+    @Before
+    public void createWriter() {
+        writer = new AsyncLogFileWriter(100, 2, 0);
+    }
+
+    @After
+    public void closeWriter() {
+        writer.close();
+    }
+
+    @Test
+    public void testEventsAreWrittenInOrder() throws IOException {
+        File file1 = new File(folder.getRoot(), "1/1t0");
+        File file2 = new File(folder.getRoot(), "1/1t1");
+
+        for (int i = 0; i < 1000; i++) {
+            write(i % 2 == 0 ? file1 : file2, "line" + i);
+        }
+        writer.flush();
+
+        List<String> lines1 = FileUtils.readLines(file1, Charset.defaultCharset());
+        List<String> lines2 = FileUtils.readLines(file2, Charset.defaultCharset());
+        assertThat(lines1.size()).isEqualTo(500);
+        assertThat(lines2.size()).isEqualTo(500);
+        assertThat(lines1.get(0)).isEqualTo("line0");
+        assertThat(lines1.get(499)).isEqualTo("line998");
+        assertThat(lines2.get(499)).isEqualTo("line999");
+        assertThat(writer.getOpenFilesCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedFilesAreClosed() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            write(new File(folder.getRoot(), "file" + i), "first");
+        }
+        for (int i = 0; i < 5; i++) {
+            write(new File(folder.getRoot(), "file" + i), "second");
+        }
+        writer.flush();
+
+        assertThat(writer.getOpenFilesCount()).isEqualTo(2);
+        for (int i = 0; i < 5; i++) {
+            assertThat(FileUtils.readLines(new File(folder.getRoot(), "file" + i),
+                                           Charset.defaultCharset())).containsExactly("first", "second").inOrder();
+        }
+    }
+
+    @Test
+    public void testFilesRollOver() throws IOException {
+        File file = new File(folder.getRoot(), "rolling");
+        String message = new String(new char[99]).replace('\0', 'x');
+        for (int i = 0; i < 100; i++) {
+            writer.write(file.getAbsolutePath(), event(message), layout, "1KB", false);
+        }
+        writer.flush();
+
+        assertThat(new File(folder.getRoot(), "rolling.1").exists()).isTrue();
+        assertThat(new File(folder.getRoot(), "rolling.2").exists()).isFalse();
+        assertThat(file.length()).isAtMost(1024L);
+    }
+
+    @Test
+    public void testFilesOfRemovedDirectoryAreClosed() throws IOException {
+        File directory = new File(folder.getRoot(), "1");
+        write(new File(directory, "1t0"), "line");
+        write(new File(folder.getRoot(), "2/2t0"), "line");
+
+        writer.closeFiles(directory.getAbsolutePath(), false);
+
+        assertThat(writer.getOpenFilesCount()).isEqualTo(1);
+        FileUtils.deleteDirectory(directory);
+
+        write(new File(directory, "1t0"), "again");
+        writer.flush();
+        assertThat(FileUtils.readLines(new File(directory, "1t0"), Charset.defaultCharset())).containsExactly("again");
+    }
+
+    @Test
+    public void testPendingEventsDoNotRecreateRemovedDirectory() throws IOException {
+        File directory = new File(folder.getRoot(), "1");
+        for (int i = 0; i < 100; i++) {
+            write(new File(directory, "1t" + (i % 3)), "line" + i);
+        }
+
+        writer.closeFiles(directory.getAbsolutePath(), true);
+        writer.flush();
+
+        assertThat(directory.exists()).isFalse();
+        assertThat(writer.getOpenFilesCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testIdleFilesAreClosed() throws Exception {
+        writer.close();
+        writer = new AsyncLogFileWriter(100, 2, 50);
+
+        write(new File(folder.getRoot(), "idle"), "line");
+        writer.flush();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (writer.getOpenFilesCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(writer.getOpenFilesCount()).isEqualTo(0);
+    }
+
+    private void write(File file, String message) {
+        writer.write(file.getAbsolutePath(), event(message), layout, null, false);
+    }
+
+    private LoggingEvent event(String message) {
+        return new LoggingEvent("mylogger", Logger.getRootLogger(), Level.INFO, message, null);
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.utils.appenders;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.apache.log4j.RollingFileAppender;
+import org.apache.log4j.spi.LoggingEvent;
+
+
+/**
+ * Compares the events per second of {@link FileAppender} with the previous
+ * implementation, which opened a {@link RollingFileAppender} for each event.
+ * <p>
+ * Usage: FileAppenderBenchmark [events] [files]
+ */
+public class FileAppenderBenchmark {
+
+    private static final String MAX_FILE_SIZE = "10MB";
+
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int files = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        File directory = Files.createTempDirectory("appender-benchmark").toFile();
+        try {
+            // warm up
+            runPerEventAppender(new File(directory, "warmup1"), events / 10, files);
+            runFileAppender(new File(directory, "warmup2"), events / 10, files);
+
+            long perEvent = runPerEventAppender(new File(directory, "perevent"), events, files);
+            long async = runFileAppender(new File(directory, "async"), events, files);
+
+            System.out.println("Events: " + events + ", files: " + files);
+            System.out.println("Appender per event: " + eventsPerSecond(events, perEvent) + " events/s");
+            System.out.println("FileAppender: " + eventsPerSecond(events, async) + " events/s");
+        } finally {
+            FileUtils.deleteQuietly(directory);
+        }
+    }
+
+    private static long runPerEventAppender(File directory, int events, int files) throws IOException {
+        PatternLayout layout = new PatternLayout("[%d{ISO8601} %-5p] %m%n");
+        long start = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            File file = new File(directory, "file" + (i % files));
+            if (!file.exists()) {
+                FileUtils.forceMkdirParent(file);
+                FileUtils.touch(file);
+            }
+            RollingFileAppender appender = new RollingFileAppender(layout, file.getAbsolutePath(), true);
+            appender.setMaxBackupIndex(1);
+            appender.setMaxFileSize(MAX_FILE_SIZE);
+            appender.append(event(i));
+            appender.close();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long runFileAppender(File directory, int events, int files) {
+        FileAppender appender = new FileAppender();
+        appender.setLayout(new PatternLayout("[%d{ISO8601} %-5p] %m%n"));
+        appender.setMaxFileSize(MAX_FILE_SIZE);
+        appender.setFilesLocation(directory.getAbsolutePath());
+        long start = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            appender.append("file" + (i % files), event(i));
+        }
+        appender.flush();
+        return System.nanoTime() - start;
+    }
+
+    private static LoggingEvent event(int i) {
+        return new LoggingEvent("benchmark", Logger.getRootLogger(), Level.INFO, "Benchmark event " + i, null);
+    }
+
+    private static long eventsPerSecond(int events, long nanos) {
+        return events * 1000000000L / Math.max(1, nanos);
+    }
+
+}
@@ -47,6 +47,7 @@ import org.ow2.proactive.scheduler.common.job.JobResult;
 import org.ow2.proactive.scheduler.common.job.JobState;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.common.task.TaskResultValueChunk;
 import org.ow2.proactive.scheduler.common.task.TaskState;
 import org.ow2.proactive.scheduler.common.usage.SchedulerUsage;
 import org.ow2.proactive.scheduler.common.util.logforwarder.AppenderProvider;
@@ -280,6 +281,25 @@ public interface Scheduler extends SchedulerUsage, ThirdPartyCredentials {
      */
     boolean removeJob(JobId jobId) throws NotConnectedException, UnknownJobException, PermissionException;
 
+    /**
+     * Remove several jobs from the scheduler.
+     * <p>
+     * Jobs which are not terminated are killed before being removed.
+     * This method is more efficient than calling {@link #removeJob(JobId)} for each job
+     * as the jobs are removed together.
+     *
+     * @param jobIds
+     *            the jobs to be removed.
+     * @return true if all the jobs were removed, false if some of them were already removed.
+     * @throws NotConnectedException
+     *             if you are not authenticated.
+     * @throws UnknownJobException
+     *             if one of the jobs does not exist, no job is removed in this case.
+     * @throws PermissionException
+     *             if you can't access to one of the jobs, no job is removed in this case.
+     */
+    boolean removeJobs(List<JobId> jobIds) throws NotConnectedException, UnknownJobException, PermissionException;
+
     /**
      * Listen for the tasks user logs.
      * <p>
@@ -712,6 +732,40 @@ public interface Scheduler extends SchedulerUsage, ThirdPartyCredentials {
     TaskResult getTaskResultFromIncarnation(String jobId, String taskName, int inc)
             throws NotConnectedException, UnknownJobException, UnknownTaskException, PermissionException;
 
+    /**
+     * Get a part of the serialized value of a result of the given task.
+     * <p>
+     * Big results are stored in several chunks, this method allows to read such a
+     * value chunk by chunk without transferring nor loading it entirely in memory.
+     * The first chunk is read with {@link TaskResultValueChunk#LAST_RESULT}, the next
+     * ones with the result id of the first chunk, so that a task restarted during the
+     * read cannot mix the chunks of two results. Concatenating the chunks from index 0
+     * until the last one gives the value returned by {@link TaskResult#getSerializedValue()}.
+     *
+     * @param jobId
+     *            the job in which the task result is.
+     * @param taskName
+     *            the name of the task in which the result is.
+     * @param resultId
+     *            id of the result to read, or {@link TaskResultValueChunk#LAST_RESULT}
+     *            for the last result of the task.
+     * @param chunkIndex
+     *            index of the chunk to get, starting at 0.
+     * @return the chunk of the serialized value. If null is returned, there is no
+     *         such chunk, the task is not yet terminated or its result has no value.
+     * @throws NotConnectedException
+     *             if you are not authenticated.
+     * @throws UnknownJobException
+     *             if the job does not exist.
+     * @throws UnknownTaskException
+     *             if this task does not exist in the job, or if it has no result with
+     *             the given id.
+     * @throws PermissionException
+     *             if you can't access to this particular job.
+     */
+    TaskResultValueChunk getTaskResultValueChunk(String jobId, String taskName, long resultId, int chunkIndex)
+            throws NotConnectedException, UnknownJobException, UnknownTaskException, PermissionException;
+
     /**
      * Remove the job from the scheduler.
      * <p>
@@ -754,6 +808,26 @@ public interface Scheduler extends SchedulerUsage, ThirdPartyCredentials {
     void listenJobLogs(String jobId, AppenderProvider appenderProvider)
             throws NotConnectedException, UnknownJobException, PermissionException;
 
+    /**
+     * Stops forwarding the tasks user logs to an appender given to
+     * {@link #listenJobLogs(String, AppenderProvider)}.<br>
+     * The logs of a job are not forwarded anymore once the job is finished, this method
+     * is only needed to stop listening to a running job.
+     *
+     * @param jobId
+     *            the id of the job listened to.
+     * @param appenderProvider
+     *            a provider equal to the one given to listen to the job
+     * @throws NotConnectedException
+     *             if you are not authenticated.
+     * @throws UnknownJobException
+     *             if the job does not exist.
+     * @throws PermissionException
+     *             if you can't access to this particular job.
+     */
+    void stopListeningJobLogs(String jobId, AppenderProvider appenderProvider)
+            throws NotConnectedException, UnknownJobException, PermissionException;
+
     /**
      * Kill the job represented by jobId.<br>
      * This method will kill every running tasks of this job, and remove it from
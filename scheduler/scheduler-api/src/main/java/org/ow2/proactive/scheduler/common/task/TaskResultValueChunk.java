@@ -0,0 +1,89 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.common.task;
+
+import java.io.Serializable;
+
+import org.objectweb.proactive.annotation.PublicAPI;
+
+
+/**
+ * A part of the serialized value of a task result.
+ * <p>
+ * A task can have several results when it is restarted. Reading a value chunk by chunk
+ * must therefore stay on the same result: the first chunk is read with {@link #LAST_RESULT}
+ * and the following ones with the {@link #getResultId() result id} of the first chunk.
+ *
+ * @author ActiveEon Team
+ * @see org.ow2.proactive.scheduler.common.Scheduler#getTaskResultValueChunk(String, String, long, int)
+ */
+@PublicAPI
+public class TaskResultValueChunk implements Serializable {
+
+    /** Result id selecting the last result of a task */
+    public static final long LAST_RESULT = -1;
+
+    private final long resultId;
+
+    private final int chunkIndex;
+
+    private final int chunkCount;
+
+    private final byte[] value;
+
+    public TaskResultValueChunk(long resultId, int chunkIndex, int chunkCount, byte[] value) {
+        this.resultId = resultId;
+        this.chunkIndex = chunkIndex;
+        this.chunkCount = chunkCount;
+        this.value = value;
+    }
+
+    /**
+     * @return the id of the result this chunk belongs to
+     */
+    public long getResultId() {
+        return resultId;
+    }
+
+    public int getChunkIndex() {
+        return chunkIndex;
+    }
+
+    /**
+     * @return the number of chunks of the whole value
+     */
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public byte[] getValue() {
+        return value;
+    }
+
+    public boolean isLast() {
+        return chunkIndex >= chunkCount - 1;
+    }
+}
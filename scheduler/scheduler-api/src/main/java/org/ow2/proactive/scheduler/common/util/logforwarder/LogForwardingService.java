@@ -63,6 +63,10 @@ public final class LogForwardingService {
         loggingEventProcessor.addAppender(loggerName, appender);
     }
 
+    public void removeAppender(String loggerName, Appender appender) {
+        loggingEventProcessor.removeAppender(loggerName, appender);
+    }
+
     public void removeAllAppenders(String loggerName) {
         loggingEventProcessor.removeAllAppenders(loggerName);
     }
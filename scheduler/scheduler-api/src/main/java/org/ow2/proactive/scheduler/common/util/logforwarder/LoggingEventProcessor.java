@@ -41,6 +41,10 @@ public class LoggingEventProcessor {
         h.getLogger(loggerName).addAppender(appender);
     }
 
+    public void removeAppender(String loggerName, Appender appender) {
+        h.getLogger(loggerName).removeAppender(appender);
+    }
+
     public void removeAllAppenders(String loggerName) {
         h.getLogger(loggerName).removeAllAppenders();
     }
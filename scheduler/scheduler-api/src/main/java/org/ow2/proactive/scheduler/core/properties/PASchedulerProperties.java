@@ -120,11 +120,25 @@ public enum PASchedulerProperties implements PACommonProperties {
      * until the scheduling loop will block as well.*/
     SCHEDULER_STARTTASK_THREADNUMBER("pa.scheduler.core.starttask.threadnumber", PropertyType.INTEGER, "5"),
 
+    /** Maximum number of executable containers of eligible tasks kept in memory by the scheduling loop,
+     * containers are loaded from the database in batches of this size as well. */
+    SCHEDULER_EXECUTABLE_CONTAINER_CACHE_SIZE(
+            "pa.scheduler.core.executablecontainer.cachesize",
+            PropertyType.INTEGER,
+            "1000"),
+
     /** Maximum number of threads used to send events to clients. This property defines the number of clients
      * than can block at the same time. If this number is reached, every clients won't receive events until
      * a thread unlock. */
     SCHEDULER_LISTENERS_THREADNUMBER("pa.scheduler.core.listener.threadnumber", PropertyType.INTEGER, "5"),
 
+    /** Maximum number of events waiting to be sent to a client. A client reaching this number is considered
+     * too slow to consume its events and is disconnected. */
+    SCHEDULER_LISTENERS_QUEUE_SIZE("pa.scheduler.core.listener.queuesize", PropertyType.INTEGER, "10000"),
+
+    /** Maximum number of events sent to a client at once by a thread of the listeners thread pool. */
+    SCHEDULER_LISTENERS_BATCH_SIZE("pa.scheduler.core.listener.batchsize", PropertyType.INTEGER, "500"),
+
     /** List of the scripts paths to execute at scheduler start. Paths are separated by a ';'. */
     SCHEDULER_STARTSCRIPTS_PATHS("pa.scheduler.startscripts.paths", PropertyType.LIST),
 
@@ -181,6 +195,9 @@ public enum PASchedulerProperties implements PACommonProperties {
     /** Remove job in dataBase when removing it from scheduler. */
     JOB_REMOVE_FROM_DB("pa.scheduler.job.removeFromDataBase", PropertyType.BOOLEAN, "true"),
 
+    /** Number of jobs removed in the same database transaction when jobs are removed in bulk. */
+    JOB_REMOVE_CHUNK_SIZE("pa.scheduler.job.remove.chunk.size", PropertyType.INTEGER, "500"),
+
     /** File encoding used by the scheduler */
     FILE_ENCODING(PAProperties.KEY_PA_FILE_ENCODING, PropertyType.STRING, "UTF-8"),
 
@@ -346,6 +363,18 @@ public enum PASchedulerProperties implements PACommonProperties {
             PropertyType.INTEGER,
             "100"),
 
+    /** Rebuild the per user, per hour usage rollups used by accounts from the jobs history on startup */
+    SCHEDULER_DB_USAGE_REBUILD("pa.scheduler.db.usage.rebuild", PropertyType.BOOLEAN, "false"),
+
+    /** Serialized task results (values and exceptions) bigger than this size in bytes are stored compressed, a negative value disables compression */
+    SCHEDULER_DB_RESULT_COMPRESSION_THRESHOLD(
+            "pa.scheduler.db.result.compression.threshold",
+            PropertyType.INTEGER,
+            "65536"),
+
+    /** Serialized task result values bigger than this size in bytes are stored in several chunks of this size */
+    SCHEDULER_DB_RESULT_CHUNK_SIZE("pa.scheduler.db.result.chunk.size", PropertyType.INTEGER, "4194304"),
+
     /* ***************************************************************** */
     /* ***************** EMAIL NOTIFICATION PROPERTIES ***************** */
     /* ***************************************************************** */
@@ -362,6 +391,27 @@ public enum PASchedulerProperties implements PACommonProperties {
             PropertyType.STRING,
             "example@username.com"),
 
+    /** Maximum number of notification emails waiting to be sent, emails are dropped when the outbox is full */
+    EMAIL_NOTIFICATIONS_OUTBOX_SIZE("pa.scheduler.notifications.email.outbox.size", PropertyType.INTEGER, "10000"),
+
+    /** Number of threads sending notification emails */
+    EMAIL_NOTIFICATIONS_SENDER_THREADS("pa.scheduler.notifications.email.threads", PropertyType.INTEGER, "2"),
+
+    /** Time in milliseconds during which notifications to the same recipient are gathered in a single digest email */
+    EMAIL_NOTIFICATIONS_DIGEST_DELAY("pa.scheduler.notifications.email.digest.delay", PropertyType.INTEGER, "1000"),
+
+    /** Maximum number of notifications gathered in a single digest email */
+    EMAIL_NOTIFICATIONS_DIGEST_SIZE("pa.scheduler.notifications.email.digest.size", PropertyType.INTEGER, "100"),
+
+    /** Number of attempts to send a notification email before giving up */
+    EMAIL_NOTIFICATIONS_MAX_ATTEMPTS("pa.scheduler.notifications.email.attempts", PropertyType.INTEGER, "5"),
+
+    /** Delay in seconds before sending again a notification email which could not be sent, doubled after each attempt */
+    EMAIL_NOTIFICATIONS_RETRY_DELAY("pa.scheduler.notifications.email.retry.delay", PropertyType.INTEGER, "30"),
+
+    /** Directory where notification emails are kept until they are sent, so that they survive a restart. Disabled if empty */
+    EMAIL_NOTIFICATIONS_SPOOL_DIR("pa.scheduler.notifications.email.spool", PropertyType.STRING, ""),
+
     /* ***************************************************************** */
     /* ******************* PORTAL DISPLAY PROPERTIES ******************* */
     /* ***************************************************************** */
@@ -73,6 +73,7 @@ import org.ow2.proactive.scheduler.common.job.JobResult;
 import org.ow2.proactive.scheduler.common.job.JobState;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.common.task.TaskResultValueChunk;
 import org.ow2.proactive.scheduler.common.task.TaskState;
 import org.ow2.proactive.scheduler.common.usage.JobUsage;
 import org.ow2.proactive.scheduler.common.util.logforwarder.AppenderProvider;
@@ -325,6 +326,12 @@ public class SchedulerProxyUserInterface implements Scheduler, Serializable {
         return uischeduler.getTaskResultFromIncarnation(jobId, taskName, inc);
     }
 
+    @Override
+    public TaskResultValueChunk getTaskResultValueChunk(String jobId, String taskName, long resultId, int chunkIndex)
+            throws NotConnectedException, UnknownJobException, UnknownTaskException, PermissionException {
+        return uischeduler.getTaskResultValueChunk(jobId, taskName, resultId, chunkIndex);
+    }
+
     public boolean killTask(JobId jobId, String taskName)
             throws NotConnectedException, UnknownJobException, UnknownTaskException, PermissionException {
         checkSchedulerConnection();
@@ -403,6 +410,13 @@ public class SchedulerProxyUserInterface implements Scheduler, Serializable {
 
     }
 
+    @Override
+    public boolean removeJobs(List<JobId> jobIds)
+            throws NotConnectedException, UnknownJobException, PermissionException {
+        checkSchedulerConnection();
+        return uischeduler.removeJobs(jobIds);
+    }
+
     @Override
     public boolean resumeJob(JobId jobId) throws NotConnectedException, UnknownJobException, PermissionException {
         checkSchedulerConnection();
@@ -467,6 +481,13 @@ public class SchedulerProxyUserInterface implements Scheduler, Serializable {
         uischeduler.listenJobLogs(jobId, appenderProvider);
     }
 
+    @Override
+    public void stopListeningJobLogs(String jobId, AppenderProvider appenderProvider)
+            throws NotConnectedException, UnknownJobException, PermissionException {
+        checkSchedulerConnection();
+        uischeduler.stopListeningJobLogs(jobId, appenderProvider);
+    }
+
     public boolean changePolicy(String newPolicyClassName) throws NotConnectedException, PermissionException {
         return uischeduler.changePolicy(newPolicyClassName);
     }
@@ -28,6 +28,7 @@ package org.ow2.proactive.scheduler.common.util.logforwarder.providers;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -127,6 +128,22 @@ public class ProActiveBasedForwardingProvider implements LogForwardingProvider {
             }
         }
 
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            return Objects.equals(remoteCollectorURI, ((ProActiveAppenderProvider) obj).remoteCollectorURI);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(remoteCollectorURI);
+        }
+
     }
 
     public static class LogCollectorDeployer {
@@ -26,6 +26,7 @@
 package org.ow2.proactive.scheduler.common.util.logforwarder.providers;
 
 import java.net.URI;
+import java.util.Objects;
 
 import org.apache.log4j.Appender;
 import org.apache.log4j.net.SocketAppender;
@@ -105,6 +106,27 @@ public class SocketBasedForwardingProvider implements LogForwardingProvider {
             return new SocketAppender(this.hostname, this.port);
         }
 
+        /*
+         * Providers are equal when they forward to the same server, the scheduler identifies the
+         * appenders of a listener this way.
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            SocketAppenderProvider other = (SocketAppenderProvider) obj;
+            return port == other.port && Objects.equals(hostname, other.hostname);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hostname, port);
+        }
+
     }
 
 }
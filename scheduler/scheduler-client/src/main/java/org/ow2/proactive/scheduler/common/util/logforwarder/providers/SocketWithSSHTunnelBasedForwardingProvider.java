@@ -27,6 +27,7 @@ package org.ow2.proactive.scheduler.common.util.logforwarder.providers;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Objects;
 
 import org.apache.log4j.Appender;
 import org.objectweb.proactive.core.config.CentralPAPropertyRepository;
@@ -98,6 +99,24 @@ public class SocketWithSSHTunnelBasedForwardingProvider extends SocketBasedForwa
             }
         }
 
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            SocketSSHAppenderProvider other = (SocketSSHAppenderProvider) obj;
+            return port == other.port && remoteSSHPort == other.remoteSSHPort &&
+                   Objects.equals(hostname, other.hostname);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hostname, port, remoteSSHPort);
+        }
+
     }
 
 }
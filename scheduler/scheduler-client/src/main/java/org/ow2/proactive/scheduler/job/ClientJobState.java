@@ -141,8 +141,11 @@ public class ClientJobState extends JobState {
         if (this.jobInfo.getTasksSkipped() != null) {
             for (TaskId id : tasks.keySet()) {
                 if (this.jobInfo.getTasksSkipped().contains(id)) {
-                    TaskInfoImpl taskInfo = (TaskInfoImpl) tasks.get(id).getTaskInfo();
+                    // task infos are replaced and never modified, see #snapshot
+                    TaskState task = tasks.get(id);
+                    TaskInfoImpl taskInfo = new TaskInfoImpl((TaskInfoImpl) task.getTaskInfo());
                     taskInfo.setStatus(TaskStatus.SKIPPED);
+                    task.update(taskInfo);
                 }
             }
         }
@@ -154,6 +157,18 @@ public class ClientJobState extends JobState {
 
     }
 
+    /**
+     * Returns a copy of this job state which is not affected by further updates
+     * of this instance. Task infos are shared with the copy as updates replace them.
+     *
+     * @return a copy of this job state
+     */
+    public ClientJobState snapshot() {
+        ClientJobState copy = new ClientJobState(this);
+        copy.jobInfo = new JobInfoImpl(jobInfo);
+        return copy;
+    }
+
     @Override
     public JobInfo getJobInfo() {
         return jobInfo;
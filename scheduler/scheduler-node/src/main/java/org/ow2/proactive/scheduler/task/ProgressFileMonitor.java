@@ -0,0 +1,293 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+
+/**
+ * Follows the progress files of all the tasks running in the JVM with a single
+ * {@link WatchService} and a single thread.
+ * <p>
+ * Progress file directories are watched as long as a progress file is registered in
+ * them. Modifications received in a short time are merged, so that a task writing its
+ * progress quickly causes one read per {@link #DEBOUNCE_DELAY}. When the watch service
+ * is not available, for instance when the inotify limits are reached, the files are
+ * polled, more often when they change and less often when they do not.
+ *
+ * @author ActiveEon Team
+ */
+class ProgressFileMonitor {
+
+    private static final Logger logger = Logger.getLogger(ProgressFileMonitor.class);
+
+    /** Time in ms during which the modifications of the progress files are merged */
+    static final long DEBOUNCE_DELAY = 50;
+
+    /** Maximum time in ms spent merging the modifications of files written continuously */
+    static final long MAX_DEBOUNCE_DELAY = 500;
+
+    /** Polling period in ms right after a change of a polled progress file */
+    static final long MIN_POLLING_PERIOD = 100;
+
+    /** Polling period in ms when the polled progress files do not change */
+    static final long MAX_POLLING_PERIOD = 2000;
+
+    private static ProgressFileMonitor instance;
+
+    private final WatchService watchService;
+
+    /* progress files by watched directory */
+    private final Map<Path, WatchedDirectory> watchedDirectories = new HashMap<>();
+
+    private final Set<ProgressFileReader> polledFiles = new LinkedHashSet<>();
+
+    private long pollingPeriod = MIN_POLLING_PERIOD;
+
+    private long lastPollTime;
+
+    private Thread thread;
+
+    private volatile boolean closed;
+
+    private static final class WatchedDirectory {
+
+        private final WatchKey key;
+
+        private final Map<String, ProgressFileReader> files = new HashMap<>();
+
+        private WatchedDirectory(WatchKey key) {
+            this.key = key;
+        }
+
+    }
+
+    static synchronized ProgressFileMonitor getInstance() {
+        if (instance == null) {
+            instance = new ProgressFileMonitor(true);
+        }
+        return instance;
+    }
+
+    /**
+     * @param useWatchService false to always poll the progress files
+     */
+    ProgressFileMonitor(boolean useWatchService) {
+        this.watchService = useWatchService ? newWatchService() : null;
+    }
+
+    private static WatchService newWatchService() {
+        try {
+            return FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn("Cannot watch the progress files, they will be polled", e);
+            return null;
+        }
+    }
+
+    /**
+     * Starts following the progress file of the given reader, which is notified of the modifications.
+     */
+    synchronized void register(ProgressFileReader reader) {
+        Path file = reader.getProgressFile();
+        Path directory = file.getParent();
+        WatchedDirectory watchedDirectory = watchedDirectories.get(directory);
+        if (watchedDirectory == null && watchService != null) {
+            try {
+                watchedDirectory = new WatchedDirectory(directory.register(watchService,
+                                                                           StandardWatchEventKinds.ENTRY_MODIFY));
+                watchedDirectories.put(directory, watchedDirectory);
+            } catch (IOException e) {
+                logger.debug("Cannot watch " + directory + ", the progress file will be polled", e);
+            }
+        }
+        if (watchedDirectory != null) {
+            watchedDirectory.files.put(file.getFileName().toString(), reader);
+        } else {
+            polledFiles.add(reader);
+            pollingPeriod = MIN_POLLING_PERIOD;
+        }
+        startThread();
+    }
+
+    synchronized void unregister(ProgressFileReader reader) {
+        if (polledFiles.remove(reader)) {
+            return;
+        }
+        Path file = reader.getProgressFile();
+        Path directory = file.getParent();
+        WatchedDirectory watchedDirectory = watchedDirectories.get(directory);
+        if (watchedDirectory != null && watchedDirectory.files.get(file.getFileName().toString()) == reader) {
+            watchedDirectory.files.remove(file.getFileName().toString());
+            if (watchedDirectory.files.isEmpty()) {
+                watchedDirectory.key.cancel();
+                watchedDirectories.remove(directory);
+            }
+        }
+    }
+
+    synchronized int getWatchedDirectoriesCount() {
+        return watchedDirectories.size();
+    }
+
+    synchronized int getRegisteredFilesCount() {
+        int count = polledFiles.size();
+        for (WatchedDirectory watchedDirectory : watchedDirectories.values()) {
+            count += watchedDirectory.files.size();
+        }
+        return count;
+    }
+
+    boolean isWatching() {
+        return watchService != null;
+    }
+
+    void close() {
+        closed = true;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warn("Error while closing the progress files watch service", e);
+            }
+        }
+        Thread monitorThread;
+        synchronized (this) {
+            monitorThread = thread;
+        }
+        if (monitorThread != null) {
+            monitorThread.interrupt();
+            try {
+                monitorThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void startThread() {
+        if (thread == null && !closed) {
+            thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    monitor();
+                }
+            }, "Progress files monitor");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void monitor() {
+        try {
+            while (!closed) {
+                Set<ProgressFileReader> modified = new LinkedHashSet<>();
+                long period = currentPollingPeriod();
+                if (watchService != null) {
+                    WatchKey key = watchService.poll(period, TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        long deadline = System.currentTimeMillis() + MAX_DEBOUNCE_DELAY;
+                        do {
+                            collectModifiedFiles(key, modified);
+                        } while (System.currentTimeMillis() < deadline &&
+                                 (key = watchService.poll(DEBOUNCE_DELAY, TimeUnit.MILLISECONDS)) != null);
+                        if (key != null) {
+                            collectModifiedFiles(key, modified);
+                        }
+                    }
+                } else {
+                    Thread.sleep(period);
+                }
+                for (ProgressFileReader reader : modified) {
+                    reader.readProgress();
+                }
+                pollFiles(period);
+            }
+        } catch (InterruptedException e) {
+            logger.debug("Progress files monitor interrupted");
+        } catch (ClosedWatchServiceException e) {
+            logger.debug("Progress files watch service closed");
+        }
+    }
+
+    private synchronized long currentPollingPeriod() {
+        return polledFiles.isEmpty() ? MAX_POLLING_PERIOD : pollingPeriod;
+    }
+
+    private void collectModifiedFiles(WatchKey key, Set<ProgressFileReader> modified) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            synchronized (this) {
+                WatchedDirectory watchedDirectory = watchedDirectories.get(directory);
+                if (watchedDirectory == null) {
+                    break;
+                }
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    modified.addAll(watchedDirectory.files.values());
+                } else {
+                    ProgressFileReader reader = watchedDirectory.files.get(event.context().toString());
+                    if (reader != null) {
+                        modified.add(reader);
+                    }
+                }
+            }
+        }
+        key.reset();
+    }
+
+    private void pollFiles(long period) {
+        ProgressFileReader[] readers;
+        synchronized (this) {
+            if (polledFiles.isEmpty() || System.currentTimeMillis() - lastPollTime < period) {
+                return;
+            }
+            readers = polledFiles.toArray(new ProgressFileReader[polledFiles.size()]);
+        }
+        boolean changed = false;
+        for (ProgressFileReader reader : readers) {
+            changed |= reader.readProgress();
+        }
+        synchronized (this) {
+            lastPollTime = System.currentTimeMillis();
+            pollingPeriod = changed ? MIN_POLLING_PERIOD : Math.min(pollingPeriod * 2, MAX_POLLING_PERIOD);
+        }
+    }
+
+}
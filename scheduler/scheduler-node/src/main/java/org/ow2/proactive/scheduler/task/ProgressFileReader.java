@@ -28,11 +28,13 @@ package org.ow2.proactive.scheduler.task;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
-import java.nio.file.*;
-import java.nio.file.attribute.FileTime;
-import java.util.HashSet;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.apache.log4j.Logger;
 import org.ow2.proactive.scheduler.common.task.TaskId;
@@ -46,6 +48,7 @@ import org.ow2.proactive.scheduler.task.utils.ForkerUtils;
  * - reading new value and saving it in memory
  * - exposing the last read value
  * <p>
+ * Changes are detected by the {@link ProgressFileMonitor} shared by all the tasks of the node.
  * Instances of this class are NOT thread-safe.
  *
  * @author The ProActive Team
@@ -56,21 +59,26 @@ public class ProgressFileReader {
 
     private static final String PROGRESS_FILE_DIR = ".tasks-progress";
 
+    private final ProgressFileMonitor monitor;
+
     private Path progressFileDir;
 
     private Path progressFile;
 
     private volatile int progress;
 
-    private WatchService watchService;
-
-    private Thread watchServiceThread;
+    private volatile boolean started;
 
     private Set<Listener> observers;
 
     public ProgressFileReader() {
+        this(ProgressFileMonitor.getInstance());
+    }
+
+    ProgressFileReader(ProgressFileMonitor monitor) {
+        this.monitor = monitor;
         // mainly for test purposes
-        observers = new HashSet<>(0);
+        observers = new CopyOnWriteArraySet<>();
     }
 
     public boolean start(File workingDir, TaskId taskId) {
@@ -84,15 +92,10 @@ public class ProgressFileReader {
         try {
             createProgressFile(workingDir, filename);
 
-            watchService = FileSystems.getDefault().newWatchService();
-
-            watchServiceThread = new Thread(new ProgressFileReaderThread(filename));
-            watchServiceThread.setName(ProgressFileReaderThread.class.getName());
-            watchServiceThread.start();
-
             progress = 0;
 
-            progressFileDir.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY);
+            monitor.register(this);
+            started = true;
 
             return true;
         } catch (IOException e) {
@@ -134,120 +137,72 @@ public class ProgressFileReader {
     }
 
     public void stop() {
-        if (watchService != null) {
-            try {
-                watchService.close();
-                watchServiceThread.join();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.info(e);
-            } catch (IOException e) {
-                logger.error(e);
-            } finally {
-                removeProgressFileDir();
-            }
+        if (started) {
+            started = false;
+            monitor.unregister(this);
+            removeProgressFile();
         }
     }
 
-    private void removeProgressFileDir() {
-        if (progressFileDir == null || !Files.exists(progressFileDir)) {
-            return;
+    private void removeProgressFile() {
+        try {
+            Files.deleteIfExists(progressFile);
+            // the directory may be shared with other tasks
+            Files.deleteIfExists(progressFileDir);
+        } catch (DirectoryNotEmptyException e) {
+            logger.debug("Progress file directory " + progressFileDir + " is still used");
+        } catch (IOException e) {
+            logger.debug("Cannot remove progress file " + progressFile, e);
         }
-        org.apache.commons.io.FileUtils.deleteQuietly(progressFileDir.toFile());
     }
 
-    public interface Listener {
-
-        void onProgressUpdate(int newValue);
-
-    }
-
-    public final class ProgressFileReaderThread implements Runnable {
-
-        private final String progressFileName;
-
-        public ProgressFileReaderThread(String progressFileName) {
-            this.progressFileName = progressFileName;
-        }
-
-        @Override
-        public void run() {
-            FileTime lastModificationTime = FileTime.fromMillis(0);
-
-            try {
-                WatchKey watchKey;
+    /**
+     * Reads the progress file and notifies the listeners if the value changed.
+     * Called by the {@link ProgressFileMonitor} thread.
+     *
+     * @return true if the progress changed
+     */
+    boolean readProgress() {
+        try {
+            String line = com.google.common.io.Files.readFirstLine(progressFile.toFile(), Charset.defaultCharset());
 
-                while ((watchKey = watchService.take()) != null) {
-                    // we have a polled event, now we traverse it and
-                    // receive all the states from it
-                    for (WatchEvent<?> event : watchKey.pollEvents()) {
-                        WatchEvent<Path> ev = cast(event);
-                        WatchEvent.Kind kind = event.kind();
+            if (line != null && !line.isEmpty()) {
+                try {
+                    // try to parse double to allow int + double
+                    int value = (int) Double.parseDouble(line);
 
-                        if (kind == StandardWatchEventKinds.OVERFLOW) {
-                            continue;
+                    if (value >= 0 && value <= 100) {
+                        if (value == progress) {
+                            return false;
                         }
+                        progress = value;
 
-                        Path path = ev.context();
-
-                        // compare file modification time to prevent duplicate events since
-                        // updating content and metadata may be detected as two independent update operations
-                        FileTime newLastModificationTime = Files.getLastModifiedTime(progressFile);
-
-                        if (newLastModificationTime.compareTo(lastModificationTime) > 0 &&
-                            path.toString().equals(progressFileName)) {
-                            readNewValue();
-                            lastModificationTime = newLastModificationTime;
+                        for (Listener observer : observers) {
+                            observer.onProgressUpdate(progress);
                         }
-                    }
-
-                    watchKey.reset();
-                }
-            } catch (InterruptedException e) {
-                logger.warn(e);
-                Thread.currentThread().interrupt();
-            } catch (IOException e) {
-                logger.warn(e);
-            } catch (ClosedWatchServiceException e) {
-                logger.debug("Watch service closed");
-            }
-        }
-
-        @SuppressWarnings("unchecked")
-        private WatchEvent<Path> cast(WatchEvent<?> event) {
-            return (WatchEvent<Path>) event;
-        }
-
-        private void readNewValue() {
-            try {
-                String line = com.google.common.io.Files.readFirstLine(progressFile.toFile(), Charset.defaultCharset());
 
-                if (line != null) {
-                    try {
-                        // try to parse double to allow int + double
-                        int value = (int) Double.parseDouble(line);
-
-                        if (value >= 0 && value <= 100) {
-                            progress = value;
-
-                            for (Listener observer : observers) {
-                                observer.onProgressUpdate(progress);
-                            }
-
-                            if (logger.isDebugEnabled()) {
-                                logger.debug("New progress value read: " + value);
-                            }
-                        } else {
-                            logger.warn("Invalid progress value: " + value);
+                        if (logger.isDebugEnabled()) {
+                            logger.debug("New progress value read: " + value);
                         }
-                    } catch (NumberFormatException e) {
-                        logger.warn("Progress value is a not a numeric value: " + line);
+                        return true;
+                    } else {
+                        logger.warn("Invalid progress value: " + value);
                     }
+                } catch (NumberFormatException e) {
+                    logger.warn("Progress value is a not a numeric value: " + line);
                 }
-            } catch (IOException e) {
+            }
+        } catch (IOException e) {
+            if (started) {
                 logger.warn("Error while reading the first line of " + progressFile);
             }
         }
+        return false;
+    }
+
+    public interface Listener {
+
+        void onProgressUpdate(int newValue);
 
     }
 
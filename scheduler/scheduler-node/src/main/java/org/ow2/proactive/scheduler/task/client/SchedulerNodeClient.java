@@ -63,6 +63,7 @@ import org.ow2.proactive.scheduler.common.job.JobResult;
 import org.ow2.proactive.scheduler.common.job.JobState;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.common.task.TaskResultValueChunk;
 import org.ow2.proactive.scheduler.common.task.TaskState;
 import org.ow2.proactive.scheduler.common.usage.JobUsage;
 import org.ow2.proactive.scheduler.common.util.logforwarder.AppenderProvider;
@@ -178,6 +179,13 @@ public class SchedulerNodeClient implements ISchedulerClient {
         return client.removeJob(jobId);
     }
 
+    @Override
+    public boolean removeJobs(List<JobId> jobIds)
+            throws NotConnectedException, UnknownJobException, PermissionException {
+        renewSession();
+        return client.removeJobs(jobIds);
+    }
+
     @Override
     public void listenJobLogs(JobId jobId, AppenderProvider appenderProvider)
             throws NotConnectedException, UnknownJobException, PermissionException {
@@ -352,6 +360,13 @@ public class SchedulerNodeClient implements ISchedulerClient {
         return client.getTaskResultFromIncarnation(jobId, taskName, inc);
     }
 
+    @Override
+    public TaskResultValueChunk getTaskResultValueChunk(String jobId, String taskName, long resultId, int chunkIndex)
+            throws NotConnectedException, UnknownJobException, UnknownTaskException, PermissionException {
+        renewSession();
+        return client.getTaskResultValueChunk(jobId, taskName, resultId, chunkIndex);
+    }
+
     @Override
     public boolean removeJob(String jobId) throws NotConnectedException, UnknownJobException, PermissionException {
         renewSession();
@@ -365,6 +380,13 @@ public class SchedulerNodeClient implements ISchedulerClient {
         client.listenJobLogs(jobId, appenderProvider);
     }
 
+    @Override
+    public void stopListeningJobLogs(String jobId, AppenderProvider appenderProvider)
+            throws NotConnectedException, UnknownJobException, PermissionException {
+        renewSession();
+        client.stopListeningJobLogs(jobId, appenderProvider);
+    }
+
     @Override
     public boolean killJob(String jobId) throws NotConnectedException, UnknownJobException, PermissionException {
         renewSession();
@@ -0,0 +1,159 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.context;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskLogs;
+import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.common.task.flow.FlowAction;
+import org.ow2.proactive.utils.ObjectByteConverter;
+
+
+/**
+ * Result of a previous task stored in its own section of a serialized {@link TaskContext}.
+ * <p>
+ * The task id and the propagated variables are read with the context, the rest of the
+ * result is only deserialized from its section when it is accessed.
+ *
+ * @see TaskContextSerializer
+ * @author ActiveEon Team
+ */
+final class MappedTaskResult implements TaskResult {
+
+    private final TaskId id;
+
+    private final Map<String, byte[]> propagatedVariables;
+
+    private final int section;
+
+    private transient ByteBuffer content;
+
+    private transient TaskResult result;
+
+    MappedTaskResult(TaskId id, Map<String, byte[]> propagatedVariables, int section) {
+        this.id = id;
+        this.propagatedVariables = propagatedVariables;
+        this.section = section;
+    }
+
+    int getSection() {
+        return section;
+    }
+
+    void attach(ByteBuffer content) {
+        this.content = content;
+    }
+
+    synchronized TaskResult getResult() {
+        if (result == null) {
+            if (content == null) {
+                throw new IllegalStateException("Result of task " + id + " is not available");
+            }
+            try {
+                result = TaskContextSerializer.readResult(content.duplicate(), propagatedVariables);
+            } catch (IOException | ClassNotFoundException e) {
+                throw new IllegalStateException("Could not read result of task " + id, e);
+            }
+            content = null;
+        }
+        return result;
+    }
+
+    @Override
+    public TaskId getTaskId() {
+        return id;
+    }
+
+    @Override
+    public Map<String, byte[]> getPropagatedVariables() {
+        return propagatedVariables;
+    }
+
+    @Override
+    public Map<String, Serializable> getVariables() throws IOException, ClassNotFoundException {
+        return ObjectByteConverter.mapOfByteArrayToSerializable(propagatedVariables);
+    }
+
+    @Override
+    public boolean hadException() {
+        return getResult().hadException();
+    }
+
+    @Override
+    public Serializable value() throws Throwable {
+        return getResult().value();
+    }
+
+    @Override
+    public Serializable getValue() throws Throwable {
+        return getResult().getValue();
+    }
+
+    @Override
+    public byte[] getSerializedValue() {
+        return getResult().getSerializedValue();
+    }
+
+    @Override
+    public Map<String, String> getMetadata() {
+        return getResult().getMetadata();
+    }
+
+    @Override
+    public FlowAction getAction() {
+        return getResult().getAction();
+    }
+
+    @Override
+    public Throwable getException() {
+        return getResult().getException();
+    }
+
+    @Override
+    public TaskLogs getOutput() {
+        return getResult().getOutput();
+    }
+
+    @Override
+    public boolean isRaw() {
+        return getResult().isRaw();
+    }
+
+    @Override
+    public String toString() {
+        return getResult().toString();
+    }
+
+    private synchronized Object writeReplace() {
+        // a result which is not attached to a section yet is being written in the task context
+        return content == null && result == null ? this : getResult();
+    }
+}
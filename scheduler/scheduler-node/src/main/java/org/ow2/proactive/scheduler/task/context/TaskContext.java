@@ -108,6 +108,21 @@ public class TaskContext implements Serializable {
         }
     }
 
+    /**
+     * Copies a task context, replacing the results of the previous tasks.
+     */
+    TaskContext(TaskContext context, TaskResult[] previousTasksResults) {
+        this.otherNodesURLs = context.otherNodesURLs;
+        this.nodesHosts = context.nodesHosts;
+        this.executableContainer = context.executableContainer;
+        this.initializer = context.initializer;
+        this.decrypter = context.decrypter;
+        this.previousTasksResults = previousTasksResults;
+        this.nodeDataSpacesURIs = context.nodeDataSpacesURIs;
+        this.schedulerHome = context.schedulerHome;
+        this.progressFilePath = context.progressFilePath;
+    }
+
     public ExecutableContainer getExecutableContainer() {
         return executableContainer;
     }
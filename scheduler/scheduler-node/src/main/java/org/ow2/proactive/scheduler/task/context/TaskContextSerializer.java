@@ -25,19 +25,67 @@
  */
 package org.ow2.proactive.scheduler.task.context;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
 
+import org.objectweb.proactive.utils.OperatingSystem;
+import org.ow2.proactive.scheduler.common.task.TaskResult;
 import org.ow2.proactive.scheduler.task.utils.ForkerUtils;
 
 import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
 
 
+/**
+ * Serializes the task context given to a forked JVM.
+ * <p>
+ * The context is written in a versioned format made of sections: the first one holds the
+ * context itself and each result of the previous tasks is stored in its own section. The
+ * forked JVM deserializes the context right away, but the previous task results are
+ * memory-mapped and only deserialized when the task accesses them, see {@link MappedTaskResult}.
+ * <p>
+ * Job and task variables and the propagated variables of the previous results stay in the context
+ * section whatever their size: the forked JVM merges all of them in the variables map of the task
+ * when it starts, so they would be read right away anyway.
+ * <pre>
+ * int magic, int version
+ * section 0: the task context, section 1..n: the previous task results
+ * int sections count, (long offset, int length) for each section
+ * long offset of the sections table
+ * </pre>
+ * Contexts smaller than the size given by the {@value #STDIN_MAX_SIZE_PROPERTY} system property
+ * can be given to the forked JVM on its standard input instead of being written to disk.
+ */
 public class TaskContextSerializer implements Serializable {
 
+    static final int MAGIC = 0x50415443;
+
+    static final int VERSION = 1;
+
+    /** Maximum size in bytes of the contexts given on the standard input of the forked JVM, 0 to disable */
+    public static final String STDIN_MAX_SIZE_PROPERTY = "pas.launcher.forkedtask.context.stdin.maxsize";
+
+    private static final int HEADER_SIZE = 8;
+
+    private static final int TRAILER_SIZE = 8;
+
     /**
      * Serializes a task context to disk.
      * @param context The context object to serialize.
@@ -46,16 +94,363 @@ public class TaskContextSerializer implements Serializable {
      * @throws IOException
      */
     public File serializeContext(TaskContext context, File directory) throws IOException {
+        File file = createTempFile(context, directory);
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
+            writeContext(context, outputStream);
+        }
+        return file;
+    }
+
+    /**
+     * Serializes a task context in memory if it is small enough to be given on the standard
+     * input of the forked JVM.
+     * @param context The context object to serialize.
+     * @return the serialized context or null if it is too large or if this mode is disabled
+     * @throws IOException
+     */
+    public byte[] serializeSmallContext(TaskContext context) throws IOException {
+        int maxSize = getStdinMaxSize();
+        if (maxSize <= 0) {
+            return null;
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            writeContext(context, new BoundedOutputStream(outputStream, maxSize));
+        } catch (ContextTooLargeException e) {
+            return null;
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Creates the empty file given to the forked JVM when the context is given on its standard input.
+     * The forked JVM writes the task result in this file.
+     * @param context The context object given to the forked JVM.
+     * @param directory The directory where to create the file.
+     * @return the created file
+     * @throws IOException
+     */
+    public File createResultFile(TaskContext context, File directory) throws IOException {
+        return createTempFile(context, directory);
+    }
+
+    /**
+     * Deserializes a task context written by {@link #serializeContext(TaskContext, File)}.
+     * The file can be removed once this method returns.
+     */
+    public TaskContext deserializeContext(File file) throws IOException, ClassNotFoundException {
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // a mapped file cannot be removed on windows
+            final boolean map = OperatingSystem.getOperatingSystem() == OperatingSystem.unix;
+            return readContext(new Content() {
+                @Override
+                public long size() throws IOException {
+                    return channel.size();
+                }
+
+                @Override
+                public ByteBuffer read(long offset, int length, boolean lazy) throws IOException {
+                    if (lazy && map) {
+                        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                    }
+                    ByteBuffer buffer = ByteBuffer.allocate(length);
+                    while (buffer.hasRemaining()) {
+                        if (channel.read(buffer, offset + buffer.position()) < 0) {
+                            throw new IOException("Unexpected end of task context file");
+                        }
+                    }
+                    buffer.flip();
+                    return buffer;
+                }
+            });
+        }
+    }
+
+    /**
+     * Deserializes a task context given by {@link #serializeSmallContext(TaskContext)}.
+     */
+    public TaskContext deserializeContext(InputStream inputStream) throws IOException, ClassNotFoundException {
+        final ByteBuffer bytes = ByteBuffer.wrap(ByteStreams.toByteArray(inputStream));
+        return readContext(new Content() {
+            @Override
+            public long size() {
+                return bytes.capacity();
+            }
+
+            @Override
+            public ByteBuffer read(long offset, int length, boolean lazy) {
+                ByteBuffer buffer = bytes.duplicate();
+                buffer.position((int) offset);
+                buffer.limit((int) offset + length);
+                return buffer.slice();
+            }
+        });
+    }
+
+    /**
+     * @return true if the file still contains a task context, i.e. the forked JVM did not write a task result in it
+     */
+    public boolean isSerializedContext(File file) throws IOException {
+        if (file.length() < HEADER_SIZE) {
+            return file.length() == 0;
+        }
+        try (InputStream inputStream = new FileInputStream(file)) {
+            return new DataInputStream(inputStream).readInt() == MAGIC;
+        }
+    }
+
+    static TaskResult readResult(ByteBuffer section, Map<String, byte[]> propagatedVariables)
+            throws IOException, ClassNotFoundException {
+        return (TaskResult) readObject(section, propagatedVariables);
+    }
+
+    private File createTempFile(TaskContext context, File directory) throws IOException {
         // prefix must be at least 3 characters long
         String tmpFilePrefix = Strings.padStart(context.getTaskId().value(), 3, '0');
 
         File file = File.createTempFile(tmpFilePrefix, null, directory);
-        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(new FileOutputStream(file))) {
-            objectOutputStream.writeObject(context);
-        }
         if (context.isRunAsUser()) {
             ForkerUtils.setSharedPermissions(file);
         }
         return file;
     }
+
+    private void writeContext(TaskContext context, OutputStream outputStream) throws IOException {
+        CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+        DataOutputStream dataStream = new DataOutputStream(countingStream);
+        dataStream.writeInt(MAGIC);
+        dataStream.writeInt(VERSION);
+
+        TaskResult[] results = context.getPreviousTasksResults();
+        TaskResult[] mappedResults = null;
+        if (results != null) {
+            mappedResults = new TaskResult[results.length];
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null) {
+                    mappedResults[i] = new MappedTaskResult(results[i].getTaskId(),
+                                                            results[i].getPropagatedVariables(),
+                                                            i + 1);
+                }
+            }
+        }
+
+        int sectionsCount = results == null ? 1 : results.length + 1;
+        long[] offsets = new long[sectionsCount];
+        long[] lengths = new long[sectionsCount];
+        for (int i = 0; i < sectionsCount; i++) {
+            offsets[i] = countingStream.getCount();
+            if (i == 0) {
+                writeObject(countingStream, new TaskContext(context, mappedResults), null);
+            } else if (results[i - 1] != null) {
+                writeObject(countingStream, results[i - 1], results[i - 1].getPropagatedVariables());
+            }
+            lengths[i] = countingStream.getCount() - offsets[i];
+            if (lengths[i] > Integer.MAX_VALUE) {
+                throw new IOException("Task context section " + i + " is too large: " + lengths[i] + " bytes");
+            }
+        }
+
+        long tableOffset = countingStream.getCount();
+        dataStream.writeInt(sectionsCount);
+        for (int i = 0; i < sectionsCount; i++) {
+            dataStream.writeLong(offsets[i]);
+            dataStream.writeInt((int) lengths[i]);
+        }
+        dataStream.writeLong(tableOffset);
+        dataStream.flush();
+    }
+
+    private TaskContext readContext(Content content) throws IOException, ClassNotFoundException {
+        long size = content.size();
+        if (size < HEADER_SIZE + TRAILER_SIZE) {
+            throw new IOException("Invalid task context of " + size + " bytes");
+        }
+        ByteBuffer header = content.read(0, HEADER_SIZE, false);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Invalid task context format");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported task context format version " + version + ", expected " + VERSION);
+        }
+
+        long tableOffset = content.read(size - TRAILER_SIZE, TRAILER_SIZE, false).getLong();
+        if (tableOffset < HEADER_SIZE || tableOffset > size - TRAILER_SIZE) {
+            throw new IOException("Invalid task context sections table offset " + tableOffset);
+        }
+        ByteBuffer table = content.read(tableOffset, (int) (size - TRAILER_SIZE - tableOffset), false);
+        ByteBuffer[] sections = new ByteBuffer[table.getInt()];
+        for (int i = 0; i < sections.length; i++) {
+            long offset = table.getLong();
+            int length = table.getInt();
+            if (offset < HEADER_SIZE || length < 0 || offset + length > tableOffset) {
+                throw new IOException("Invalid task context section " + i);
+            }
+            sections[i] = length == 0 ? null : content.read(offset, length, i > 0);
+        }
+        if (sections.length == 0 || sections[0] == null) {
+            throw new IOException("Task context section is missing");
+        }
+
+        TaskContext context = (TaskContext) readObject(sections[0], null);
+        TaskResult[] results = context.getPreviousTasksResults();
+        if (results != null) {
+            for (TaskResult result : results) {
+                if (result instanceof MappedTaskResult) {
+                    MappedTaskResult mappedResult = (MappedTaskResult) result;
+                    if (mappedResult.getSection() >= sections.length) {
+                        throw new IOException("Task context section " + mappedResult.getSection() + " is missing");
+                    }
+                    mappedResult.attach(sections[mappedResult.getSection()]);
+                }
+            }
+        }
+        return context;
+    }
+
+    private static int getStdinMaxSize() {
+        String maxSize = System.getProperty(STDIN_MAX_SIZE_PROPERTY);
+        if (maxSize == null || maxSize.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(maxSize);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void writeObject(OutputStream outputStream, Object object, Map<String, byte[]> propagatedVariables)
+            throws IOException {
+        // the stream is not closed as sections are written one after the other
+        SectionOutputStream sectionStream = new SectionOutputStream(outputStream, propagatedVariables);
+        sectionStream.writeObject(object);
+        sectionStream.flush();
+    }
+
+    private static Object readObject(ByteBuffer section, Map<String, byte[]> propagatedVariables)
+            throws IOException, ClassNotFoundException {
+        try (ObjectInputStream sectionStream = new SectionInputStream(new ByteBufferInputStream(section),
+                                                                      propagatedVariables)) {
+            return sectionStream.readObject();
+        }
+    }
+
+    private interface Content {
+
+        long size() throws IOException;
+
+        /**
+         * @param lazy true if the content can be read when the returned buffer is accessed
+         */
+        ByteBuffer read(long offset, int length, boolean lazy) throws IOException;
+    }
+
+    /**
+     * The propagated variables of a task result are written in the context section,
+     * this marker replaces them in the section of the result.
+     */
+    private static final class PropagatedVariablesMarker implements Serializable {
+    }
+
+    private static class SectionOutputStream extends ObjectOutputStream {
+
+        private final Map<String, byte[]> propagatedVariables;
+
+        SectionOutputStream(OutputStream outputStream, Map<String, byte[]> propagatedVariables) throws IOException {
+            super(outputStream);
+            this.propagatedVariables = propagatedVariables;
+            enableReplaceObject(propagatedVariables != null);
+        }
+
+        @Override
+        protected Object replaceObject(Object object) {
+            return object == propagatedVariables ? new PropagatedVariablesMarker() : object;
+        }
+    }
+
+    private static class SectionInputStream extends ObjectInputStream {
+
+        private final Map<String, byte[]> propagatedVariables;
+
+        SectionInputStream(InputStream inputStream, Map<String, byte[]> propagatedVariables) throws IOException {
+            super(inputStream);
+            this.propagatedVariables = propagatedVariables;
+            enableResolveObject(propagatedVariables != null);
+        }
+
+        @Override
+        protected Object resolveObject(Object object) {
+            return object instanceof PropagatedVariablesMarker ? propagatedVariables : object;
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    private static class ContextTooLargeException extends IOException {
+    }
+
+    /**
+     * Fails as soon as more than the given number of bytes are written.
+     */
+    private static class BoundedOutputStream extends FilterOutputStream {
+
+        private final long maxSize;
+
+        private long size;
+
+        BoundedOutputStream(OutputStream outputStream, long maxSize) {
+            super(outputStream);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            checkSize(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            checkSize(length);
+            out.write(bytes, offset, length);
+        }
+
+        private void checkSize(int length) throws ContextTooLargeException {
+            size += length;
+            if (size > maxSize) {
+                throw new ContextTooLargeException();
+            }
+        }
+    }
 }
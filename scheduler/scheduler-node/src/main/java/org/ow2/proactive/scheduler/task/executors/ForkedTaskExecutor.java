@@ -29,6 +29,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
 
 import org.apache.commons.io.FileUtils;
@@ -72,7 +73,14 @@ public class ForkedTaskExecutor implements TaskExecutor {
             if (!workingDir.exists()) {
                 FileUtils.forceMkdir(workingDir);
             }
-            serializedContext = taskContextSerializer.serializeContext(context, workingDir);
+            // small contexts are given on the standard input of the forked JVM
+            byte[] contextOnStandardInput = context.isRunAsUser() ? null
+                                                                  : taskContextSerializer.serializeSmallContext(context);
+            if (contextOnStandardInput != null) {
+                serializedContext = taskContextSerializer.createResultFile(context, workingDir);
+            } else {
+                serializedContext = taskContextSerializer.serializeContext(context, workingDir);
+            }
 
             OSProcessBuilder processBuilder = forkedJvmProcessBuilderCreator.createForkedProcessBuilder(context,
                                                                                                         serializedContext,
@@ -90,17 +98,22 @@ public class ForkedTaskExecutor implements TaskExecutor {
             process = processBuilder.start();
             processStreamsReader = new ProcessStreamsReader(taskId.toString(), process, outputSink, errorSink);
 
+            if (contextOnStandardInput != null) {
+                try (OutputStream standardInput = process.getOutputStream()) {
+                    standardInput.write(contextOnStandardInput);
+                }
+            }
+
             int exitCode = process.waitFor();
 
             if (exitCode != 0) {
                 try {
-                    Object error = deserializeTaskResult(serializedContext);
-                    if (error instanceof TaskContext) {
+                    if (taskContextSerializer.isSerializedContext(serializedContext)) {
                         return createTaskResult(context,
                                                 new IOException("Forked JVM process returned with exit code " +
                                                                 exitCode + ", see task logs for more information"));
                     } else {
-                        Throwable exception = (Throwable) error;
+                        Throwable exception = (Throwable) deserializeTaskResult(serializedContext);
                         return createTaskResult(context, exception);
                     }
                 } catch (Throwable cannotDeserializeResult) {
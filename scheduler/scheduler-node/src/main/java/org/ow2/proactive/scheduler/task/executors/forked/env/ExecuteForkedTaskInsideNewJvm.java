@@ -30,6 +30,7 @@ import java.io.*;
 import org.apache.commons.io.FileUtils;
 import org.ow2.proactive.scheduler.task.TaskResultImpl;
 import org.ow2.proactive.scheduler.task.context.TaskContext;
+import org.ow2.proactive.scheduler.task.context.TaskContextSerializer;
 import org.ow2.proactive.scheduler.task.executors.InProcessTaskExecutor;
 
 
@@ -39,6 +40,8 @@ public class ExecuteForkedTaskInsideNewJvm {
 
     public static final String CONTEXT_FILE = "Context file ";
 
+    private final TaskContextSerializer taskContextSerializer = new TaskContextSerializer();
+
     private ExecuteForkedTaskInsideNewJvm() {
 
     }
@@ -60,8 +63,12 @@ public class ExecuteForkedTaskInsideNewJvm {
         if (!f.canWrite()) {
             throw new IllegalStateException(CONTEXT_FILE + f + " exists but cannot be written");
         }
-        try (ObjectInputStream inputStream = new ObjectInputStream(new FileInputStream(f))) {
-            return (TaskContext) inputStream.readObject();
+        try {
+            if (f.length() == 0) {
+                // the context is given on the standard input, the file only receives the task result
+                return taskContextSerializer.deserializeContext(System.in);
+            }
+            return taskContextSerializer.deserializeContext(f);
         } finally {
             deleteContextFile(f);
         }
@@ -0,0 +1,319 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.utils.NamedThreadFactory;
+
+
+/**
+ * Copies the output and error streams of the processes started by the tasks
+ * of the node to their sinks, line by line, with a single thread.
+ * <p>
+ * The streams of a process cannot be read with non-blocking channels, so the
+ * thread reads at most one buffer of the bytes available in each stream per
+ * round, and waits a little when nothing is available, longer when the streams
+ * stay idle. A character split between two reads is decoded at the next round.
+ * Once a process has exited, the end of its streams is read by a thread of a
+ * cached pool, as the streams may be kept open by the processes it started.
+ * <p>
+ * The lines are printed to the sinks by the pump thread, so a sink which blocks
+ * delays the copy of the streams of all the processes.
+ *
+ * @author ActiveEon Team
+ */
+class ProcessStreamsPump {
+
+    private static final Logger logger = Logger.getLogger(ProcessStreamsPump.class);
+
+    /** Waiting time in ms between two reads when the streams are written */
+    static final long MIN_WAITING_TIME = 5;
+
+    /** Waiting time in ms between two reads when the streams are idle */
+    static final long MAX_WAITING_TIME = 100;
+
+    private static ProcessStreamsPump instance;
+
+    private final List<Pipe> pipes = new ArrayList<>();
+
+    private final ExecutorService drainingPool = Executors.newCachedThreadPool(new NamedThreadFactory("Process streams draining",
+                                                                                                      true));
+
+    private Thread thread;
+
+    static synchronized ProcessStreamsPump getInstance() {
+        if (instance == null) {
+            instance = new ProcessStreamsPump();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts copying the lines of the given stream of the process to the sink.
+     *
+     * @return the pipe, to wait until the end of the stream is copied
+     */
+    synchronized Pipe pump(String name, Process process, InputStream stream, PrintStream sink) {
+        Pipe pipe = new Pipe(name, process, stream, sink);
+        pipes.add(pipe);
+        if (thread == null) {
+            thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    pumpStreams();
+                }
+            }, "Process streams pump");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        notifyAll();
+        return pipe;
+    }
+
+    synchronized int getPipesCount() {
+        return pipes.size();
+    }
+
+    private void pumpStreams() {
+        long waitingTime = MIN_WAITING_TIME;
+        try {
+            while (true) {
+                Pipe[] currentPipes;
+                synchronized (this) {
+                    while (pipes.isEmpty()) {
+                        wait();
+                    }
+                    currentPipes = pipes.toArray(new Pipe[pipes.size()]);
+                }
+                boolean written = false;
+                boolean pending = false;
+                for (Pipe pipe : currentPipes) {
+                    written |= pumpOrDrain(pipe);
+                    pending |= pipe.pending;
+                }
+                if (pending) {
+                    // a buffer was filled, read the rest right away
+                    waitingTime = MIN_WAITING_TIME;
+                    continue;
+                }
+                waitingTime = written ? MIN_WAITING_TIME : Math.min(waitingTime * 2, MAX_WAITING_TIME);
+                Thread.sleep(waitingTime);
+            }
+        } catch (InterruptedException e) {
+            logger.debug("Process streams pump interrupted");
+        }
+    }
+
+    /**
+     * @return true if bytes were read from the pipe
+     */
+    private boolean pumpOrDrain(final Pipe pipe) {
+        try {
+            if (pipe.copyAvailable()) {
+                return true;
+            }
+            if (pipe.hasProcessExited()) {
+                remove(pipe);
+                drainingPool.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        pipe.drain();
+                    }
+                });
+            }
+        } catch (IOException e) {
+            // nothing to do, the stream is closed
+            logger.debug("Cannot read " + pipe.name, e);
+            remove(pipe);
+            pipe.finish(false);
+        }
+        return false;
+    }
+
+    private synchronized void remove(Pipe pipe) {
+        pipes.remove(pipe);
+    }
+
+    /**
+     * Copy of a stream of a process to a sink, which splits the lines
+     * as {@link java.io.BufferedReader#readLine()}.
+     */
+    static final class Pipe {
+
+        private final String name;
+
+        private final Process process;
+
+        private final InputStream stream;
+
+        private final PrintStream sink;
+
+        private final CharsetDecoder decoder = Charset.defaultCharset()
+                                                     .newDecoder()
+                                                     .onMalformedInput(CodingErrorAction.REPLACE)
+                                                     .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        private final ByteBuffer bytes = ByteBuffer.allocate(8192);
+
+        private final CharBuffer chars = CharBuffer.allocate(8192);
+
+        /** True if more bytes were available than the last copy could read */
+        private boolean pending;
+
+        private final StringBuilder line = new StringBuilder();
+
+        private boolean skipLineFeed;
+
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        private Pipe(String name, Process process, InputStream stream, PrintStream sink) {
+            this.name = name;
+            this.process = process;
+            this.stream = stream;
+            this.sink = sink;
+        }
+
+        /**
+         * Waits until the end of the stream is copied.
+         */
+        void awaitEnd() throws InterruptedException {
+            finished.await();
+        }
+
+        /**
+         * Copies at most one buffer of the bytes available in the stream, without blocking.
+         *
+         * @return true if bytes were available
+         */
+        private boolean copyAvailable() throws IOException {
+            int available = stream.available();
+            pending = available > bytes.remaining();
+            if (available <= 0) {
+                return false;
+            }
+            int read = stream.read(bytes.array(), bytes.position(), Math.min(available, bytes.remaining()));
+            if (read <= 0) {
+                pending = false;
+                return false;
+            }
+            bytes.position(bytes.position() + read);
+            decode(false);
+            return true;
+        }
+
+        private boolean hasProcessExited() {
+            try {
+                process.exitValue();
+                return true;
+            } catch (IllegalThreadStateException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Copies the stream until its end, blocking if needed.
+         */
+        private void drain() {
+            try {
+                int read;
+                while ((read = stream.read(bytes.array(), bytes.position(), bytes.remaining())) >= 0) {
+                    bytes.position(bytes.position() + read);
+                    decode(false);
+                }
+                decode(true);
+                finish(true);
+            } catch (IOException e) {
+                // nothing to do, the stream is closed
+                finish(false);
+            }
+        }
+
+        /**
+         * Decodes the bytes read and copies the characters, the bytes of an incomplete
+         * character are kept for the next read unless the end of the stream is reached.
+         */
+        private void decode(boolean endOfInput) {
+            bytes.flip();
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, chars, endOfInput);
+                copy();
+            } while (result.isOverflow());
+            if (endOfInput) {
+                while (decoder.flush(chars).isOverflow()) {
+                    copy();
+                }
+                copy();
+            }
+            bytes.compact();
+        }
+
+        private void copy() {
+            chars.flip();
+            while (chars.hasRemaining()) {
+                char c = chars.get();
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (c == '\n') {
+                        continue;
+                    }
+                }
+                if (c == '\n' || c == '\r') {
+                    sink.println(line);
+                    line.setLength(0);
+                    skipLineFeed = c == '\r';
+                } else {
+                    line.append(c);
+                }
+            }
+            chars.clear();
+        }
+
+        private void finish(boolean endOfStream) {
+            if (endOfStream && line.length() > 0) {
+                sink.println(line);
+                line.setLength(0);
+            }
+            finished.countDown();
+        }
+    }
+
+}
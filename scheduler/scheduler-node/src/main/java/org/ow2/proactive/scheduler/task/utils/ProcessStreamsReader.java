@@ -25,35 +25,30 @@
  */
 package org.ow2.proactive.scheduler.task.utils;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
 import java.io.PrintStream;
 
 
+/**
+ * Copies the output and error of a process to sinks, with the threads
+ * of the {@link ProcessStreamsPump} shared by all the processes of the node.
+ */
 public class ProcessStreamsReader {
 
-    private final Thread threadReadingOutput;
+    private final ProcessStreamsPump.Pipe outputPipe;
 
-    private final Thread threadReadingError;
+    private final ProcessStreamsPump.Pipe errorPipe;
 
     public ProcessStreamsReader(String name, Process process, PrintStream outputSink, PrintStream errorSink) {
-        BufferedReader processOutput = new BufferedReader(new InputStreamReader(process.getInputStream()));
-        BufferedReader processError = new BufferedReader(new InputStreamReader(process.getErrorStream()));
-        threadReadingOutput = new Thread(new ThreadReader(processOutput, outputSink), name + "_OUT");
-        threadReadingError = new Thread(new ThreadReader(processError, errorSink), name + "_ERR");
-        threadReadingOutput.start();
-        threadReadingError.start();
+        ProcessStreamsPump pump = ProcessStreamsPump.getInstance();
+        outputPipe = pump.pump(name + "_OUT", process, process.getInputStream(), outputSink);
+        errorPipe = pump.pump(name + "_ERR", process, process.getErrorStream(), errorSink);
     }
 
     public void close() {
         try {
             // wait for log flush
-            if (threadReadingOutput != null) {
-                threadReadingOutput.join();
-            }
-            if (threadReadingError != null) {
-                threadReadingError.join();
-            }
+            outputPipe.awaitEnd();
+            errorPipe.awaitEnd();
         } catch (InterruptedException ignored) {
             Thread.currentThread().interrupt();
         }
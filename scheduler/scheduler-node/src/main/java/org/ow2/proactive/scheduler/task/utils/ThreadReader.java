@@ -43,29 +43,14 @@ public class ThreadReader implements Runnable {
     }
 
     public void run() {
-        Thread readerThread = new Thread() {
-            @Override
-            public void run() {
-                String str;
+        String str;
 
-                try {
-                    while ((str = in.readLine()) != null) {
-                        out.println(str);
-                    }
-                } catch (IOException e) {
-                    //nothing to do, socket is dead
-                }
-            }
-        };
-        readerThread.setDaemon(true);
-        readerThread.start();
-
-        while (readerThread.isAlive()) {
-            try {
-                readerThread.join(1000);
-            } catch (InterruptedException e) {
-                break;
+        try {
+            while ((str = in.readLine()) != null) {
+                out.println(str);
             }
+        } catch (IOException e) {
+            //nothing to do, socket is dead
         }
     }
 
@@ -25,15 +25,30 @@
  */
 package org.ow2.proactive.scheduler.task.utils;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+import org.objectweb.proactive.utils.NamedThreadFactory;
 import org.ow2.proactive.scheduler.task.utils.task.termination.TaskKiller;
 
 
+/**
+ * Kills a task when its wall time is reached.
+ * <p>
+ * The wall times of all the tasks of the node are followed by a single thread,
+ * the tasks are killed by other threads as killing a task waits for its cleanup.
+ */
 public class WallTimer {
 
-    private Timer timer;
+    private static final ScheduledThreadPoolExecutor timer = createTimer();
+
+    private static final ExecutorService killers = Executors.newCachedThreadPool(new NamedThreadFactory("Wall time task killer",
+                                                                                                        true));
+
+    private ScheduledFuture<?> timeout;
 
     private final TaskKiller taskKiller;
 
@@ -48,19 +63,28 @@ public class WallTimer {
     public WallTimer(final long wallTimeDuration, final TaskKiller taskKiller) {
         this.wallTimeDuration = wallTimeDuration;
         this.taskKiller = taskKiller;
-        this.timer = new Timer();
     }
 
-    public void start() {
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("Wall timer", true));
+        // stopped wall timers must not keep their task until the wall time
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    public synchronized void start() {
         if (wallTimeDuration > 0) {
-            timer.schedule(new TimerTask() {
+            timeout = timer.schedule(new Runnable() {
                 @Override
                 public void run() {
-                    synchronized (this) {
-                        taskKiller.kill(TaskKiller.Status.WALLTIME_REACHED);
-                    }
+                    killers.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            taskKiller.kill(TaskKiller.Status.WALLTIME_REACHED);
+                        }
+                    });
                 }
-            }, wallTimeDuration);
+            }, wallTimeDuration, TimeUnit.MILLISECONDS);
         }
     }
 
@@ -69,8 +93,8 @@ public class WallTimer {
     }
 
     public synchronized void stop() {
-        if (timer != null) {
-            timer.cancel();
+        if (timeout != null) {
+            timeout.cancel(false);
         }
     }
 
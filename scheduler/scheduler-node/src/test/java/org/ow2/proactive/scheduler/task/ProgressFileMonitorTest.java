@@ -0,0 +1,174 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ow2.proactive.scripting.helper.progress.ProgressFile;
+
+
+/**
+ * Test cases associated to {@link ProgressFileMonitor}.
+ *
+ * @author ActiveEon Team
+ */
+public class ProgressFileMonitorTest {
+
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(20);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ProgressFileMonitor monitor;
+
+    @After
+    public void tearDown() {
+        if (monitor != null) {
+            monitor.close();
+        }
+    }
+
+    @Test
+    public void testProgressIsReportedWithWatchService() throws Exception {
+        monitor = new ProgressFileMonitor(true);
+        assumeTrue(monitor.isWatching());
+
+        checkProgressIsReported();
+    }
+
+    @Test
+    public void testProgressIsReportedWhenPolling() throws Exception {
+        monitor = new ProgressFileMonitor(false);
+        assertFalse(monitor.isWatching());
+
+        checkProgressIsReported();
+    }
+
+    @Test
+    public void testRapidWritesAreMerged() throws Exception {
+        monitor = new ProgressFileMonitor(true);
+        assumeTrue(monitor.isWatching());
+        ProgressFileReader reader = new ProgressFileReader(monitor);
+        final AtomicInteger notifications = new AtomicInteger();
+        reader.register(new ProgressFileReader.Listener() {
+            @Override
+            public void onProgressUpdate(int newValue) {
+                notifications.incrementAndGet();
+            }
+        });
+        assertTrue(reader.start(folder.getRoot(), "task.progress"));
+
+        for (int round = 0; round < 5; round++) {
+            for (int value = 1; value <= 100; value++) {
+                ProgressFile.setProgress(reader.getProgressFile(), value);
+            }
+        }
+        waitForProgress(reader, 100);
+
+        assertTrue("Got " + notifications.get() + " notifications", notifications.get() < 500);
+        reader.stop();
+    }
+
+    @Test
+    public void testStartingAndStoppingThousandsOfTasksDoesNotLeak() throws Exception {
+        monitor = new ProgressFileMonitor(true);
+        int threadsBefore = countMonitorThreads();
+
+        List<ProgressFileReader> running = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            ProgressFileReader reader = new ProgressFileReader(monitor);
+            // a few tasks share their working directory
+            File workingDir = new File(folder.getRoot(), "task" + (i % 1000));
+            assertTrue(reader.start(workingDir, "task" + i + ".progress"));
+            running.add(reader);
+            if (running.size() == 100) {
+                for (ProgressFileReader runningReader : running) {
+                    runningReader.stop();
+                }
+                running.clear();
+            }
+        }
+        for (ProgressFileReader runningReader : running) {
+            runningReader.stop();
+        }
+
+        assertEquals(0, monitor.getRegisteredFilesCount());
+        assertEquals(0, monitor.getWatchedDirectoriesCount());
+        assertTrue(countMonitorThreads() <= threadsBefore + 1);
+        for (File workingDir : folder.getRoot().listFiles()) {
+            assertEquals(0, workingDir.list().length);
+        }
+
+        // the monitor still works afterwards
+        checkProgressIsReported();
+    }
+
+    private void checkProgressIsReported() throws Exception {
+        ProgressFileReader reader = new ProgressFileReader(monitor);
+        assertTrue(reader.start(folder.newFolder(), "task.progress"));
+        assertEquals(1, monitor.getRegisteredFilesCount());
+
+        ProgressFile.setProgress(reader.getProgressFile(), 42);
+        waitForProgress(reader, 42);
+        ProgressFile.setProgress(reader.getProgressFile(), 100);
+        waitForProgress(reader, 100);
+
+        reader.stop();
+        assertEquals(0, monitor.getRegisteredFilesCount());
+    }
+
+    private static void waitForProgress(ProgressFileReader reader, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (reader.getProgress() != expected && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertEquals(expected, reader.getProgress());
+    }
+
+    private static int countMonitorThreads() {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if ("Progress files monitor".equals(thread.getName())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
@@ -25,17 +25,27 @@
  */
 package org.ow2.proactive.scheduler.task.context;
 
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.objectweb.proactive.core.node.NodeException;
+import org.ow2.proactive.scheduler.common.task.TaskResult;
 import org.ow2.proactive.scheduler.job.JobIdImpl;
 import org.ow2.proactive.scheduler.task.TaskIdImpl;
 import org.ow2.proactive.scheduler.task.TaskLauncherInitializer;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
 import org.ow2.proactive.scheduler.task.containers.ScriptExecutableContainer;
 import org.ow2.proactive.scripting.ForkEnvironmentScript;
 import org.ow2.proactive.scripting.InvalidScriptException;
@@ -45,6 +55,9 @@ import org.ow2.proactive.scripting.TaskScript;
 
 public class TaskContextSerializerTest {
 
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
     @Test
     public void testSerializeContextToFile() throws Exception {
         TaskContext taskContext = createTaskContext();
@@ -65,7 +78,74 @@ public class TaskContextSerializerTest {
         new TaskContextSerializer().serializeContext(taskContext, invalidDirectory);
     }
 
+    @Test
+    public void testDeserializeContextWithPreviousTaskResults() throws Throwable {
+        TaskResultImpl previousResult = new TaskResultImpl(TaskIdImpl.createTaskId(new JobIdImpl(1L, "job"),
+                                                                                   "previous",
+                                                                                   2L),
+                                                           "previous value",
+                                                           null,
+                                                           10);
+        previousResult.setPropagatedVariables(Collections.singletonMap("variable", "value".getBytes()));
+        TaskContext taskContext = createTaskContext(new TaskResult[] { previousResult, null });
+
+        TaskContextSerializer serializer = new TaskContextSerializer();
+        File serializedContextFile = serializer.serializeContext(taskContext, tmpFolder.getRoot());
+        assertThat(serializer.isSerializedContext(serializedContextFile), is(true));
+
+        TaskContext deserializedContext = serializer.deserializeContext(serializedContextFile);
+        assertThat(serializedContextFile.delete(), is(true));
+
+        assertThat(deserializedContext.getTaskId(), is(taskContext.getTaskId()));
+        TaskResult[] previousResults = deserializedContext.getPreviousTasksResults();
+        assertThat(previousResults.length, is(2));
+        assertThat(previousResults[1], is(nullValue()));
+        assertThat(previousResults[0], is(instanceOf(MappedTaskResult.class)));
+        assertThat(previousResults[0].getTaskId(), is(previousResult.getTaskId()));
+        assertThat(new String(previousResults[0].getPropagatedVariables().get("variable")), is("value"));
+        assertThat((String) previousResults[0].value(), is("previous value"));
+        assertThat(previousResults[0].getPropagatedVariables(),
+                   is(sameInstance(((MappedTaskResult) previousResults[0]).getResult().getPropagatedVariables())));
+    }
+
+    @Test
+    public void testSmallContextIsOnlySerializedInMemoryWhenEnabled() throws Exception {
+        TaskContext taskContext = createTaskContext();
+        TaskContextSerializer serializer = new TaskContextSerializer();
+
+        assertThat(serializer.serializeSmallContext(taskContext), is(nullValue()));
+
+        System.setProperty(TaskContextSerializer.STDIN_MAX_SIZE_PROPERTY, "10");
+        try {
+            assertThat(serializer.serializeSmallContext(taskContext), is(nullValue()));
+
+            System.setProperty(TaskContextSerializer.STDIN_MAX_SIZE_PROPERTY, "1000000");
+            byte[] serializedContext = serializer.serializeSmallContext(taskContext);
+            TaskContext deserializedContext = serializer.deserializeContext(new ByteArrayInputStream(serializedContext));
+            assertThat(deserializedContext.getTaskId(), is(taskContext.getTaskId()));
+        } finally {
+            System.clearProperty(TaskContextSerializer.STDIN_MAX_SIZE_PROPERTY);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testDeserializeContextRejectsOtherVersions() throws Exception {
+        TaskContextSerializer serializer = new TaskContextSerializer();
+        File serializedContextFile = serializer.serializeContext(createTaskContext(), tmpFolder.getRoot());
+        try (RandomAccessFile file = new RandomAccessFile(serializedContextFile, "rw")) {
+            file.seek(4);
+            file.writeInt(TaskContextSerializer.VERSION + 1);
+        }
+
+        serializer.deserializeContext(serializedContextFile);
+    }
+
     private TaskContext createTaskContext() throws NodeException, InvalidScriptException {
+        return createTaskContext(null);
+    }
+
+    private TaskContext createTaskContext(TaskResult[] previousTasksResults)
+            throws NodeException, InvalidScriptException {
         TaskLauncherInitializer taskLauncherInitializer = new TaskLauncherInitializer();
         taskLauncherInitializer.setTaskId(TaskIdImpl.createTaskId(new JobIdImpl(1L, "testSerializeContextToFile"),
                                                                   "testSerializeContextToFile",
@@ -75,7 +155,7 @@ public class TaskContextSerializerTest {
         return new TaskContext(new ScriptExecutableContainer(new TaskScript(new ForkEnvironmentScript(new SimpleScript("",
                                                                                                                        "python")))),
                                taskLauncherInitializer,
-                               null,
+                               previousTasksResults,
                                new NodeDataSpacesURIs(null, null, null, null, null, null),
                                null,
                                null);
@@ -0,0 +1,225 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+
+public class ProcessStreamsReaderTest {
+
+    private static final int LINES = 1000;
+
+    @Test
+    public void testLinesAreCopiedInOrder() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+
+        Process process = startJavaProcess(PrintingProcess.class);
+        ProcessStreamsReader reader = new ProcessStreamsReader("test",
+                                                               process,
+                                                               new PrintStream(output, true),
+                                                               new PrintStream(error, true));
+        process.waitFor();
+        reader.close();
+
+        List<String> expectedOutput = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            expectedOutput.add("output " + i);
+        }
+        expectedOutput.add("windows line");
+        expectedOutput.add("last line without line separator");
+        assertEquals(expectedOutput, lines(output));
+        assertEquals(Arrays.asList("error"), lines(error));
+    }
+
+    @Test
+    public void testSeveralProcessesShareThePump() throws Exception {
+        List<Process> processes = new ArrayList<>();
+        List<ProcessStreamsReader> readers = new ArrayList<>();
+        List<ByteArrayOutputStream> outputs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            Process process = startJavaProcess(PrintingProcess.class);
+            readers.add(new ProcessStreamsReader("test" + i,
+                                                 process,
+                                                 new PrintStream(output, true),
+                                                 new PrintStream(new ByteArrayOutputStream())));
+            processes.add(process);
+            outputs.add(output);
+        }
+        for (int i = 0; i < processes.size(); i++) {
+            processes.get(i).waitFor();
+            readers.get(i).close();
+            assertEquals(LINES + 2, lines(outputs.get(i)).size());
+        }
+        assertEquals(0, ProcessStreamsPump.getInstance().getPipesCount());
+    }
+
+    @Test(timeout = 60000)
+    public void testFloodingProcessDoesNotHoldThePump() throws Exception {
+        Process floodingProcess = startJavaProcess(FloodingProcess.class);
+        ProcessStreamsReader floodingReader = new ProcessStreamsReader("flooding",
+                                                                       floodingProcess,
+                                                                       new PrintStream(new ByteArrayOutputStream()),
+                                                                       new PrintStream(new ByteArrayOutputStream()));
+        try {
+            assertPrintingProcessIsCopied();
+        } finally {
+            floodingProcess.getOutputStream().close();
+            floodingProcess.waitFor();
+            floodingReader.close();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testSplitCharacterDoesNotBlockThePump() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final CountDownLatch ready = new CountDownLatch(1);
+        Process splitProcess = startJavaProcess(SplitCharacterProcess.class);
+        ProcessStreamsReader splitReader = new ProcessStreamsReader("split",
+                                                                    splitProcess,
+                                                                    new PrintStream(output, true),
+                                                                    new PrintStream(new OutputStream() {
+                                                                        @Override
+                                                                        public void write(int b) {
+                                                                            ready.countDown();
+                                                                        }
+                                                                    }));
+        // the first byte of the character is written before the error line, let the pump read it
+        ready.await();
+        Thread.sleep(ProcessStreamsPump.MAX_WAITING_TIME * 2);
+        try {
+            assertPrintingProcessIsCopied();
+        } finally {
+            splitProcess.getOutputStream().close();
+            splitProcess.waitFor();
+            splitReader.close();
+        }
+        ByteArrayOutputStream expectedOutput = new ByteArrayOutputStream();
+        new PrintStream(expectedOutput, true).println(new String(SplitCharacterProcess.CHARACTER,
+                                                                 Charset.defaultCharset()));
+        assertEquals(lines(expectedOutput), lines(output));
+    }
+
+    private static void assertPrintingProcessIsCopied() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Process process = startJavaProcess(PrintingProcess.class);
+        ProcessStreamsReader reader = new ProcessStreamsReader("printing",
+                                                               process,
+                                                               new PrintStream(output, true),
+                                                               new PrintStream(new ByteArrayOutputStream()));
+        process.waitFor();
+        reader.close();
+        assertEquals(LINES + 2, lines(output).size());
+    }
+
+    private static List<String> lines(ByteArrayOutputStream stream) {
+        String content = stream.toString();
+        if (content.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return Arrays.asList(content.split(System.lineSeparator()));
+    }
+
+    private static Process startJavaProcess(Class<?> mainClass) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        return new ProcessBuilder(java,
+                                  "-cp",
+                                  System.getProperty("java.class.path"),
+                                  mainClass.getName()).start();
+    }
+
+    public static class PrintingProcess {
+
+        public static void main(String[] args) {
+            for (int i = 0; i < LINES; i++) {
+                System.out.println("output " + i);
+            }
+            System.out.print("windows line\r\n");
+            System.out.print("last line without line separator");
+            System.out.flush();
+            System.err.println("error");
+        }
+    }
+
+    /**
+     * Writes until its standard input is closed.
+     */
+    public static class FloodingProcess {
+
+        public static void main(String[] args) throws IOException {
+            final byte[] line = "flooding output line\n".getBytes();
+            Thread writer = new Thread() {
+                @Override
+                public void run() {
+                    while (true) {
+                        System.out.write(line, 0, line.length);
+                    }
+                }
+            };
+            writer.setDaemon(true);
+            writer.start();
+            while (System.in.read() >= 0) {
+            }
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Writes the first byte of a two bytes UTF-8 character, a line on its error stream
+     * and the rest of the character once its standard input is closed.
+     */
+    public static class SplitCharacterProcess {
+
+        static final byte[] CHARACTER = { (byte) 0xC3, (byte) 0xA9 };
+
+        public static void main(String[] args) throws IOException {
+            OutputStream output = System.out;
+            output.write(CHARACTER[0]);
+            output.flush();
+            System.err.println("ready");
+            while (System.in.read() >= 0) {
+            }
+            output.write(CHARACTER[1]);
+            output.write('\n');
+            output.flush();
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.utils;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Test;
+import org.ow2.proactive.scheduler.task.utils.task.termination.TaskKiller;
+
+
+public class WallTimerTest {
+
+    @Test
+    public void testTaskIsKilledWhenWallTimeIsReached() {
+        TaskKiller taskKiller = mock(TaskKiller.class);
+        WallTimer wallTimer = new WallTimer(100, taskKiller);
+
+        wallTimer.start();
+
+        verify(taskKiller, timeout(5000)).kill(TaskKiller.Status.WALLTIME_REACHED);
+    }
+
+    @Test
+    public void testStoppedTimerDoesNotKillTask() throws Exception {
+        TaskKiller taskKiller = mock(TaskKiller.class);
+        WallTimer wallTimer = new WallTimer(200, taskKiller);
+
+        wallTimer.start();
+        wallTimer.stop();
+        Thread.sleep(500);
+
+        verify(taskKiller, never()).kill(TaskKiller.Status.WALLTIME_REACHED);
+    }
+
+    @Test
+    public void testNoWallTime() throws Exception {
+        TaskKiller taskKiller = mock(TaskKiller.class);
+        WallTimer wallTimer = new WallTimer(0, taskKiller);
+
+        wallTimer.start();
+        Thread.sleep(200);
+        wallTimer.stop();
+
+        verify(taskKiller, never()).kill(TaskKiller.Status.WALLTIME_REACHED);
+    }
+
+}
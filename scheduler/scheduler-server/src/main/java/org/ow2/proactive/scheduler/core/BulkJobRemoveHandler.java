@@ -0,0 +1,158 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.job.JobInfoImpl;
+import org.ow2.proactive.scheduler.util.ServerJobAndTaskLogs;
+
+import com.google.common.collect.Lists;
+
+
+/**
+ * Removes several jobs at once.
+ * <p>
+ * Unlike {@link JobRemoveHandler}, jobs are never loaded with their tasks: only their
+ * status and owner are read, then the jobs are removed chunk by chunk with set based
+ * queries, one transaction and one {@link SchedulerStateUpdate#jobsRemoved(List)}
+ * notification per chunk. Job logs are removed in the background.
+ *
+ * @author ActiveEon Team
+ */
+public class BulkJobRemoveHandler implements Callable<Boolean> {
+
+    private static final Logger logger = Logger.getLogger(SchedulingService.class);
+
+    private final List<JobId> jobIds;
+
+    private final SchedulingService service;
+
+    private final int chunkSize;
+
+    public BulkJobRemoveHandler(SchedulingService service, List<JobId> jobIds) {
+        this(service, jobIds, PASchedulerProperties.JOB_REMOVE_CHUNK_SIZE.getValueAsInt());
+    }
+
+    BulkJobRemoveHandler(SchedulingService service, List<JobId> jobIds, int chunkSize) {
+        this.service = service;
+        this.jobIds = jobIds;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    private boolean isInFinishedState(JobStatus status) {
+        return status == JobStatus.CANCELED || status == JobStatus.FAILED || status == JobStatus.KILLED;
+    }
+
+    /**
+     * @return true if all the jobs were removed, false if some of them were already removed or unknown
+     */
+    @Override
+    public Boolean call() {
+        long start = System.currentTimeMillis();
+
+        SchedulerDBManager dbManager = service.getInfrastructure().getDBManager();
+        boolean removeFromDb = PASchedulerProperties.JOB_REMOVE_FROM_DB.getValueAsBoolean();
+
+        int removed = 0;
+        for (List<JobId> chunk : Lists.partition(jobIds, chunkSize)) {
+            removed += removeChunk(dbManager, chunk, removeFromDb);
+        }
+
+        if (logger.isInfoEnabled()) {
+            logger.info(removed + " jobs removed out of " + jobIds.size() + " in " +
+                        (System.currentTimeMillis() - start) + "ms");
+        }
+
+        service.wakeUpSchedulingThread();
+
+        return removed == jobIds.size();
+    }
+
+    private int removeChunk(SchedulerDBManager dbManager, List<JobId> chunk, boolean removeFromDb) {
+        Map<JobId, JobInfoImpl> jobsInfo = new HashMap<>(chunk.size(), 1f);
+        for (JobInfoImpl jobInfo : dbManager.loadJobsStatusIfNotRemoved(chunk)) {
+            jobsInfo.put(jobInfo.getJobId(), jobInfo);
+        }
+
+        for (JobId jobId : chunk) {
+            JobInfoImpl jobInfo = jobsInfo.get(jobId);
+            TerminationData terminationData;
+            // if the context is not in sync with the database or the job was already finished
+            // we just remove it from the context
+            if (jobInfo == null || isInFinishedState(jobInfo.getStatus())) {
+                terminationData = service.getJobs().removeJob(jobId);
+            } else {
+                terminationData = service.getJobs().killJob(jobId);
+            }
+            service.submitTerminationDataHandler(terminationData);
+        }
+
+        if (jobsInfo.isEmpty()) {
+            return 0;
+        }
+
+        List<JobId> removedJobIds = new ArrayList<>(jobsInfo.keySet());
+        long removedTime = System.currentTimeMillis();
+
+        dbManager.removeJobs(removedJobIds, removedTime, removeFromDb);
+
+        removeLogs(removedJobIds);
+
+        List<JobInfo> removedJobs = new ArrayList<>(jobsInfo.size());
+        for (JobInfoImpl jobInfo : jobsInfo.values()) {
+            jobInfo.setRemovedTime(removedTime);
+            removedJobs.add(jobInfo);
+        }
+
+        // send a single event to the front-end for the whole chunk
+        service.getListener().jobsRemoved(removedJobs);
+
+        return removedJobs.size();
+    }
+
+    private void removeLogs(final List<JobId> removedJobIds) {
+        service.getInfrastructure().getInternalOperationsThreadPool().submit(new Runnable() {
+            @Override
+            public void run() {
+                for (JobId jobId : removedJobIds) {
+                    ServerJobAndTaskLogs.remove(jobId);
+                }
+            }
+        });
+    }
+
+}
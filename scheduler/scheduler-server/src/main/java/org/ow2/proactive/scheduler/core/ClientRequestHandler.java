@@ -26,7 +26,12 @@
 package org.ow2.proactive.scheduler.core;
 
 import java.lang.reflect.Method;
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -36,7 +41,11 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.core.UniqueID;
 import org.objectweb.proactive.utils.NamedThreadFactory;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
 import org.ow2.proactive.scheduler.common.SchedulerEventListener;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.threading.ReifiedMethodCall;
 
@@ -86,11 +95,23 @@ public class ClientRequestHandler {
     private final SchedulerEventListener client;
 
     /** Events queue to be stored */
-    private final LinkedList<ReifiedMethodCall> eventCallsToStore;
+    private final Deque<ReifiedMethodCall> eventCallsToStore;
+
+    /** Queued progress events by task, a newer progress replaces the queued one */
+    private final Map<TaskId, ReifiedMethodCall> queuedProgressEvents;
 
     /** Cross reference to the front-end : used to mark client as dirty */
     private final SchedulerFrontendState frontend;
 
+    /** Maximum number of events waiting to be sent to the client before it is evicted */
+    private final int queueSize;
+
+    /** Maximum number of events sent to the client by a single task of the thread pool */
+    private final int batchSize;
+
+    /** Set when the client did not consume its events fast enough */
+    private boolean evicted;
+
     /**
      * Create a new instance of ClientRequestHandler
      *
@@ -99,40 +120,131 @@ public class ClientRequestHandler {
      * @param client the reference on the client itself.
      */
     public ClientRequestHandler(SchedulerFrontendState frontend, UniqueID clientId, SchedulerEventListener client) {
+        this(frontend,
+             clientId,
+             client,
+             PASchedulerProperties.SCHEDULER_LISTENERS_QUEUE_SIZE.getValueAsInt(),
+             PASchedulerProperties.SCHEDULER_LISTENERS_BATCH_SIZE.getValueAsInt());
+    }
+
+    ClientRequestHandler(SchedulerFrontendState frontend, UniqueID clientId, SchedulerEventListener client,
+            int queueSize, int batchSize) {
         this.client = client;
         this.frontend = frontend;
         this.clientId = clientId;
-        this.eventCallsToStore = new LinkedList<>();
+        this.queueSize = queueSize;
+        this.batchSize = batchSize;
+        this.eventCallsToStore = new ArrayDeque<>();
+        this.queuedProgressEvents = new HashMap<>();
     }
 
     /**
-     * Add an event to the request queue of this client
+     * Add an event to the request queue of this client.
+     * <p>
+     * A task progress event replaces the progress of the same task still waiting in the queue.
+     * If the queue is full, the client is considered too slow: its pending events are dropped
+     * and it is removed from the front-end.
      *
      * @param method the method to be called (must be a method implemented by the client)
      * @param args the argument to be passed to the method
      */
     public void addEvent(Method method, Object... args) {
         synchronized (eventCallsToStore) {
-            eventCallsToStore.add(new ReifiedMethodCall(method, args));
+            if (evicted) {
+                return;
+            }
+            TaskId progressTaskId = getProgressTaskId(args);
+            if (progressTaskId != null) {
+                ReifiedMethodCall queued = queuedProgressEvents.get(progressTaskId);
+                if (queued != null) {
+                    queued.setArguments(args);
+                    return;
+                }
+            }
+            if (eventCallsToStore.size() >= queueSize) {
+                evict();
+                return;
+            }
+            ReifiedMethodCall methodCall = new ReifiedMethodCall(method, args);
+            eventCallsToStore.add(methodCall);
+            if (progressTaskId != null) {
+                queuedProgressEvents.put(progressTaskId, methodCall);
+            }
             requestLeft.incrementAndGet();
         }
         tryStartTask();
     }
 
+    /**
+     * @return the number of events waiting to be sent to this client
+     */
+    int getQueueSize() {
+        synchronized (eventCallsToStore) {
+            return eventCallsToStore.size();
+        }
+    }
+
+    boolean isEvicted() {
+        synchronized (eventCallsToStore) {
+            return evicted;
+        }
+    }
+
+    private static TaskId getProgressTaskId(Object[] args) {
+        if (args.length == 1 && args[0] instanceof NotificationData) {
+            NotificationData<?> notification = (NotificationData<?>) args[0];
+            if (notification.getEventType() == SchedulerEvent.TASK_PROGRESS &&
+                notification.getData() instanceof TaskInfo) {
+                return ((TaskInfo) notification.getData()).getTaskId();
+            }
+        }
+        return null;
+    }
+
+    private void evict() {
+        logger.warn("Client " + clientId + " has " + eventCallsToStore.size() +
+                    " events waiting to be sent, removing it as it does not consume events fast enough");
+        evicted = true;
+        releaseRequests(eventCallsToStore.size());
+        eventCallsToStore.clear();
+        queuedProgressEvents.clear();
+        if (frontend != null) {
+            frontend.markAsDirty(clientId);
+        }
+    }
+
+    private static void releaseRequests(int count) {
+        //unlock shutdown request if needed
+        if (count > 0 && requestLeft.addAndGet(-count) == 0) {
+            synchronized (requestLeft) {
+                //inner synchronized OK since only used during termination (= no new event)
+                requestLeft.notify();
+            }
+        }
+    }
+
     /**
      * Try to create a task with new events to send, and start it in the thread pool.
      * Can do nothing if some previous events are currently being sent.
      *
      * Can be called from two different thread, even if it is private!
      */
-    @SuppressWarnings("unchecked")
     private void tryStartTask() {
         synchronized (eventCallsToStore) {
             if (eventCallsToStore.size() > 0 && !busy.get()) {
-                LinkedList<ReifiedMethodCall> tasks = (LinkedList<ReifiedMethodCall>) eventCallsToStore.clone();
-                eventCallsToStore.clear();
+                // send the queued events by batches so that a client with many events
+                // does not keep a thread of the pool for too long
+                List<ReifiedMethodCall> batch = new ArrayList<>(Math.min(eventCallsToStore.size(), batchSize));
+                while (!eventCallsToStore.isEmpty() && batch.size() < batchSize) {
+                    ReifiedMethodCall methodCall = eventCallsToStore.poll();
+                    TaskId progressTaskId = getProgressTaskId(methodCall.getArguments());
+                    if (progressTaskId != null) {
+                        queuedProgressEvents.remove(progressTaskId);
+                    }
+                    batch.add(methodCall);
+                }
                 busy.set(true);
-                threadPoolForNetworkCalls.execute(new TaskRunnable(tasks));
+                threadPoolForNetworkCalls.execute(new TaskRunnable(batch));
             }
         }
     }
@@ -146,14 +258,14 @@ public class ClientRequestHandler {
     class TaskRunnable implements Runnable {
 
         /** Events queue to be sent */
-        private final LinkedList<ReifiedMethodCall> eventCallsToSend;
+        private final List<ReifiedMethodCall> eventCallsToSend;
 
         /**
          * Create a new instance of Task
          *
-         * @param eventCallsToSend
+         * @param eventCalls
          */
-        public TaskRunnable(LinkedList<ReifiedMethodCall> eventCalls) {
+        public TaskRunnable(List<ReifiedMethodCall> eventCalls) {
             if (eventCalls == null || eventCalls.size() == 0) {
                 throw new IllegalArgumentException("List argument must not be null nor empty !");
             }
@@ -165,16 +277,9 @@ public class ClientRequestHandler {
          */
         public void run() {
             try {
-                //unlock shutdown request if needed
-                if (requestLeft.addAndGet(-eventCallsToSend.size()) == 0) {
-                    synchronized (requestLeft) {
-                        //inner synchronized OK since only used during termination (= no new event)
-                        requestLeft.notify();
-                    }
-                }
+                releaseRequests(eventCallsToSend.size());
                 //loop on the list and send events
-                while (!eventCallsToSend.isEmpty()) {
-                    ReifiedMethodCall methodCall = eventCallsToSend.removeFirst();
+                for (ReifiedMethodCall methodCall : eventCallsToSend) {
                     methodCall.getMethod().invoke(client, methodCall.getArguments());
                 }
                 busy.set(false);
@@ -185,7 +290,9 @@ public class ClientRequestHandler {
                     logger.debug("Error during sending event to the cleint " + clientId, t);
                 }
                 //remove this client from Frontend (client dead or timed out)
-                frontend.markAsDirty(clientId);
+                if (frontend != null) {
+                    frontend.markAsDirty(clientId);
+                }
                 //do not set busy here, we don't want to wait N times for the network timeout
                 //so when client is dead keep busy to avoid re-execution of this run method by another thread
                 busy.set(false);
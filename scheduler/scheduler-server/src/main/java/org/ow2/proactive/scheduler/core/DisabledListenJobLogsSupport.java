@@ -38,6 +38,10 @@ public class DisabledListenJobLogsSupport extends ListenJobLogsSupport {
     void listenJobLogs(JobId jobId, AppenderProvider appenderProvider) throws UnknownJobException {
     }
 
+    @Override
+    void stopListeningJobLogs(JobId jobId, AppenderProvider appenderProvider) {
+    }
+
     @Override
     void activeLogsIfNeeded(JobId jobId, TaskLauncher launcher) throws LogForwardingException {
     }
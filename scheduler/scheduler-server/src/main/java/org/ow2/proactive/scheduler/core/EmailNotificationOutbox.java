@@ -0,0 +1,425 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.utils.NamedThreadFactory;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.util.SendMail;
+
+
+/**
+ * Bounded outbox of notification emails, sent in the background by a pool of sender threads
+ * so that a slow or unreachable SMTP relay never holds the scheduler frontend.
+ * <p>
+ * Notifications to the same recipient received within the digest delay are sent in a single
+ * digest email. Emails which cannot be sent are retried with an exponential backoff. Once picked
+ * up by a sender thread, emails are kept in an optional spool directory until they are sent or given up,
+ * so that they survive a restart; the emails still queued are spooled when the outbox is shut down.
+ *
+ * @author ActiveEon Team
+ */
+public class EmailNotificationOutbox {
+
+    private static final Logger logger = Logger.getLogger(EmailNotificationOutbox.class);
+
+    private static final String SPOOL_FILE_EXTENSION = ".email";
+
+    private static final String DIGEST_SUBJECT_TEMPLATE = "ProActive Jobs : %d notifications";
+
+    private final SendMail sender;
+
+    private final BlockingQueue<Email> outbox;
+
+    private final int senderThreads;
+
+    private final long digestDelay;
+
+    private final int digestSize;
+
+    private final int maxAttempts;
+
+    private final long retryDelay;
+
+    private final File spoolDir;
+
+    private ExecutorService senders;
+
+    private ScheduledExecutorService retries;
+
+    private volatile boolean shutdown;
+
+    /**
+     * @param sender the email sender
+     * @param capacity maximum number of emails waiting to be sent
+     * @param senderThreads number of threads sending emails
+     * @param digestDelay time in milliseconds during which emails to the same recipient are gathered
+     * @param digestSize maximum number of emails gathered in a digest
+     * @param maxAttempts number of attempts to send an email before giving up
+     * @param retryDelay delay in milliseconds before the first retry, doubled after each attempt
+     * @param spoolDir directory where emails are kept until they are sent, null to keep them in memory only
+     */
+    public EmailNotificationOutbox(SendMail sender, int capacity, int senderThreads, long digestDelay, int digestSize,
+            int maxAttempts, long retryDelay, File spoolDir) {
+        this.sender = sender;
+        this.outbox = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.senderThreads = Math.max(1, senderThreads);
+        this.digestDelay = Math.max(0, digestDelay);
+        this.digestSize = Math.max(1, digestSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelay = Math.max(0, retryDelay);
+        this.spoolDir = spoolDir;
+        recoverSpool();
+    }
+
+    public static EmailNotificationOutbox createUsingProperties() {
+        String spool = PASchedulerProperties.EMAIL_NOTIFICATIONS_SPOOL_DIR.getValueAsStringOrNull();
+        File spoolDir = null;
+        if (spool != null && !spool.trim().isEmpty()) {
+            spoolDir = new File(PASchedulerProperties.getAbsolutePath(spool.trim()));
+        }
+        return new EmailNotificationOutbox(new SendMail(),
+                                           PASchedulerProperties.EMAIL_NOTIFICATIONS_OUTBOX_SIZE.getValueAsInt(),
+                                           PASchedulerProperties.EMAIL_NOTIFICATIONS_SENDER_THREADS.getValueAsInt(),
+                                           PASchedulerProperties.EMAIL_NOTIFICATIONS_DIGEST_DELAY.getValueAsInt(),
+                                           PASchedulerProperties.EMAIL_NOTIFICATIONS_DIGEST_SIZE.getValueAsInt(),
+                                           PASchedulerProperties.EMAIL_NOTIFICATIONS_MAX_ATTEMPTS.getValueAsInt(),
+                                           TimeUnit.SECONDS.toMillis(PASchedulerProperties.EMAIL_NOTIFICATIONS_RETRY_DELAY.getValueAsInt()),
+                                           spoolDir);
+    }
+
+    /**
+     * Queues an email, never blocks.
+     *
+     * @return false if the email was dropped because the outbox is full or shut down
+     */
+    public boolean offer(Email email) {
+        if (shutdown) {
+            return false;
+        }
+        if (!outbox.offer(email)) {
+            logger.warn("Notification email outbox is full, dropping email to " + email.getTo() + ": " +
+                        email.getSubject());
+            return false;
+        }
+        start();
+        return true;
+    }
+
+    /**
+     * @return the number of emails waiting to be sent, not counting the ones waiting for a retry
+     */
+    public int size() {
+        return outbox.size();
+    }
+
+    /**
+     * Stops the sender threads, emails not sent yet stay in the spool directory.
+     */
+    public synchronized void shutdown() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        if (senders != null) {
+            senders.shutdownNow();
+            retries.shutdownNow();
+        }
+        List<Email> queued = new ArrayList<>();
+        outbox.drainTo(queued);
+        spool(queued);
+    }
+
+    private synchronized void start() {
+        if (senders != null || shutdown) {
+            return;
+        }
+        senders = Executors.newFixedThreadPool(senderThreads, new NamedThreadFactory("EmailNotificationSender", true));
+        retries = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("EmailNotificationRetry", true));
+        for (int i = 0; i < senderThreads; i++) {
+            senders.execute(new Runnable() {
+                @Override
+                public void run() {
+                    drain();
+                }
+            });
+        }
+    }
+
+    private void drain() {
+        List<Email> emails = new ArrayList<>();
+        try {
+            while (!shutdown) {
+                emails = new ArrayList<>();
+                emails.add(outbox.take());
+
+                // gather the emails of a burst, to send digests
+                long deadline = System.currentTimeMillis() + digestDelay;
+                long remaining = digestDelay;
+                while (emails.size() < digestSize && remaining > 0) {
+                    Email email = outbox.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (email == null) {
+                        break;
+                    }
+                    emails.add(email);
+                    remaining = deadline - System.currentTimeMillis();
+                }
+                outbox.drainTo(emails, Math.max(0, digestSize - emails.size()));
+                spool(emails);
+
+                for (List<Email> digest : byRecipient(emails)) {
+                    send(digest);
+                }
+            }
+        } catch (InterruptedException e) {
+            // keep the emails gathered for the next restart
+            spool(emails);
+            logger.debug("Notification email sender stopped");
+        }
+    }
+
+    private List<List<Email>> byRecipient(List<Email> emails) {
+        Map<String, List<Email>> byRecipient = new LinkedHashMap<>();
+        for (Email email : emails) {
+            List<Email> recipientEmails = byRecipient.get(email.getTo());
+            if (recipientEmails == null) {
+                recipientEmails = new ArrayList<>();
+                byRecipient.put(email.getTo(), recipientEmails);
+            }
+            recipientEmails.add(email);
+        }
+        List<List<Email>> digests = new ArrayList<>();
+        for (List<Email> recipientEmails : byRecipient.values()) {
+            for (int i = 0; i < recipientEmails.size(); i += digestSize) {
+                digests.add(recipientEmails.subList(i, Math.min(recipientEmails.size(), i + digestSize)));
+            }
+        }
+        return digests;
+    }
+
+    private void send(List<Email> emails) {
+        Email first = emails.get(0);
+        try {
+            if (emails.size() == 1) {
+                sender.sender(first.getTo(), first.getSubject(), first.getBody());
+            } else {
+                sender.sender(first.getTo(), digestSubject(emails), digestBody(emails));
+            }
+            for (Email email : emails) {
+                unspool(email);
+            }
+            logger.debug("Sent " + emails.size() + " notifications to " + first.getTo());
+        } catch (RuntimeException e) {
+            if (shutdown) {
+                // still in the spool, will be sent after a restart
+                return;
+            }
+            logger.warn("Failed to send " + emails.size() + " notifications to " + first.getTo() + ": " +
+                        e.getMessage());
+            logger.trace("Stack trace:", e);
+            for (Email email : emails) {
+                retry(email);
+            }
+        }
+    }
+
+    private void retry(final Email email) {
+        int attempts = ++email.attempts;
+        if (attempts >= maxAttempts) {
+            logger.warn("Giving up sending email to " + email.getTo() + " after " + attempts + " attempts: " +
+                        email.getSubject());
+            unspool(email);
+            return;
+        }
+        long delay = retryDelay << Math.min(attempts - 1, 20);
+        try {
+            retries.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (!outbox.offer(email)) {
+                        logger.warn("Notification email outbox is full, dropping email to " + email.getTo() +
+                                    ": " + email.getSubject());
+                        unspool(email);
+                    }
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // shut down, still in the spool
+        }
+    }
+
+    static String digestSubject(List<Email> emails) {
+        return String.format(DIGEST_SUBJECT_TEMPLATE, emails.size());
+    }
+
+    static String digestBody(List<Email> emails) {
+        StringBuilder body = new StringBuilder();
+        for (Email email : emails) {
+            if (body.length() > 0) {
+                body.append("\n\n");
+            }
+            body.append(email.getSubject()).append('\n').append(email.getBody());
+        }
+        return body.toString();
+    }
+
+    private void spool(List<Email> emails) {
+        if (spoolDir == null) {
+            return;
+        }
+        for (Email email : emails) {
+            if (email.spooled) {
+                continue;
+            }
+            File file = spoolFile(email);
+            try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
+                out.writeObject(email);
+                email.spooled = true;
+            } catch (IOException e) {
+                logger.warn("Cannot spool notification email to " + file, e);
+            }
+        }
+    }
+
+    private void unspool(Email email) {
+        if (spoolDir != null) {
+            File file = spoolFile(email);
+            if (file.exists() && !file.delete()) {
+                logger.warn("Cannot delete spooled notification email " + file);
+            }
+        }
+    }
+
+    private File spoolFile(Email email) {
+        return new File(spoolDir, email.getId() + SPOOL_FILE_EXTENSION);
+    }
+
+    private void recoverSpool() {
+        if (spoolDir == null) {
+            return;
+        }
+        if (!spoolDir.isDirectory() && !spoolDir.mkdirs()) {
+            logger.warn("Cannot create notification email spool directory " + spoolDir);
+            return;
+        }
+        File[] files = spoolDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        int recovered = 0;
+        for (File file : files) {
+            if (!file.getName().endsWith(SPOOL_FILE_EXTENSION)) {
+                continue;
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
+                Email email = (Email) in.readObject();
+                email.spooled = true;
+                if (outbox.offer(email)) {
+                    recovered++;
+                } else {
+                    logger.warn("Notification email outbox is full, keeping " + file + " for the next restart");
+                }
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                logger.warn("Removing unreadable spooled notification email " + file, e);
+                if (!file.delete()) {
+                    logger.warn("Cannot delete spooled notification email " + file);
+                }
+            }
+        }
+        if (recovered > 0) {
+            logger.info("Recovered " + recovered + " notification emails from " + spoolDir);
+            start();
+        }
+    }
+
+    /**
+     * A notification email waiting to be sent.
+     */
+    public static final class Email implements Serializable {
+
+        private final String id;
+
+        private final String to;
+
+        private final String subject;
+
+        private final String body;
+
+        private int attempts;
+
+        private transient volatile boolean spooled;
+
+        public Email(String to, String subject, String body) {
+            this.id = System.currentTimeMillis() + "-" + UUID.randomUUID();
+            this.to = to;
+            this.subject = subject;
+            this.body = body;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getTo() {
+            return to;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+    }
+
+}
@@ -26,7 +26,9 @@
 package org.ow2.proactive.scheduler.core;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.log4j.Appender;
@@ -58,6 +60,9 @@ class EnabledListenJobLogsSupport extends ListenJobLogsSupport {
 
     private final Set<JobId> jobsToBeLogged = new HashSet<>();
 
+    /* the appenders of the listeners of each job, by appender provider */
+    private final Map<JobId, Map<AppenderProvider, Appender>> clientAppenders = new HashMap<>();
+
     private final SchedulerDBManager dbManager;
 
     private final LogForwardingService lfs;
@@ -86,6 +91,7 @@ class EnabledListenJobLogsSupport extends ListenJobLogsSupport {
     @Override
     synchronized void cleanLoggers(JobId jobId) {
         jobsToBeLogged.remove(jobId);
+        clientAppenders.remove(jobId);
         jlogger.debug(jobId, "cleaning loggers");
         String loggerName = Log4JTaskLogs.getLoggerName(jobId);
         lfs.removeAllAppenders(loggerName);
@@ -113,7 +119,15 @@ class EnabledListenJobLogsSupport extends ListenJobLogsSupport {
         }
 
         boolean logIsAlreadyInitialized = jobsToBeLogged.contains(jobId);
+        // a listener listening again replaces its previous appender, logs are not received twice
+        removeClientAppender(jobId, appenderProvider);
         initJobLogging(jobId, clientAppender);
+        Map<AppenderProvider, Appender> jobAppenders = clientAppenders.get(jobId);
+        if (jobAppenders == null) {
+            jobAppenders = new HashMap<>();
+            clientAppenders.put(jobId, jobAppenders);
+        }
+        jobAppenders.put(appenderProvider, clientAppender);
 
         JobResult result = dbManager.loadJobResult(jobId);
         if (result == null) {
@@ -145,6 +159,27 @@ class EnabledListenJobLogsSupport extends ListenJobLogsSupport {
         }
     }
 
+    @Override
+    synchronized void stopListeningJobLogs(JobId jobId, AppenderProvider appenderProvider) {
+        if (removeClientAppender(jobId, appenderProvider)) {
+            jlogger.info(jobId, "stopped listening logs");
+        }
+    }
+
+    private boolean removeClientAppender(JobId jobId, AppenderProvider appenderProvider) {
+        Map<AppenderProvider, Appender> jobAppenders = clientAppenders.get(jobId);
+        Appender appender = jobAppenders == null ? null : jobAppenders.remove(appenderProvider);
+        if (appender == null) {
+            return false;
+        }
+        if (jobAppenders.isEmpty()) {
+            clientAppenders.remove(jobId);
+        }
+        lfs.removeAppender(Log4JTaskLogs.getLoggerName(jobId), appender);
+        appender.close();
+        return true;
+    }
+
     private void initJobLogging(JobId jobId, Appender clientAppender) {
         jobsToBeLogged.add(jobId);
         lfs.addAppender(Log4JTaskLogs.getLoggerName(jobId), clientAppender);
@@ -0,0 +1,152 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.job.UserIdentificationImpl;
+
+
+/**
+ * Index of the users listening to the scheduler events, by event type and by job owner for
+ * the users listening to their own events only.
+ * <p>
+ * Dispatching an event only iterates over the interested listeners instead of every connected
+ * user. The index is rebuilt when a listener is added or removed, which is rare compared to
+ * events, and is read without locking.
+ *
+ * @author ActiveEon Team
+ */
+class EventSubscriptions {
+
+    private final Set<ListeningUser> listeningUsers = new LinkedHashSet<>();
+
+    private volatile Map<SchedulerEvent, Subscribers> index = new EnumMap<>(SchedulerEvent.class);
+
+    /**
+     * Adds or updates the subscription of a user, according to its event types and
+     * "my events only" settings.
+     */
+    synchronized void subscribe(ListeningUser listeningUser) {
+        listeningUsers.add(listeningUser);
+        rebuild();
+    }
+
+    synchronized void unsubscribe(ListeningUser listeningUser) {
+        if (listeningUsers.remove(listeningUser)) {
+            rebuild();
+        }
+    }
+
+    synchronized int size() {
+        return listeningUsers.size();
+    }
+
+    /**
+     * @return the users subscribed to the given event type, whatever the owner of the event
+     */
+    List<ListeningUser> getSubscribers(SchedulerEvent eventType) {
+        Subscribers subscribers = index.get(eventType);
+        return subscribers == null ? Collections.<ListeningUser> emptyList() : subscribers.all;
+    }
+
+    /**
+     * @return the users subscribed to the given event type, either for the events of every
+     *         user or for their own events if they are the given owner
+     */
+    List<ListeningUser> getSubscribers(SchedulerEvent eventType, String owner) {
+        Subscribers subscribers = index.get(eventType);
+        if (subscribers == null) {
+            return Collections.emptyList();
+        }
+        List<ListeningUser> ownerSubscribers = subscribers.byOwner.get(owner);
+        if (ownerSubscribers == null) {
+            return subscribers.allOwners;
+        }
+        if (subscribers.allOwners.isEmpty()) {
+            return ownerSubscribers;
+        }
+        List<ListeningUser> result = new ArrayList<>(subscribers.allOwners.size() + ownerSubscribers.size());
+        result.addAll(subscribers.allOwners);
+        result.addAll(ownerSubscribers);
+        return result;
+    }
+
+    private void rebuild() {
+        Map<SchedulerEvent, Subscribers> newIndex = new EnumMap<>(SchedulerEvent.class);
+        for (ListeningUser listeningUser : listeningUsers) {
+            UserIdentificationImpl user = listeningUser.getUser();
+            // no event type means every event
+            Collection<SchedulerEvent> eventTypes = user.getUserEvents() == null ? Arrays.asList(SchedulerEvent.values())
+                                                                                 : user.getUserEvents();
+            for (SchedulerEvent eventType : eventTypes) {
+                Subscribers subscribers = newIndex.get(eventType);
+                if (subscribers == null) {
+                    subscribers = new Subscribers();
+                    newIndex.put(eventType, subscribers);
+                }
+                subscribers.add(listeningUser, user.isMyEventsOnly() ? user.getUsername() : null);
+            }
+        }
+        index = newIndex;
+    }
+
+    private static final class Subscribers {
+
+        /** every subscriber */
+        private final List<ListeningUser> all = new ArrayList<>();
+
+        /** subscribers listening to the events of every user */
+        private final List<ListeningUser> allOwners = new ArrayList<>();
+
+        /** subscribers listening to their own events only, by user name */
+        private final Map<String, List<ListeningUser>> byOwner = new HashMap<>();
+
+        void add(ListeningUser listeningUser, String owner) {
+            all.add(listeningUser);
+            if (owner == null) {
+                allOwners.add(listeningUser);
+            } else {
+                List<ListeningUser> ownerSubscribers = byOwner.get(owner);
+                if (ownerSubscribers == null) {
+                    ownerSubscribers = new ArrayList<>();
+                    byOwner.put(owner, ownerSubscribers);
+                }
+                ownerSubscribers.add(listeningUser);
+            }
+        }
+    }
+}
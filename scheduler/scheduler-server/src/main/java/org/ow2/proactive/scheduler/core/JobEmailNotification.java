@@ -58,6 +58,8 @@ public class JobEmailNotification {
 
     private static final JobLogger jlogger = JobLogger.getInstance();
 
+    private static volatile String hostname;
+
     private static final String SUBJECT_TEMPLATE = "ProActive Job %s : %s";
 
     private static final String BODY_TEMPLATE = "Job ID: %s\n" + "New Status: %s\n\n" + "--\n" +
@@ -75,6 +77,24 @@ public class JobEmailNotification {
     }
 
     public boolean doCheckAndSend() throws JobEmailNotificationException {
+        EmailNotificationOutbox.Email email = createEmail();
+        if (email == null) {
+            return false;
+        }
+        try {
+            sender.sender(email.getTo(), email.getSubject(), email.getBody());
+            return true;
+        } catch (EmailException e) {
+            throw new JobEmailNotificationException("Error sending email: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates the email of this notification, without sending it.
+     *
+     * @return the email to send, or null if no email must be sent for this notification
+     */
+    EmailNotificationOutbox.Email createEmail() throws JobEmailNotificationException {
         String jobStatus = jobState.getGenericInformation().get(GENERIC_INFORMATION_KEY_NOTIFICATION_EVENT);
         List<String> jobStatusList = new ArrayList<>();
         if (jobStatus != null) {
@@ -94,21 +114,16 @@ public class JobEmailNotification {
                 break;
             default:
                 logger.trace("Event not in the list of email notification, doing nothing");
-                return false;
+                return null;
         }
         if (!PASchedulerProperties.EMAIL_NOTIFICATIONS_ENABLED.getValueAsBoolean()) {
             logger.debug("Notification emails disabled, doing nothing");
-            return false;
+            return null;
         }
         if (!jobStatusList.contains(eventType.toString().toLowerCase())) {
-            return false;
-        }
-        try {
-            sender.sender(getTo(), getSubject(), getBody());
-            return true;
-        } catch (EmailException e) {
-            throw new JobEmailNotificationException("Error sending email: " + e.getMessage(), e);
+            return null;
         }
+        return new EmailNotificationOutbox.Email(getTo(), getSubject(), getBody());
     }
 
     public void checkAndSend() {
@@ -123,6 +138,21 @@ public class JobEmailNotification {
         }
     }
 
+    /**
+     * Queues the email of this notification in the given outbox, it is sent in the background.
+     */
+    public void checkAndQueue(EmailNotificationOutbox outbox) {
+        try {
+            EmailNotificationOutbox.Email email = createEmail();
+            if (email != null && outbox.offer(email)) {
+                jlogger.debug(jobState.getId(), "queued notification email");
+            }
+        } catch (JobEmailNotificationException e) {
+            jlogger.warn(jobState.getId(), "failed to send email notification: " + e.getMessage());
+            logger.trace("Stack trace:", e);
+        }
+    }
+
     private static String getFrom() throws JobEmailNotificationException {
         String from = PASchedulerProperties.EMAIL_NOTIFICATIONS_SENDER_ADDRESS.getValueAsString();
         if (from == null || from.isEmpty()) {
@@ -148,12 +178,19 @@ public class JobEmailNotification {
     private String getBody() {
         String jobID = jobState.getId().value();
         String status = jobState.getStatus().toString();
-        String hostname = "UNKNOWN";
-        try {
-            hostname = InetAddress.getLocalHost().getCanonicalHostName();
-        } catch (UnknownHostException e) {
-            logger.debug("Could not get hostname", e);
+        return String.format(BODY_TEMPLATE, jobID, status, getHostname());
+    }
+
+    private static String getHostname() {
+        // resolved once, notifications are created while holding the frontend lock
+        if (hostname == null) {
+            try {
+                hostname = InetAddress.getLocalHost().getCanonicalHostName();
+            } catch (UnknownHostException e) {
+                logger.debug("Could not get hostname", e);
+                hostname = "UNKNOWN";
+            }
         }
-        return String.format(BODY_TEMPLATE, jobID, status, hostname);
+        return hostname;
     }
 }
@@ -41,6 +41,8 @@ abstract class ListenJobLogsSupport {
 
     abstract void listenJobLogs(JobId jobId, AppenderProvider appenderProvider) throws UnknownJobException;
 
+    abstract void stopListeningJobLogs(JobId jobId, AppenderProvider appenderProvider);
+
     abstract void activeLogsIfNeeded(JobId jobId, TaskLauncher launcher) throws LogForwardingException;
 
     abstract void cleanLoggers(JobId jobId);
@@ -122,10 +122,12 @@ import org.ow2.proactive.scheduler.common.task.SimpleTaskLogs;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskInfo;
 import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.common.task.TaskResultValueChunk;
 import org.ow2.proactive.scheduler.common.task.TaskState;
 import org.ow2.proactive.scheduler.common.usage.JobUsage;
 import org.ow2.proactive.scheduler.common.util.logforwarder.AppenderProvider;
 import org.ow2.proactive.scheduler.core.account.SchedulerAccountsManager;
+import org.ow2.proactive.scheduler.core.db.MissingTaskResultException;
 import org.ow2.proactive.scheduler.core.db.RecoveredSchedulerState;
 import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
 import org.ow2.proactive.scheduler.core.db.SchedulerStateRecoverHelper;
@@ -605,6 +607,31 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @ImmediateService
+    public TaskResultValueChunk getTaskResultValueChunk(String jobId, String taskName, long resultId, int chunkIndex)
+            throws NotConnectedException, UnknownJobException, UnknownTaskException, PermissionException {
+        JobId id = JobIdImpl.makeJobId(jobId);
+
+        // checking permissions
+        frontendState.checkPermissions("getTaskResultValueChunk",
+                                       frontendState.getIdentifiedJob(id),
+                                       YOU_DO_NOT_HAVE_PERMISSION_TO_GET_THE_TASK_RESULT_OF_THIS_JOB);
+
+        // fails if the task does not exist
+        frontendState.getTaskId(id, taskName);
+
+        try {
+            return dbManager.loadTaskResultValueChunk(id, taskName, resultId, chunkIndex);
+        } catch (MissingTaskResultException e) {
+            throw new UnknownTaskException("Unknown result " + resultId + " of task " + taskName + ", job: " + jobId,
+                                           e);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -722,6 +749,23 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
         return schedulingService.removeJob(jobId);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean removeJobs(List<JobId> jobIds)
+            throws NotConnectedException, UnknownJobException, PermissionException {
+
+        // checking permissions of all the jobs before removing any of them
+        for (JobId jobId : jobIds) {
+            frontendState.checkPermissions("removeJobs",
+                                           frontendState.getIdentifiedJob(jobId),
+                                           YOU_DO_NOT_HAVE_PERMISSION_TO_REMOVE_THIS_JOB);
+        }
+
+        return schedulingService.removeJobs(jobIds);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -749,6 +793,21 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
         this.listenJobLogs(JobIdImpl.makeJobId(jobId), appenderProvider);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stopListeningJobLogs(String jobId, AppenderProvider appenderProvider)
+            throws NotConnectedException, UnknownJobException, PermissionException {
+        JobId id = JobIdImpl.makeJobId(jobId);
+        // checking permissions
+        frontendState.checkPermissions("listenJobLogs",
+                                       frontendState.getIdentifiedJob(id),
+                                       YOU_DO_NOT_HAVE_PERMISSION_TO_LISTEN_THE_LOG_OF_THIS_JOB);
+
+        schedulingService.stopListeningJobLogs(id, appenderProvider);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -874,7 +933,11 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
     @Override
     public boolean kill() throws NotConnectedException, PermissionException {
         frontendState.checkPermission("kill", YOU_DO_NOT_HAVE_PERMISSION_TO_KILL_THE_SCHEDULER);
-        return schedulingService.kill();
+        if (!schedulingService.kill()) {
+            return false;
+        }
+        frontendState.shutdown();
+        return true;
     }
 
     /**
@@ -1102,6 +1165,10 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
 
         ClientRequestHandler.terminate();
 
+        if (frontendState != null) {
+            frontendState.shutdown();
+        }
+
         PAActiveObject.terminateActiveObject(false);
         logger.info("Scheduler frontend is now shutdown !");
 
@@ -37,12 +37,12 @@ import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.api.PAActiveObject;
 import org.objectweb.proactive.core.UniqueID;
 import org.objectweb.proactive.core.mop.MOP;
-import org.objectweb.proactive.core.util.converter.ProActiveMakeDeepCopy;
 import org.ow2.proactive.authentication.UserData;
 import org.ow2.proactive.authentication.crypto.Credentials;
 import org.ow2.proactive.permissions.MethodCallPermission;
@@ -69,12 +69,14 @@ import org.ow2.proactive.scheduler.common.job.UserIdentification;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskInfo;
 import org.ow2.proactive.scheduler.common.task.TaskState;
+import org.ow2.proactive.scheduler.core.SchedulerStateSnapshots.Phase;
 import org.ow2.proactive.scheduler.core.jmx.SchedulerJMXHelper;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.job.ClientJobState;
 import org.ow2.proactive.scheduler.job.IdentifiedJob;
 import org.ow2.proactive.scheduler.job.InternalJob;
 import org.ow2.proactive.scheduler.job.InternalJobFactory;
+import org.ow2.proactive.scheduler.job.JobInfoImpl;
 import org.ow2.proactive.scheduler.job.SchedulerUserInfo;
 import org.ow2.proactive.scheduler.job.UserIdentificationImpl;
 import org.ow2.proactive.scheduler.permissions.ChangePolicyPermission;
@@ -199,6 +201,9 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
     /** List used to mark the user that does not respond anymore */
     private final Set<UniqueID> dirtyList;
 
+    /** Users having a listener, indexed by the events they listen to */
+    private final EventSubscriptions subscriptions;
+
     /** Job identification management */
     private final Map<JobId, IdentifiedJob> jobs;
 
@@ -214,18 +219,34 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
      */
     private final SchedulerStateImpl<ClientJobState> sState;
 
+    /** Live job states, updated by the scheduler core events */
     private final Map<JobId, ClientJobState> jobsMap;
 
+    /** Snapshots of the scheduler state given to the clients, read without locking the frontend */
+    private final SchedulerStateSnapshots snapshots;
+
+    /** Notification emails waiting to be sent, outside of the frontend lock */
+    private final EmailNotificationOutbox emailOutbox;
+
     SchedulerFrontendState(SchedulerStateImpl sState, SchedulerJMXHelper jmxHelper) {
-        this.identifications = new HashMap<>();
-        this.credentials = new HashMap<>();
+        this(sState, jmxHelper, EmailNotificationOutbox.createUsingProperties());
+    }
+
+    SchedulerFrontendState(SchedulerStateImpl sState, SchedulerJMXHelper jmxHelper,
+            EmailNotificationOutbox emailOutbox) {
+        this.emailOutbox = emailOutbox;
+        this.identifications = new ConcurrentHashMap<>();
+        this.credentials = new ConcurrentHashMap<>();
         this.dirtyList = new HashSet<>();
+        this.subscriptions = new EventSubscriptions();
         this.jmxHelper = jmxHelper;
-        this.jobsMap = new HashMap<>();
-        this.jobs = new HashMap<>();
+        this.jobsMap = new ConcurrentHashMap<>();
+        this.jobs = new ConcurrentHashMap<>();
         this.sessionTimer = new Timer("SessionTimer");
         this.sState = sState;
+        this.snapshots = new SchedulerStateSnapshots(sState.getStatus());
         recover(sState);
+        this.snapshots.usersUpdated(sState.getUsers());
     }
 
     /**
@@ -246,13 +267,13 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         }
 
         for (ClientJobState js : pendingJobs) {
-            prepare(jobStates, js, false);
+            prepare(jobStates, js, Phase.PENDING);
         }
         for (ClientJobState js : runningJobs) {
-            prepare(jobStates, js, false);
+            prepare(jobStates, js, Phase.RUNNING);
         }
         for (ClientJobState js : finishedJobs) {
-            prepare(jobStates, js, true);
+            prepare(jobStates, js, Phase.FINISHED);
         }
     }
 
@@ -263,16 +284,17 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
      *            a temporary set of jobs
      * @param js
      *            the current job to be prepared
-     * @param finished
-     *            if the job is finished or not
+     * @param phase
+     *            if the job is pending, running or finished
      */
-    private void prepare(Set<JobState> jobStates, ClientJobState js, boolean finished) {
+    private void prepare(Set<JobState> jobStates, ClientJobState js, Phase phase) {
         jobStates.add(js);
         UserIdentificationImpl uIdent = new UserIdentificationImpl(js.getOwner());
         IdentifiedJob ij = new IdentifiedJob(js.getId(), uIdent, js.getGenericInformation());
         jobs.put(js.getId(), ij);
         jobsMap.put(js.getId(), js);
-        ij.setFinished(finished);
+        snapshots.jobAdded(js, phase);
+        ij.setFinished(phase == Phase.FINISHED);
     }
 
     /**
@@ -298,6 +320,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         renewUserSession(sourceBodyID, identification);
         // add this new user in the list of connected user
         sState.getUsers().update(identification);
+        snapshots.usersUpdated(sState.getUsers());
         // send events
         usersUpdated(new NotificationData<UserIdentification>(SchedulerEvent.USERS_UPDATE, identification));
     }
@@ -313,45 +336,61 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
      *            the user on which to renew the session
      */
     private void renewUserSession(final UniqueID id, UserIdentificationImpl identification) {
-        if (identifications.get(id).isListening()) {
+        ListeningUser listeningUser = identifications.get(id);
+        if (listeningUser == null || listeningUser.isListening()) {
             // if this id has a listener, do not renew user session
             return;
         }
         final String userName = identification.getUsername();
-        TimerTask session = identification.getSession();
-        if (session != null) {
-            session.cancel();
-        }
-        identification.setSession(new TimerTask() {
-            @Override
-            public void run() {
-                logger.info("End of session for user " + userName + ", id=" + id);
-                disconnect(id);
+        // sessions can be renewed concurrently by the methods which do not lock the frontend
+        synchronized (identification) {
+            TimerTask session = identification.getSession();
+            if (session != null) {
+                session.cancel();
             }
-        });
-        sessionTimer.purge();
-        sessionTimer.schedule(identification.getSession(), USER_SESSION_DURATION);
+            identification.setSession(new TimerTask() {
+                @Override
+                public void run() {
+                    logger.info("End of session for user " + userName + ", id=" + id);
+                    disconnect(id);
+                }
+            });
+            sessionTimer.purge();
+            sessionTimer.schedule(identification.getSession(), USER_SESSION_DURATION);
+        }
     }
 
-    synchronized SchedulerStatus getStatus() throws NotConnectedException, PermissionException {
+    /*
+     * The methods reading the state or checking permissions do not lock the frontend, so that
+     * clients polling the state do not slow down the events coming from the scheduler core.
+     * They read the snapshots published for each job and for the scheduler state.
+     */
+
+    SchedulerStatus getStatus() throws NotConnectedException, PermissionException {
         // checking permissions
         checkPermission("getStatus", YOU_DO_NOT_HAVE_PERMISSION_TO_GET_THE_STATUS);
 
         return sState.getStatus();
     }
 
-    synchronized SchedulerState getState() throws NotConnectedException, PermissionException {
+    SchedulerState getState() throws NotConnectedException, PermissionException {
         return getState(false);
     }
 
-    synchronized SchedulerState getState(boolean myJobsOnly) throws NotConnectedException, PermissionException {
+    SchedulerState getState(boolean myJobsOnly) throws NotConnectedException, PermissionException {
         // checking permissions
-        checkPermission("getState", YOU_DO_NOT_HAVE_PERMISSION_TO_GET_THE_STATE);
+        UserIdentificationImpl ui = checkPermission("getState", YOU_DO_NOT_HAVE_PERMISSION_TO_GET_THE_STATE);
 
-        ListeningUser ui = identifications.get(PAActiveObject.getContext().getCurrentRequest().getSourceBodyID());
+        SchedulerStateImpl<ClientJobState> state = snapshots.getState();
+        return myJobsOnly ? state.filterOnUser(ui.getUsername()) : state;
 
-        return myJobsOnly ? sState.filterOnUser(ui.getUser().getUsername()) : sState;
+    }
 
+    /**
+     * @return the version of the scheduler state, incremented on each update
+     */
+    long getStateVersion() {
+        return snapshots.getVersion();
     }
 
     /**
@@ -366,7 +405,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
      * @throws PermissionException
      *             if permission is denied
      */
-    synchronized void handleOnlyMyJobsPermission(boolean myOnly, UserIdentificationImpl ui, String errorMessage)
+    void handleOnlyMyJobsPermission(boolean myOnly, UserIdentificationImpl ui, String errorMessage)
             throws PermissionException {
         ui.checkPermission(new HandleOnlyMyJobsPermission(myOnly),
                            ui.getUsername() + " does not have permissions to handle other users jobs (" + errorMessage +
@@ -387,7 +426,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
      * @throws PermissionException
      *             if permission is denied
      */
-    synchronized void handleJobsWithGenericInformationPermission(Map<String, String> genericInformation,
+    void handleJobsWithGenericInformationPermission(Map<String, String> genericInformation,
             UserIdentificationImpl ui, String errorMessage) throws PermissionException {
         ui.checkPermission(new HandleJobsWithGenericInformationPermission(genericInformation),
                            ui.getUsername() + " does not have permissions to handle this job (" + errorMessage + ")");
@@ -433,6 +472,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         // add the listener to the list of listener for this user.
         UniqueID id = PAActiveObject.getContext().getCurrentRequest().getSourceBodyID();
         uIdent.setListener(new ClientRequestHandler(this, id, sel));
+        subscriptions.subscribe(uIdent);
         // cancel timer for this user : session is now managed by events
         uIdent.getUser().getSession().cancel();
         // return to the user
@@ -445,6 +485,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         UniqueID id = checkAccess();
         ListeningUser uIdent = identifications.get(id);
         uIdent.clearListener();
+        subscriptions.unsubscribe(uIdent);
         // recreate the session for this user which is no more managed by
         // listener
         renewUserSession(id, uIdent.getUser());
@@ -508,11 +549,16 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         }
     }
 
-    synchronized ListeningUser checkPermissionReturningListeningUser(String methodName, String permissionMsg)
+    ListeningUser checkPermissionReturningListeningUser(String methodName, String permissionMsg)
             throws NotConnectedException, PermissionException {
         UniqueID id = checkAccess();
 
         ListeningUser ident = identifications.get(id);
+        if (ident == null) {
+            // disconnected in the meantime
+            logger.info(ACCESS_DENIED);
+            throw new NotConnectedException(ACCESS_DENIED);
+        }
         // renew session for this user
         renewUserSession(id, ident.getUser());
 
@@ -528,7 +574,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         return ident;
     }
 
-    synchronized UserIdentificationImpl checkPermission(String methodName, String permissionMsg)
+    UserIdentificationImpl checkPermission(String methodName, String permissionMsg)
             throws NotConnectedException, PermissionException {
         return checkPermissionReturningListeningUser(methodName, permissionMsg).getUser();
     }
@@ -550,10 +596,12 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         if (ident != null) {
             // remove listeners if needed
             ident.clearListener();
+            subscriptions.unsubscribe(ident);
             // remove this user to the list of connected user if it has not
             // already been removed
             ident.getUser().setToRemove();
             sState.getUsers().update(ident.getUser());
+            snapshots.usersUpdated(sState.getUsers());
             // cancel the timer
             ident.getUser().getSession().cancel();
             // log and send events
@@ -564,7 +612,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         }
     }
 
-    synchronized boolean isConnected() {
+    boolean isConnected() {
         try {
             checkAccess();
             return true;
@@ -580,7 +628,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         renewUserSession(id, ident);
     }
 
-    synchronized IdentifiedJob getIdentifiedJob(JobId jobId) throws UnknownJobException {
+    IdentifiedJob getIdentifiedJob(JobId jobId) throws UnknownJobException {
         IdentifiedJob ij = jobs.get(jobId);
 
         if (ij == null) {
@@ -620,7 +668,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         }
     }
 
-    synchronized void checkPermissions(String methodName, IdentifiedJob identifiedJob, String errorMessage)
+    void checkPermissions(String methodName, IdentifiedJob identifiedJob, String errorMessage)
             throws NotConnectedException, UnknownJobException, PermissionException {
         try {
             checkJobOwner(methodName, identifiedJob, errorMessage);
@@ -638,7 +686,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         }
     }
 
-    synchronized void checkJobOwner(String methodName, IdentifiedJob IdentifiedJob, String permissionMsg)
+    void checkJobOwner(String methodName, IdentifiedJob IdentifiedJob, String permissionMsg)
             throws NotConnectedException, UnknownJobException, PermissionException {
         ListeningUser ident = checkPermissionReturningListeningUser(methodName, permissionMsg);
 
@@ -647,100 +695,75 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         }
     }
 
-    synchronized Set<TaskId> getJobTasks(JobId jobId) {
-        JobState jobState = jobsMap.get(jobId);
-        synchronized (jobState) {
-            if (jobState == null) {
-                return Collections.emptySet();
-            } else {
-                Set<TaskId> tasks = new HashSet<>(jobState.getTasks().size());
-                for (TaskState task : jobState.getTasks()) {
-                    tasks.add(task.getId());
-                }
-                return tasks;
+    Set<TaskId> getJobTasks(JobId jobId) {
+        JobState jobState = snapshots.getJobState(jobId);
+        if (jobState == null) {
+            return Collections.emptySet();
+        } else {
+            Set<TaskId> tasks = new HashSet<>(jobState.getTasks().size());
+            for (TaskState task : jobState.getTasks()) {
+                tasks.add(task.getId());
             }
+            return tasks;
         }
     }
 
-    synchronized JobState getJobState(JobId jobId)
-            throws NotConnectedException, UnknownJobException, PermissionException {
+    JobState getJobState(JobId jobId) throws NotConnectedException, UnknownJobException, PermissionException {
         checkPermissions("getJobState",
                          getIdentifiedJob(jobId),
                          YOU_DO_NOT_HAVE_PERMISSION_TO_GET_THE_STATE_OF_THIS_JOB);
-        ClientJobState jobState = jobsMap.get(jobId);
-        ClientJobState jobStateCopy;
-        synchronized (jobState) {
-            try {
-                jobStateCopy = (ClientJobState) ProActiveMakeDeepCopy.WithProActiveObjectStream.makeDeepCopy(jobState);
-            } catch (Exception e) {
-                logger.error("Error when copying job state", e);
-                throw new IllegalStateException(e);
-            }
+        return getJobSnapshot(jobId);
+    }
+
+    /**
+     * Returns the snapshot of the current version of a job, without checking permissions.
+     * The snapshot is never modified and can be shared between clients.
+     */
+    ClientJobState getJobSnapshot(JobId jobId) throws UnknownJobException {
+        ClientJobState jobState = snapshots.getJobState(jobId);
+        if (jobState == null) {
+            throw new UnknownJobException(jobId);
         }
-        return jobStateCopy;
+        return jobState;
     }
 
-    synchronized TaskState getTaskState(JobId jobId, TaskId taskId)
+    TaskState getTaskState(JobId jobId, TaskId taskId)
             throws NotConnectedException, UnknownJobException, UnknownTaskException, PermissionException {
         checkPermissions("getJobState",
                          getIdentifiedJob(jobId),
                          YOU_DO_NOT_HAVE_PERMISSION_TO_GET_THE_STATE_OF_THIS_TASK);
-        if (jobsMap.get(jobId) == null) {
-            throw new UnknownJobException(jobId);
-        }
-        JobState jobState = jobsMap.get(jobId);
-        synchronized (jobState) {
-            TaskState ts = jobState.getHMTasks().get(taskId);
-            if (ts == null) {
-                throw new UnknownTaskException(taskId, jobId);
-            }
-            return ts;
+        TaskState ts = getJobSnapshot(jobId).getHMTasks().get(taskId);
+        if (ts == null) {
+            throw new UnknownTaskException(taskId, jobId);
         }
+        return ts;
     }
 
-    synchronized TaskState getTaskState(JobId jobId, String taskName)
+    TaskState getTaskState(JobId jobId, String taskName)
             throws NotConnectedException, UnknownJobException, UnknownTaskException, PermissionException {
 
         checkPermissions("getJobState",
                          getIdentifiedJob(jobId),
                          YOU_DO_NOT_HAVE_PERMISSION_TO_GET_THE_STATE_OF_THIS_TASK);
 
-        if (jobsMap.get(jobId) == null) {
-            throw new UnknownJobException(jobId);
-        }
-        TaskId taskId = null;
-        for (TaskId t : getJobTasks(jobId)) {
-            if (t.getReadableName().equals(taskName)) {
-                taskId = t;
-            }
-        }
-        if (taskId == null) {
-            throw new UnknownTaskException(taskName, jobId);
-        }
-        JobState jobState = jobsMap.get(jobId);
-        synchronized (jobState) {
-            TaskState ts = jobState.getHMTasks().get(taskId);
-            if (ts == null) {
-                throw new UnknownTaskException(taskId, jobId);
-            }
-            return ts;
-        }
+        return findTask(getJobSnapshot(jobId), taskName);
     }
 
-    synchronized TaskId getTaskId(JobId jobId, String taskName) throws UnknownTaskException, UnknownJobException {
-        if (jobsMap.get(jobId) == null) {
-            throw new UnknownJobException(jobId);
-        }
-        TaskId taskId = null;
-        for (TaskId t : getJobTasks(jobId)) {
-            if (t.getReadableName().equals(taskName)) {
-                taskId = t;
+    TaskId getTaskId(JobId jobId, String taskName) throws UnknownTaskException, UnknownJobException {
+        return findTask(getJobSnapshot(jobId), taskName).getId();
+    }
+
+    private TaskState findTask(JobState jobState, String taskName) throws UnknownTaskException {
+        TaskState found = null;
+        for (TaskState task : jobState.getTasks()) {
+            if (task.getId().getReadableName().equals(taskName)) {
+                found = task;
             }
         }
-        if (taskId == null) {
-            throw new UnknownTaskException(taskName, jobId);
+        if (found == null) {
+            throw new UnknownTaskException(taskName, jobState.getId());
         }
-        return taskId;
+        return found;
     }
 
     synchronized void checkChangePolicy() throws NotConnectedException, PermissionException {
@@ -818,6 +841,27 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         }
     }
 
+    /**
+     * Send an event to the given listening users
+     *
+     * @param listeningUsers
+     *            the users subscribed to the event
+     * @param methodName
+     *            the listener method to call
+     * @param event
+     *            the event to send
+     */
+    private void dispatch(List<ListeningUser> listeningUsers, String methodName, Object event) {
+        Method method = eventMethods.get(methodName);
+        for (ListeningUser listeningUser : listeningUsers) {
+            ClientRequestHandler listener = listeningUser.getListener();
+            // the listener may have been removed since the subscriptions were read
+            if (listener != null) {
+                listener.addEvent(method, event);
+            }
+        }
+    }
+
     /**
      * Dispatch the scheduler state updated event
      * 
@@ -829,18 +873,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             if (logger.isDebugEnabled()) {
                 logger.debug("event [" + eventType.toString() + "]");
             }
-            for (ListeningUser userId : identifications.values()) {
-                // if this user has a listener
-                if (userId.isListening()) {
-                    // if there is no specified event OR if the specified event
-                    // is allowed
-                    if ((userId.getUser().getUserEvents() == null) ||
-                        userId.getUser().getUserEvents().contains(eventType)) {
-                        userId.getListener().addEvent(eventMethods.get(SCHEDULER_STATE_UPDATED_EVENT_METHOD),
-                                                      eventType);
-                    }
-                }
-            }
+            dispatch(subscriptions.getSubscribers(eventType), SCHEDULER_STATE_UPDATED_EVENT_METHOD, eventType);
             clearListeners();
         } catch (SecurityException e) {
             logger.error("", e);
@@ -858,24 +891,9 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             if (logger.isDebugEnabled()) {
                 jlogger.debug(job.getJobInfo().getJobId(), " event [" + SchedulerEvent.JOB_SUBMITTED + "]");
             }
-            for (ListeningUser listeningUserId : identifications.values()) {
-                // if this user has a listener
-                if (listeningUserId.isListening()) {
-                    UserIdentificationImpl userId = listeningUserId.getUser();
-                    // if there is no specified event OR if the specified
-                    // event is allowed
-                    if ((userId.getUserEvents() == null) ||
-                        userId.getUserEvents().contains(SchedulerEvent.JOB_SUBMITTED)) {
-                        // if this userId have the myEventOnly=false or
-                        // (myEventOnly=true and it is its event)
-                        if (!userId.isMyEventsOnly() ||
-                            (userId.isMyEventsOnly() && userId.getUsername().equals(job.getOwner()))) {
-                            listeningUserId.getListener().addEvent(eventMethods.get(JOB_SUBMITTED_EVENT_METHOD), job);
-                        }
-                    }
-
-                }
-            }
+            dispatch(subscriptions.getSubscribers(SchedulerEvent.JOB_SUBMITTED, job.getOwner()),
+                     JOB_SUBMITTED_EVENT_METHOD,
+                     job);
             clearListeners();
         } catch (SecurityException e) {
             logger.error("", e);
@@ -903,24 +921,9 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
                     jlogger.debug(notification.getData().getJobId(), " event [" + notification.getEventType() + "]");
                 }
             }
-            for (ListeningUser listeningUserId : identifications.values()) {
-                // if this user has a listener
-                if (listeningUserId.isListening()) {
-                    UserIdentificationImpl userId = listeningUserId.getUser();
-                    // if there is no specified event OR if the specified event
-                    // is allowed
-                    if ((userId.getUserEvents() == null) ||
-                        userId.getUserEvents().contains(notification.getEventType())) {
-                        // if this userId have the myEventOnly=false or
-                        // (myEventOnly=true and it is its event)
-                        if (!userId.isMyEventsOnly() ||
-                            (userId.isMyEventsOnly() && userId.getUsername().equals(owner))) {
-                            listeningUserId.getListener().addEvent(eventMethods.get(JOB_STATE_UPDATED_EVENT_METHOD),
-                                                                   notification);
-                        }
-                    }
-                }
-            }
+            dispatch(subscriptions.getSubscribers(notification.getEventType(), owner),
+                     JOB_STATE_UPDATED_EVENT_METHOD,
+                     notification);
             clearListeners();
         } catch (SecurityException e) {
             logger.error("", e);
@@ -938,25 +941,9 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             if (logger.isDebugEnabled()) {
                 jlogger.debug(job.getJobInfo().getJobId(), " event [" + SchedulerEvent.JOB_UPDATED + "]");
             }
-            for (ListeningUser listeningUserId : identifications.values()) {
-                // if this user has a listener
-                if (listeningUserId.isListening()) {
-                    UserIdentificationImpl userId = listeningUserId.getUser();
-                    // if there is no specified event OR if the specified
-                    // event is allowed
-                    if ((userId.getUserEvents() == null) ||
-                        userId.getUserEvents().contains(SchedulerEvent.JOB_UPDATED)) {
-                        // if this userId have the myEventOnly=false or
-                        // (myEventOnly=true and it is its event)
-                        if (!userId.isMyEventsOnly() ||
-                            (userId.isMyEventsOnly() && userId.getUsername().equals(job.getOwner()))) {
-                            listeningUserId.getListener().addEvent(eventMethods.get(JOB_UPDATED_FULL_DATA_EVENT_METHOD),
-                                                                   job);
-                        }
-                    }
-
-                }
-            }
+            dispatch(subscriptions.getSubscribers(SchedulerEvent.JOB_UPDATED, job.getOwner()),
+                     JOB_UPDATED_FULL_DATA_EVENT_METHOD,
+                     job);
             clearListeners();
         } catch (SecurityException e) {
             logger.error("", e);
@@ -976,24 +963,9 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             if (logger.isDebugEnabled()) {
                 tlogger.debug(notification.getData().getTaskId(), "event [" + notification.getEventType() + "]");
             }
-            for (ListeningUser listeningUserId : identifications.values()) {
-                // if this user has a listener
-                if (listeningUserId.isListening()) {
-                    UserIdentificationImpl userId = listeningUserId.getUser();
-                    // if there is no specified event OR if the specified event
-                    // is allowed
-                    if ((userId.getUserEvents() == null) ||
-                        userId.getUserEvents().contains(notification.getEventType())) {
-                        // if this userId have the myEventOnly=false or
-                        // (myEventOnly=true and it is its event)
-                        if (!userId.isMyEventsOnly() ||
-                            (userId.isMyEventsOnly() && userId.getUsername().equals(owner))) {
-                            listeningUserId.getListener().addEvent(eventMethods.get(TASK_STATE_UPDATED_EVENT_METHOD),
-                                                                   notification);
-                        }
-                    }
-                }
-            }
+            dispatch(subscriptions.getSubscribers(notification.getEventType(), owner),
+                     TASK_STATE_UPDATED_EVENT_METHOD,
+                     notification);
             clearListeners();
         } catch (SecurityException e) {
             logger.error("", e);
@@ -1011,25 +983,9 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             if (logger.isDebugEnabled()) {
                 logger.debug("event [" + notification.getEventType() + "]");
             }
-            for (ListeningUser listeningUserId : identifications.values()) {
-                // if this user has a listener
-                if (listeningUserId.isListening()) {
-                    UserIdentificationImpl userId = listeningUserId.getUser();
-                    // if there is no specified event OR if the specified event
-                    // is allowed
-                    if ((userId.getUserEvents() == null) ||
-                        userId.getUserEvents().contains(notification.getEventType())) {
-                        // if this userId have the myEventOnly=false or
-                        // (myEventOnly=true and it is its event)
-                        if (!userId.isMyEventsOnly() ||
-                            (userId.isMyEventsOnly() &&
-                             userId.getUsername().equals(notification.getData().getUsername()))) {
-                            listeningUserId.getListener().addEvent(eventMethods.get(USERS_UPDATED_EVENT_METHOD),
-                                                                   notification);
-                        }
-                    }
-                }
-            }
+            dispatch(subscriptions.getSubscribers(notification.getEventType(), notification.getData().getUsername()),
+                     USERS_UPDATED_EVENT_METHOD,
+                     notification);
             // Important condition to avoid recursive checks
             if (checkForDownUser) {
                 clearListeners();
@@ -1078,16 +1034,25 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
                 logger.warn("**WARNING** - Unconsistent update type received from Scheduler Core : " + eventType);
                 return;
         }
+        snapshots.statusUpdated(sState.getStatus());
         // send the event for all case, except default
         dispatchSchedulerStateUpdated(eventType);
         this.jmxHelper.getSchedulerRuntimeMBean().schedulerStateUpdatedEvent(eventType);
     }
 
+    /**
+     * Stops sending notification emails, the ones not sent yet stay in the spool directory.
+     */
+    void shutdown() {
+        emailOutbox.shutdown();
+    }
+
     @Override
     public synchronized void jobSubmitted(JobState job) {
         ClientJobState storedJobState = new ClientJobState(job);
         jobsMap.put(job.getId(), storedJobState);
         sState.update(storedJobState);
+        snapshots.jobAdded(storedJobState, Phase.PENDING);
         dispatchJobSubmitted(job);
     }
 
@@ -1096,9 +1061,11 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         ClientJobState js = jobsMap.get(notification.getData().getJobId());
         synchronized (js) {
             js.update(notification.getData());
+            Phase phase = snapshots.getPhase(js.getId());
             switch (notification.getEventType()) {
                 case JOB_PENDING_TO_RUNNING:
                     sState.pendingToRunning(js);
+                    phase = Phase.RUNNING;
                     break;
                 case JOB_PAUSED:
                 case JOB_IN_ERROR:
@@ -1110,11 +1077,13 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
                     break;
                 case JOB_PENDING_TO_FINISHED:
                     sState.pendingToFinished(js);
+                    phase = Phase.FINISHED;
                     // set this job finished, user can get its result
                     jobs.get(notification.getData().getJobId()).setFinished(true);
                     break;
                 case JOB_RUNNING_TO_FINISHED:
                     sState.runningToFinished(js);
+                    phase = Phase.FINISHED;
                     // set this job finished, user can get its result
                     jobs.get(notification.getData().getJobId()).setFinished(true);
                     break;
@@ -1122,15 +1091,45 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
                     // removing jobs from the global list : this job is no more managed
                     sState.removeFinished(js);
                     jobsMap.remove(js.getId());
+                    snapshots.jobRemoved(js.getId());
                     jobs.remove(notification.getData().getJobId());
+                    phase = null;
                     break;
                 default:
                     logger.warn("**WARNING** - Unconsistent update type received from Scheduler Core : " +
                                 notification.getEventType());
                     return;
             }
+            if (phase != null) {
+                snapshots.jobUpdated(js.getId(), phase);
+            }
             dispatchJobStateUpdated(owner, notification);
-            new JobEmailNotification(js, notification).checkAndSend();
+            new JobEmailNotification(js, notification).checkAndQueue(emailOutbox);
+        }
+    }
+
+    @Override
+    public synchronized void jobsRemoved(List<JobInfo> removedJobs) {
+        for (JobInfo removedJob : removedJobs) {
+            ClientJobState js = jobsMap.get(removedJob.getJobId());
+            if (js == null) {
+                continue;
+            }
+            synchronized (js) {
+                JobInfoImpl jobInfo = new JobInfoImpl((JobInfoImpl) js.getJobInfo());
+                jobInfo.setRemovedTime(removedJob.getRemovedTime());
+                js.update(jobInfo);
+                // removing jobs from the global list : this job is no more managed
+                sState.removeFinished(js);
+                jobsMap.remove(js.getId());
+                snapshots.jobRemoved(js.getId());
+                jobs.remove(js.getId());
+
+                NotificationData<JobInfo> notification = new NotificationData<JobInfo>(SchedulerEvent.JOB_REMOVE_FINISHED,
+                                                                                       jobInfo);
+                dispatchJobStateUpdated(js.getOwner(), notification);
+                new JobEmailNotification(js, notification).checkAndQueue(emailOutbox);
+            }
         }
     }
 
@@ -1145,6 +1144,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         JobState jobState = jobsMap.get(notification.getData().getJobId());
         synchronized (jobState) {
             jobState.update(notification.getData());
+            snapshots.jobUpdated(jobState.getId(), snapshots.getPhase(jobState.getId()));
             switch (notification.getEventType()) {
                 case TASK_PENDING_TO_RUNNING:
                 case TASK_RUNNING_TO_FINISHED:
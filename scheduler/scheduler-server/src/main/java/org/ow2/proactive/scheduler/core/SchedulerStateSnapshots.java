@@ -0,0 +1,245 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.ow2.proactive.scheduler.common.SchedulerStatus;
+import org.ow2.proactive.scheduler.common.SchedulerUsers;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.UserIdentification;
+import org.ow2.proactive.scheduler.job.ClientJobState;
+
+
+/**
+ * Versioned, read-only snapshots of the scheduler state held by the {@link SchedulerFrontendState}.
+ * <p>
+ * Writers keep updating the live {@link ClientJobState} of a job while holding its monitor, and
+ * then call {@link #jobUpdated(JobId, Phase)} which gives the job a new version taken from a
+ * global counter. Readers never lock the frontend: they get the snapshot published for the
+ * current version of a job, or of the whole scheduler state. A snapshot is immutable once
+ * published and is built at most once per version, by the first reader asking for it, so the
+ * event path never pays for copies nobody reads.
+ *
+ * @author ActiveEon Team
+ */
+class SchedulerStateSnapshots {
+
+    /**
+     * Where a job is listed in the scheduler state
+     */
+    enum Phase {
+        PENDING,
+        RUNNING,
+        FINISHED
+    }
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final ConcurrentMap<JobId, JobEntry> jobs = new ConcurrentHashMap<>();
+
+    private final AtomicReference<StateSnapshot> stateSnapshot = new AtomicReference<>();
+
+    private volatile SchedulerStatus status;
+
+    private volatile SchedulerUsers users = new SchedulerUsers();
+
+    SchedulerStateSnapshots(SchedulerStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * @return the version of the scheduler state, incremented on each update
+     */
+    long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Adds a job, the given job state must not be modified afterwards without holding its monitor.
+     */
+    void jobAdded(ClientJobState jobState, Phase phase) {
+        jobs.put(jobState.getId(), new JobEntry(jobState, phase, version.incrementAndGet()));
+    }
+
+    /**
+     * Publishes a new version of a job. Must be called while holding the monitor of the
+     * live job state, after it was updated.
+     */
+    void jobUpdated(JobId jobId, Phase phase) {
+        JobEntry entry = jobs.get(jobId);
+        if (entry != null) {
+            entry.phase = phase;
+            entry.version = version.incrementAndGet();
+        }
+    }
+
+    void jobRemoved(JobId jobId) {
+        jobs.remove(jobId);
+        version.incrementAndGet();
+    }
+
+    void statusUpdated(SchedulerStatus status) {
+        this.status = status;
+        version.incrementAndGet();
+    }
+
+    /**
+     * Publishes a copy of the given connected users
+     */
+    void usersUpdated(SchedulerUsers connectedUsers) {
+        SchedulerUsers copy = new SchedulerUsers();
+        for (UserIdentification user : connectedUsers.getUsers()) {
+            copy.update(user);
+        }
+        this.users = copy;
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return the phase of the given job in its last published version, or null if the job is unknown
+     */
+    Phase getPhase(JobId jobId) {
+        JobEntry entry = jobs.get(jobId);
+        return entry == null ? null : entry.phase;
+    }
+
+    /**
+     * @return a snapshot of the current version of the given job, or null if the job is unknown
+     */
+    ClientJobState getJobState(JobId jobId) {
+        JobEntry entry = jobs.get(jobId);
+        return entry == null ? null : entry.getSnapshot().jobState;
+    }
+
+    /**
+     * @return a snapshot of the current version of the scheduler state
+     */
+    SchedulerStateImpl<ClientJobState> getState() {
+        long currentVersion = version.get();
+        StateSnapshot snapshot = stateSnapshot.get();
+        if (snapshot != null && snapshot.version == currentVersion) {
+            return snapshot.state;
+        }
+
+        // the state may already contain updates newer than currentVersion, it will then
+        // be rebuilt by the next reader, which is harmless
+        SchedulerStateImpl<ClientJobState> state = new SchedulerStateImpl<>();
+        state.setState(status);
+        state.setUsers(users);
+        Vector<ClientJobState> pending = new Vector<>();
+        Vector<ClientJobState> running = new Vector<>();
+        Vector<ClientJobState> finished = new Vector<>();
+        for (JobEntry entry : jobs.values()) {
+            JobSnapshot jobSnapshot = entry.getSnapshot();
+            switch (jobSnapshot.phase) {
+                case PENDING:
+                    pending.add(jobSnapshot.jobState);
+                    break;
+                case RUNNING:
+                    running.add(jobSnapshot.jobState);
+                    break;
+                default:
+                    finished.add(jobSnapshot.jobState);
+            }
+        }
+        state.setPendingJobs(pending);
+        state.setRunningJobs(running);
+        state.setFinishedJobs(finished);
+
+        StateSnapshot newSnapshot = new StateSnapshot(currentVersion, state);
+        // keep the most recent snapshot if another reader published one concurrently
+        StateSnapshot published = stateSnapshot.get();
+        if (published == null || published.version < currentVersion) {
+            stateSnapshot.compareAndSet(published, newSnapshot);
+        }
+        return state;
+    }
+
+    private static final class JobEntry {
+
+        private final ClientJobState liveState;
+
+        private final AtomicReference<JobSnapshot> snapshot = new AtomicReference<>();
+
+        private volatile Phase phase;
+
+        private volatile long version;
+
+        JobEntry(ClientJobState liveState, Phase phase, long version) {
+            this.liveState = liveState;
+            this.phase = phase;
+            this.version = version;
+        }
+
+        JobSnapshot getSnapshot() {
+            JobSnapshot current = snapshot.get();
+            if (current != null && current.version == version) {
+                return current;
+            }
+            // copying is cheap (task infos are shared) but must not see a half applied update
+            synchronized (liveState) {
+                current = snapshot.get();
+                if (current == null || current.version != version) {
+                    current = new JobSnapshot(version, phase, liveState.snapshot());
+                    snapshot.set(current);
+                }
+                return current;
+            }
+        }
+    }
+
+    private static final class JobSnapshot {
+
+        private final long version;
+
+        private final Phase phase;
+
+        private final ClientJobState jobState;
+
+        JobSnapshot(long version, Phase phase, ClientJobState jobState) {
+            this.version = version;
+            this.phase = phase;
+            this.jobState = jobState;
+        }
+    }
+
+    private static final class StateSnapshot {
+
+        private final long version;
+
+        private final SchedulerStateImpl<ClientJobState> state;
+
+        StateSnapshot(long version, SchedulerStateImpl<ClientJobState> state) {
+            this.version = version;
+            this.state = state;
+        }
+    }
+}
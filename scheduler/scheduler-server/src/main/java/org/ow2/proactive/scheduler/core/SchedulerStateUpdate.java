@@ -25,6 +25,8 @@
  */
 package org.ow2.proactive.scheduler.core;
 
+import java.util.List;
+
 import org.ow2.proactive.scheduler.common.NotificationData;
 import org.ow2.proactive.scheduler.common.SchedulerEvent;
 import org.ow2.proactive.scheduler.common.job.JobInfo;
@@ -64,6 +66,14 @@ public interface SchedulerStateUpdate {
      */
     void jobStateUpdated(String owner, NotificationData<JobInfo> notification);
 
+    /**
+     * Invoked once for a group of jobs removed together.<br>
+     * It replaces a {@link SchedulerEvent#JOB_REMOVE_FINISHED} notification for each job.
+     *
+     * @param jobs the information of the removed jobs, holding at least their id, owner and removal time.
+     */
+    void jobsRemoved(List<JobInfo> jobs);
+
     /**
      * Invoked each time the state of a job has changed and each time a scheduler event occurs.<br>
      *
@@ -53,6 +53,7 @@ import org.ow2.proactive.scheduler.common.TaskDescriptor;
 import org.ow2.proactive.scheduler.common.TaskTerminateNotification;
 import org.ow2.proactive.scheduler.common.job.JobId;
 import org.ow2.proactive.scheduler.common.job.JobType;
+import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskStatus;
 import org.ow2.proactive.scheduler.common.util.VariableSubstitutor;
 import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
@@ -76,6 +77,8 @@ import org.ow2.proactive.topology.descriptor.TopologyDescriptor;
 import org.ow2.proactive.utils.Criteria;
 import org.ow2.proactive.utils.NodeSet;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 
 
@@ -100,6 +103,10 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
     /** Maximum blocking time for the do task action */
     protected static final int DOTASK_ACTION_TIMEOUT = PASchedulerProperties.SCHEDULER_STARTTASK_TIMEOUT.getValueAsInt();
 
+    /** Maximum number of cached executable containers, also the batch size used to load them */
+    private static final int EXECUTABLE_CONTAINER_CACHE_SIZE = Math.max(1,
+                                                                        PASchedulerProperties.SCHEDULER_EXECUTABLE_CONTAINER_CACHE_SIZE.getValueAsInt());
+
     protected int activeObjectCreationRetryTimeNumber;
 
     protected final SchedulingService schedulingService;
@@ -112,6 +119,15 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
 
     private CheckEligibleTaskDescriptorScript checkEligibleTaskDescriptorScript;
 
+    /**
+     * Executable containers of the eligible tasks, kept as long as they are referenced by their task
+     * so that tasks waiting for resources are not reloaded from the database at each scheduling loop
+     */
+    private final Cache<TaskId, ExecutableContainer> executableContainers = CacheBuilder.newBuilder()
+                                                                                          .maximumSize(EXECUTABLE_CONTAINER_CACHE_SIZE)
+                                                                                          .weakValues()
+                                                                                          .build();
+
     public SchedulingMethodImpl(SchedulingService schedulingService) throws Exception {
         this.schedulingService = schedulingService;
         this.checkEligibleTaskDescriptorScript = new CheckEligibleTaskDescriptorScript();
@@ -209,10 +225,12 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
 
             updateVariablesForTasksToSchedule(jobMap, taskRetrievedFromPolicy);
 
+            // load and initialize the executable containers
+            List<InternalTask> tasksToInit = new ArrayList<>(taskRetrievedFromPolicy.size());
             for (EligibleTaskDescriptor etd : taskRetrievedFromPolicy) {
-                // load and Initialize the executable container
-                loadAndInit(((EligibleTaskDescriptorImpl) etd).getInternal());
+                tasksToInit.add(((EligibleTaskDescriptorImpl) etd).getInternal());
             }
+            loadAndInit(tasksToInit);
 
             while (!taskRetrievedFromPolicy.isEmpty()) {
 
@@ -543,9 +561,38 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
      * @param task the task to be initialized
      */
     protected void loadAndInit(InternalTask task) {
-        tlogger.debug(task.getId(), "initializing the executable container");
-        ExecutableContainer container = getDBManager().loadExecutableContainer(task);
-        task.setExecutableContainer(container);
+        loadAndInit(ImmutableList.of(task));
+    }
+
+    /**
+     * Load and initialize the tasks to be started.
+     * Containers still referenced since a previous scheduling loop are taken from the cache,
+     * the other ones are loaded from the database at once.
+     *
+     * @param tasks the tasks to be initialized
+     */
+    protected void loadAndInit(Collection<InternalTask> tasks) {
+        List<InternalTask> tasksToLoad = new ArrayList<>(tasks.size());
+        for (InternalTask task : tasks) {
+            ExecutableContainer container = executableContainers.getIfPresent(task.getId());
+            if (container != null) {
+                task.setExecutableContainer(container);
+            } else {
+                tlogger.debug(task.getId(), "initializing the executable container");
+                tasksToLoad.add(task);
+            }
+        }
+        if (tasksToLoad.isEmpty()) {
+            return;
+        }
+
+        Map<TaskId, ExecutableContainer> loaded = getDBManager().loadExecutableContainers(tasksToLoad,
+                                                                                           EXECUTABLE_CONTAINER_CACHE_SIZE);
+        for (InternalTask task : tasksToLoad) {
+            ExecutableContainer container = loaded.get(task.getId());
+            task.setExecutableContainer(container);
+            executableContainers.put(task.getId(), container);
+        }
     }
 
     /**
@@ -495,6 +495,16 @@ public class SchedulingService {
         }
     }
 
+    public boolean removeJobs(List<JobId> jobIds) {
+        try {
+            return infrastructure.getClientOperationsThreadPool()
+                                 .submit(new BulkJobRemoveHandler(this, jobIds))
+                                 .get();
+        } catch (Exception e) {
+            throw handleFutureWaitException(e);
+        }
+    }
+
     public void scheduleJobRemove(JobId jobId, long at) {
         List<InternalJob> tempJobs = infrastructure.getDBManager().loadJobWithTasksIfNotRemoved(jobId);
         boolean shouldRemoveFromDb = PASchedulerProperties.JOB_REMOVE_FROM_DB.getValueAsBoolean();
@@ -739,6 +749,21 @@ public class SchedulingService {
         }
     }
 
+    public void stopListeningJobLogs(final JobId jobId, final AppenderProvider appenderProvider) {
+        try {
+            infrastructure.getClientOperationsThreadPool().submit(new Runnable() {
+                @Override
+                public void run() {
+                    getListenJobLogsSupport().stopListeningJobLogs(jobId, appenderProvider);
+                }
+            }).get();
+        } catch (ExecutionException e) {
+            throw launderThrowable(e.getCause());
+        } catch (Exception e) {
+            throw launderThrowable(e);
+        }
+    }
+
     public void taskTerminatedWithResult(final TaskId taskId, final TaskResult taskResult) {
         infrastructure.getInternalOperationsThreadPool().submit(new Runnable() {
             @Override
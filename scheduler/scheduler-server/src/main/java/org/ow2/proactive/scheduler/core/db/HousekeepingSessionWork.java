@@ -40,12 +40,19 @@ import org.ow2.proactive.db.SessionWork;
  */
 public class HousekeepingSessionWork implements SessionWork<Void> {
 
-    private static List<Long> jobIdList;
+    private final List<Long> jobIdList;
 
-    private static boolean shouldRemoveFromDb;
+    private final long removedTime;
+
+    private final boolean shouldRemoveFromDb;
 
     public HousekeepingSessionWork(List<Long> jobIdList, boolean shouldRemoveFromDb) {
+        this(jobIdList, System.currentTimeMillis(), shouldRemoveFromDb);
+    }
+
+    public HousekeepingSessionWork(List<Long> jobIdList, long removedTime, boolean shouldRemoveFromDb) {
         this.jobIdList = jobIdList;
+        this.removedTime = removedTime;
         this.shouldRemoveFromDb = shouldRemoveFromDb;
     }
 
@@ -84,6 +91,9 @@ public class HousekeepingSessionWork implements SessionWork<Void> {
         session.getNamedQuery("deleteSelectionScriptDataInBulk")
                .setParameterList("jobIdList", jobIdList)
                .executeUpdate();
+        session.getNamedQuery("deleteTaskResultChunkDataInBulk")
+               .setParameterList("jobIdList", jobIdList)
+               .executeUpdate();
         session.createSQLQuery("delete from TASK_RESULT_DATA where JOB_ID in :jobIdList")
                .setParameterList("jobIdList", jobIdList)
                .executeUpdate();
@@ -97,7 +107,7 @@ public class HousekeepingSessionWork implements SessionWork<Void> {
 
     private void updateAsRemoved(Session session) {
         session.getNamedQuery("updateJobDataRemovedTimeInBulk")
-               .setParameter("removedTime", System.currentTimeMillis())
+               .setParameter("removedTime", removedTime)
                .setParameter("lastUpdatedTime", new Date().getTime())
                .setParameterList("jobIdList", jobIdList)
                .executeUpdate();
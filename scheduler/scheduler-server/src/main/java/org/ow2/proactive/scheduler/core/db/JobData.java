@@ -91,8 +91,7 @@ import com.google.common.collect.Lists;
                 @NamedQuery(name = "loadJobs", query = "select id from JobData where status in (:status) and removedTime = -1"),
                 @NamedQuery(name = "loadJobsWithPeriod", query = "select id from JobData where status in (:status) and removedTime = -1 and submittedTime >= :minSubmittedTime"),
                 @NamedQuery(name = "loadJobDataIfNotRemoved", query = "from JobData as job where job.id in (:ids) and job.removedTime = -1"),
-                @NamedQuery(name = "readAccountJobs", query = "select count(*), sum(finishedTime) - sum(startTime) from JobData" +
-                                                              " where owner = :username and finishedTime > 0"),
+                @NamedQuery(name = "loadJobStatusIfNotRemoved", query = "select id, status, owner from JobData where id in (:ids) and removedTime = -1"),
                 @NamedQuery(name = "updateJobAndTasksState", query = "update JobData set status = :status, " +
                                                                      "numberOfFailedTasks = :numberOfFailedTasks, numberOfFaultyTasks = :numberOfFaultyTasks, " +
                                                                      "numberOfInErrorTasks = :numberOfInErrorTasks, inErrorTime = :inErrorTime, lastUpdatedTime = :lastUpdatedTime " +
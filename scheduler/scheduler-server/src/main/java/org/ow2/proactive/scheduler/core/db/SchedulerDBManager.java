@@ -41,6 +41,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
 import org.hibernate.Criteria;
@@ -76,6 +77,7 @@ import org.ow2.proactive.scheduler.common.task.Task;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskInfo;
 import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.common.task.TaskResultValueChunk;
 import org.ow2.proactive.scheduler.common.task.TaskState;
 import org.ow2.proactive.scheduler.common.task.TaskStatus;
 import org.ow2.proactive.scheduler.common.task.dataspaces.InputSelector;
@@ -88,6 +90,7 @@ import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.job.ChangedTasksInfo;
 import org.ow2.proactive.scheduler.job.InternalJob;
 import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.job.JobInfoImpl;
 import org.ow2.proactive.scheduler.job.JobResultImpl;
 import org.ow2.proactive.scheduler.job.SchedulerUserInfo;
 import org.ow2.proactive.scheduler.task.TaskIdImpl;
@@ -101,6 +104,7 @@ import org.ow2.proactive.utils.FileToBytesConverter;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 
 import it.sauronsoftware.cron4j.Scheduler;
 
@@ -114,6 +118,14 @@ public class SchedulerDBManager {
 
     private static final Logger logger = Logger.getLogger(SchedulerDBManager.class);
 
+    private static final long USAGE_ROLLUP_PERIOD = TimeUnit.HOURS.toMillis(1);
+
+    // maximum amount of history read at once when building the usage rollups
+    private static final long USAGE_ROLLUP_WINDOW = TimeUnit.DAYS.toMillis(1);
+
+    // maximum number of tasks read at once when updating the usage rollups
+    private static final int USAGE_TASKS_BATCH_SIZE = 100;
+
     public static final Set<JobStatus> FINISHED_JOB_STATUSES = ImmutableSet.of(JobStatus.CANCELED,
                                                                                JobStatus.FAILED,
                                                                                JobStatus.KILLED,
@@ -150,6 +162,8 @@ public class SchedulerDBManager {
 
     private final TransactionHelper transactionHelper;
 
+    private final TaskResultStorage resultStorage = TaskResultStorage.createUsingProperties();
+
     private Scheduler tableSizeMonitorScheduler;
 
     public static SchedulerDBManager createUsingProperties() {
@@ -191,11 +205,13 @@ public class SchedulerDBManager {
             configuration.addAnnotatedClass(TaskData.class);
             configuration.addAnnotatedClass(TaskDataVariable.class);
             configuration.addAnnotatedClass(TaskResultData.class);
+            configuration.addAnnotatedClass(TaskResultChunkData.class);
             configuration.addAnnotatedClass(ScriptData.class);
             configuration.addAnnotatedClass(SelectionScriptData.class);
             configuration.addAnnotatedClass(EnvironmentModifierData.class);
             configuration.addAnnotatedClass(SelectorData.class);
             configuration.addAnnotatedClass(ThirdPartyCredentialData.class);
+            configuration.addAnnotatedClass(UserUsageData.class);
             if (drop) {
                 configuration.setProperty("hibernate.hbm2ddl.auto", "create");
             }
@@ -209,6 +225,11 @@ public class SchedulerDBManager {
             sessionFactory = configuration.buildSessionFactory(serviceRegistry);
             transactionHelper = new TransactionHelper(sessionFactory);
 
+            if (PASchedulerProperties.SCHEDULER_DB_USAGE_REBUILD.getValueAsBoolean()) {
+                deleteUsageRollups();
+            }
+            buildUsageRollups();
+
             setupTableSizeMonitoring();
         } catch (Throwable ex) {
             logger.error("Initial SessionFactory creation failed", ex);
@@ -694,40 +715,176 @@ public class SchedulerDBManager {
         return checkResult(id, result);
     }
 
+    /**
+     * Reads the account of a user from the usage rollups.
+     */
     public SchedulerAccount readAccount(final String username) {
         return executeReadOnlyTransaction(new SessionWork<SchedulerAccount>() {
 
             @Override
             public SchedulerAccount doInTransaction(Session session) {
-                Query tasksQuery = session.getNamedQuery("readAccountTasks").setParameter("username", username);
+                Object[] usage = (Object[]) session.getNamedQuery("readUserUsageData")
+                                                   .setParameter("owner", username)
+                                                   .uniqueResult();
+
+                return new SchedulerAccount(username,
+                                            toInt(usage[0]),
+                                            toLong(usage[1]),
+                                            toInt(usage[2]),
+                                            toLong(usage[3]));
+            }
+
+        });
+    }
 
-                int taskCount;
-                long taskDuration;
+    private static int toInt(Object aggregate) {
+        return aggregate == null ? 0 : ((Number) aggregate).intValue();
+    }
 
-                Object[] taskResult = (Object[]) tasksQuery.uniqueResult();
-                taskCount = ((Number) taskResult[0]).intValue();
-                if (taskResult[1] != null) {
-                    taskDuration = ((Number) taskResult[1]).longValue();
-                } else {
-                    taskDuration = 0;
+    private static long toLong(Object aggregate) {
+        return aggregate == null ? 0 : ((Number) aggregate).longValue();
+    }
+
+    /**
+     * Builds the usage rollups from the jobs history when there are none, for databases created
+     * before the rollups were maintained. The history is read by windows, but the rollups are
+     * written in a single transaction so that an interrupted build is started again on the next
+     * startup.
+     * <p>
+     * Jobs and tasks are accounted to the hour they finished in, per owner.
+     */
+    private void buildUsageRollups() {
+        executeReadWriteTransaction(new SessionWork<Void>() {
+            @Override
+            public Void doInTransaction(Session session) {
+                if ((Long) session.getNamedQuery("countUserUsageData").uniqueResult() > 0) {
+                    return null;
+                }
+                Long firstTask = (Long) session.createQuery("select min(finishedTime) from TaskData where finishedTime > 0")
+                                               .uniqueResult();
+                Long firstJob = (Long) session.createQuery("select min(finishedTime) from JobData where finishedTime > 0")
+                                              .uniqueResult();
+                if (firstTask == null && firstJob == null) {
+                    return null;
                 }
+                long first = Math.min(firstTask == null ? Long.MAX_VALUE : firstTask,
+                                      firstJob == null ? Long.MAX_VALUE : firstJob);
+                long now = System.currentTimeMillis();
+                logger.info("Building usage rollups of the jobs finished since " + new Date(first));
+
+                for (long from = first; from <= now; from += USAGE_ROLLUP_WINDOW) {
+                    Map<String, Map<Long, UserUsageData>> usage = new HashMap<>();
+
+                    List<?> tasks = session.createQuery("select task.jobData.owner, task.startTime, task.finishedTime from TaskData task " +
+                                                        "where task.finishedTime >= :from and task.finishedTime < :to")
+                                           .setParameter("from", from)
+                                           .setParameter("to", from + USAGE_ROLLUP_WINDOW)
+                                           .list();
+                    addTasksUsage(usage, tasks, 1);
+
+                    List<?> jobs = session.createQuery("select owner, startTime, finishedTime from JobData " +
+                                                       "where finishedTime >= :from and finishedTime < :to")
+                                          .setParameter("from", from)
+                                          .setParameter("to", from + USAGE_ROLLUP_WINDOW)
+                                          .list();
+                    addJobsUsage(usage, jobs, 1);
+
+                    saveUsage(session, usage);
+                    session.flush();
+                    session.clear();
+                }
+                return null;
+            }
+        });
+    }
 
-                int jobCount;
-                long jobDuration;
+    /**
+     * Adds the usage of a job and some of its tasks, as currently stored, to the given usage.
+     * Called with a sign of -1 before updating their start or finished times and with 1 after,
+     * so that the rollups follow the times of finished jobs and tasks, even once changed.
+     */
+    private void addUsage(Session session, Map<String, Map<Long, UserUsageData>> usage, long jobId,
+            List<Long> taskIds, int sign) {
+        for (List<Long> batch : Lists.partition(taskIds, USAGE_TASKS_BATCH_SIZE)) {
+            List<?> tasks = session.createQuery("select task.jobData.owner, task.startTime, task.finishedTime from TaskData task " +
+                                                "where task.id.jobId = :jobId and task.id.taskId in (:taskIds) and task.finishedTime > 0")
+                                   .setParameter("jobId", jobId)
+                                   .setParameterList("taskIds", batch)
+                                   .list();
+            addTasksUsage(usage, tasks, sign);
+        }
+        List<?> jobs = session.createQuery("select owner, startTime, finishedTime from JobData where id = :jobId and finishedTime > 0")
+                              .setParameter("jobId", jobId)
+                              .list();
+        addJobsUsage(usage, jobs, sign);
+    }
+
+    private void addTasksUsage(Map<String, Map<Long, UserUsageData>> usage, List<?> tasks, int sign) {
+        for (Object row : tasks) {
+            Object[] columns = (Object[]) row;
+            long finishedTime = (Long) columns[2];
+            userUsageData(usage, (String) columns[0], finishedTime).addTasks(sign,
+                                                                             sign * (finishedTime - (Long) columns[1]));
+        }
+    }
 
-                Query jobQuery = session.getNamedQuery("readAccountJobs").setParameter("username", username);
+    private void addJobsUsage(Map<String, Map<Long, UserUsageData>> usage, List<?> jobs, int sign) {
+        for (Object row : jobs) {
+            Object[] columns = (Object[]) row;
+            long finishedTime = (Long) columns[2];
+            userUsageData(usage, (String) columns[0], finishedTime).addJobs(sign,
+                                                                            sign * (finishedTime - (Long) columns[1]));
+        }
+    }
 
-                Object[] jobResult = (Object[]) jobQuery.uniqueResult();
-                jobCount = ((Number) jobResult[0]).intValue();
-                if (jobResult[1] != null) {
-                    jobDuration = ((Number) jobResult[1]).longValue();
-                } else {
-                    jobDuration = 0;
+    /**
+     * Adds usage to the per owner, per hour rollups.
+     */
+    private void saveUsage(Session session, Map<String, Map<Long, UserUsageData>> usage) {
+        for (Map<Long, UserUsageData> userUsage : usage.values()) {
+            for (UserUsageData userUsageData : userUsage.values()) {
+                if (userUsageData.isEmpty()) {
+                    continue;
+                }
+                int updated = session.getNamedQuery("updateUserUsageData")
+                                     .setParameter("taskCount", userUsageData.getTaskCount())
+                                     .setParameter("taskDuration", userUsageData.getTaskDuration())
+                                     .setParameter("jobCount", userUsageData.getJobCount())
+                                     .setParameter("jobDuration", userUsageData.getJobDuration())
+                                     .setParameter("owner", userUsageData.getOwner())
+                                     .setParameter("hourStart", userUsageData.getHourStart())
+                                     .executeUpdate();
+                if (updated == 0) {
+                    session.save(userUsageData);
                 }
-
-                return new SchedulerAccount(username, taskCount, taskDuration, jobCount, jobDuration);
             }
+        }
+    }
+
+    private UserUsageData userUsageData(Map<String, Map<Long, UserUsageData>> usage, String owner,
+            long finishedTime) {
+        long hourStart = finishedTime - finishedTime % USAGE_ROLLUP_PERIOD;
+        Map<Long, UserUsageData> userUsage = usage.get(owner);
+        if (userUsage == null) {
+            userUsage = new HashMap<>();
+            usage.put(owner, userUsage);
+        }
+        UserUsageData userUsageData = userUsage.get(hourStart);
+        if (userUsageData == null) {
+            userUsageData = new UserUsageData(owner, hourStart);
+            userUsage.put(hourStart, userUsageData);
+        }
+        return userUsageData;
+    }
 
+    private void deleteUsageRollups() {
+        executeReadWriteTransaction(new SessionWork<Void>() {
+            @Override
+            public Void doInTransaction(Session session) {
+                int deleted = session.getNamedQuery("deleteUserUsageData").executeUpdate();
+                logger.info("Deleted " + deleted + " usage rollups, they will be rebuilt from the jobs history");
+                return null;
+            }
         });
     }
 
@@ -785,6 +942,25 @@ public class SchedulerDBManager {
         executeReadWriteTransaction(new HousekeepingSessionWork(jobIdList, shouldRemoveFromDb));
     }
 
+    /**
+     * Removes the given jobs, or only marks them as removed, with set based
+     * queries in a single transaction.
+     *
+     * @param jobIds the jobs to remove
+     * @param removedTime the removal time recorded when the data is kept
+     * @param removeData true to delete the jobs data, false to only mark them as removed
+     */
+    public void removeJobs(final List<JobId> jobIds, final long removedTime, final boolean removeData) {
+        if (jobIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(jobIds.size());
+        for (JobId jobId : jobIds) {
+            ids.add(jobId(jobId));
+        }
+        executeReadWriteTransaction(new HousekeepingSessionWork(ids, removedTime, removeData));
+    }
+
     public void removeJob(final JobId jobId, final long removedTime, final boolean removeData) {
         executeReadWriteTransaction(new SessionWork<Void>() {
             @Override
@@ -872,6 +1048,45 @@ public class SchedulerDBManager {
         });
     }
 
+    /**
+     * Loads only the id, the status and the owner of the given jobs, tasks are not loaded.
+     * Jobs already removed or unknown are not part of the result.
+     *
+     * @param jobIds the jobs to load
+     * @return a job info holding the id, the status and the owner of each job found
+     */
+    public List<JobInfoImpl> loadJobsStatusIfNotRemoved(final List<JobId> jobIds) {
+        if (jobIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return executeReadOnlyTransaction(new SessionWork<List<JobInfoImpl>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public List<JobInfoImpl> doInTransaction(Session session) {
+                Map<Long, JobId> idsMap = new HashMap<>(jobIds.size(), 1f);
+                for (JobId jobId : jobIds) {
+                    idsMap.put(jobId(jobId), jobId);
+                }
+
+                List<Object[]> rows = session.getNamedQuery("loadJobStatusIfNotRemoved")
+                                             .setParameterList("ids", idsMap.keySet())
+                                             .setReadOnly(true)
+                                             .list();
+
+                List<JobInfoImpl> result = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    JobInfoImpl jobInfo = new JobInfoImpl();
+                    jobInfo.setJobId(idsMap.get((Long) row[0]));
+                    jobInfo.setStatus((JobStatus) row[1]);
+                    jobInfo.setJobOwner((String) row[2]);
+                    result.add(jobInfo);
+                }
+                return result;
+            }
+
+        });
+    }
+
     public List<InternalJob> loadJobs(final boolean fullState, final JobId... jobIds) {
         return executeReadOnlyTransaction(new SessionWork<List<InternalJob>>() {
             @Override
@@ -1039,6 +1254,11 @@ public class SchedulerDBManager {
             public Void doInTransaction(Session session) {
                 long jobId = jobId(job);
 
+                // a task restarted after it finished is not finished anymore
+                List<Long> taskIds = Collections.singletonList(task.getId().longValue());
+                Map<String, Map<Long, UserUsageData>> usage = new HashMap<>();
+                addUsage(session, usage, jobId, taskIds, -1);
+
                 JobInfo jobInfo = job.getJobInfo();
 
                 session.getNamedQuery("updateJobDataTaskStarted")
@@ -1070,6 +1290,9 @@ public class SchedulerDBManager {
                        .setParameter("taskId", taskId)
                        .executeUpdate();
 
+                addUsage(session, usage, jobId, taskIds, 1);
+                saveUsage(session, usage);
+
                 return null;
             }
 
@@ -1124,6 +1347,18 @@ public class SchedulerDBManager {
             public Void doInTransaction(Session session) {
                 long jobId = jobId(job);
 
+                List<Long> usageTaskIds = new ArrayList<>(changesInfo.getSkippedTasks().size() +
+                                                          changesInfo.getUpdatedTasks().size() +
+                                                          changesInfo.getNewTasks().size());
+                for (TaskId id : Iterables.concat(changesInfo.getSkippedTasks(), changesInfo.getUpdatedTasks())) {
+                    usageTaskIds.add(id.longValue());
+                }
+                Map<String, Map<Long, UserUsageData>> usage = new HashMap<>();
+                addUsage(session, usage, jobId, usageTaskIds, -1);
+                for (TaskId id : changesInfo.getNewTasks()) {
+                    usageTaskIds.add(id.longValue());
+                }
+
                 JobInfo jobInfo = job.getJobInfo();
 
                 session.getNamedQuery("updateJobDataAfterWorkflowTaskFinished")
@@ -1189,6 +1424,9 @@ public class SchedulerDBManager {
 
                 saveTaskDependencies(session, tasks, taskRuntimeDataList);
 
+                addUsage(session, usage, jobId, usageTaskIds, 1);
+                saveUsage(session, usage);
+
                 TaskData.DBTaskId taskId = taskId(result.getTaskId());
                 saveTaskResult(taskId, result, session);
 
@@ -1297,6 +1535,9 @@ public class SchedulerDBManager {
         executeReadWriteTransaction(new SessionWork<Void>() {
             @Override
             public Void doInTransaction(Session session) {
+                List<Long> taskIds = Collections.singletonList(taskId);
+                Map<String, Map<Long, UserUsageData>> usage = new HashMap<>();
+                addUsage(session, usage, jobId, taskIds, -1);
 
                 Query query = session.createQuery("update TaskData task set task." + fieldName + " = :newTime " + // NOSONAR
                                                   "where task.id.jobId = :jobId and task.id.taskId= :taskId")
@@ -1306,6 +1547,9 @@ public class SchedulerDBManager {
 
                 query.executeUpdate();
 
+                addUsage(session, usage, jobId, taskIds, 1);
+                saveUsage(session, usage);
+
                 return null;
             }
         });
@@ -1323,6 +1567,17 @@ public class SchedulerDBManager {
             public Void doInTransaction(Session session) {
                 long jobId = jobId(job);
 
+                if (finishedTask != null) {
+                    tasksToUpdate.add(finishedTask.getId());
+                }
+
+                List<Long> taskIds = new ArrayList<>(tasksToUpdate.size());
+                for (TaskId id : tasksToUpdate) {
+                    taskIds.add(id.longValue());
+                }
+                Map<String, Map<Long, UserUsageData>> usage = new HashMap<>();
+                addUsage(session, usage, jobId, taskIds, -1);
+
                 JobInfo jobInfo = job.getJobInfo();
 
                 session.getNamedQuery("updateJobDataAfterTaskFinished")
@@ -1340,10 +1595,6 @@ public class SchedulerDBManager {
 
                 Query taskUpdateQuery = session.getNamedQuery("updateTaskDataAfterJobFinished");
 
-                if (finishedTask != null) {
-                    tasksToUpdate.add(finishedTask.getId());
-                }
-
                 for (TaskId id : tasksToUpdate) {
                     InternalTask task = job.getIHMTasks().get(id);
                     TaskData.DBTaskId taskId = taskId(task.getId());
@@ -1360,6 +1611,9 @@ public class SchedulerDBManager {
                                    .executeUpdate();
                 }
 
+                addUsage(session, usage, jobId, taskIds, 1);
+                saveUsage(session, usage);
+
                 if (result != null) {
                     TaskData.DBTaskId taskId = taskId(finishedTask.getId());
                     saveTaskResult(taskId, result, session);
@@ -1381,10 +1635,7 @@ public class SchedulerDBManager {
     private TaskResultData saveTaskResult(TaskData.DBTaskId taskId, TaskResultImpl result, Session session) {
         TaskData taskRuntimeData = session.load(TaskData.class, taskId);
 
-        TaskResultData resultData = TaskResultData.createTaskResultData(taskRuntimeData, result);
-        session.save(resultData);
-
-        return resultData;
+        return resultStorage.save(session, taskRuntimeData, result);
     }
 
     public void jobSetToBeRemoved(final JobId jobId) {
@@ -1505,7 +1756,9 @@ public class SchedulerDBManager {
             boolean nextTask = !dbTaskId.equals(currentTaskId);
             if (nextTask) {
                 TaskId taskId = TaskIdImpl.createTaskId(jobId, taskName, dbTaskId.getTaskId());
-                jobResult.addTaskResult(taskName, resultData.toTaskResult(taskId), preciousResult);
+                jobResult.addTaskResult(taskName,
+                                        resultStorage.toTaskResult(session, resultData, taskId),
+                                        preciousResult);
                 currentTaskId = dbTaskId;
             }
 
@@ -1571,10 +1824,74 @@ public class SchedulerDBManager {
         if (results.isEmpty()) {
             return null;
         } else {
-            return results.get(0).toTaskResult(taskId);
+            return resultStorage.toTaskResult(session, results.get(0), taskId);
         }
     }
 
+    /**
+     * Loads a part of the serialized value of a result of a task, without loading the whole value.
+     *
+     * @param resultId id of the result to read, or {@link TaskResultValueChunk#LAST_RESULT} for the last one
+     * @return the chunk, or null if the task has no result value or if there is no such chunk
+     */
+    public TaskResultValueChunk loadTaskResultValueChunk(final JobId jobId, final String taskName,
+            final long resultId, final int chunkIndex) {
+        return executeReadOnlyTransaction(new SessionWork<TaskResultValueChunk>() {
+
+            @Override
+            public TaskResultValueChunk doInTransaction(Session session) {
+                long id = jobId(jobId);
+
+                Object[] taskSearchResult = (Object[]) session.getNamedQuery("loadTasksResultByJobAndTaskName")
+                                                              .setParameter("taskName", taskName)
+                                                              .setParameter("job", session.load(JobData.class, id))
+                                                              .uniqueResult();
+
+                if (taskSearchResult == null) {
+                    throw new MissingTaskResultException("Failed to load result for task '" + taskName + ", job: " +
+                                                         jobId);
+                }
+
+                TaskData task = session.load(TaskData.class, (DBTaskId) taskSearchResult[0]);
+                Object[] descriptor;
+                if (resultId == TaskResultValueChunk.LAST_RESULT) {
+                    descriptor = (Object[]) session.getNamedQuery("loadTaskResultValueDescriptor")
+                                                   .setParameter("task", task)
+                                                   .setMaxResults(1)
+                                                   .uniqueResult();
+                    if (descriptor == null) {
+                        return null;
+                    }
+                } else {
+                    descriptor = (Object[]) session.getNamedQuery("loadTaskResultValueDescriptorById")
+                                                   .setParameter("resultId", resultId)
+                                                   .setParameter("task", task)
+                                                   .uniqueResult();
+                    if (descriptor == null) {
+                        throw new MissingTaskResultException("Failed to load result " + resultId + " for task '" +
+                                                             taskName + ", job: " + jobId);
+                    }
+                }
+
+                long valueResultId = (Long) descriptor[0];
+                Integer chunks = (Integer) descriptor[2];
+                byte[] chunk = resultStorage.loadValueChunk(session,
+                                                            valueResultId,
+                                                            (TaskResultCodec) descriptor[1],
+                                                            chunks,
+                                                            chunkIndex);
+                if (chunk == null) {
+                    return null;
+                }
+                return new TaskResultValueChunk(valueResultId,
+                                                chunkIndex,
+                                                chunks == null || chunks == 0 ? 1 : chunks,
+                                                chunk);
+            }
+
+        });
+    }
+
     public void newJobSubmitted(final InternalJob job) {
         executeReadWriteTransaction(new SessionWork<JobData>() {
 
@@ -1704,6 +2021,58 @@ public class SchedulerDBManager {
         });
     }
 
+    /**
+     * Loads the executable containers of several tasks at once. Tasks are fetched together with their
+     * script with one query per batch of {@code batchSize} tasks, instead of one query per task and
+     * one more to initialize the lazy script.
+     *
+     * @param tasks the tasks whose containers must be loaded
+     * @param batchSize maximum number of task ids given to a single query
+     * @return the executable containers of the given tasks, by task id
+     */
+    public Map<TaskId, ExecutableContainer> loadExecutableContainers(final Collection<InternalTask> tasks,
+            final int batchSize) {
+        if (tasks.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return executeReadOnlyTransaction(new SessionWork<Map<TaskId, ExecutableContainer>>() {
+            @Override
+            public Map<TaskId, ExecutableContainer> doInTransaction(Session session) {
+                Map<TaskData.DBTaskId, InternalTask> tasksById = new HashMap<>(tasks.size());
+                for (InternalTask task : tasks) {
+                    if (!isScriptTask(task)) {
+                        throw new IllegalArgumentException("Unexpected task class: " + task.getClass());
+                    }
+                    tasksById.put(taskId(task), task);
+                }
+
+                Map<TaskId, ExecutableContainer> containers = new HashMap<>(tasksById.size());
+                for (List<TaskData.DBTaskId> ids : Iterables.partition(tasksById.keySet(), Math.max(1, batchSize))) {
+                    List<TaskData> tasksData = session.getNamedQuery("findTaskDataWithScript")
+                                                      .setParameterList("ids", ids)
+                                                      .list();
+                    for (TaskData taskData : tasksData) {
+                        InternalTask task = tasksById.get(taskData.getId());
+                        try {
+                            containers.put(task.getId(), taskData.createExecutableContainer());
+                        } catch (Exception e) {
+                            throw new DatabaseManagerException(e);
+                        }
+                    }
+                }
+
+                if (containers.size() != tasksById.size()) {
+                    for (InternalTask task : tasksById.values()) {
+                        if (!containers.containsKey(task.getId())) {
+                            throw new DatabaseManagerException("Failed to load data for task " + task.getId());
+                        }
+                    }
+                }
+                return containers;
+            }
+        });
+    }
+
     public List<SchedulerUserInfo> loadUsersWithJobs() {
         return executeReadOnlyTransaction(new SessionWork<List<SchedulerUserInfo>>() {
             @Override
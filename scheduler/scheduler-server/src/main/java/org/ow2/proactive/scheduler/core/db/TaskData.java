@@ -112,11 +112,10 @@ import org.ow2.proactive.topology.descriptor.TopologyDescriptor;
                                                                    "and task.jobData.status in (:jobStatus) and task.jobData.removedTime = -1"),
                 @NamedQuery(name = "findTaskData", query = "from TaskData where id in (:ids)"),
                 @NamedQuery(name = "findTaskDataById", query = "from TaskData td where td.id = :taskId"),
+                @NamedQuery(name = "findTaskDataWithScript", query = "select td from TaskData td left join fetch td.script where td.id in (:ids)"),
                 @NamedQuery(name = "getTotalNumberOfHostsUsed", query = "select count(distinct executionHostName) from TaskData task where task.jobData.id = :id"),
                 @NamedQuery(name = "getTotalTasksCount", query = "select count(*) from TaskData task where task.jobData.removedTime = -1"),
                 @NamedQuery(name = "loadJobsTasks", query = "from TaskData as task left outer join fetch task.dependentTasks where task.id.jobId in (:ids)"),
-                @NamedQuery(name = "readAccountTasks", query = "select count(*), sum(task.finishedTime) - sum(task.startTime) from TaskData task " +
-                                                               "where task.finishedTime > 0 and task.jobData.owner = :username"),
                 @NamedQuery(name = "updateTaskData", query = "update TaskData task set task.taskStatus = :taskStatus, " +
                                                              "task.numberOfExecutionLeft = :numberOfExecutionLeft, " +
                                                              "task.numberOfExecutionOnFailureLeft = :numberOfExecutionOnFailureLeft, " +
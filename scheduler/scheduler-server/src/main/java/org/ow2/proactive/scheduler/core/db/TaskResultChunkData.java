@@ -0,0 +1,104 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import javax.persistence.*;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+
+/**
+ * Part of a serialized task result value too big to be stored in a single row of {@link TaskResultData}.
+ * Each chunk is encoded independently with the codec of the result, so that it can be read on its own.
+ *
+ * @author ActiveEon Team
+ */
+@Entity
+@NamedQueries({ @NamedQuery(name = "deleteTaskResultChunkDataInBulk", query = "delete from TaskResultChunkData where result.id in (select id from TaskResultData where taskRuntimeData.jobData.id in :jobIdList)"),
+                @NamedQuery(name = "loadTaskResultChunk", query = "select data from TaskResultChunkData where result.id = :resultId and chunkIndex = :chunkIndex"),
+                @NamedQuery(name = "countTaskResultChunkData", query = "select count (*) from TaskResultChunkData") })
+@Table(name = "TASK_RESULT_CHUNK_DATA", indexes = { @Index(name = "TASK_RESULT_CHUNK_DATA_RESULT", columnList = "RESULT_ID,CHUNK_INDEX") })
+public class TaskResultChunkData {
+
+    private long id;
+
+    private TaskResultData result;
+
+    private int chunkIndex;
+
+    private byte[] data;
+
+    static TaskResultChunkData create(TaskResultData result, int chunkIndex, byte[] data) {
+        TaskResultChunkData chunkData = new TaskResultChunkData();
+        chunkData.setResult(result);
+        chunkData.setChunkIndex(chunkIndex);
+        chunkData.setData(data);
+        return chunkData;
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "TASK_RESULT_CHUNK_DATA_ID_SEQUENCE")
+    @SequenceGenerator(name = "TASK_RESULT_CHUNK_DATA_ID_SEQUENCE", sequenceName = "TASK_RESULT_CHUNK_DATA_ID_SEQUENCE")
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(name = "RESULT_ID", nullable = false)
+    public TaskResultData getResult() {
+        return result;
+    }
+
+    public void setResult(TaskResultData result) {
+        this.result = result;
+    }
+
+    @Column(name = "CHUNK_INDEX", nullable = false)
+    public int getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public void setChunkIndex(int chunkIndex) {
+        this.chunkIndex = chunkIndex;
+    }
+
+    @Column(name = "DATA", length = Integer.MAX_VALUE)
+    @Lob
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.ow2.proactive.db.DatabaseManagerException;
+
+
+/**
+ * Encoding of the serialized task results stored in the database.
+ * <p>
+ * Results stored before the encoding was recorded have no codec and are read as {@link #NONE}.
+ *
+ * @author ActiveEon Team
+ */
+public enum TaskResultCodec {
+
+    NONE {
+        @Override
+        byte[] encode(byte[] data, int offset, int length) {
+            if (offset == 0 && length == data.length) {
+                return data;
+            }
+            return Arrays.copyOfRange(data, offset, offset + length);
+        }
+
+        @Override
+        byte[] decode(byte[] data) {
+            return data;
+        }
+    },
+
+    DEFLATE {
+        @Override
+        byte[] encode(byte[] data, int offset, int length) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(data, offset, length);
+                deflater.finish();
+                ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(BUFFER_SIZE, length / 4));
+                byte[] buffer = new byte[BUFFER_SIZE];
+                while (!deflater.finished()) {
+                    int count = deflater.deflate(buffer);
+                    output.write(buffer, 0, count);
+                }
+                return output.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        byte[] decode(byte[] data) {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data);
+                ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(BUFFER_SIZE, data.length * 4));
+                byte[] buffer = new byte[BUFFER_SIZE];
+                while (!inflater.finished()) {
+                    int count = inflater.inflate(buffer);
+                    if (count == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new DatabaseManagerException("Truncated compressed task result");
+                    }
+                    output.write(buffer, 0, count);
+                }
+                return output.toByteArray();
+            } catch (DataFormatException e) {
+                throw new DatabaseManagerException("Invalid compressed task result", e);
+            } finally {
+                inflater.end();
+            }
+        }
+    };
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Encodes a part of a serialized result.
+     */
+    abstract byte[] encode(byte[] data, int offset, int length);
+
+    /**
+     * Decodes data previously returned by {@link #encode(byte[], int, int)}.
+     */
+    abstract byte[] decode(byte[] data);
+
+    static TaskResultCodec nullToNone(TaskResultCodec codec) {
+        return codec == null ? NONE : codec;
+    }
+
+}
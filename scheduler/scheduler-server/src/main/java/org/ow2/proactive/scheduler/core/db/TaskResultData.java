@@ -46,6 +46,9 @@ import org.ow2.proactive.scheduler.task.TaskResultImpl;
                                                             "task.preciousResult from TaskResultData as taskResult left outer join taskResult.taskRuntimeData as task " + "where task.jobData = :job order by task.id, taskResult.resultTime desc"),
                 @NamedQuery(name = "loadTasksResultByJobAndTaskName", query = "select id, taskName from TaskData where taskName = :taskName and jobData = :job"),
                 @NamedQuery(name = "loadTasksResultByTask", query = "from TaskResultData result where result.taskRuntimeData = :task order by result.resultTime desc"),
+                @NamedQuery(name = "loadTaskResultValueDescriptor", query = "select result.id, result.valueCodec, result.valueChunks from TaskResultData result where result.taskRuntimeData = :task order by result.resultTime desc"),
+                @NamedQuery(name = "loadTaskResultValueDescriptorById", query = "select result.id, result.valueCodec, result.valueChunks from TaskResultData result where result.id = :resultId and result.taskRuntimeData = :task"),
+                @NamedQuery(name = "loadTaskResultValue", query = "select serializedValue from TaskResultData where id = :resultId"),
                 @NamedQuery(name = "loadTasksResults", query = "select taskResult, " + "task.id, " + "task.taskName, " +
                                                                "task.preciousResult from TaskResultData as taskResult join taskResult.taskRuntimeData as task " + "where task.id in (:tasksIds) order by task.id, taskResult.resultTime desc"),
                 @NamedQuery(name = "countTaskResultData", query = "select count (*) from TaskResultData") })
@@ -62,6 +65,14 @@ public class TaskResultData {
 
     private byte[] serializedException;
 
+    private TaskResultCodec valueCodec;
+
+    private TaskResultCodec exceptionCodec;
+
+    private Integer valueChunks;
+
+    private Long valueSize;
+
     private Boolean isRaw;
 
     private String previewerClassName;
@@ -74,11 +85,11 @@ public class TaskResultData {
 
     private Map<String, String> metadata;
 
-    TaskResultImpl toTaskResult(TaskId taskId) {
+    TaskResultImpl toTaskResult(TaskId taskId, byte[] serializedValue, byte[] serializedException) {
 
         TaskResultImpl result = new TaskResultImpl(taskId,
-                                                   getSerializedValue(),
-                                                   getSerializedException(),
+                                                   serializedValue,
+                                                   serializedException,
                                                    getLogs(),
                                                    getMetadata(),
                                                    getPropagatedVariables(),
@@ -105,8 +116,6 @@ public class TaskResultData {
         resultData.setPreviewerClassName(result.getPreviewerClassName());
         resultData.setMetadata(result.getMetadata());
         resultData.setPropagatedVariables(result.getPropagatedVariables());
-        resultData.setSerializedException(result.getSerializedException());
-        resultData.setSerializedValue(result.getSerializedValue());
         resultData.setResultTime(System.currentTimeMillis());
         resultData.setRaw(result.isRaw());
 
@@ -195,6 +204,45 @@ public class TaskResultData {
         this.serializedException = serializedException;
     }
 
+    @Column(name = "RESULT_VALUE_CODEC")
+    public TaskResultCodec getValueCodec() {
+        return valueCodec;
+    }
+
+    public void setValueCodec(TaskResultCodec valueCodec) {
+        this.valueCodec = valueCodec;
+    }
+
+    @Column(name = "RESULT_EXCEPTION_CODEC")
+    public TaskResultCodec getExceptionCodec() {
+        return exceptionCodec;
+    }
+
+    public void setExceptionCodec(TaskResultCodec exceptionCodec) {
+        this.exceptionCodec = exceptionCodec;
+    }
+
+    /**
+     * @return number of {@link TaskResultChunkData} holding the value, null or 0 when the value is stored inline
+     */
+    @Column(name = "RESULT_VALUE_CHUNKS")
+    public Integer getValueChunks() {
+        return valueChunks;
+    }
+
+    public void setValueChunks(Integer valueChunks) {
+        this.valueChunks = valueChunks;
+    }
+
+    @Column(name = "RESULT_VALUE_SIZE")
+    public Long getValueSize() {
+        return valueSize;
+    }
+
+    public void setValueSize(Long valueSize) {
+        this.valueSize = valueSize;
+    }
+
     @Column(name = "PREVIEWER_CLASS", length = 1000)
     public String getPreviewerClassName() {
         return previewerClassName;
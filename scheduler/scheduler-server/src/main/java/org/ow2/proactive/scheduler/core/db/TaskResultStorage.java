@@ -0,0 +1,186 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import org.hibernate.Session;
+import org.ow2.proactive.db.DatabaseManagerException;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+
+
+/**
+ * Stores the serialized values and exceptions of task results.
+ * <p>
+ * Serialized data bigger than the compression threshold is compressed. Values bigger than the chunk size are
+ * split in {@link TaskResultChunkData} rows which are encoded independently, so that a value can be read one
+ * chunk at a time instead of being loaded entirely in memory.
+ * Rows written before the codec was recorded are read as uncompressed inline values.
+ *
+ * @author ActiveEon Team
+ */
+class TaskResultStorage {
+
+    private final int compressionThreshold;
+
+    private final int chunkSize;
+
+    TaskResultStorage(int compressionThreshold, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.compressionThreshold = compressionThreshold;
+        this.chunkSize = chunkSize;
+    }
+
+    static TaskResultStorage createUsingProperties() {
+        return new TaskResultStorage(PASchedulerProperties.SCHEDULER_DB_RESULT_COMPRESSION_THRESHOLD.getValueAsInt(),
+                                     PASchedulerProperties.SCHEDULER_DB_RESULT_CHUNK_SIZE.getValueAsInt());
+    }
+
+    TaskResultData save(Session session, TaskData taskRuntimeData, TaskResultImpl result) {
+        TaskResultData resultData = TaskResultData.createTaskResultData(taskRuntimeData, result);
+
+        byte[] exception = result.getSerializedException();
+        if (exception != null) {
+            TaskResultCodec codec = codecFor(exception.length);
+            resultData.setExceptionCodec(codec);
+            resultData.setSerializedException(codec.encode(exception, 0, exception.length));
+        }
+
+        byte[] value = result.getSerializedValue();
+        int chunks = 0;
+        TaskResultCodec valueCodec = null;
+        if (value != null) {
+            valueCodec = codecFor(value.length);
+            resultData.setValueCodec(valueCodec);
+            resultData.setValueSize((long) value.length);
+            if (value.length <= chunkSize) {
+                resultData.setSerializedValue(valueCodec.encode(value, 0, value.length));
+            } else {
+                chunks = (value.length + chunkSize - 1) / chunkSize;
+                resultData.setSerializedValue(null);
+                resultData.setValueChunks(chunks);
+            }
+        }
+
+        session.save(resultData);
+
+        for (int index = 0; index < chunks; index++) {
+            int offset = index * chunkSize;
+            int length = Math.min(chunkSize, value.length - offset);
+            TaskResultChunkData chunkData = TaskResultChunkData.create(resultData,
+                                                                       index,
+                                                                       valueCodec.encode(value, offset, length));
+            session.save(chunkData);
+            // write the chunks one by one rather than keeping all of them encoded in the session
+            session.flush();
+            session.evict(chunkData);
+        }
+
+        return resultData;
+    }
+
+    TaskResultImpl toTaskResult(Session session, TaskResultData resultData, TaskId taskId) {
+        return resultData.toTaskResult(taskId, loadValue(session, resultData), loadException(resultData));
+    }
+
+    byte[] loadException(TaskResultData resultData) {
+        byte[] exception = resultData.getSerializedException();
+        if (exception == null) {
+            return null;
+        }
+        return TaskResultCodec.nullToNone(resultData.getExceptionCodec()).decode(exception);
+    }
+
+    byte[] loadValue(Session session, TaskResultData resultData) {
+        TaskResultCodec codec = TaskResultCodec.nullToNone(resultData.getValueCodec());
+        Integer chunks = resultData.getValueChunks();
+        if (chunks == null || chunks == 0) {
+            byte[] value = resultData.getSerializedValue();
+            return value == null ? null : codec.decode(value);
+        }
+
+        Long size = resultData.getValueSize();
+        byte[] value = new byte[size.intValue()];
+        int offset = 0;
+        for (int index = 0; index < chunks; index++) {
+            byte[] chunk = loadChunk(session, resultData.getId(), index, codec);
+            System.arraycopy(chunk, 0, value, offset, chunk.length);
+            offset += chunk.length;
+        }
+        if (offset != value.length) {
+            throw new DatabaseManagerException("Task result " + resultData.getId() + " has " + offset +
+                                               " bytes instead of " + value.length);
+        }
+        return value;
+    }
+
+    /**
+     * Loads a part of the serialized value of a task result.
+     *
+     * @param session current session
+     * @param resultId id of the {@link TaskResultData}
+     * @param codec codec of the value, null for results stored without codec
+     * @param chunks number of chunks of the value, null or 0 if the value is stored inline
+     * @param index index of the chunk to load
+     * @return the decoded chunk, or null if the result has no value or if there is no such chunk
+     */
+    byte[] loadValueChunk(Session session, long resultId, TaskResultCodec codec, Integer chunks, int index) {
+        if (chunks == null || chunks == 0) {
+            if (index != 0) {
+                return null;
+            }
+            byte[] value = (byte[]) session.getNamedQuery("loadTaskResultValue")
+                                           .setParameter("resultId", resultId)
+                                           .uniqueResult();
+            return value == null ? null : TaskResultCodec.nullToNone(codec).decode(value);
+        }
+        if (index < 0 || index >= chunks) {
+            return null;
+        }
+        return loadChunk(session, resultId, index, TaskResultCodec.nullToNone(codec));
+    }
+
+    private byte[] loadChunk(Session session, long resultId, int index, TaskResultCodec codec) {
+        byte[] chunk = (byte[]) session.getNamedQuery("loadTaskResultChunk")
+                                       .setParameter("resultId", resultId)
+                                       .setParameter("chunkIndex", index)
+                                       .uniqueResult();
+        if (chunk == null) {
+            throw new MissingTaskResultException("Missing chunk " + index + " of task result " + resultId);
+        }
+        return codec.decode(chunk);
+    }
+
+    private TaskResultCodec codecFor(int size) {
+        if (compressionThreshold >= 0 && size > compressionThreshold) {
+            return TaskResultCodec.DEFLATE;
+        }
+        return TaskResultCodec.NONE;
+    }
+
+}
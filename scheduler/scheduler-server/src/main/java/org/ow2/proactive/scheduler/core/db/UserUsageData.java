@@ -0,0 +1,153 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import javax.persistence.*;
+
+
+/**
+ * Jobs and tasks of a user finished during one hour. The rows are updated with
+ * {@link JobData} and {@link TaskData} when their start or finished times change, so that
+ * accounts do not need to aggregate the whole jobs history.
+ */
+@Entity
+@NamedQueries({ @NamedQuery(name = "readUserUsageData", query = "select sum(taskCount), sum(taskDuration), sum(jobCount), sum(jobDuration) " +
+                                                                "from UserUsageData where owner = :owner"),
+                @NamedQuery(name = "updateUserUsageData", query = "update UserUsageData set taskCount = taskCount + :taskCount, " +
+                                                                  "taskDuration = taskDuration + :taskDuration, jobCount = jobCount + :jobCount, " +
+                                                                  "jobDuration = jobDuration + :jobDuration where owner = :owner and hourStart = :hourStart"),
+                @NamedQuery(name = "deleteUserUsageData", query = "delete from UserUsageData"),
+                @NamedQuery(name = "countUserUsageData", query = "select count (*) from UserUsageData") })
+@Table(name = "USER_USAGE_DATA", indexes = { @Index(name = "USER_USAGE_DATA_OWNER", columnList = "OWNER"),
+                                             @Index(name = "USER_USAGE_DATA_HOUR", columnList = "HOUR_START") })
+public class UserUsageData {
+
+    private long id;
+
+    private String owner;
+
+    private long hourStart;
+
+    private int taskCount;
+
+    private long taskDuration;
+
+    private int jobCount;
+
+    private long jobDuration;
+
+    public UserUsageData() {
+    }
+
+    UserUsageData(String owner, long hourStart) {
+        this.owner = owner;
+        this.hourStart = hourStart;
+    }
+
+    void addTasks(int count, long duration) {
+        taskCount += count;
+        taskDuration += duration;
+    }
+
+    void addJobs(int count, long duration) {
+        jobCount += count;
+        jobDuration += duration;
+    }
+
+    boolean isEmpty() {
+        return taskCount == 0 && taskDuration == 0 && jobCount == 0 && jobDuration == 0;
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "USER_USAGE_DATA_ID_SEQUENCE")
+    @SequenceGenerator(name = "USER_USAGE_DATA_ID_SEQUENCE", sequenceName = "USER_USAGE_DATA_ID_SEQUENCE")
+    @Column(name = "ID")
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    @Column(name = "OWNER", nullable = false)
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * @return start of the hour, in milliseconds since the epoch
+     */
+    @Column(name = "HOUR_START", nullable = false)
+    public long getHourStart() {
+        return hourStart;
+    }
+
+    public void setHourStart(long hourStart) {
+        this.hourStart = hourStart;
+    }
+
+    @Column(name = "TASK_COUNT")
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public void setTaskCount(int taskCount) {
+        this.taskCount = taskCount;
+    }
+
+    @Column(name = "TASK_DURATION")
+    public long getTaskDuration() {
+        return taskDuration;
+    }
+
+    public void setTaskDuration(long taskDuration) {
+        this.taskDuration = taskDuration;
+    }
+
+    @Column(name = "JOB_COUNT")
+    public int getJobCount() {
+        return jobCount;
+    }
+
+    public void setJobCount(int jobCount) {
+        this.jobCount = jobCount;
+    }
+
+    @Column(name = "JOB_DURATION")
+    public long getJobDuration() {
+        return jobDuration;
+    }
+
+    public void setJobDuration(long jobDuration) {
+        this.jobDuration = jobDuration;
+    }
+
+}
@@ -61,6 +61,7 @@ public class TableSizeMonitorRunner implements Runnable {
                                                                                      "SelectionScriptData",
                                                                                      "TaskDataVariable",
                                                                                      "TaskResultData",
+                                                                                     "TaskResultChunkData",
                                                                                      "ThirdPartyCredentialData"));
 
     public TableSizeMonitorRunner(TransactionHelper transactionHelper) {
@@ -99,7 +100,9 @@ public class TableSizeMonitorRunner implements Runnable {
         counts.put("SelectionScriptData", getCount("countSelectionScriptData"));
         counts.put("TaskDataVariable", getCount("countTaskDataVariable"));
         counts.put("TaskResultData", getCount("countTaskResultData"));
+        counts.put("TaskResultChunkData", getCount("countTaskResultChunkData"));
         counts.put("ThirdPartyCredentialData", getCount("countThirdPartyCredentialData"));
+        counts.put("UserUsageData", getCount("countUserUsageData"));
         logCounts();
     }
 
@@ -51,7 +51,7 @@ public class IdentifiedJob implements Serializable {
     private UserIdentificationImpl userIdentification;
 
     /** is this job finished */
-    private boolean finished = false;
+    private volatile boolean finished = false;
 
     /** genericInformation of this job */
     private final Map<String, String> genericInformation;
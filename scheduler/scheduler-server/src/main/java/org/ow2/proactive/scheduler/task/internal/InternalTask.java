@@ -28,6 +28,7 @@ package org.ow2.proactive.scheduler.task.internal;
 import java.io.File;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -45,7 +46,6 @@ import javax.xml.bind.annotation.XmlTransient;
 import org.objectweb.proactive.ActiveObjectCreationException;
 import org.objectweb.proactive.core.node.Node;
 import org.objectweb.proactive.core.node.NodeException;
-import org.objectweb.proactive.core.util.converter.ProActiveMakeDeepCopy;
 import org.ow2.proactive.scheduler.common.exception.ExecutableCreationException;
 import org.ow2.proactive.scheduler.common.job.JobInfo;
 import org.ow2.proactive.scheduler.common.task.ForkEnvironment;
@@ -55,9 +55,12 @@ import org.ow2.proactive.scheduler.common.task.TaskInfo;
 import org.ow2.proactive.scheduler.common.task.TaskResult;
 import org.ow2.proactive.scheduler.common.task.TaskState;
 import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.common.task.TaskVariable;
+import org.ow2.proactive.scheduler.common.task.UpdatableProperties;
 import org.ow2.proactive.scheduler.common.task.flow.FlowAction;
 import org.ow2.proactive.scheduler.common.task.flow.FlowActionType;
 import org.ow2.proactive.scheduler.common.task.flow.FlowBlock;
+import org.ow2.proactive.scheduler.common.task.flow.FlowScript;
 import org.ow2.proactive.scheduler.common.task.util.SerializationUtil;
 import org.ow2.proactive.scheduler.core.SchedulingService;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
@@ -68,6 +71,7 @@ import org.ow2.proactive.scheduler.task.TaskLauncher;
 import org.ow2.proactive.scheduler.task.TaskLauncherInitializer;
 import org.ow2.proactive.scheduler.task.containers.ExecutableContainer;
 import org.ow2.proactive.scheduler.util.TaskLogger;
+import org.ow2.proactive.scripting.InvalidScriptException;
 import org.ow2.proactive.scripting.Script;
 import org.ow2.proactive.utils.NodeSet;
 
@@ -82,7 +86,7 @@ import org.ow2.proactive.utils.NodeSet;
  * @since ProActive Scheduling 0.9
  */
 @XmlAccessorType(XmlAccessType.FIELD)
-public abstract class InternalTask extends TaskState {
+public abstract class InternalTask extends TaskState implements Cloneable {
 
     @XmlTransient
     public static final transient TaskLogger logger = TaskLogger.getInstance();
@@ -144,6 +148,10 @@ public abstract class InternalTask extends TaskState {
 
     private transient InternalTask replicatedFrom;
 
+    /** true if the flow script is still the one of the task this task was replicated from */
+    @XmlTransient
+    private transient boolean sharedFlowScript;
+
     @XmlTransient
     private transient Map<String, Serializable> updatedVariables;
 
@@ -165,58 +173,70 @@ public abstract class InternalTask extends TaskState {
     @Override
     public TaskState replicate() throws ExecutableCreationException {
         /*
-         * this implementation deep copies everything using serialization. however the new
-         * InternalTask cannot be strictly identical and we have to handle the following special
-         * cases:
+         * Replicas are shallow copies: this task acts as a template whose scripts, dataspace
+         * selectors, fork and parallel environments are shared with the replicas, as none
+         * of them is modified once the job is submitted. Only the state specific to a replica
+         * is copied:
          *
-         * - ExecutableContainer is transient and not copied during serialization. It needs to be
-         * manually copied, and added to the InternalTask replica
+         * - the TaskInfo of _this_ may be the one of a FINISHED task, a clean one is created
          *
-         * - Using the TaskInfo of _this_ gives us a FINISHED task, need to explicitely create a new
-         * clean one.
+         * - InternalTask dependencies and control flow references point to other InternalTasks,
+         * they are removed and will be rewritten later anyway
          *
-         * - InternalTask dependencies need to be nulled as they contain references to other
-         * InternalTasks, and will be rewritten later anyway
+         * - generic information, variables, the selection script and selector lists and the
+         * updatable properties can be modified on a single task, so they are copied
          *
-         * - Most of the objects down the object graph contain Hibernate @Id fields. If all those
-         * fields are not set to 0 when inserting the object in DB, insertion will fail.
+         * - the flow script is modified when the replica is renamed, it is copied on write
+         * (see #setName)
          *
-         * - Collections are mapped to specific Hibernate internal collections at runtime, which
-         * contain references to the @Id fields mentionned above. They need to be reset too.
+         * - the ExecutableContainer is not copied, it is resolved from the task the replica
+         * was created from when the replica is persisted
          */
 
-        InternalTask replicatedTask = null;
-        // SCHEDULING-1373 remains, but not replicating the container make the core hangs,
-        // while replicating it "only" loses tasks args in db...
-        //ExecutableContainer replicatedContainer = null;
+        InternalTask replicatedTask;
         try {
-            // Deep copy of the InternalTask using proactive serialization
-            replicatedTask = (InternalTask) ProActiveMakeDeepCopy.WithProActiveObjectStream.makeDeepCopy(this);
-        } catch (Throwable t) {
-            throw new ExecutableCreationException("Failed to serialize task", t);
+            replicatedTask = (InternalTask) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new ExecutableCreationException("Failed to replicate task", e);
         }
 
         replicatedTask.internalJob = internalJob;
 
-        // internalTasksDependencies contain references to other InternalTasks, it needs to be removed.
-        // anyway, dependencies for the new task will not be the same as the original
+        // transient state of this task which does not belong to the replica
         replicatedTask.internalTasksDependencies = null;
+        replicatedTask.executerInformation = null;
+        replicatedTask.nodeExclusion = null;
+        replicatedTask.executableContainer = null;
+        replicatedTask.joinedBranches = null;
+        replicatedTask.ifBranch = null;
+        replicatedTask.updatedVariables = null;
 
         // the taskinfo needs to be cleaned so that we don't tag this task as finished
-        TaskId repId = replicatedTask.taskInfo.getTaskId();
+        TaskId repId = taskInfo.getTaskId();
         replicatedTask.taskInfo = new TaskInfoImpl();
         replicatedTask.taskInfo.setTaskId(repId); // we only need this id for the HashSet comparisons...
         replicatedTask.taskInfo.setNumberOfExecutionLeft(getMaxNumberOfExecution());
         replicatedTask.taskInfo.setNumberOfExecutionOnFailureLeft(getMaxNumberOfExecutionOnFailure());
 
-        replicatedTask.setReplicatedFrom(this);
+        replicatedTask.genericInformation = new HashMap<>(genericInformation);
+        replicatedTask.variables = copyVariables(variables);
+        if (sScripts != null) {
+            replicatedTask.sScripts = new ArrayList<>(sScripts);
+        }
+        if (inputFiles != null) {
+            replicatedTask.inputFiles = new ArrayList<>(inputFiles);
+        }
+        if (outputFiles != null) {
+            replicatedTask.outputFiles = new ArrayList<>(outputFiles);
+        }
+        replicatedTask.restartTaskOnError = copyProperty(restartTaskOnError);
+        replicatedTask.maxNumberOfExecution = copyProperty(maxNumberOfExecution);
+        replicatedTask.onTaskError = copyProperty(onTaskError);
+        // both this task and the replica copy the flow script before modifying it
+        sharedFlowScript = flowScript != null;
+        replicatedTask.sharedFlowScript = sharedFlowScript;
 
-        /*
-         * uncomment this to have a close look at the serialized graph you will need to add some
-         * jars (http://xstream.codehaus.org/) to the classpath XStream x = new XStream(); String sx
-         * = x.toXML(replicatedTask); System.out.println("----------"); System.out.println(sx);
-         * System.out.println("----------");
-         */
+        replicatedTask.setReplicatedFrom(this);
 
         // We cannot register the newly created InternalTask for DB insertion now,
         // since it only makes sense to hibernate once it's added to the parent InternalJob
@@ -224,6 +244,44 @@ public abstract class InternalTask extends TaskState {
         return replicatedTask;
     }
 
+    private static Map<String, TaskVariable> copyVariables(Map<String, TaskVariable> variables) {
+        Map<String, TaskVariable> copy = new LinkedHashMap<>();
+        synchronized (variables) {
+            for (Entry<String, TaskVariable> entry : variables.entrySet()) {
+                TaskVariable variable = entry.getValue();
+                copy.put(entry.getKey(),
+                         new TaskVariable(variable.getName(),
+                                          variable.getValue(),
+                                          variable.getModel(),
+                                          variable.isJobInherited()));
+            }
+        }
+        return Collections.synchronizedMap(copy);
+    }
+
+    private static <T> UpdatableProperties<T> copyProperty(UpdatableProperties<T> property) {
+        UpdatableProperties<T> copy = new UpdatableProperties<>(property.getValue());
+        if (property.isSet()) {
+            copy.setValue(property.getValue());
+        }
+        return copy;
+    }
+
+    /**
+     * Copies the flow script shared with replicas of this task, before modifying it.
+     */
+    private FlowScript ownFlowScript() {
+        if (sharedFlowScript) {
+            try {
+                flowScript = new FlowScript(flowScript);
+            } catch (InvalidScriptException e) {
+                throw new IllegalStateException("Cannot copy the flow script of task " + getName(), e);
+            }
+            sharedFlowScript = false;
+        }
+        return flowScript;
+    }
+
     /**
      * Accumulates in <code>acc</code>  replications of all the tasks that recursively
      * depend on <code>this</code> until <code>target</code> is met
@@ -851,19 +909,19 @@ public abstract class InternalTask extends TaskState {
         if (this.getFlowScript() != null &&
             this.getFlowScript().getActionType().equals(FlowActionType.LOOP.toString())) {
             String t = getInitialName(this.getFlowScript().getActionTarget());
-            this.getFlowScript().setActionTarget(t + getTaskNameSuffix());
+            ownFlowScript().setActionTarget(t + getTaskNameSuffix());
         }
 
         // same stuff with IF
         if (this.getFlowScript() != null && this.getFlowScript().getActionType().equals(FlowActionType.IF.toString())) {
             String ifBranch = getInitialName(this.getFlowScript().getActionTarget());
             String elseBranch = getInitialName(this.getFlowScript().getActionTargetElse());
-            this.getFlowScript().setActionTarget(ifBranch + getTaskNameSuffix());
-            this.getFlowScript().setActionTargetElse(elseBranch + getTaskNameSuffix());
+            ownFlowScript().setActionTarget(ifBranch + getTaskNameSuffix());
+            ownFlowScript().setActionTargetElse(elseBranch + getTaskNameSuffix());
 
             if (this.getFlowScript().getActionContinuation() != null) {
                 String join = getInitialName(this.getFlowScript().getActionContinuation());
-                this.getFlowScript().setActionContinuation(join + getTaskNameSuffix());
+                ownFlowScript().setActionContinuation(join + getTaskNameSuffix());
             }
         }
     }
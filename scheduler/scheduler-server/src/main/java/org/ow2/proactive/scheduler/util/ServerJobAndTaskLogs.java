@@ -27,7 +27,9 @@ package org.ow2.proactive.scheduler.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.log4j.Logger;
 import org.ow2.proactive.scheduler.common.job.JobId;
@@ -41,6 +43,9 @@ public class ServerJobAndTaskLogs {
 
     private static final Logger logger = Logger.getLogger(ServerJobAndTaskLogs.class);
 
+    // appenders writing the logs asynchronously, flushed before the logs are read or removed
+    private static final List<FileAppender> appenders = new CopyOnWriteArrayList<>();
+
     public static void configure() {
         if (logsLocationIsSet()) {
             if (isCleanStart()) {
@@ -80,6 +85,9 @@ public class ServerJobAndTaskLogs {
 
     private static void removeFolderLog(String path) {
         if (logsLocationIsSet()) {
+            for (FileAppender appender : appenders) {
+                appender.removeFiles(path);
+            }
             String logsLocation = getLogsLocation();
             File logFolder = new File(logsLocation, path);
             org.apache.commons.io.FileUtils.deleteQuietly(logFolder);
@@ -101,6 +109,9 @@ public class ServerJobAndTaskLogs {
     }
 
     private static String readLog(String filename) {
+        for (FileAppender appender : appenders) {
+            appender.flush();
+        }
         String result = null;
         for (String suffix : new String[] { ".1", "" }) {
             String contents = readFile(new File(getLogsLocation(), filename + suffix));
@@ -136,6 +147,7 @@ public class ServerJobAndTaskLogs {
         Logger jobLogger = Logger.getLogger(cls);
         FileAppender appender = createFileAppender();
         jobLogger.addAppender(appender);
+        appenders.add(appender);
     }
 
     private static FileAppender createFileAppender() {
@@ -0,0 +1,138 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package functionaltests.db.schedulerdb;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.task.containers.ExecutableContainer;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+
+/**
+ * Compares the time spent by the scheduling loop to initialize the executable containers of a job
+ * with many replicated tasks, by loading the containers one task at a time as before, and with
+ * batched loading backed by the task id cache of SchedulingMethodImpl.
+ * <p>
+ * At each scheduling loop all remaining tasks are eligible but only {@code nodes} of them are started,
+ * so tasks waiting for resources are initialized again at the next loop.
+ * <p>
+ * Usage: ExecutableContainersLoadBenchmark [tasks] [nodes] [batchSize]
+ */
+public class ExecutableContainersLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int nodes = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        BaseSchedulerDBTest db = new BaseSchedulerDBTest(true);
+        db.initTest();
+        try {
+            TaskFlowJob job = new TaskFlowJob();
+            for (int i = 0; i < tasks; i++) {
+                job.addTask(TestLoadExecutableContainers.createScriptTask("replica" + i, "print 'replica'"));
+            }
+            InternalJob internalJob = db.defaultSubmitJobAndLoadInternal(true, job);
+
+            // warm up
+            for (int i = 0; i < 3; i++) {
+                schedulePerTask(db, internalJob.getITasks(), nodes);
+                scheduleBatched(db, internalJob.getITasks(), nodes, batchSize);
+            }
+
+            long start = System.nanoTime();
+            schedulePerTask(db, internalJob.getITasks(), nodes);
+            long perTask = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            scheduleBatched(db, internalJob.getITasks(), nodes, batchSize);
+            long batched = System.nanoTime() - start;
+
+            System.out.println(tasks + " tasks, " + nodes + " nodes per scheduling loop");
+            System.out.println("Per task loading : " + (perTask / 1000000) + " ms");
+            System.out.println("Batched loading  : " + (batched / 1000000) + " ms");
+        } finally {
+            db.cleanup();
+        }
+    }
+
+    private static void schedulePerTask(BaseSchedulerDBTest db, List<InternalTask> tasks, int nodes) {
+        List<InternalTask> eligible = new ArrayList<>(tasks);
+        while (!eligible.isEmpty()) {
+            for (InternalTask task : eligible) {
+                task.setExecutableContainer(db.getDbManager().loadExecutableContainer(task));
+            }
+            startTasks(eligible, nodes);
+        }
+    }
+
+    private static void scheduleBatched(BaseSchedulerDBTest db, List<InternalTask> tasks, int nodes,
+            int batchSize) {
+        Cache<TaskId, ExecutableContainer> cache = CacheBuilder.newBuilder()
+                                                               .maximumSize(batchSize)
+                                                               .weakValues()
+                                                               .build();
+        List<InternalTask> eligible = new ArrayList<>(tasks);
+        while (!eligible.isEmpty()) {
+            List<InternalTask> toLoad = new ArrayList<>();
+            for (InternalTask task : eligible) {
+                ExecutableContainer container = cache.getIfPresent(task.getId());
+                if (container != null) {
+                    task.setExecutableContainer(container);
+                } else {
+                    toLoad.add(task);
+                }
+            }
+            if (!toLoad.isEmpty()) {
+                Map<TaskId, ExecutableContainer> loaded = db.getDbManager().loadExecutableContainers(toLoad,
+                                                                                                      batchSize);
+                for (InternalTask task : toLoad) {
+                    task.setExecutableContainer(loaded.get(task.getId()));
+                    cache.put(task.getId(), loaded.get(task.getId()));
+                }
+            }
+            startTasks(eligible, nodes);
+        }
+    }
+
+    private static void startTasks(List<InternalTask> eligible, int nodes) {
+        List<InternalTask> started = eligible.subList(0, Math.min(nodes, eligible.size()));
+        for (InternalTask task : started) {
+            // the container of a finished task is not referenced anymore
+            task.setExecutableContainer(null);
+        }
+        started.clear();
+    }
+
+}
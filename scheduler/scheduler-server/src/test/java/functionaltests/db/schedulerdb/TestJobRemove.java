@@ -26,6 +26,7 @@
 package functionaltests.db.schedulerdb;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
@@ -36,6 +37,7 @@ import org.hibernate.Session;
 import org.hibernate.metadata.ClassMetadata;
 import org.junit.Assert;
 import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.JobId;
 import org.ow2.proactive.scheduler.common.job.JobStatus;
 import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
 import org.ow2.proactive.scheduler.common.task.ForkEnvironment;
@@ -50,6 +52,7 @@ import org.ow2.proactive.scheduler.core.db.JobData;
 import org.ow2.proactive.scheduler.core.db.TaskData;
 import org.ow2.proactive.scheduler.core.db.TaskResultData;
 import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.JobInfoImpl;
 import org.ow2.proactive.scheduler.task.TaskResultImpl;
 import org.ow2.proactive.scripting.SelectionScript;
 import org.ow2.proactive.scripting.SimpleScript;
@@ -160,6 +163,57 @@ public class TestJobRemove extends BaseSchedulerDBTest {
         Assert.assertEquals(removedTime, job.getRemovedTime());
     }
 
+    @Test
+    public void testLoadJobsStatusIfNotRemoved() throws Exception {
+        InternalJob job1 = defaultSubmitJobAndLoadInternal(false, new TaskFlowJob());
+        InternalJob job2 = defaultSubmitJobAndLoadInternal(false, new TaskFlowJob());
+        InternalJob removedJob = defaultSubmitJobAndLoadInternal(false, new TaskFlowJob());
+        dbManager.removeJob(removedJob.getId(), System.currentTimeMillis(), false);
+
+        List<JobInfoImpl> jobsInfo = dbManager.loadJobsStatusIfNotRemoved(Arrays.asList(job1.getId(),
+                                                                                         job2.getId(),
+                                                                                         removedJob.getId()));
+
+        Assert.assertEquals(2, jobsInfo.size());
+        for (JobInfoImpl jobInfo : jobsInfo) {
+            Assert.assertTrue(jobInfo.getJobId().equals(job1.getId()) || jobInfo.getJobId().equals(job2.getId()));
+            Assert.assertEquals(JobStatus.PENDING, jobInfo.getStatus());
+            Assert.assertEquals(job1.getOwner(), jobInfo.getJobOwner());
+        }
+    }
+
+    @Test
+    public void testSetRemovedTimeInBulk() throws Exception {
+        InternalJob job1 = defaultSubmitJobAndLoadInternal(false, new TaskFlowJob());
+        InternalJob job2 = defaultSubmitJobAndLoadInternal(false, new TaskFlowJob());
+        InternalJob keptJob = defaultSubmitJobAndLoadInternal(false, new TaskFlowJob());
+
+        long removedTime = System.currentTimeMillis();
+        dbManager.removeJobs(Arrays.asList(job1.getId(), job2.getId()), removedTime, false);
+
+        Assert.assertEquals(removedTime, loadInternalJob(false, job1.getId()).getRemovedTime());
+        Assert.assertEquals(removedTime, loadInternalJob(false, job2.getId()).getRemovedTime());
+        Assert.assertEquals(-1L, loadInternalJob(false, keptJob.getId()).getRemovedTime());
+    }
+
+    @Test
+    public void testFullDataRemoveInBulk() throws Exception {
+        List<JobId> jobIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            InternalJob job = defaultSubmitJobAndLoadInternal(false, createJob(2));
+            dbManager.updateAfterTaskFinished(job,
+                                              job.getTask("javaTask-0"),
+                                              new TaskResultImpl(null, "OK", null, 0));
+            jobIds.add(job.getId());
+        }
+
+        long start = System.currentTimeMillis();
+        dbManager.removeJobs(jobIds, 0, true);
+        System.out.println("Remove time (jobs: " + jobIds.size() + ")" + (System.currentTimeMillis() - start));
+
+        checkAllEntitiesDeleted();
+    }
+
     @Test
     public void testFullDataRemove1() throws Exception {
         TaskFlowJob jobDef = new TaskFlowJob();
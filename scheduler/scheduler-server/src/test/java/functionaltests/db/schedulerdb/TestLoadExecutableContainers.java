@@ -0,0 +1,98 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package functionaltests.db.schedulerdb;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.ScriptTask;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.task.containers.ExecutableContainer;
+import org.ow2.proactive.scheduler.task.containers.ScriptExecutableContainer;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+import org.ow2.proactive.scripting.SimpleScript;
+import org.ow2.proactive.scripting.TaskScript;
+
+
+public class TestLoadExecutableContainers extends BaseSchedulerDBTest {
+
+    @Test
+    public void testLoadExecutableContainers() throws Exception {
+        TaskFlowJob job = new TaskFlowJob();
+        for (int i = 0; i < 5; i++) {
+            job.addTask(createScriptTask("task" + i, "print " + i));
+        }
+        InternalJob internalJob = defaultSubmitJobAndLoadInternal(true, job);
+
+        // several batches, the last one being incomplete
+        Map<TaskId, ExecutableContainer> containers = dbManager.loadExecutableContainers(internalJob.getITasks(), 2);
+
+        Assert.assertEquals(5, containers.size());
+        for (InternalTask task : internalJob.getITasks()) {
+            ScriptExecutableContainer container = (ScriptExecutableContainer) containers.get(task.getId());
+            ScriptExecutableContainer expected = (ScriptExecutableContainer) dbManager.loadExecutableContainer(task);
+            Assert.assertEquals("print " + task.getName().substring(4), container.getScript().getScript());
+            Assert.assertEquals(expected.getScript().getScript(), container.getScript().getScript());
+            Assert.assertEquals(expected.getScript().getEngineName(), container.getScript().getEngineName());
+        }
+    }
+
+    @Test
+    public void testLoadExecutableContainersOfManyTasks() throws Exception {
+        TaskFlowJob job = new TaskFlowJob();
+        for (int i = 0; i < 1000; i++) {
+            job.addTask(createScriptTask("replica" + i, "print 'replica'"));
+        }
+        InternalJob internalJob = defaultSubmitJobAndLoadInternal(true, job);
+
+        Map<TaskId, ExecutableContainer> containers = dbManager.loadExecutableContainers(internalJob.getITasks(),
+                                                                                          100);
+
+        Assert.assertEquals(1000, containers.size());
+        for (InternalTask task : internalJob.getITasks()) {
+            Assert.assertNotNull(containers.get(task.getId()));
+        }
+    }
+
+    @Test
+    public void testLoadNoExecutableContainer() throws Exception {
+        Map<TaskId, ExecutableContainer> containers = dbManager.loadExecutableContainers(Collections.<InternalTask> emptyList(),
+                                                                                          100);
+        Assert.assertTrue(containers.isEmpty());
+    }
+
+    static ScriptTask createScriptTask(String name, String script) {
+        ScriptTask task = new ScriptTask();
+        task.setName(name);
+        task.setScript(new TaskScript(new SimpleScript(script, "groovy")));
+        return task;
+    }
+
+}
@@ -0,0 +1,248 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package functionaltests.db.schedulerdb;
+
+import static org.ow2.proactive.scheduler.common.task.TaskResultValueChunk.LAST_RESULT;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+
+import org.hibernate.Session;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.common.task.TaskResultValueChunk;
+import org.ow2.proactive.scheduler.core.db.MissingTaskResultException;
+import org.ow2.proactive.scheduler.core.db.TaskResultChunkData;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+import com.google.common.base.Strings;
+
+
+public class TestTaskResultStorage extends BaseSchedulerDBTest {
+
+    private static final int COMPRESSION_THRESHOLD = 1024;
+
+    private static final int CHUNK_SIZE = 10000;
+
+    @BeforeClass
+    public static void setStorageProperties() {
+        PASchedulerProperties.SCHEDULER_DB_RESULT_COMPRESSION_THRESHOLD.updateProperty(Integer.toString(COMPRESSION_THRESHOLD));
+        PASchedulerProperties.SCHEDULER_DB_RESULT_CHUNK_SIZE.updateProperty(Integer.toString(CHUNK_SIZE));
+    }
+
+    @AfterClass
+    public static void resetStorageProperties() {
+        PASchedulerProperties.SCHEDULER_DB_RESULT_COMPRESSION_THRESHOLD.updateProperty("65536");
+        PASchedulerProperties.SCHEDULER_DB_RESULT_CHUNK_SIZE.updateProperty("4194304");
+    }
+
+    @Test
+    public void testSmallResultIsStoredInline() throws Throwable {
+        InternalJob job = submitJob();
+        InternalTask task = job.getTask("task");
+        TaskResultImpl result = new TaskResultImpl(null, new TestResult(1, "small"), null, 0);
+        dbManager.updateAfterTaskFinished(job, task, result);
+
+        TaskResult loaded = dbManager.loadTaskResult(job.getId(), "task", 0);
+        Assert.assertEquals("small", ((TestResult) loaded.value()).getB());
+
+        TaskResultValueChunk chunk = dbManager.loadTaskResultValueChunk(job.getId(), "task", LAST_RESULT, 0);
+        Assert.assertArrayEquals(result.getSerializedValue(), chunk.getValue());
+        Assert.assertTrue(chunk.isLast());
+        Assert.assertNull(dbManager.loadTaskResultValueChunk(job.getId(), "task", chunk.getResultId(), 1));
+        Assert.assertEquals(0, countChunks());
+    }
+
+    @Test
+    public void testBigResultIsCompressedAndChunked() throws Throwable {
+        InternalJob job = submitJob();
+        InternalTask task = job.getTask("task");
+        String value = Strings.repeat("a big and compressible result ", 10000);
+        TaskResultImpl result = new TaskResultImpl(null, new TestResult(2, value), null, 0);
+        dbManager.updateAfterTaskFinished(job, task, result);
+
+        byte[] serializedValue = result.getSerializedValue();
+        int expectedChunks = (serializedValue.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        Assert.assertEquals(expectedChunks, countChunks());
+        Assert.assertTrue(storedChunksSize() < serializedValue.length);
+
+        TaskResult loaded = dbManager.loadLastTaskResult(task.getId());
+        Assert.assertEquals(value, ((TestResult) loaded.value()).getB());
+        Assert.assertArrayEquals(serializedValue, loaded.getSerializedValue());
+
+        Assert.assertArrayEquals(serializedValue, readValueByChunks(job, expectedChunks));
+
+        TaskResult jobResult = dbManager.loadJobResult(job.getId()).getResult("task");
+        Assert.assertEquals(value, ((TestResult) jobResult.value()).getB());
+    }
+
+    @Test
+    public void testBigExceptionIsCompressed() throws Throwable {
+        InternalJob job = submitJob();
+        InternalTask task = job.getTask("task");
+        String data = Strings.repeat("x", 10 * COMPRESSION_THRESHOLD);
+        dbManager.updateAfterTaskFinished(job,
+                                          task,
+                                          new TaskResultImpl(null, new TestException("failed", data), null, 0));
+
+        TaskResult loaded = dbManager.loadTaskResult(job.getId(), "task", 0);
+        Assert.assertTrue(loaded.hadException());
+        Assert.assertEquals(data, ((TestException) loaded.getException()).getData());
+        Assert.assertNull(dbManager.loadTaskResultValueChunk(job.getId(), "task", LAST_RESULT, 0));
+    }
+
+    @Test
+    public void testResultsStoredWithoutCodecAreReadable() throws Throwable {
+        InternalJob job = submitJob();
+        InternalTask task = job.getTask("task");
+        TaskResultImpl result = new TaskResultImpl(null, new TestResult(3, "legacy"), null, 0);
+        dbManager.updateAfterTaskFinished(job, task, result);
+
+        // results stored before the codec was recorded only have the raw serialized value
+        Session session = dbManager.getSessionFactory().openSession();
+        try {
+            session.beginTransaction();
+            session.createQuery("update TaskResultData set valueCodec = null, exceptionCodec = null, valueChunks = null, valueSize = null")
+                   .executeUpdate();
+            session.getTransaction().commit();
+        } finally {
+            session.close();
+        }
+
+        TaskResult loaded = dbManager.loadTaskResult(job.getId(), "task", 0);
+        Assert.assertEquals("legacy", ((TestResult) loaded.value()).getB());
+        Assert.assertArrayEquals(result.getSerializedValue(),
+                                 dbManager.loadTaskResultValueChunk(job.getId(), "task", LAST_RESULT, 0).getValue());
+    }
+
+    @Test
+    public void testChunksAreReadFromTheResultOfTheFirstOne() throws Throwable {
+        InternalJob job = submitJob();
+        InternalTask task = job.getTask("task");
+        TaskResultImpl result = new TaskResultImpl(null,
+                                                   new TestResult(5, Strings.repeat("first result ", 10000)),
+                                                   null,
+                                                   0);
+        dbManager.updateAfterTaskFinished(job, task, result);
+        TaskResultValueChunk chunk = dbManager.loadTaskResultValueChunk(job.getId(), "task", LAST_RESULT, 0);
+        Assert.assertFalse(chunk.isLast());
+
+        // the task is restarted and gets a new result while its first one is read
+        dbManager.updateAfterTaskFinished(job,
+                                          task,
+                                          new TaskResultImpl(null,
+                                                             new TestResult(6, Strings.repeat("second ", 10000)),
+                                                             null,
+                                                             0));
+
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        streamed.write(chunk.getValue());
+        long resultId = chunk.getResultId();
+        while (!chunk.isLast()) {
+            chunk = dbManager.loadTaskResultValueChunk(job.getId(), "task", resultId, chunk.getChunkIndex() + 1);
+            Assert.assertEquals(resultId, chunk.getResultId());
+            streamed.write(chunk.getValue());
+        }
+        Assert.assertArrayEquals(result.getSerializedValue(), streamed.toByteArray());
+    }
+
+    @Test(expected = MissingTaskResultException.class)
+    public void testUnknownResultIsRejected() throws Throwable {
+        InternalJob job = submitJob();
+        InternalTask task = job.getTask("task");
+        dbManager.updateAfterTaskFinished(job, task, new TaskResultImpl(null, new TestResult(7, "value"), null, 0));
+
+        dbManager.loadTaskResultValueChunk(job.getId(), "task", Long.MAX_VALUE, 0);
+    }
+
+    @Test
+    public void testChunksAreRemovedWithTheJob() throws Throwable {
+        InternalJob job = submitJob();
+        InternalTask task = job.getTask("task");
+        String value = Strings.repeat("removed ", 10000);
+        dbManager.updateAfterTaskFinished(job, task, new TaskResultImpl(null, new TestResult(4, value), null, 0));
+        Assert.assertTrue(countChunks() > 1);
+
+        dbManager.executeHousekeepingInDB(Collections.singletonList(job.getId().longValue()), true);
+
+        Assert.assertEquals(0, countChunks());
+    }
+
+    private byte[] readValueByChunks(InternalJob job, int expectedChunks) throws Exception {
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        TaskResultValueChunk chunk = dbManager.loadTaskResultValueChunk(job.getId(), "task", LAST_RESULT, 0);
+        while (true) {
+            Assert.assertEquals(expectedChunks, chunk.getChunkCount());
+            Assert.assertTrue(chunk.getValue().length <= CHUNK_SIZE);
+            streamed.write(chunk.getValue());
+            if (chunk.isLast()) {
+                break;
+            }
+            chunk = dbManager.loadTaskResultValueChunk(job.getId(),
+                                                       "task",
+                                                       chunk.getResultId(),
+                                                       chunk.getChunkIndex() + 1);
+        }
+        Assert.assertNull(dbManager.loadTaskResultValueChunk(job.getId(), "task", chunk.getResultId(), expectedChunks));
+        return streamed.toByteArray();
+    }
+
+    private InternalJob submitJob() throws Exception {
+        TaskFlowJob jobDef = new TaskFlowJob();
+        jobDef.addTask(createDefaultTask("task"));
+        return defaultSubmitJobAndLoadInternal(true, jobDef);
+    }
+
+    private long countChunks() {
+        Session session = dbManager.getSessionFactory().openSession();
+        try {
+            return (Long) session.getNamedQuery("countTaskResultChunkData").uniqueResult();
+        } finally {
+            session.close();
+        }
+    }
+
+    private long storedChunksSize() {
+        Session session = dbManager.getSessionFactory().openSession();
+        try {
+            long size = 0;
+            for (Object chunk : session.createCriteria(TaskResultChunkData.class).list()) {
+                size += ((TaskResultChunkData) chunk).getData().length;
+            }
+            return size;
+        } finally {
+            session.close();
+        }
+    }
+
+}
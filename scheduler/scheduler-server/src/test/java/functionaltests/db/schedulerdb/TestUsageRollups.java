@@ -0,0 +1,97 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package functionaltests.db.schedulerdb;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.Session;
+import org.junit.Assert;
+import org.junit.Test;
+import org.ow2.proactive.db.SessionWork;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.JavaTask;
+import org.ow2.proactive.scheduler.core.account.SchedulerAccount;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+
+public class TestUsageRollups extends BaseSchedulerDBTest {
+
+    static final String TEST_USER_NAME = "TestUsageRollups";
+
+    @Test
+    public void testRollupsFollowFinishedTimeChanges() throws Exception {
+        TaskFlowJob jobDef = new TaskFlowJob();
+        JavaTask javaTask = createDefaultTask("task1");
+        javaTask.setExecutableClassName(TestDummyExecutable.class.getName());
+        jobDef.addTask(javaTask);
+
+        InternalJob job = defaultSubmitJobAndLoadInternal(true, jobDef, TEST_USER_NAME);
+        job.start();
+        InternalTask task = job.getTask("task1");
+        startTask(job, task);
+        dbManager.jobTaskStarted(job, task, true);
+
+        TaskResultImpl res = new TaskResultImpl(null, "ok", null, 0);
+        job.terminateTask(false, task.getId(), null, null, res);
+        job.terminate();
+        dbManager.updateAfterTaskFinished(job, task, res);
+
+        long jobDuration = job.getFinishedTime() - job.getStartTime();
+        checkAccount(1, task.getFinishedTime() - task.getStartTime(), 1, jobDuration);
+
+        // the task is now known to have finished two hours ago
+        long taskFinishedTime = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2);
+        dbManager.updateStartTime(job.getId().longValue(), task.getId().longValue(), taskFinishedTime - 1000);
+        dbManager.updateFinishedTime(job.getId().longValue(), task.getId().longValue(), taskFinishedTime);
+
+        checkAccount(1, 1000, 1, jobDuration);
+        Assert.assertEquals(2, countUsageRollups());
+
+        // reading the account does not change the rollups
+        checkAccount(1, 1000, 1, jobDuration);
+        Assert.assertEquals(2, countUsageRollups());
+    }
+
+    private long countUsageRollups() {
+        return dbManager.executeReadOnlyTransaction(new SessionWork<Long>() {
+            @Override
+            public Long doInTransaction(Session session) {
+                return (Long) session.getNamedQuery("countUserUsageData").uniqueResult();
+            }
+        });
+    }
+
+    private void checkAccount(int taskCount, long taskDuration, int jobCount, long jobDuration) {
+        SchedulerAccount account = dbManager.readAccount(TEST_USER_NAME);
+        Assert.assertEquals("Tasks count", taskCount, account.getTotalTaskCount());
+        Assert.assertEquals("Tasks duration", taskDuration, account.getTotalTaskDuration());
+        Assert.assertEquals("Jobs count", jobCount, account.getTotalJobCount());
+        Assert.assertEquals("Jobs duration", jobDuration, account.getTotalJobDuration());
+    }
+
+}
@@ -61,6 +61,14 @@ public class MockSchedulingListener implements SchedulerStateUpdate {
         events.add(notification.getEventType());
     }
 
+    @Override
+    public void jobsRemoved(List<JobInfo> jobs) {
+        for (JobInfo job : jobs) {
+            System.out.println("Job removed " + job.getJobId());
+            events.add(SchedulerEvent.JOB_REMOVE_FINISHED);
+        }
+    }
+
     @Override
     public void taskStateUpdated(String owner, NotificationData<TaskInfo> notification) {
         System.out.println("Task state updated " + notification.getData().getName() + " " +
@@ -0,0 +1,157 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
+import org.ow2.proactive.scheduler.core.rmproxies.RMProxiesManager;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.job.JobInfoImpl;
+import org.ow2.proactive.scheduler.policy.DefaultPolicy;
+import org.ow2.tests.ProActiveTestClean;
+
+
+public class BulkJobRemoveHandlerTest extends ProActiveTestClean {
+
+    private SchedulingService service;
+
+    @Mock
+    private SchedulingInfrastructure infrastructure;
+
+    @Mock
+    private SchedulerStateUpdate listener;
+
+    @Mock
+    private SchedulingMethod schedulingMethod;
+
+    @Mock
+    private SchedulerDBManager dbManager;
+
+    @Mock
+    private RMProxiesManager rmProxiesManager;
+
+    @Mock
+    private ExecutorService internalOperationsThreadPool;
+
+    private List<JobId> jobIds;
+
+    private String policyClassName = DefaultPolicy.class.getName();
+
+    @Before
+    public void init() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        Mockito.when(infrastructure.getDBManager()).thenReturn(dbManager);
+        Mockito.when(infrastructure.getRMProxiesManager()).thenReturn(rmProxiesManager);
+        Mockito.when(infrastructure.getInternalOperationsThreadPool()).thenReturn(internalOperationsThreadPool);
+        Mockito.when(rmProxiesManager.getRmUrl()).thenReturn(null);
+
+        jobIds = new ArrayList<>();
+        List<JobInfoImpl> jobsInfo = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            JobId jobId = new JobIdImpl(id, "job" + id);
+            jobIds.add(jobId);
+            jobsInfo.add(jobInfo(jobId, JobStatus.FINISHED));
+        }
+        Mockito.when(dbManager.loadJobsStatusIfNotRemoved(jobIds.subList(0, 2)))
+               .thenReturn(jobsInfo.subList(0, 2));
+        Mockito.when(dbManager.loadJobsStatusIfNotRemoved(jobIds.subList(2, 4)))
+               .thenReturn(jobsInfo.subList(2, 4));
+        Mockito.when(dbManager.loadJobsStatusIfNotRemoved(jobIds.subList(4, 5)))
+               .thenReturn(jobsInfo.subList(4, 5));
+
+        service = new SchedulingService(infrastructure, listener, null, policyClassName, schedulingMethod);
+    }
+
+    private JobInfoImpl jobInfo(JobId jobId, JobStatus status) {
+        JobInfoImpl jobInfo = new JobInfoImpl();
+        jobInfo.setJobId(jobId);
+        jobInfo.setStatus(status);
+        jobInfo.setJobOwner("user");
+        return jobInfo;
+    }
+
+    @Test
+    public void testJobsRemovedByChunk() {
+        boolean removed = new BulkJobRemoveHandler(service, jobIds, 2).call();
+
+        assertThat(removed, is(true));
+        Mockito.verify(dbManager, Mockito.times(3))
+               .loadJobsStatusIfNotRemoved(org.mockito.Matchers.anyListOf(JobId.class));
+        Mockito.verify(dbManager, Mockito.times(3)).removeJobs(org.mockito.Matchers.anyListOf(JobId.class),
+                                                               org.mockito.Matchers.anyLong(),
+                                                               org.mockito.Matchers.anyBoolean());
+        Mockito.verify(listener, Mockito.times(3)).jobsRemoved(org.mockito.Matchers.anyListOf(JobInfo.class));
+        Mockito.verify(listener, Mockito.never()).jobStateUpdated(org.mockito.Matchers.anyString(),
+                                                                  org.mockito.Matchers.any(NotificationData.class));
+        // job logs are removed in the background
+        Mockito.verify(internalOperationsThreadPool, Mockito.times(3))
+               .submit(org.mockito.Matchers.any(Runnable.class));
+    }
+
+    @Test
+    public void testJobsAlreadyRemoved() {
+        Mockito.when(dbManager.loadJobsStatusIfNotRemoved(jobIds.subList(4, 5)))
+               .thenReturn(new ArrayList<JobInfoImpl>());
+
+        boolean removed = new BulkJobRemoveHandler(service, jobIds, 2).call();
+
+        assertThat(removed, is(false));
+        Mockito.verify(dbManager, Mockito.times(2)).removeJobs(org.mockito.Matchers.anyListOf(JobId.class),
+                                                               org.mockito.Matchers.anyLong(),
+                                                               org.mockito.Matchers.anyBoolean());
+        Mockito.verify(listener, Mockito.times(2)).jobsRemoved(org.mockito.Matchers.anyListOf(JobInfo.class));
+    }
+
+    @Test
+    public void testRemovedJobsInOneChunk() {
+        Mockito.when(dbManager.loadJobsStatusIfNotRemoved(jobIds)).thenReturn(Arrays.asList(jobInfo(jobIds.get(0),
+                                                                                                    JobStatus.KILLED)));
+
+        boolean removed = new BulkJobRemoveHandler(service, jobIds, 10).call();
+
+        assertThat(removed, is(false));
+        Mockito.verify(dbManager, Mockito.times(1)).removeJobs(org.mockito.Matchers.eq(Arrays.asList(jobIds.get(0))),
+                                                               org.mockito.Matchers.anyLong(),
+                                                               org.mockito.Matchers.anyBoolean());
+    }
+
+}
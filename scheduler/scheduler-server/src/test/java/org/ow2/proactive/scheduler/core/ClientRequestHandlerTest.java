@@ -0,0 +1,199 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.proactive.core.UniqueID;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.SchedulerEventListener;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.job.UserIdentification;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.scheduler.task.TaskInfoImpl;
+import org.ow2.tests.ProActiveTestClean;
+
+
+public class ClientRequestHandlerTest extends ProActiveTestClean {
+
+    private static final Method TASK_STATE_UPDATED;
+
+    static {
+        try {
+            TASK_STATE_UPDATED = SchedulerEventListener.class.getMethod("taskStateUpdatedEvent",
+                                                                         NotificationData.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BlockingListener listener;
+
+    @Before
+    public void setUp() {
+        listener = new BlockingListener();
+    }
+
+    @Test
+    public void testEventsAreSentInOrder() throws Exception {
+        ClientRequestHandler handler = new ClientRequestHandler(null, new UniqueID("client"), listener, 100, 2);
+        listener.unblock();
+
+        for (int i = 0; i < 10; i++) {
+            handler.addEvent(TASK_STATE_UPDATED, taskEvent(i, SchedulerEvent.TASK_RUNNING_TO_FINISHED, 0));
+        }
+
+        listener.awaitEvents(10);
+        for (int i = 0; i < 10; i++) {
+            assertThat(listener.events.get(i).getData().getTaskId().longValue()).isEqualTo((long) i);
+        }
+    }
+
+    @Test
+    public void testQueuedProgressEventsAreCoalesced() throws Exception {
+        ClientRequestHandler handler = new ClientRequestHandler(null, new UniqueID("client"), listener, 100, 100);
+
+        // the first event is being sent while the next ones are queued
+        handler.addEvent(TASK_STATE_UPDATED, taskEvent(0, SchedulerEvent.TASK_PENDING_TO_RUNNING, 0));
+        listener.awaitSending();
+        for (int progress = 1; progress <= 50; progress++) {
+            handler.addEvent(TASK_STATE_UPDATED, taskEvent(0, SchedulerEvent.TASK_PROGRESS, progress));
+            handler.addEvent(TASK_STATE_UPDATED, taskEvent(1, SchedulerEvent.TASK_PROGRESS, progress));
+        }
+        handler.addEvent(TASK_STATE_UPDATED, taskEvent(0, SchedulerEvent.TASK_RUNNING_TO_FINISHED, 100));
+        assertThat(handler.getQueueSize()).isEqualTo(3);
+
+        listener.unblock();
+        listener.awaitEvents(4);
+
+        assertThat(listener.events.get(1).getData().getProgress()).isEqualTo(50);
+        assertThat(listener.events.get(2).getData().getProgress()).isEqualTo(50);
+        assertThat(listener.events.get(3).getEventType()).isEqualTo(SchedulerEvent.TASK_RUNNING_TO_FINISHED);
+    }
+
+    @Test
+    public void testSlowClientIsEvicted() throws Exception {
+        ClientRequestHandler handler = new ClientRequestHandler(null, new UniqueID("client"), listener, 5, 100);
+
+        handler.addEvent(TASK_STATE_UPDATED, taskEvent(0, SchedulerEvent.TASK_PENDING_TO_RUNNING, 0));
+        listener.awaitSending();
+        for (int i = 1; i <= 5; i++) {
+            handler.addEvent(TASK_STATE_UPDATED, taskEvent(i, SchedulerEvent.TASK_PENDING_TO_RUNNING, 0));
+        }
+        assertThat(handler.isEvicted()).isFalse();
+
+        handler.addEvent(TASK_STATE_UPDATED, taskEvent(6, SchedulerEvent.TASK_PENDING_TO_RUNNING, 0));
+        assertThat(handler.isEvicted()).isTrue();
+        assertThat(handler.getQueueSize()).isEqualTo(0);
+
+        // events are not queued anymore once the client is evicted
+        handler.addEvent(TASK_STATE_UPDATED, taskEvent(7, SchedulerEvent.TASK_PENDING_TO_RUNNING, 0));
+        assertThat(handler.getQueueSize()).isEqualTo(0);
+
+        listener.unblock();
+        listener.awaitEvents(1);
+        Thread.sleep(100);
+        assertThat(listener.events.size()).isEqualTo(1);
+    }
+
+    private static NotificationData<TaskInfo> taskEvent(int taskId, SchedulerEvent eventType, int progress) {
+        TaskInfoImpl taskInfo = new TaskInfoImpl();
+        taskInfo.setTaskId(TaskIdImpl.createTaskId(new JobIdImpl(1L, "job"), "task" + taskId, taskId));
+        taskInfo.setProgress(progress);
+        return new NotificationData<TaskInfo>(eventType, taskInfo);
+    }
+
+    /**
+     * A listener which blocks while sending events, until it is unblocked
+     */
+    static class BlockingListener implements SchedulerEventListener {
+
+        private final CountDownLatch unblocked = new CountDownLatch(1);
+
+        private final CountDownLatch sending = new CountDownLatch(1);
+
+        final List<NotificationData<TaskInfo>> events = new CopyOnWriteArrayList<>();
+
+        void unblock() {
+            unblocked.countDown();
+        }
+
+        void awaitSending() throws InterruptedException {
+            assertThat(sending.await(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (events.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(events.size()).isAtLeast(count);
+        }
+
+        @Override
+        public void taskStateUpdatedEvent(NotificationData<TaskInfo> notification) {
+            sending.countDown();
+            try {
+                unblocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(notification);
+        }
+
+        @Override
+        public void schedulerStateUpdatedEvent(SchedulerEvent eventType) {
+        }
+
+        @Override
+        public void jobSubmittedEvent(JobState job) {
+        }
+
+        @Override
+        public void jobStateUpdatedEvent(NotificationData<JobInfo> notification) {
+        }
+
+        @Override
+        public void jobUpdatedFullDataEvent(JobState job) {
+        }
+
+        @Override
+        public void usersUpdatedEvent(NotificationData<UserIdentification> notification) {
+        }
+    }
+}
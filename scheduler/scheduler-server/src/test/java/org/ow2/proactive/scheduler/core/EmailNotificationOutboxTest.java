@@ -0,0 +1,299 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.task.OnTaskError;
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.core.jmx.SchedulerJMXHelper;
+import org.ow2.proactive.scheduler.core.jmx.mbean.RuntimeDataMBeanImpl;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.job.ClientJobState;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.job.JobInfoImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalScriptTask;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+import org.ow2.proactive.scheduler.util.SendMail;
+import org.ow2.tests.ProActiveTestClean;
+
+
+public class EmailNotificationOutboxTest extends ProActiveTestClean {
+
+    private static final String USER_EMAIL = "user@example.com";
+
+    private static final Pattern DIGEST_SUBJECT = Pattern.compile("ProActive Jobs : (\\d+) notifications");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<EmailNotificationOutbox> outboxes = new ArrayList<>();
+
+    @Before
+    public void enableEmailNotifications() {
+        PASchedulerProperties.EMAIL_NOTIFICATIONS_ENABLED.updateProperty("true");
+    }
+
+    @After
+    public void shutdownOutboxes() {
+        PASchedulerProperties.EMAIL_NOTIFICATIONS_ENABLED.updateProperty("false");
+        for (EmailNotificationOutbox outbox : outboxes) {
+            outbox.shutdown();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testFrontendIsNotBlockedBySlowSender() throws Exception {
+        int events = 500;
+        BlockingSendMail sender = new BlockingSendMail();
+        EmailNotificationOutbox outbox = createOutbox(sender, 1000, 100, 0, null);
+        SchedulerFrontendState frontendState = createFrontendState(outbox);
+        InternalJob job = createJob();
+        frontendState.jobSubmitted(job);
+
+        // the SMTP relay does not answer, updates are not slowed down
+        long start = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            frontendState.jobStateUpdated("john", jobNotification(job, SchedulerEvent.JOB_PAUSED));
+        }
+        long duration = System.nanoTime() - start;
+
+        assertTrue(sender.sending.await(10, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(duration) < 10);
+
+        sender.unblock.countDown();
+        sender.awaitNotifications(events);
+
+        // the burst is sent in digests rather than one email per event
+        assertTrue(sender.sentEmails.get() < events);
+    }
+
+    @Test(timeout = 60000)
+    public void testBurstIsSentAsDigest() throws Exception {
+        RecordingSendMail sender = new RecordingSendMail();
+        EmailNotificationOutbox outbox = createOutbox(sender, 1000, 500, 0, null);
+
+        for (int i = 0; i < 500; i++) {
+            assertTrue(outbox.offer(new EmailNotificationOutbox.Email(USER_EMAIL, "subject" + i, "body" + i)));
+        }
+        outbox.offer(new EmailNotificationOutbox.Email("other@example.com", "other", "body"));
+        sender.awaitNotifications(501);
+
+        assertTrue(sender.sentEmails.get() < 501);
+        assertTrue(sender.recipients.contains("other@example.com"));
+    }
+
+    @Test(timeout = 60000)
+    public void testFailedEmailIsRetried() throws Exception {
+        RecordingSendMail sender = new RecordingSendMail();
+        sender.failures.set(2);
+        EmailNotificationOutbox outbox = createOutbox(sender, 10, 1, 5, null);
+
+        outbox.offer(new EmailNotificationOutbox.Email(USER_EMAIL, "subject", "body"));
+        sender.awaitNotifications(1);
+
+        assertEquals(1, sender.sentEmails.get());
+        assertEquals(3, sender.attempts.get());
+    }
+
+    @Test(timeout = 60000)
+    public void testFailedEmailIsGivenUp() throws Exception {
+        RecordingSendMail sender = new RecordingSendMail();
+        sender.failures.set(Integer.MAX_VALUE);
+        File spool = folder.newFolder("spool");
+        EmailNotificationOutbox outbox = createOutbox(sender, 10, 1, 3, spool);
+
+        outbox.offer(new EmailNotificationOutbox.Email(USER_EMAIL, "subject", "body"));
+
+        while (sender.attempts.get() < 3 || spool.list().length > 0) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, sender.attempts.get());
+        assertEquals(0, sender.sentEmails.get());
+    }
+
+    @Test
+    public void testFullOutboxDropsEmails() throws Exception {
+        BlockingSendMail sender = new BlockingSendMail();
+        EmailNotificationOutbox outbox = createOutbox(sender, 2, 1, 0, null);
+
+        outbox.offer(new EmailNotificationOutbox.Email(USER_EMAIL, "sending", "body"));
+        assertTrue(sender.sending.await(10, TimeUnit.SECONDS));
+
+        assertTrue(outbox.offer(new EmailNotificationOutbox.Email(USER_EMAIL, "queued", "body")));
+        assertTrue(outbox.offer(new EmailNotificationOutbox.Email(USER_EMAIL, "queued", "body")));
+        assertFalse(outbox.offer(new EmailNotificationOutbox.Email(USER_EMAIL, "dropped", "body")));
+        sender.unblock.countDown();
+    }
+
+    @Test(timeout = 60000)
+    public void testSpooledEmailsAreSentAfterRestart() throws Exception {
+        File spool = folder.newFolder("spool");
+        BlockingSendMail blockedSender = new BlockingSendMail();
+        EmailNotificationOutbox outbox = createOutbox(blockedSender, 10, 1, 3, spool);
+        for (int i = 0; i < 3; i++) {
+            outbox.offer(new EmailNotificationOutbox.Email(USER_EMAIL, "subject" + i, "body" + i));
+        }
+        assertTrue(blockedSender.sending.await(10, TimeUnit.SECONDS));
+        // only the email being sent is spooled, queued emails are spooled on shutdown
+        assertEquals(1, spool.list().length);
+        outbox.shutdown();
+        assertEquals(3, spool.list().length);
+
+        RecordingSendMail sender = new RecordingSendMail();
+        createOutbox(sender, 10, 1, 3, spool);
+        sender.awaitNotifications(3);
+
+        while (spool.list().length > 0) {
+            Thread.sleep(10);
+        }
+    }
+
+    private EmailNotificationOutbox createOutbox(SendMail sender, int capacity, int digestSize, int maxAttempts,
+            File spool) {
+        EmailNotificationOutbox outbox = new EmailNotificationOutbox(sender,
+                                                                     capacity,
+                                                                     1,
+                                                                     100,
+                                                                     digestSize,
+                                                                     maxAttempts,
+                                                                     10,
+                                                                     spool);
+        outboxes.add(outbox);
+        return outbox;
+    }
+
+    private SchedulerFrontendState createFrontendState(EmailNotificationOutbox outbox) {
+        SchedulerJMXHelper mockJMX = mock(SchedulerJMXHelper.class);
+        when(mockJMX.getSchedulerRuntimeMBean()).thenReturn(new RuntimeDataMBeanImpl(null));
+        return new SchedulerFrontendState(new SchedulerStateImpl<ClientJobState>(), mockJMX, outbox);
+    }
+
+    private InternalJob createJob() {
+        InternalJob job = new InternalTaskFlowJob("test-name", JobPriority.NORMAL, OnTaskError.CANCEL_JOB, "");
+        job.setId(new JobIdImpl(1L, "test-name"));
+        job.setOwner("john");
+        Map<String, String> genericInformation = new HashMap<>();
+        genericInformation.put(JobEmailNotification.GENERIC_INFORMATION_KEY_EMAIL, USER_EMAIL);
+        genericInformation.put(JobEmailNotification.GENERIC_INFORMATION_KEY_NOTIFICATION_EVENT, "Job paused");
+        job.setGenericInformation(genericInformation);
+        InternalTask task = new InternalScriptTask(job);
+        task.setName("task");
+        task.setStatus(TaskStatus.PENDING);
+        job.addTask(task);
+        return job;
+    }
+
+    private NotificationData<JobInfo> jobNotification(InternalJob job, SchedulerEvent event) {
+        return new NotificationData<JobInfo>(event, new JobInfoImpl((JobInfoImpl) job.getJobInfo()));
+    }
+
+    /**
+     * Records the emails sent, a digest counting for the number of notifications it holds.
+     */
+    private static class RecordingSendMail extends SendMail {
+
+        final AtomicInteger failures = new AtomicInteger();
+
+        final AtomicInteger attempts = new AtomicInteger();
+
+        final AtomicInteger sentEmails = new AtomicInteger();
+
+        final AtomicInteger sentNotifications = new AtomicInteger();
+
+        final List<String> recipients = new ArrayList<>();
+
+        @Override
+        public void sender(String to, String subject, String body) {
+            attempts.incrementAndGet();
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("Mail relay unreachable");
+            }
+            synchronized (this) {
+                recipients.add(to);
+                sentEmails.incrementAndGet();
+                Matcher digest = DIGEST_SUBJECT.matcher(subject);
+                sentNotifications.addAndGet(digest.matches() ? Integer.parseInt(digest.group(1)) : 1);
+                notifyAll();
+            }
+        }
+
+        synchronized void awaitNotifications(int expected) throws InterruptedException {
+            while (sentNotifications.get() < expected) {
+                wait(100);
+            }
+        }
+    }
+
+    /**
+     * A mail relay which does not answer until it is unblocked.
+     */
+    private static class BlockingSendMail extends RecordingSendMail {
+
+        final CountDownLatch sending = new CountDownLatch(1);
+
+        final CountDownLatch unblock = new CountDownLatch(1);
+
+        @Override
+        public void sender(String to, String subject, String body) {
+            sending.countDown();
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sending", e);
+            }
+            super.sender(to, subject, body);
+        }
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.objectweb.proactive.core.UniqueID;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.SchedulerEventListener;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.job.UserIdentification;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.job.UserIdentificationImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.scheduler.task.TaskInfoImpl;
+
+
+/**
+ * Compares the time spent by the scheduler core thread to dispatch task events to simulated
+ * listeners, by scanning every connected user as before, and with the {@link EventSubscriptions}
+ * index.
+ * <p>
+ * Most listeners listen to the events of their own jobs, as the portals and clients of
+ * regular users do, a few listen to the events of every user.
+ * <p>
+ * Usage: EventDispatchBenchmark [listeners] [events] [users]
+ */
+public class EventDispatchBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int listeners = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int events = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        int users = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+        Method method = SchedulerEventListener.class.getMethod("taskStateUpdatedEvent", NotificationData.class);
+        AtomicLong received = new AtomicLong();
+        List<ListeningUser> listeningUsers = new ArrayList<>(listeners);
+        EventSubscriptions subscriptions = new EventSubscriptions();
+        for (int i = 0; i < listeners; i++) {
+            boolean admin = i % 50 == 0;
+            UserIdentificationImpl user = new UserIdentificationImpl("user" + (i % users));
+            user.setMyEventsOnly(!admin);
+            if (i % 3 == 0) {
+                // a listener only interested in job events
+                user.setUserEvents(new SchedulerEvent[] { SchedulerEvent.JOB_SUBMITTED,
+                                                          SchedulerEvent.JOB_RUNNING_TO_FINISHED });
+            }
+            ListeningUser listeningUser = new ListeningUser(user);
+            listeningUser.setListener(new ClientRequestHandler(null,
+                                                               new UniqueID("listener" + i),
+                                                               new CountingListener(received),
+                                                               Integer.MAX_VALUE,
+                                                               500));
+            listeningUsers.add(listeningUser);
+            subscriptions.subscribe(listeningUser);
+        }
+
+        List<NotificationData<TaskInfo>> notifications = createEvents(events);
+        String[] owners = new String[events];
+        Random random = new Random(42);
+        for (int i = 0; i < events; i++) {
+            owners[i] = "user" + random.nextInt(users);
+        }
+
+        // warm up
+        runScan(listeningUsers, notifications, owners, events / 10, method);
+        runIndexed(subscriptions, notifications, owners, events / 10, method);
+
+        long scan = runScan(listeningUsers, notifications, owners, events, method);
+        long indexed = runIndexed(subscriptions, notifications, owners, events, method);
+
+        System.out.println("Listeners: " + listeners + ", events: " + events + ", users: " + users);
+        System.out.println("Scan of every listener: " + eventsPerSecond(events, scan) + " events/s");
+        System.out.println("Subscriptions index: " + eventsPerSecond(events, indexed) + " events/s");
+        ClientRequestHandler.terminate();
+        System.out.println("Events received by the listeners: " + received.get());
+    }
+
+    private static List<NotificationData<TaskInfo>> createEvents(int events) {
+        List<NotificationData<TaskInfo>> notifications = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            TaskInfoImpl taskInfo = new TaskInfoImpl();
+            taskInfo.setTaskId(TaskIdImpl.createTaskId(new JobIdImpl(i / 100, "job"), "task" + i, i));
+            notifications.add(new NotificationData<TaskInfo>(SchedulerEvent.TASK_RUNNING_TO_FINISHED, taskInfo));
+        }
+        return notifications;
+    }
+
+    /**
+     * The dispatch loop of the frontend before the subscriptions index
+     */
+    private static long runScan(List<ListeningUser> listeningUsers, List<NotificationData<TaskInfo>> notifications,
+            String[] owners, int events, Method method) {
+        long start = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            NotificationData<TaskInfo> notification = notifications.get(i);
+            for (ListeningUser listeningUserId : listeningUsers) {
+                if (listeningUserId.isListening()) {
+                    UserIdentificationImpl userId = listeningUserId.getUser();
+                    if ((userId.getUserEvents() == null) ||
+                        userId.getUserEvents().contains(notification.getEventType())) {
+                        if (!userId.isMyEventsOnly() ||
+                            (userId.isMyEventsOnly() && userId.getUsername().equals(owners[i]))) {
+                            listeningUserId.getListener().addEvent(method, notification);
+                        }
+                    }
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long runIndexed(EventSubscriptions subscriptions, List<NotificationData<TaskInfo>> notifications,
+            String[] owners, int events, Method method) {
+        long start = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            NotificationData<TaskInfo> notification = notifications.get(i);
+            for (ListeningUser listeningUser : subscriptions.getSubscribers(notification.getEventType(), owners[i])) {
+                ClientRequestHandler listener = listeningUser.getListener();
+                if (listener != null) {
+                    listener.addEvent(method, notification);
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long eventsPerSecond(int events, long nanos) {
+        return nanos == 0 ? 0 : events * 1000000000L / nanos;
+    }
+
+    private static class CountingListener implements SchedulerEventListener {
+
+        private final AtomicLong received;
+
+        CountingListener(AtomicLong received) {
+            this.received = received;
+        }
+
+        @Override
+        public void taskStateUpdatedEvent(NotificationData<TaskInfo> notification) {
+            received.incrementAndGet();
+        }
+
+        @Override
+        public void schedulerStateUpdatedEvent(SchedulerEvent eventType) {
+        }
+
+        @Override
+        public void jobSubmittedEvent(JobState job) {
+        }
+
+        @Override
+        public void jobStateUpdatedEvent(NotificationData<JobInfo> notification) {
+        }
+
+        @Override
+        public void jobUpdatedFullDataEvent(JobState job) {
+        }
+
+        @Override
+        public void usersUpdatedEvent(NotificationData<UserIdentification> notification) {
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.job.UserIdentificationImpl;
+
+
+public class EventSubscriptionsTest {
+
+    private EventSubscriptions subscriptions;
+
+    @Before
+    public void setUp() {
+        subscriptions = new EventSubscriptions();
+    }
+
+    @Test
+    public void testSubscriptionByEventType() {
+        ListeningUser all = listeningUser("admin", false);
+        ListeningUser finished = listeningUser("admin", false, SchedulerEvent.JOB_RUNNING_TO_FINISHED);
+        subscriptions.subscribe(all);
+        subscriptions.subscribe(finished);
+
+        assertThat(subscriptions.getSubscribers(SchedulerEvent.JOB_RUNNING_TO_FINISHED)).containsExactly(all,
+                                                                                                          finished);
+        assertThat(subscriptions.getSubscribers(SchedulerEvent.TASK_PROGRESS)).containsExactly(all);
+        assertThat(subscriptions.getSubscribers(SchedulerEvent.TASK_PROGRESS, "john")).containsExactly(all);
+    }
+
+    @Test
+    public void testSubscriptionToOwnEvents() {
+        ListeningUser admin = listeningUser("admin", false);
+        ListeningUser john = listeningUser("john", true);
+        ListeningUser jane = listeningUser("jane", true, SchedulerEvent.TASK_PROGRESS);
+        subscriptions.subscribe(admin);
+        subscriptions.subscribe(john);
+        subscriptions.subscribe(jane);
+
+        assertThat(subscriptions.getSubscribers(SchedulerEvent.TASK_PROGRESS, "john")).containsExactly(admin, john);
+        assertThat(subscriptions.getSubscribers(SchedulerEvent.TASK_PROGRESS, "jane")).containsExactly(admin, jane);
+        assertThat(subscriptions.getSubscribers(SchedulerEvent.JOB_SUBMITTED, "jane")).containsExactly(admin);
+        assertThat(subscriptions.getSubscribers(SchedulerEvent.JOB_SUBMITTED, "other")).containsExactly(admin);
+        // events not related to a user, like the scheduler status, are sent to every subscriber
+        assertThat(subscriptions.getSubscribers(SchedulerEvent.PAUSED)).containsExactly(admin, john);
+    }
+
+    @Test
+    public void testUnsubscribe() {
+        ListeningUser john = listeningUser("john", true);
+        subscriptions.subscribe(john);
+        subscriptions.unsubscribe(john);
+
+        assertThat(subscriptions.size()).isEqualTo(0);
+        assertThat(subscriptions.getSubscribers(SchedulerEvent.TASK_PROGRESS, "john")).isEmpty();
+        assertThat(subscriptions.getSubscribers(SchedulerEvent.PAUSED)).isEmpty();
+    }
+
+    @Test
+    public void testSubscriptionUpdate() {
+        ListeningUser john = listeningUser("john", false);
+        subscriptions.subscribe(john);
+
+        john.getUser().setMyEventsOnly(true);
+        john.getUser().setUserEvents(new SchedulerEvent[] { SchedulerEvent.JOB_SUBMITTED });
+        subscriptions.subscribe(john);
+
+        assertThat(subscriptions.size()).isEqualTo(1);
+        assertThat(subscriptions.getSubscribers(SchedulerEvent.JOB_SUBMITTED, "jane")).isEmpty();
+        assertThat(subscriptions.getSubscribers(SchedulerEvent.JOB_SUBMITTED, "john")).containsExactly(john);
+        assertThat(subscriptions.getSubscribers(SchedulerEvent.TASK_PROGRESS, "john")).isEmpty();
+    }
+
+    private static ListeningUser listeningUser(String userName, boolean myEventsOnly, SchedulerEvent... events) {
+        UserIdentificationImpl user = new UserIdentificationImpl(userName);
+        user.setMyEventsOnly(myEventsOnly);
+        user.setUserEvents(events);
+        return new ListeningUser(user);
+    }
+}
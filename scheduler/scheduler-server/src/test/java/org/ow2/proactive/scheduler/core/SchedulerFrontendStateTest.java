@@ -26,28 +26,50 @@
 package org.ow2.proactive.scheduler.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Vector;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Test;
 import org.objectweb.proactive.core.UniqueID;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
 import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+import org.ow2.proactive.scheduler.common.task.OnTaskError;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.common.task.TaskState;
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
 import org.ow2.proactive.scheduler.core.jmx.SchedulerJMXHelper;
 import org.ow2.proactive.scheduler.core.jmx.mbean.RuntimeDataMBeanImpl;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.job.ClientJobState;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
 import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.job.JobInfoImpl;
 import org.ow2.proactive.scheduler.job.UserIdentificationImpl;
+import org.ow2.proactive.scheduler.task.TaskInfoImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalScriptTask;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
 import org.ow2.tests.ProActiveTestClean;
 import org.python.google.common.collect.Lists;
 
@@ -114,4 +136,163 @@ public class SchedulerFrontendStateTest extends ProActiveTestClean {
         assertEquals(schedulerFrontendState.getIdentifiedJob(jobId).getJobId(), (jobId));
 
     }
+
+    @Test
+    public void job_snapshots_are_not_modified_by_updates() throws Exception {
+        SchedulerFrontendState schedulerFrontendState = createFrontendState();
+        InternalJob job = createJob(2);
+        schedulerFrontendState.jobSubmitted(job);
+
+        ClientJobState before = schedulerFrontendState.getJobSnapshot(job.getId());
+        assertSame(before, schedulerFrontendState.getJobSnapshot(job.getId()));
+        long version = schedulerFrontendState.getStateVersion();
+
+        schedulerFrontendState.taskStateUpdated("john", taskNotification(job, 0, TaskStatus.FINISHED, 1));
+
+        ClientJobState after = schedulerFrontendState.getJobSnapshot(job.getId());
+        assertNotSame(before, after);
+        assertTrue(schedulerFrontendState.getStateVersion() > version);
+        assertEquals(0, before.getNumberOfFinishedTasks());
+        assertEquals(TaskStatus.PENDING, before.getTasks().get(0).getStatus());
+        assertEquals(1, after.getNumberOfFinishedTasks());
+        assertEquals(1, countFinished(after));
+    }
+
+    @Test
+    public void reads_do_not_block_state_updates() throws Exception {
+        final int nbTasks = 50;
+        final int nbRounds = 40;
+        final SchedulerFrontendState schedulerFrontendState = createFrontendState();
+        final InternalJob job = createJob(nbTasks);
+        schedulerFrontendState.jobSubmitted(job);
+        schedulerFrontendState.jobStateUpdated("john", jobNotification(job, JobStatus.RUNNING));
+
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final CountDownLatch readersStarted = new CountDownLatch(4);
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                readers.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        readersStarted.countDown();
+                        int reads = 0;
+                        long lastVersion = 0;
+                        while (writing.get()) {
+                            long version = schedulerFrontendState.getStateVersion();
+                            assertTrue(version >= lastVersion);
+                            lastVersion = version;
+                            ClientJobState snapshot = schedulerFrontendState.getJobSnapshot(job.getId());
+                            // a snapshot never shows a half applied update
+                            assertEquals(snapshot.getNumberOfFinishedTasks(), countFinished(snapshot));
+                            reads++;
+                        }
+                        return reads;
+                    }
+                }));
+            }
+            readersStarted.await();
+
+            Future<Long> writer = executor.submit(new Callable<Long>() {
+                @Override
+                public Long call() throws Exception {
+                    long start = System.nanoTime();
+                    for (int round = 0; round < nbRounds; round++) {
+                        for (int i = 0; i < nbTasks; i++) {
+                            schedulerFrontendState.taskStateUpdated("john",
+                                                                    taskNotification(job,
+                                                                                     i,
+                                                                                     TaskStatus.FINISHED,
+                                                                                     i + 1));
+                        }
+                        for (int i = 0; i < nbTasks; i++) {
+                            schedulerFrontendState.taskStateUpdated("john",
+                                                                    taskNotification(job,
+                                                                                     i,
+                                                                                     TaskStatus.PENDING,
+                                                                                     nbTasks - i - 1));
+                        }
+                    }
+                    return System.nanoTime() - start;
+                }
+            });
+
+            // reading does not wait for an update holding the frontend lock
+            synchronized (schedulerFrontendState) {
+                executor.submit(new Callable<ClientJobState>() {
+                    @Override
+                    public ClientJobState call() throws Exception {
+                        return schedulerFrontendState.getJobSnapshot(job.getId());
+                    }
+                }).get(10, TimeUnit.SECONDS);
+            }
+
+            long writeDuration;
+            try {
+                writeDuration = writer.get(60, TimeUnit.SECONDS);
+            } finally {
+                writing.set(false);
+            }
+            int reads = 0;
+            for (Future<Integer> reader : readers) {
+                reads += reader.get(10, TimeUnit.SECONDS);
+            }
+            System.out.println("Applied " + (2 * nbRounds * nbTasks) + " task updates in " +
+                               TimeUnit.NANOSECONDS.toMillis(writeDuration) + " ms with " + reads +
+                               " concurrent reads");
+
+            ClientJobState last = schedulerFrontendState.getJobSnapshot(job.getId());
+            assertEquals(0, last.getNumberOfFinishedTasks());
+            assertEquals(0, countFinished(last));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SchedulerFrontendState createFrontendState() {
+        SchedulerJMXHelper mockJMX = mock(SchedulerJMXHelper.class);
+        when(mockJMX.getSchedulerRuntimeMBean()).thenReturn(new RuntimeDataMBeanImpl(null));
+        return new SchedulerFrontendState(new SchedulerStateImpl<ClientJobState>(), mockJMX);
+    }
+
+    private InternalJob createJob(int nbTasks) {
+        InternalJob job = new InternalTaskFlowJob("test-name", JobPriority.NORMAL, OnTaskError.CANCEL_JOB, "");
+        job.setId(new JobIdImpl(1L, "test-name"));
+        job.setOwner("john");
+        for (int i = 0; i < nbTasks; i++) {
+            InternalTask task = new InternalScriptTask(job);
+            task.setName("task" + i);
+            task.setStatus(TaskStatus.PENDING);
+            job.addTask(task);
+        }
+        return job;
+    }
+
+    private NotificationData<JobInfo> jobNotification(InternalJob job, JobStatus status) {
+        JobInfoImpl jobInfo = new JobInfoImpl((JobInfoImpl) job.getJobInfo());
+        jobInfo.setStatus(status);
+        return new NotificationData<JobInfo>(SchedulerEvent.JOB_PENDING_TO_RUNNING, jobInfo);
+    }
+
+    private NotificationData<TaskInfo> taskNotification(InternalJob job, int taskIndex, TaskStatus status,
+            int nbFinishedTasks) throws Exception {
+        JobInfoImpl jobInfo = new JobInfoImpl((JobInfoImpl) job.getJobInfo());
+        jobInfo.setNumberOfFinishedTasks(nbFinishedTasks);
+        TaskInfoImpl taskInfo = new TaskInfoImpl();
+        taskInfo.setJobInfo(jobInfo);
+        taskInfo.setTaskId(job.getTask("task" + taskIndex).getId());
+        taskInfo.setStatus(status);
+        return new NotificationData<TaskInfo>(SchedulerEvent.TASK_RUNNING_TO_FINISHED, taskInfo);
+    }
+
+    private static int countFinished(JobState jobState) {
+        int finished = 0;
+        for (TaskState task : jobState.getTasks()) {
+            if (task.getStatus() == TaskStatus.FINISHED) {
+                finished++;
+            }
+        }
+        return finished;
+    }
 }
@@ -0,0 +1,113 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.internal;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.task.OnTaskError;
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.common.task.TaskVariable;
+import org.ow2.proactive.scheduler.common.task.flow.FlowScript;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.scripting.SimpleScript;
+import org.ow2.tests.ProActiveTestClean;
+
+
+public class InternalTaskReplicateTest extends ProActiveTestClean {
+
+    private InternalTask task;
+
+    @Before
+    public void init() throws Exception {
+        InternalJob job = new InternalTaskFlowJob("test-name",
+                                                  JobPriority.NORMAL,
+                                                  OnTaskError.CANCEL_JOB,
+                                                  "description");
+        task = new InternalScriptTask(job);
+        task.setId(TaskIdImpl.createTaskId(new JobIdImpl(666L, "JobName"), "task", 1L));
+        task.setName("task");
+        task.addGenericInformation("key", "value");
+        Map<String, TaskVariable> variables = new LinkedHashMap<>();
+        variables.put("var", new TaskVariable("var", "value"));
+        task.setVariables(variables);
+        task.setPreScript(new SimpleScript("print(1)", "js"));
+        task.setFlowScript(FlowScript.createLoopFlowScript("loop = false", "task"));
+        task.setMaxNumberOfExecution(3);
+        task.setStatus(TaskStatus.FINISHED);
+    }
+
+    @Test
+    public void testReplicaSharesTemplate() throws Exception {
+        InternalTask replica = (InternalTask) task.replicate();
+
+        assertThat(replica.getPreScript(), sameInstance(task.getPreScript()));
+        assertThat(replica.getFlowScript(), sameInstance(task.getFlowScript()));
+        assertThat(replica.getReplicatedFrom(), sameInstance(task));
+        assertThat(replica.getExecutableContainer(), nullValue());
+        assertThat(replica.getStatus(), is(TaskStatus.SUBMITTED));
+        assertThat(replica.getId(), is(task.getId()));
+        assertThat(replica.getMaxNumberOfExecution(), is(3));
+    }
+
+    @Test
+    public void testReplicaStateIsIndependent() throws Exception {
+        InternalTask replica = (InternalTask) task.replicate();
+
+        replica.addGenericInformation("key", "other");
+        replica.getVariables().get("var").setValue("other");
+        replica.setMaxNumberOfExecution(5);
+
+        assertThat(task.getGenericInformation().get("key"), is("value"));
+        assertThat(task.getVariables().get("var").getValue(), is("value"));
+        assertThat(task.getMaxNumberOfExecution(), is(3));
+    }
+
+    @Test
+    public void testFlowScriptIsCopiedOnRename() throws Exception {
+        FlowScript flowScript = task.getFlowScript();
+        InternalTask replica = (InternalTask) task.replicate();
+
+        replica.setIterationIndex(1);
+
+        assertThat(replica.getFlowScript(), not(sameInstance(flowScript)));
+        assertThat(replica.getFlowScript().getActionTarget(), is("task#1"));
+        assertThat(task.getFlowScript().getActionTarget(), is("task"));
+    }
+
+}
@@ -76,6 +76,7 @@ public class TaskLoggerTest extends ProActiveTestClean {
         } catch (Exception e) {
             Assert.fail(e);
         }
+        appender.flush();
         assertTrue(FileUtils.readFileToString(logFile, Charset.defaultCharset()).contains("HelloWorld"));
 
     }
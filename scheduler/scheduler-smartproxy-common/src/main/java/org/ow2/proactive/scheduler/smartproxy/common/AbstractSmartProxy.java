@@ -82,6 +82,7 @@ import org.ow2.proactive.scheduler.common.task.Task;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskInfo;
 import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.common.task.TaskResultValueChunk;
 import org.ow2.proactive.scheduler.common.task.TaskState;
 import org.ow2.proactive.scheduler.common.task.TaskStatus;
 import org.ow2.proactive.scheduler.common.usage.JobUsage;
@@ -968,6 +969,12 @@ public abstract class AbstractSmartProxy<T extends JobTracker> implements Schedu
         return getScheduler().getTaskResultFromIncarnation(jobId, taskName, inc);
     }
 
+    @Override
+    public TaskResultValueChunk getTaskResultValueChunk(String jobId, String taskName, long resultId, int chunkIndex)
+            throws NotConnectedException, UnknownJobException, UnknownTaskException, PermissionException {
+        return getScheduler().getTaskResultValueChunk(jobId, taskName, resultId, chunkIndex);
+    }
+
     @Override
     public boolean removeJob(String jobId) throws NotConnectedException, UnknownJobException, PermissionException {
         return getScheduler().removeJob(jobId);
@@ -979,6 +986,12 @@ public abstract class AbstractSmartProxy<T extends JobTracker> implements Schedu
         getScheduler().listenJobLogs(jobId, appenderProvider);
     }
 
+    @Override
+    public void stopListeningJobLogs(String jobId, AppenderProvider appenderProvider)
+            throws NotConnectedException, UnknownJobException, PermissionException {
+        getScheduler().stopListeningJobLogs(jobId, appenderProvider);
+    }
+
     @Override
     public boolean killJob(String jobId) throws NotConnectedException, UnknownJobException, PermissionException {
         return getScheduler().killJob(jobId);
@@ -1056,6 +1069,12 @@ public abstract class AbstractSmartProxy<T extends JobTracker> implements Schedu
         return getScheduler().removeJob(jobId);
     }
 
+    @Override
+    public boolean removeJobs(List<JobId> jobIds)
+            throws NotConnectedException, UnknownJobException, PermissionException {
+        return getScheduler().removeJobs(jobIds);
+    }
+
     @Override
     public void listenJobLogs(JobId jobId, AppenderProvider appenderProvider)
             throws NotConnectedException, UnknownJobException, PermissionException {